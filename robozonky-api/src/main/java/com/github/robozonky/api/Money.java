@@ -49,18 +49,92 @@ public final class Money implements Comparable<Money> {
      * Do not use this. Rather, get one with the proper currency using {@link #getZero()} or {@link #getZero(Currency)}.
      */
     public static final Money ZERO = getZero(Defaults.CURRENCY);
-    private final BigDecimal value;
+    /**
+     * Marks instances whose amount is not held in {@link #hundredths}, and only in {@link #value}.
+     */
+    private static final long NOT_COMPACT = Long.MIN_VALUE;
+    private static final long MAX_COMPACT_UNITS = Long.MAX_VALUE / 100;
+    private static final long MAX_DIVIDEND = Long.MAX_VALUE / 100_000_000;
+    /**
+     * CZK amounts which fit are held as a count of hundredths, making the common arithmetic a matter of a few long
+     * operations. All other amounts only use {@link #value}.
+     */
+    private final long hundredths;
     private final Currency currency;
+    private BigDecimal value; // Lazily created for compact instances; race is benign as BigDecimal is immutable.
 
     private Money(final BigDecimal value, final Currency currency) {
+        this.hundredths = toHundredths(value, currency);
         this.value = value;
         this.currency = currency;
     }
 
+    private Money(final long hundredths, final Currency currency) {
+        this.hundredths = hundredths;
+        this.currency = currency;
+    }
+
     private static BigDecimal trim(final BigDecimal number) {
         return number.setScale(2, RoundingMode.HALF_UP);
     }
 
+    private static boolean isCompactible(final Currency currency) {
+        return Objects.equals(currency, Defaults.CURRENCY);
+    }
+
+    private static long toHundredths(final BigDecimal trimmed, final Currency currency) {
+        if (!isCompactible(currency)) {
+            return NOT_COMPACT;
+        } else if (trimmed.signum() == 0) {
+            return 0;
+        } else if (trimmed.scale() != 2) {
+            return NOT_COMPACT;
+        }
+        var unscaled = trimmed.unscaledValue();
+        if (unscaled.bitLength() > 63) {
+            return NOT_COMPACT;
+        }
+        return unscaled.longValue(); // Long.MIN_VALUE happens to be NOT_COMPACT already.
+    }
+
+    private static Money fromHundredths(final long hundredths, final Currency currency) {
+        if (hundredths == 0) {
+            return getZero(currency);
+        }
+        return new Money(hundredths, currency);
+    }
+
+    /**
+     * Divide and round {@link RoundingMode#HALF_UP}, same as {@link #trim(BigDecimal)} would.
+     */
+    private static long divideHalfUp(final long dividend, final long divisor) {
+        var quotient = dividend / divisor;
+        var remainder = Math.abs(dividend % divisor);
+        if (remainder >= divisor - remainder) { // Divisor is always positive here.
+            return quotient + Long.signum(dividend);
+        }
+        return quotient;
+    }
+
+    /**
+     * Divide and round {@link RoundingMode#HALF_EVEN}, same as the {@link BigDecimal} division in
+     * {@link #divideBy(Money)} would.
+     */
+    private static long divideHalfEven(final long dividend, final long divisor) {
+        var quotient = dividend / divisor;
+        var remainder = Math.abs(dividend % divisor);
+        var absoluteDivisor = Math.abs(divisor);
+        var comparison = Long.compare(remainder, absoluteDivisor - remainder);
+        if (comparison > 0 || (comparison == 0 && quotient % 2 != 0)) {
+            return quotient + Long.signum(dividend) * Long.signum(divisor);
+        }
+        return quotient;
+    }
+
+    private boolean isCompact() {
+        return hundredths != NOT_COMPACT;
+    }
+
     public static Money sum(Collection<Money> money) {
         return sum(money.stream());
     }
@@ -97,6 +171,10 @@ public final class Money implements Comparable<Money> {
     }
 
     public static Money from(final long number, final Currency currency) {
+        Objects.requireNonNull(currency);
+        if (isCompactible(currency) && Math.abs(number) <= MAX_COMPACT_UNITS) {
+            return fromHundredths(number * 100, currency);
+        }
         return from(valueOf(number), currency);
     }
 
@@ -113,7 +191,12 @@ public final class Money implements Comparable<Money> {
     }
 
     public BigDecimal getValue() {
-        return value;
+        var result = value;
+        if (result == null) { // Only ever happens with non-zero compact instances.
+            result = BigDecimal.valueOf(hundredths, 2);
+            value = result;
+        }
+        return result;
     }
 
     public Currency getCurrency() {
@@ -133,7 +216,17 @@ public final class Money implements Comparable<Money> {
     }
 
     public Money add(final Money money) {
-        return from(plus(value, money.value), currency);
+        if (isCompact() && money.isCompact()) {
+            var result = hundredths + money.hundredths;
+            if (((hundredths
+                    ^ result)
+                    & (money.hundredths
+                            ^ result)) >= 0 &&
+                    result != NOT_COMPACT) { // No overflow.
+                return fromHundredths(result, currency);
+            }
+        }
+        return from(plus(getValue(), money.getValue()), currency);
     }
 
     public Money subtract(final BigDecimal amount) {
@@ -149,7 +242,17 @@ public final class Money implements Comparable<Money> {
     }
 
     public Money subtract(final Money money) {
-        return from(minus(value, money.value), currency);
+        if (isCompact() && money.isCompact()) {
+            var result = hundredths - money.hundredths;
+            if (((hundredths
+                    ^ money.hundredths)
+                    & (hundredths
+                            ^ result)) >= 0 &&
+                    result != NOT_COMPACT) {
+                return fromHundredths(result, currency);
+            }
+        }
+        return from(minus(getValue(), money.getValue()), currency);
     }
 
     public Money multiplyBy(final BigDecimal amount) {
@@ -161,7 +264,14 @@ public final class Money implements Comparable<Money> {
     }
 
     public Money multiplyBy(final Money money) {
-        return from(times(value, money.value), currency);
+        if (isCompact() && money.isCompact()) {
+            var high = Math.multiplyHigh(hundredths, money.hundredths);
+            var low = hundredths * money.hundredths;
+            if ((high == 0 && low >= 0) || (high == -1 && low < 0)) { // Product in ten-thousandths fits a long.
+                return fromHundredths(divideHalfUp(low, 100), currency);
+            }
+        }
+        return from(times(getValue(), money.getValue()), currency);
     }
 
     public Money divideBy(final BigDecimal amount) {
@@ -173,7 +283,12 @@ public final class Money implements Comparable<Money> {
     }
 
     public Money divideBy(final Money money) {
-        return from(divide(value, money.value), currency);
+        if (isCompact() && money.isCompact() && money.hundredths != 0 && Math.abs(hundredths) <= MAX_DIVIDEND) {
+            // Quotient rounded to 8 decimal places, then to 2, exactly as in the BigDecimal case.
+            var quotient = divideHalfEven(hundredths * 100_000_000, money.hundredths);
+            return fromHundredths(divideHalfUp(quotient, 1_000_000), currency);
+        }
+        return from(divide(getValue(), money.getValue()), currency);
     }
 
     public Money min(final Money money) {
@@ -185,6 +300,9 @@ public final class Money implements Comparable<Money> {
     }
 
     public boolean isZero() {
+        if (isCompact()) {
+            return hundredths == 0;
+        }
         return value.signum() == 0;
     }
 
@@ -194,7 +312,7 @@ public final class Money implements Comparable<Money> {
 
     @Override
     public String toString() {
-        return value.toPlainString() + " " + currency;
+        return getValue().toPlainString() + " " + currency;
     }
 
     @Override
@@ -208,13 +326,17 @@ public final class Money implements Comparable<Money> {
         if (isZero() && money.isZero()) { // currency doesn't matter
             return true;
         }
-        return Objects.equals(value, money.value) &&
+        if (isCompact() && money.isCompact()) {
+            return hundredths == money.hundredths &&
+                    Objects.equals(currency, money.currency);
+        }
+        return Objects.equals(getValue(), money.getValue()) &&
                 Objects.equals(currency, money.currency);
     }
 
     @Override
     public int hashCode() {
-        return Objects.hash(value, currency);
+        return Objects.hash(getValue(), currency);
     }
 
     /**
@@ -228,8 +350,10 @@ public final class Money implements Comparable<Money> {
             return 0;
         } else if (!Objects.equals(currency, o.currency)) {
             throw new IllegalArgumentException("Cannot compare different currencies: " + this + " and " + o);
+        } else if (isCompact() && o.isCompact()) {
+            return Long.compare(hundredths, o.hundredths);
         } else {
-            return value.compareTo(o.value);
+            return getValue().compareTo(o.getValue());
         }
 
     }
@@ -62,6 +62,26 @@ public enum Rating implements BaseEnum {
             entry(500_000, Ratio.fromPercentage(15)),
             entry(1_000_000, Ratio.fromPercentage(20))));
     private static final Function<Ratio, Rating> PER_INTEREST_RATE = Memoizer.memoize(Rating::findInterestRate);
+    /**
+     * Fee eras, in chronological order, represented by a moment from within each of them.
+     */
+    private static final ZonedDateTime[] FEE_ERAS = { MIDNIGHT_2017_09_01.minusDays(1),
+            MIDNIGHT_2019_03_18.minusDays(1), MIDNIGHT_2019_03_18 };
+    /**
+     * Amounts at which fee discount bands start, in ascending order. Band 0 has no discount.
+     */
+    private static final long[] FEE_DISCOUNT_BANDS = Stream.concat(Stream.of(0), FEE_DISCOUNTS.keySet()
+        .stream())
+        .mapToLong(i -> i)
+        .toArray();
+    /*
+     * Fees and revenue rates only depend on the rating, the fee era and the fee discount band. Calculating them
+     * involves quite a bit of BigDecimal arithmetic, yet they are needed for every loan or participation in every
+     * strategy filter; therefore all the possible values are calculated here, once.
+     */
+    private static final Ratio[] FEES = tabulate(Rating::calculateFee);
+    private static final Ratio[] MINIMAL_REVENUE_RATES = tabulate(Rating::calculateMinimalRevenueRate);
+    private static final Ratio[] MAXIMAL_REVENUE_RATES = tabulate(Rating::calculateMaximalRevenueRate);
 
     private final String code;
     private final Ratio interestRate;
@@ -113,6 +133,51 @@ public enum Rating implements BaseEnum {
         return PER_INTEREST_RATE.apply(interestRate);
     }
 
+    private static Ratio[] tabulate(final Calculation calculation) {
+        var ratings = Rating.values();
+        var result = new Ratio[ratings.length * FEE_ERAS.length * FEE_DISCOUNT_BANDS.length];
+        for (var rating : ratings) {
+            for (var era = 0; era < FEE_ERAS.length; era++) {
+                for (var band = 0; band < FEE_DISCOUNT_BANDS.length; band++) {
+                    result[rating.getTableIndex(era, band)] = calculation.apply(rating, FEE_ERAS[era],
+                            Money.from(FEE_DISCOUNT_BANDS[band]));
+                }
+            }
+        }
+        return result;
+    }
+
+    private static int getFeeEra(final ZonedDateTime dateForFees) {
+        if (dateForFees.isBefore(MIDNIGHT_2017_09_01)) {
+            return 0;
+        } else if (isBeforeLatestFeeChange(dateForFees)) {
+            return 1;
+        } else {
+            return 2;
+        }
+    }
+
+    /**
+     * Same bands as {@link #feeDiscount(Money)} would produce.
+     */
+    private static int getFeeDiscountBand(final Money totalInvested) {
+        final long value = totalInvested.getValue()
+            .longValue();
+        var band = FEE_DISCOUNT_BANDS.length - 1;
+        while (band > 0 && value < FEE_DISCOUNT_BANDS[band]) {
+            band--;
+        }
+        return band;
+    }
+
+    private int getTableIndex(final int feeEra, final int feeDiscountBand) {
+        return (ordinal() * FEE_ERAS.length + feeEra) * FEE_DISCOUNT_BANDS.length + feeDiscountBand;
+    }
+
+    private int getTableIndex(final ZonedDateTime dateForFees, final Money totalInvested) {
+        return getTableIndex(getFeeEra(dateForFees), getFeeDiscountBand(totalInvested));
+    }
+
     private static boolean isBeforeLatestFeeChange(final ZonedDateTime dateForFees) {
         return dateForFees.isBefore(MIDNIGHT_2019_03_18);
     }
@@ -140,6 +205,10 @@ public enum Rating implements BaseEnum {
     }
 
     public Ratio getFee(final ZonedDateTime dateForFees, final Money totalInvested) {
+        return FEES[getTableIndex(dateForFees, totalInvested)];
+    }
+
+    Ratio calculateFee(final ZonedDateTime dateForFees, final Money totalInvested) {
         if (isInvalid(dateForFees)) {
             return Ratio.ZERO;
         } else if (dateForFees.isBefore(MIDNIGHT_2017_09_01)) {
@@ -156,10 +225,14 @@ public enum Rating implements BaseEnum {
     }
 
     public Ratio getMinimalRevenueRate(final ZonedDateTime dateForFees, final Money totalInvested) {
+        return MINIMAL_REVENUE_RATES[getTableIndex(dateForFees, totalInvested)];
+    }
+
+    Ratio calculateMinimalRevenueRate(final ZonedDateTime dateForFees, final Money totalInvested) {
         if (isInvalid(dateForFees)) {
             return Ratio.ZERO;
         }
-        final BigDecimal base = getMaximalRevenueRate(dateForFees, totalInvested).bigDecimalValue();
+        final BigDecimal base = calculateMaximalRevenueRate(dateForFees, totalInvested).bigDecimalValue();
         final BigDecimal risk = riskRate.bigDecimalValue();
         final BigDecimal result = minus(base, risk);
         return Ratio.fromRaw(result);
@@ -178,11 +251,15 @@ public enum Rating implements BaseEnum {
     }
 
     public Ratio getMaximalRevenueRate(final ZonedDateTime dateForFees, final Money totalInvested) {
+        return MAXIMAL_REVENUE_RATES[getTableIndex(dateForFees, totalInvested)];
+    }
+
+    Ratio calculateMaximalRevenueRate(final ZonedDateTime dateForFees, final Money totalInvested) {
         if (isInvalid(dateForFees)) {
             return Ratio.ZERO;
         }
         final BigDecimal base = interestRate.bigDecimalValue();
-        final BigDecimal fees = getFee(dateForFees, totalInvested).bigDecimalValue();
+        final BigDecimal fees = calculateFee(dateForFees, totalInvested).bigDecimalValue();
         final BigDecimal result = minus(base, fees);
         return Ratio.fromRaw(result);
     }
@@ -204,4 +281,11 @@ public enum Rating implements BaseEnum {
         return code;
     }
 
+    @FunctionalInterface
+    private interface Calculation {
+
+        Ratio apply(Rating rating, ZonedDateTime dateForFees, Money totalInvested);
+
+    }
+
 }
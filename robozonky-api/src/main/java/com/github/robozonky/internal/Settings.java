@@ -139,6 +139,29 @@ public enum Settings {
         return Duration.ofSeconds(get(Settings.Key.DEFAULTS_CONNECTION_TIMEOUT, 10));
     }
 
+    public int getConnectionPoolSize() {
+        return get(Settings.Key.DEFAULTS_CONNECTION_POOL_SIZE, 20);
+    }
+
+    public int getConnectionPoolSizePerHost() {
+        return get(Settings.Key.DEFAULTS_CONNECTION_POOL_SIZE_PER_HOST, 10);
+    }
+
+    public Duration getConnectionKeepAlive() {
+        return Duration.ofSeconds(get(Settings.Key.DEFAULTS_CONNECTION_KEEP_ALIVE, 60));
+    }
+
+    public Duration getConnectionIdleEviction() {
+        return Duration.ofSeconds(get(Settings.Key.DEFAULTS_CONNECTION_IDLE_EVICTION, 30));
+    }
+
+    /**
+     * @return Where to send Zonky API requests. Only ever changed to point RoboZonky to a simulated Zonky.
+     */
+    public String getZonkyApiUrl() {
+        return get(Key.ZONKY_API_URL, ApiConstants.ZONKY_API_HOSTNAME);
+    }
+
     public Optional<String> getHttpsProxyHostname() {
         return Optional.ofNullable(get(Key.HTTPS_PROXY_HOSTNAME, null));
     }
@@ -169,17 +192,91 @@ public enum Settings {
         return get(Settings.Key.DEFAULTS_API_PAGE_SIZE, 25);
     }
 
+    public int getDefaultApiPageLookAhead() {
+        return get(Settings.Key.DEFAULTS_API_PAGE_LOOKAHEAD, 2);
+    }
+
+    public int getApiResponseCacheSize() {
+        return get(Settings.Key.DEFAULTS_API_RESPONSE_CACHE_SIZE, 1000);
+    }
+
+    public int getApiQuota() {
+        return get(Settings.Key.DEFAULTS_API_QUOTA, 3000);
+    }
+
+    public int getApiQuotaRefillPerSecond() {
+        return get(Settings.Key.DEFAULTS_API_QUOTA_REFILL, 1);
+    }
+
+    public int getApiQuotaBackgroundReservePercent() {
+        return get(Settings.Key.DEFAULTS_API_QUOTA_BACKGROUND_RESERVE, 50);
+    }
+
+    public Duration getApiQuotaMaxWait() {
+        return Duration.ofSeconds(get(Settings.Key.DEFAULTS_API_QUOTA_MAX_WAIT, 10));
+    }
+
+    public Duration getApiPortfolioSnapshotTtl() {
+        return Duration.ofSeconds(get(Settings.Key.DEFAULTS_API_PORTFOLIO_SNAPSHOT_TTL, 300));
+    }
+
+    public long getLoanCacheMaximumWeight() {
+        return get(Settings.Key.DEFAULTS_LOAN_CACHE_MAX_WEIGHT, 10_000);
+    }
+
+    public Duration getLoanCacheExpireAfterWrite() {
+        return Duration.ofSeconds(get(Settings.Key.DEFAULTS_LOAN_CACHE_EXPIRE_AFTER_WRITE, 86_400));
+    }
+
+    public Duration getParticipationDetailCacheTtl() {
+        return Duration.ofSeconds(get(Settings.Key.DEFAULTS_PARTICIPATION_DETAIL_CACHE_TTL, 300));
+    }
+
+    public boolean isStateJournalEnabled() {
+        return get(Settings.Key.STATE_JOURNAL_ENABLED, Boolean::parseBoolean, true);
+    }
+
+    public int getStateJournalCompactionThreshold() {
+        return get(Settings.Key.STATE_JOURNAL_COMPACTION_THRESHOLD, 262_144);
+    }
+
+    /**
+     * 
+     * @return Name of the {@link com.github.robozonky.internal.state.StateStorageService} to keep the state with.
+     */
+    public String getStateStorage() {
+        return get(Settings.Key.STATE_STORAGE, "json");
+    }
+
     public enum Key {
 
         DEBUG_ENABLE_HTTP_RESPONSE_LOGGING("robozonky.debug.enable_http_response_logging"),
         DEFAULTS_RESOURCE_REFRESH("robozonky.default.resource_refresh_minutes"),
         DEFAULTS_SOCKET_TIMEOUT("robozonky.default.socket_timeout_seconds"),
         DEFAULTS_CONNECTION_TIMEOUT("robozonky.default.connection_timeout_seconds"),
+        DEFAULTS_CONNECTION_POOL_SIZE("robozonky.default.connection_pool_size"),
+        DEFAULTS_CONNECTION_POOL_SIZE_PER_HOST("robozonky.default.connection_pool_size_per_host"),
+        DEFAULTS_CONNECTION_KEEP_ALIVE("robozonky.default.connection_keep_alive_seconds"),
+        DEFAULTS_CONNECTION_IDLE_EVICTION("robozonky.default.connection_idle_eviction_seconds"),
         DEFAULTS_API_PAGE_SIZE("robozonky.default.api_page_size"),
+        DEFAULTS_API_PAGE_LOOKAHEAD("robozonky.default.api_page_lookahead"),
+        DEFAULTS_API_RESPONSE_CACHE_SIZE("robozonky.default.api_response_cache_size"),
+        DEFAULTS_API_QUOTA("robozonky.default.api_quota"),
+        DEFAULTS_API_QUOTA_REFILL("robozonky.default.api_quota_refill_per_second"),
+        DEFAULTS_API_QUOTA_BACKGROUND_RESERVE("robozonky.default.api_quota_background_reserve_percent"),
+        DEFAULTS_API_QUOTA_MAX_WAIT("robozonky.default.api_quota_max_wait_seconds"),
+        DEFAULTS_API_PORTFOLIO_SNAPSHOT_TTL("robozonky.default.api_portfolio_snapshot_ttl_seconds"),
+        DEFAULTS_LOAN_CACHE_MAX_WEIGHT("robozonky.default.loan_cache_max_weight"),
+        DEFAULTS_LOAN_CACHE_EXPIRE_AFTER_WRITE("robozonky.default.loan_cache_expire_after_write_seconds"),
+        DEFAULTS_PARTICIPATION_DETAIL_CACHE_TTL("robozonky.default.participation_detail_cache_ttl_seconds"),
         DRY_RUN_BALANCE_MINIMUM("robozonky.dry_run_balance_minimum"),
         MAX_ITEMS_READ_FROM_PRIMARY_MARKETPLACE("robozonky.max_items_read_from_primary_marketplace"),
         MAX_ITEMS_READ_FROM_SECONDARY_MARKETPLACE("robozonky.max_items_read_from_secondary_marketplace"),
         STATE_FILE_LOCATION("robozonky.state_file"),
+        STATE_JOURNAL_ENABLED("robozonky.state_journal"),
+        STATE_JOURNAL_COMPACTION_THRESHOLD("robozonky.state_journal_compaction_threshold_bytes"),
+        STATE_STORAGE("robozonky.state_storage"),
+        ZONKY_API_URL("robozonky.zonky_api_url"),
         HTTPS_PROXY_HOSTNAME("https.proxyHost"),
         HTTPS_PROXY_PORT("https.proxyPort");
 
@@ -0,0 +1,64 @@
+/*
+ * Copyright 2020 The RoboZonky Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.robozonky.internal.extensions;
+
+import java.util.Objects;
+import java.util.Optional;
+import java.util.ServiceLoader;
+import java.util.function.Supplier;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import com.github.robozonky.api.SessionInfo;
+import com.github.robozonky.internal.Settings;
+import com.github.robozonky.internal.state.FileBackedStateStorageService;
+import com.github.robozonky.internal.state.StateStorage;
+import com.github.robozonky.internal.state.StateStorageService;
+import com.github.robozonky.internal.util.StreamUtil;
+
+public final class StateStorageServiceLoader {
+
+    private static final Logger LOGGER = LogManager.getLogger(StateStorageServiceLoader.class);
+    private static final Supplier<ServiceLoader<StateStorageService>> LOADER = ExtensionsManager.INSTANCE
+        .getServiceLoader(StateStorageService.class);
+
+    private StateStorageServiceLoader() {
+        // no instances
+    }
+
+    static Optional<StateStorageService> load(final Iterable<StateStorageService> loader, final String name) {
+        LOGGER.debug("Looking up state storage '{}'.", name);
+        return StreamUtil.toStream(loader)
+            .peek(s -> LOGGER.trace("Evaluating state storage service '{}'.", s.getClass()))
+            .filter(s -> Objects.equals(s.getName(), name))
+            .findFirst();
+    }
+
+    public static StateStorage load(final SessionInfo session) {
+        var name = Settings.INSTANCE.getStateStorage();
+        StateStorageService service;
+        synchronized (LOADER) { // Service loaders are not thread-safe.
+            service = load(LOADER.get(), name).orElseGet(() -> {
+                var fallback = new FileBackedStateStorageService();
+                LOGGER.warn("State storage '{}' not found, using '{}'.", name, fallback.getName());
+                return fallback;
+            });
+        }
+        return service.create(session);
+    }
+}
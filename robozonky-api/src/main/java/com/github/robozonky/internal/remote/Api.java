@@ -17,7 +17,6 @@
 package com.github.robozonky.internal.remote;
 
 import java.util.Objects;
-import java.util.UUID;
 import java.util.function.Consumer;
 import java.util.function.Function;
 
@@ -28,20 +27,27 @@ class Api<T> {
 
     private final T proxy;
     private final Timer timer;
+    private final RateGovernor governor;
 
     public Api(final T proxy) {
         this.proxy = proxy;
-        this.timer = Timer.builder(UUID.randomUUID()
-            .toString()) // Testing purposes
+        this.timer = Timer.builder("robozonky.api.requests") // Testing purposes, therefore not globally registered.
             .register(new SimpleMeterRegistry());
+        this.governor = RateGovernor.unlimited();
     }
 
     public Api(final T proxy, final Timer timer) {
+        this(proxy, timer, RateGovernor.unlimited());
+    }
+
+    public Api(final T proxy, final Timer timer, final RateGovernor governor) {
         this.proxy = proxy;
         this.timer = Objects.requireNonNull(timer);
+        this.governor = Objects.requireNonNull(governor);
     }
 
     <S> S call(final Function<T, S> function) {
+        governor.acquire();
         return timer.record(() -> function.apply(proxy));
     }
 
@@ -29,8 +29,8 @@ import org.apache.logging.log4j.Logger;
 import org.jboss.resteasy.client.jaxrs.ResteasyClient;
 
 import com.github.robozonky.api.remote.entities.ZonkyApiToken;
-import com.github.robozonky.internal.ApiConstants;
 import com.github.robozonky.internal.Defaults;
+import com.github.robozonky.internal.Settings;
 import com.github.robozonky.internal.remote.endpoints.ControlApi;
 import com.github.robozonky.internal.remote.endpoints.EntityCollectionApi;
 import com.github.robozonky.internal.remote.endpoints.LoanApi;
@@ -52,6 +52,19 @@ public class ApiProvider implements AutoCloseable {
 
     private final Timer meteredRequestTimer;
     private final Timer unmeteredRequestTimer;
+    /**
+     * Zonky only limits the rate of metered requests, and those are therefore the only ones to be governed. Unmetered
+     * requests, such as investing or checking for new loans, are never held back.
+     */
+    private final RateGovernor meteredRequestGovernor;
+    /**
+     * Zonky will only accept one purchase per second; anything over that would fail with HTTP 429.
+     */
+    private final RateGovernor purchaseGovernor;
+    /**
+     * Shared by all the APIs, so that the configured maximum number of responses applies to all of them together.
+     */
+    private final ResponseCache responseCache = new ResponseCache(Settings.INSTANCE.getApiResponseCacheSize());
     /**
      * Instances of the Zonky API are kept for as long as the token supplier is kept by the GC. This guarantees that,
      * for the lifetime of the token supplier, the expensive API-retrieving operations wouldn't be executed twice.
@@ -62,6 +75,10 @@ public class ApiProvider implements AutoCloseable {
      * be reused as much as possible.
      */
     private final Supplier<ResteasyClient> client;
+    /**
+     * The OAuth proxy only carries constant headers and can therefore be shared by all callers.
+     */
+    private final Supplier<OAuth> oauth;
 
     public ApiProvider() {
         this(UUID.randomUUID()
@@ -69,8 +86,9 @@ public class ApiProvider implements AutoCloseable {
     }
 
     public ApiProvider(String id) {
-        this.client = Memoizer.memoize(ProxyFactory::newResteasyClient);
         var clientName = Objects.requireNonNullElse(id, "default");
+        this.client = Memoizer.memoize(() -> ProxyFactory.newResteasyClient(clientName));
+        this.oauth = Memoizer.memoize(this::newOAuth);
         meteredRequestTimer = Timer.builder("robozonky.api.requests")
             .tag("metered", "true")
             .tag("client", clientName)
@@ -81,6 +99,12 @@ public class ApiProvider implements AutoCloseable {
             .tag("client", clientName)
             .description("Non-rate-limited requests to Zonky API.")
             .register(Defaults.METER_REGISTRY);
+        var settings = Settings.INSTANCE;
+        var maxWait = settings.getApiQuotaMaxWait();
+        meteredRequestGovernor = new RateGovernor(clientName, "metered", settings.getApiQuota(),
+                settings.getApiQuotaRefillPerSecond(), settings.getApiQuotaBackgroundReservePercent() / 100.0,
+                maxWait);
+        purchaseGovernor = new RateGovernor(clientName, "purchase", 1, 1, 0, maxWait);
     }
 
     static <T> Api<T> actuallyObtainNormal(final T proxy, final Timer timer) {
@@ -98,19 +122,20 @@ public class ApiProvider implements AutoCloseable {
      */
     <S, T extends EntityCollectionApi<S>> PaginatedApi<S, T> obtainPaginated(final Class<T> api,
             final Supplier<ZonkyApiToken> token) {
-        return new PaginatedApi<>(api, ApiConstants.ZONKY_API_HOSTNAME, token, client.get(), meteredRequestTimer,
-                unmeteredRequestTimer);
+        return new PaginatedApi<>(api, Settings.INSTANCE.getZonkyApiUrl(), token, client.get(), meteredRequestTimer,
+                unmeteredRequestTimer, meteredRequestGovernor, responseCache);
     }
 
     <T> Api<T> obtainNormal(final Class<T> api, final Supplier<ZonkyApiToken> token, Timer timer) {
-        var proxy = ProxyFactory.newProxy(client.get(), new AuthenticatedFilter(token), api,
-                ApiConstants.ZONKY_API_HOSTNAME);
-        return actuallyObtainNormal(proxy, timer);
+        var proxy = ProxyFactory.newProxy(client.get(), new AuthenticatedFilter(token, responseCache), api,
+                Settings.INSTANCE.getZonkyApiUrl());
+        var governor = timer == meteredRequestTimer ? meteredRequestGovernor : RateGovernor.unlimited();
+        return new Api<>(proxy, timer, governor);
     }
 
-    private OAuth oauth() {
+    private OAuth newOAuth() {
         var proxy = ProxyFactory.newProxy(client.get(), new AuthenticationFilter(), ZonkyOAuthApi.class,
-                ApiConstants.ZONKY_API_HOSTNAME);
+                Settings.INSTANCE.getZonkyApiUrl());
         return new OAuth(actuallyObtainNormal(proxy, unmeteredRequestTimer));
     }
 
@@ -122,7 +147,7 @@ public class ApiProvider implements AutoCloseable {
      * @return Return value of the operation.
      */
     public <T> T oauth(final Function<OAuth, T> operation) {
-        return operation.apply(oauth());
+        return operation.apply(oauth.get());
     }
 
     private synchronized Zonky authenticated(final Supplier<ZonkyApiToken> token) {
@@ -190,6 +215,10 @@ public class ApiProvider implements AutoCloseable {
         return obtainNormal(ReservationApi.class, token, meteredRequestTimer);
     }
 
+    RateGovernor getPurchaseGovernor() {
+        return purchaseGovernor;
+    }
+
     public Timer getMeteredRequestTimer() {
         return meteredRequestTimer;
     }
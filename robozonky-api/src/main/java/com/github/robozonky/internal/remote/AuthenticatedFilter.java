@@ -27,7 +27,8 @@ class AuthenticatedFilter extends RoboZonkyFilter {
     private static final char[] EMPTY_TOKEN = new char[0];
     private final Supplier<ZonkyApiToken> token;
 
-    public AuthenticatedFilter(final Supplier<ZonkyApiToken> token) {
+    public AuthenticatedFilter(final Supplier<ZonkyApiToken> token, final ResponseCache responseCache) {
+        super(responseCache);
         this.token = token; // null token = no token, testing purposes
     }
 
@@ -36,7 +37,8 @@ class AuthenticatedFilter extends RoboZonkyFilter {
         final char[] t = token == null ? AuthenticatedFilter.EMPTY_TOKEN
                 : token.get()
                     .getAccessToken();
-        this.setRequestHeader("Authorization", "Bearer " + String.valueOf(t));
         super.filter(clientRequestContext);
+        clientRequestContext.getHeaders()
+            .putSingle("Authorization", "Bearer " + String.valueOf(t));
     }
 }
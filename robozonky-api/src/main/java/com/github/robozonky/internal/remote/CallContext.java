@@ -0,0 +1,104 @@
+/*
+ * Copyright 2020 The RoboZonky Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.robozonky.internal.remote;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeMap;
+import java.util.function.Supplier;
+
+/**
+ * Carries the state of a single request, such as paging headers and query parameters, to the {@link RoboZonkyFilter}
+ * and brings the response headers back. Since the per-request state no longer lives inside the filter, a single filter
+ * and therefore a single client proxy can be reused across requests and threads.
+ * <p>
+ * Contexts are for one-time use only and must not be shared among threads. The context is only visible to the filter
+ * for the duration of {@link #call(Supplier)}, on the thread which executes the request.
+ */
+class CallContext {
+
+    private static final ThreadLocal<CallContext> CURRENT = new ThreadLocal<>();
+
+    private final Map<String, Object[]> queryParams = new TreeMap<>();
+    private final Map<String, String> requestHeaders = new TreeMap<>();
+    private Map<String, String> responseHeaders = Collections.emptyMap();
+    private String encodedQuery = "";
+
+    /**
+     * @return The context of the request currently being executed on this thread, if any.
+     */
+    static Optional<CallContext> current() {
+        return Optional.ofNullable(CURRENT.get());
+    }
+
+    /**
+     * Make this context visible to {@link RoboZonkyFilter} while the operation is running.
+     * 
+     * @param operation Operation which is expected to execute the request.
+     * @param <T>       Return type of the operation.
+     * @return Whatever the operation returned.
+     */
+    public <T> T call(final Supplier<T> operation) {
+        var previous = CURRENT.get();
+        CURRENT.set(this);
+        try {
+            return operation.get();
+        } finally {
+            if (previous == null) {
+                CURRENT.remove();
+            } else {
+                CURRENT.set(previous);
+            }
+        }
+    }
+
+    public void setQueryParam(final String key, final Object... values) {
+        queryParams.put(key, values);
+    }
+
+    /**
+     * @param encodedQuery Query string, already URL-encoded, to be appended to the request URI before any query params.
+     */
+    void setEncodedQuery(final String encodedQuery) {
+        this.encodedQuery = encodedQuery;
+    }
+
+    public void setRequestHeader(final String key, final String value) {
+        requestHeaders.put(key, value);
+    }
+
+    Map<String, Object[]> getQueryParams() {
+        return Collections.unmodifiableMap(queryParams);
+    }
+
+    String getEncodedQuery() {
+        return encodedQuery;
+    }
+
+    Map<String, String> getRequestHeaders() {
+        return Collections.unmodifiableMap(requestHeaders);
+    }
+
+    void setResponseHeaders(final Map<String, String> responseHeaders) {
+        this.responseHeaders = responseHeaders;
+    }
+
+    public Optional<String> getLastResponseHeader(final String key) {
+        return Optional.ofNullable(responseHeaders.get(key));
+    }
+}
@@ -0,0 +1,189 @@
+/*
+ * Copyright 2020 The RoboZonky Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.robozonky.internal.remote;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+import javax.ws.rs.client.ClientRequestContext;
+import javax.ws.rs.client.ClientResponseContext;
+import javax.ws.rs.core.Response;
+
+import org.jboss.resteasy.client.jaxrs.internal.ClientRequestContextImpl;
+
+import com.github.robozonky.internal.Defaults;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Timer;
+
+/**
+ * Metrics of individual Zonky API endpoints, such as {@code LoanApi.items}. The endpoint is the interface and the
+ * method of the client proxy that made the request, which keeps the number of distinct tags small and fixed; requests
+ * that did not come through a proxy are all reported as {@link #UNKNOWN_ENDPOINT}.
+ */
+final class EndpointMetrics {
+
+    static final String UNKNOWN_ENDPOINT = "unknown";
+    private static final Map<String, EndpointMetrics> ENDPOINTS = new ConcurrentHashMap<>(0);
+
+    private final String endpoint;
+    private final Timer latency;
+    private final DistributionSummary responseSize;
+    private final Counter throttled;
+    private final Map<Integer, Counter> responses = new ConcurrentHashMap<>(0);
+
+    private EndpointMetrics(final String endpoint) {
+        this.endpoint = endpoint;
+        this.latency = Timer.builder("robozonky.api.endpoint.latency")
+            .tag("endpoint", endpoint)
+            .description("Time until Zonky API starts responding.")
+            .publishPercentiles(0.5, 0.95, 0.99)
+            .publishPercentileHistogram()
+            .register(Defaults.METER_REGISTRY);
+        this.responseSize = DistributionSummary.builder("robozonky.api.endpoint.response.size")
+            .tag("endpoint", endpoint)
+            .baseUnit("bytes")
+            .description("Size of response bodies from Zonky API.")
+            .publishPercentiles(0.5, 0.95, 0.99)
+            .register(Defaults.METER_REGISTRY);
+        this.throttled = Counter.builder("robozonky.api.endpoint.throttled")
+            .tag("endpoint", endpoint)
+            .description("Requests rejected by Zonky API with HTTP 429, to be retried later.")
+            .register(Defaults.METER_REGISTRY);
+    }
+
+    public static EndpointMetrics of(final ClientRequestContext requestContext) {
+        return ENDPOINTS.computeIfAbsent(getEndpoint(requestContext), EndpointMetrics::new);
+    }
+
+    static String getEndpoint(final ClientRequestContext requestContext) {
+        if (!(requestContext instanceof ClientRequestContextImpl)) { // Mocked during tests.
+            return UNKNOWN_ENDPOINT;
+        }
+        var invoker = ((ClientRequestContextImpl) requestContext).getInvocation()
+            .getClientInvoker();
+        if (invoker == null) { // Request not made through a proxy.
+            return UNKNOWN_ENDPOINT;
+        }
+        return invoker.getDeclaring()
+            .getSimpleName() + "."
+                + invoker.getMethod()
+                    .getName();
+    }
+
+    public String getEndpoint() {
+        return endpoint;
+    }
+
+    private Counter getResponseCounter(final int status) {
+        return responses.computeIfAbsent(status, s -> Counter.builder("robozonky.api.endpoint.responses")
+            .tag("endpoint", endpoint)
+            .tag("status", String.valueOf(s))
+            .description("Responses from Zonky API, by HTTP status.")
+            .register(Defaults.METER_REGISTRY));
+    }
+
+    /**
+     * Record the response. If the size of the body is not known up front, the body is replaced by one which records
+     * the size once it has been read or closed.
+     *
+     * @param responseContext The response.
+     * @param latency         Time from sending the request to receiving the response headers. Null if unknown.
+     */
+    public void record(final ClientResponseContext responseContext, final Duration latency) {
+        var status = responseContext.getStatus();
+        getResponseCounter(status).increment();
+        if (status == Response.Status.TOO_MANY_REQUESTS.getStatusCode()) {
+            throttled.increment();
+        }
+        if (latency != null) {
+            this.latency.record(latency.toNanos(), TimeUnit.NANOSECONDS);
+        }
+        if (!responseContext.hasEntity()) {
+            return;
+        }
+        var length = responseContext.getLength();
+        if (length >= 0) {
+            responseSize.record(length);
+        } else {
+            responseContext.setEntityStream(new CountingInputStream(responseContext.getEntityStream(), responseSize));
+        }
+    }
+
+    static final class CountingInputStream extends FilterInputStream {
+
+        private final DistributionSummary summary;
+        private long count = 0;
+        private boolean recorded = false;
+
+        CountingInputStream(final InputStream in, final DistributionSummary summary) {
+            super(in);
+            this.summary = summary;
+        }
+
+        private void recordOnce() {
+            if (!recorded) {
+                recorded = true;
+                summary.record(count);
+            }
+        }
+
+        @Override
+        public int read() throws IOException {
+            var result = super.read();
+            if (result < 0) {
+                recordOnce();
+            } else {
+                count++;
+            }
+            return result;
+        }
+
+        @Override
+        public int read(final byte[] b, final int off, final int len) throws IOException {
+            var result = super.read(b, off, len);
+            if (result < 0) {
+                recordOnce();
+            } else {
+                count += result;
+            }
+            return result;
+        }
+
+        @Override
+        public long skip(final long n) throws IOException {
+            var result = super.skip(n);
+            count += result;
+            return result;
+        }
+
+        @Override
+        public void close() throws IOException {
+            try {
+                super.close();
+            } finally {
+                recordOnce();
+            }
+        }
+    }
+}
@@ -51,4 +51,14 @@ class InterceptingInputStream extends InputStream {
     public int read() throws IOException {
         return source.read();
     }
+
+    @Override
+    public int read(final byte[] b, final int off, final int len) throws IOException {
+        return source.read(b, off, len);
+    }
+
+    @Override
+    public void close() throws IOException {
+        source.close();
+    }
 }
@@ -16,15 +16,19 @@
 
 package com.github.robozonky.internal.remote;
 
+import java.io.InputStream;
 import java.util.List;
 import java.util.function.Function;
+import java.util.function.LongConsumer;
 import java.util.function.Supplier;
+import java.util.stream.Stream;
 
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import org.jboss.resteasy.client.jaxrs.ResteasyClient;
 
 import com.github.robozonky.api.remote.entities.ZonkyApiToken;
+import com.github.robozonky.internal.util.functional.Memoizer;
 
 import io.micrometer.core.instrument.Timer;
 
@@ -33,21 +37,30 @@ class PaginatedApi<S, T> {
     private static final Logger LOGGER = LogManager.getLogger(PaginatedApi.class);
 
     private String sortString;
-    private final Class<T> api;
-    private final String url;
-    private final ResteasyClient client;
-    private final Supplier<ZonkyApiToken> tokenSupplier;
+    private boolean isListingRequestCounted = true;
+    /**
+     * The proxy carries no per-request state, which travels in {@link CallContext} instead. Therefore it is only built
+     * once, lazily, and is then shared by all requests from all threads.
+     */
+    private final Supplier<T> proxy;
     private final Timer meteredRequestTimer;
     private final Timer unmeteredRequestTimer;
+    private final RateGovernor meteredRequestGovernor;
 
     public PaginatedApi(final Class<T> api, final String url, final Supplier<ZonkyApiToken> token,
             final ResteasyClient client, final Timer meteredRequestTimer, final Timer unmeteredRequestTimer) {
-        this.api = api;
-        this.url = url;
-        this.client = client;
-        this.tokenSupplier = token;
+        this(api, url, token, client, meteredRequestTimer, unmeteredRequestTimer, RateGovernor.unlimited(),
+                new ResponseCache(0));
+    }
+
+    public PaginatedApi(final Class<T> api, final String url, final Supplier<ZonkyApiToken> token,
+            final ResteasyClient client, final Timer meteredRequestTimer, final Timer unmeteredRequestTimer,
+            final RateGovernor meteredRequestGovernor, final ResponseCache responseCache) {
+        this.proxy = Memoizer.memoize(() -> ProxyFactory.newProxy(client, new AuthenticatedFilter(token,
+                responseCache), api, url));
         this.meteredRequestTimer = meteredRequestTimer;
         this.unmeteredRequestTimer = unmeteredRequestTimer;
+        this.meteredRequestGovernor = meteredRequestGovernor;
     }
 
     public void setSortString(final String sortString) {
@@ -55,14 +68,11 @@ class PaginatedApi<S, T> {
     }
 
     /**
-     * Filters are for one-time use only. They need to be thrown away after being used, as they could otherwise be used
-     * to store and transfer stale state, such as request headers etc. For the same reason, they must not be shared
-     * among threads.
-     * 
-     * @return
+     * @param isListingRequestCounted False if the paged listing has a quota of its own and therefore must not be held
+     *                                back by the governor of the shared quota.
      */
-    private RoboZonkyFilter newFilter() {
-        return new AuthenticatedFilter(tokenSupplier);
+    public void setListingRequestCounted(final boolean isListingRequestCounted) {
+        this.isListingRequestCounted = isListingRequestCounted;
     }
 
     public <Q> Q execute(final Function<T, Q> function) {
@@ -70,43 +80,74 @@ class PaginatedApi<S, T> {
     }
 
     public <Q> Q execute(final Function<T, Q> function, final boolean trackRequests) {
-        return this.execute(function, new Select(), newFilter(), trackRequests);
+        return this.execute(function, new Select(), new CallContext(), trackRequests);
     }
 
-    <Q> Q execute(final Function<T, Q> function, final Select select, final RoboZonkyFilter filter) {
-        return execute(function, select, filter, true);
+    <Q> Q execute(final Function<T, Q> function, final Select select, final CallContext context) {
+        return execute(function, select, context, true);
     }
 
-    <Q> Q execute(final Function<T, Q> function, final Select select, final RoboZonkyFilter filter,
+    <Q> Q execute(final Function<T, Q> function, final Select select, final CallContext context,
             final boolean trackRequests) {
-        select.accept(filter);
-        return execute(function, filter, trackRequests);
+        select.accept(context);
+        return execute(function, context, trackRequests);
     }
 
-    <Q> Q execute(final Function<T, Q> function, final RoboZonkyFilter filter, final boolean trackRequests) {
+    <Q> Q execute(final Function<T, Q> function, final CallContext context, final boolean trackRequests) {
+        if (trackRequests) {
+            meteredRequestGovernor.acquire();
+        }
         var timer = trackRequests ? meteredRequestTimer : unmeteredRequestTimer;
-        var proxy = ProxyFactory.newProxy(client, filter, api, url);
-        return timer.record(() -> function.apply(proxy));
+        return timer.record(() -> context.call(() -> function.apply(proxy.get())));
     }
 
     public PaginatedResult<S> execute(final Function<T, List<S>> function, final Select select, final int pageNo,
             final int pageSize) {
-        return this.execute(function, select, pageNo, pageSize, newFilter());
+        return this.execute(function, select, pageNo, pageSize, new CallContext());
     }
 
     PaginatedResult<S> execute(final Function<T, List<S>> function, final Select select, final int pageNo,
-            final int pageSize, final RoboZonkyFilter filter) {
+            final int pageSize, final CallContext context) {
+        setPage(context, pageNo, pageSize);
+        final List<S> result = this.execute(function, select, context, isListingRequestCounted);
+        return new PaginatedResult<>(result, getTotalSize(context));
+    }
+
+    /**
+     * Like {@link #execute(Function, Select, int, int)}, but the page is parsed lazily as the returned stream is
+     * consumed.
+     *
+     * @param function      Retrieves the raw response body from the API.
+     * @param type          Type of the items on the page.
+     * @param select        Filtering rules.
+     * @param pageNo        Number of the page to retrieve.
+     * @param pageSize      Size of the page to retrieve.
+     * @param totalSizeSink Will receive the total number of results across all pages.
+     * @return Items on the page. Until closed or fully consumed, the underlying HTTP connection remains in use.
+     */
+    public Stream<S> stream(final Function<T, InputStream> function, final Class<S> type, final Select select,
+            final int pageNo, final int pageSize, final LongConsumer totalSizeSink) {
+        var context = new CallContext();
+        setPage(context, pageNo, pageSize);
+        var result = this.execute(function, select, context, isListingRequestCounted);
+        totalSizeSink.accept(getTotalSize(context));
+        return StreamingEntityReader.read(result, type);
+    }
+
+    private void setPage(final CallContext context, final int pageNo, final int pageSize) {
         if (sortString != null) {
-            filter.setRequestHeader("X-Order", sortString);
+            context.setRequestHeader("X-Order", sortString);
         }
-        filter.setRequestHeader("X-Page", String.valueOf(pageNo));
-        filter.setRequestHeader("X-Size", String.valueOf(pageSize));
+        context.setRequestHeader("X-Page", String.valueOf(pageNo));
+        context.setRequestHeader("X-Size", String.valueOf(pageSize));
         LOGGER.trace("Will request page #{} of size {}, sort string is '{}'.", pageNo, pageSize, sortString);
-        final List<S> result = this.execute(function, select, filter);
-        final int totalSize = filter.getLastResponseHeader("X-Total")
+    }
+
+    private static int getTotalSize(final CallContext context) {
+        final int totalSize = context.getLastResponseHeader("X-Total")
             .map(Integer::parseInt)
             .orElse(0);
         LOGGER.trace("Has {} results in total.", totalSize);
-        return new PaginatedResult<>(result, totalSize);
+        return totalSize;
     }
 }
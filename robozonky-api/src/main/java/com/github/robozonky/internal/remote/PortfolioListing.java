@@ -0,0 +1,63 @@
+/*
+ * Copyright 2020 The RoboZonky Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.robozonky.internal.remote;
+
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+
+import com.github.robozonky.api.remote.entities.Investment;
+
+/**
+ * Listings of the user's portfolio which several parts of the robot read independently, and which therefore
+ * {@link Zonky} shares among them as {@link PortfolioSnapshot}s.
+ */
+public enum PortfolioListing {
+
+    SOLD(() -> Select.unrestricted()
+        .equals("investmentStatus", "ACTIVE")
+        .in("sellStatus", "SOLD")),
+    SELLABLE(() -> Select.unrestricted()
+        .equals("investmentStatus", "ACTIVE")
+        .in("sellStatus", "SELLABLE_WITH_FEE", "SELLABLE_WITHOUT_FEE"),
+            // It makes no sense, but we have already seen Zonky return non-sellable investments here.
+            i -> i.getSellStatus()
+                .isSellable()),
+    DELINQUENT(() -> Select.unrestricted()
+        .equals("investmentStatus", "ACTIVE")
+        .in("loanHealth", "ONE_TO_FIFTEEN_DPD", "SIXTEEN_TO_THIRTY_DPD", "THIRTY_ONE_TO_SIXTY_DPD",
+                "SIXTY_ONE_TO_NINETY_DPD", "MORE_THAN_NINETY_DPD", "PAID_OFF"));
+
+    private final Supplier<Select> select;
+    private final Predicate<Investment> filter;
+
+    PortfolioListing(final Supplier<Select> select) {
+        this(select, i -> true);
+    }
+
+    PortfolioListing(final Supplier<Select> select, final Predicate<Investment> filter) {
+        this.select = select;
+        this.filter = filter;
+    }
+
+    Select getSelect() {
+        return select.get();
+    }
+
+    Predicate<Investment> getFilter() {
+        return filter;
+    }
+}
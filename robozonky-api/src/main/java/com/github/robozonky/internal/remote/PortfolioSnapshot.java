@@ -0,0 +1,77 @@
+/*
+ * Copyright 2020 The RoboZonky Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.robozonky.internal.remote;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.stream.Stream;
+
+import com.github.robozonky.api.remote.entities.Investment;
+import com.github.robozonky.internal.test.DateUtil;
+
+/**
+ * Immutable copy of a {@link PortfolioListing}, as it was at a given point in time.
+ */
+public final class PortfolioSnapshot {
+
+    private final PortfolioListing listing;
+    private final List<Investment> investments;
+    private final Instant createdOn;
+    private final int pageCount;
+
+    PortfolioSnapshot(final PortfolioListing listing, final List<Investment> investments, final Instant createdOn,
+            final int pageCount) {
+        this.listing = listing;
+        this.investments = List.copyOf(investments);
+        this.createdOn = createdOn;
+        this.pageCount = pageCount;
+    }
+
+    public PortfolioListing getListing() {
+        return listing;
+    }
+
+    public Stream<Investment> getInvestments() {
+        return investments.stream();
+    }
+
+    public Instant getCreatedOn() {
+        return createdOn;
+    }
+
+    public Duration getAge() {
+        return Duration.between(createdOn, DateUtil.now());
+    }
+
+    /**
+     * @return How many pages had to be requested from Zonky to create this snapshot.
+     */
+    public int getPageCount() {
+        return pageCount;
+    }
+
+    @Override
+    public String toString() {
+        return "PortfolioSnapshot{" +
+                "listing=" + listing +
+                ", size=" + investments.size() +
+                ", createdOn=" + createdOn +
+                ", pageCount=" + pageCount +
+                '}';
+    }
+}
@@ -0,0 +1,105 @@
+/*
+ * Copyright 2020 The RoboZonky Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.robozonky.internal.remote;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Function;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import com.github.robozonky.internal.Defaults;
+
+import io.micrometer.core.instrument.Counter;
+
+/**
+ * Hands out the latest {@link PortfolioSnapshot} of each {@link PortfolioListing}, as long as it is younger than a
+ * given time to live. Otherwise a new one is created; callers arriving while it is being created wait for it and share
+ * it. Callers requiring a fresh snapshot always create their own, as a snapshot already being created may have
+ * started reading the listing before they asked.
+ */
+final class PortfolioSnapshots {
+
+    private static final Logger LOGGER = LogManager.getLogger(PortfolioSnapshots.class);
+
+    private final Map<PortfolioListing, PortfolioSnapshot> latest = new ConcurrentHashMap<>(0);
+    private final SingleFlight singleFlight;
+    private final Function<PortfolioListing, PortfolioSnapshot> materializer;
+    private final Duration timeToLive;
+
+    /**
+     * @param singleFlight Used to make sure that concurrent callers share the creation of a new snapshot.
+     * @param materializer Reads the whole listing from Zonky.
+     * @param timeToLive   Snapshots older than this will not be handed out.
+     */
+    PortfolioSnapshots(final SingleFlight singleFlight,
+            final Function<PortfolioListing, PortfolioSnapshot> materializer, final Duration timeToLive) {
+        this.singleFlight = singleFlight;
+        this.materializer = materializer;
+        this.timeToLive = timeToLive;
+    }
+
+    private static Counter getPagesSavedCounter(final PortfolioListing listing) {
+        return Counter.builder("robozonky.api.portfolio.pages_saved")
+            .tag("listing", listing.name())
+            .description("Pages of portfolio listing not requested from Zonky, since a snapshot was shared.")
+            .register(Defaults.METER_REGISTRY);
+    }
+
+    private static PortfolioSnapshot newer(final PortfolioSnapshot a, final PortfolioSnapshot b) {
+        return b.getCreatedOn()
+            .isBefore(a.getCreatedOn()) ? a : b;
+    }
+
+    private static PortfolioSnapshot reuse(final PortfolioSnapshot snapshot) {
+        getPagesSavedCounter(snapshot.getListing()).increment(snapshot.getPageCount());
+        return snapshot;
+    }
+
+    /**
+     * @param listing      The listing to get the snapshot of.
+     * @param requireFresh Whether to ignore any existing snapshot, regardless of its age.
+     * @return Never null.
+     */
+    public PortfolioSnapshot get(final PortfolioListing listing, final boolean requireFresh) {
+        if (requireFresh) {
+            return materialize(listing);
+        }
+        var existing = latest.get(listing);
+        if (existing != null && existing.getAge()
+            .compareTo(timeToLive) <= 0) {
+            LOGGER.trace("Reusing {}.", existing);
+            return reuse(existing);
+        }
+        var materialized = new AtomicBoolean(false);
+        var snapshot = singleFlight.call("portfolioSnapshot", listing, () -> {
+            materialized.set(true);
+            return materialize(listing);
+        });
+        return materialized.get() ? snapshot : reuse(snapshot);
+    }
+
+    private PortfolioSnapshot materialize(final PortfolioListing listing) {
+        var result = materializer.apply(listing);
+        latest.merge(listing, result, PortfolioSnapshots::newer); // Slower creation may have started earlier.
+        LOGGER.debug("Created {}.", result);
+        return result;
+    }
+}
@@ -17,15 +17,27 @@
 package com.github.robozonky.internal.remote;
 
 import java.util.concurrent.TimeUnit;
+import java.util.function.ToDoubleFunction;
 
 import javax.ws.rs.client.ClientBuilder;
 
+import org.apache.http.HttpHost;
+import org.apache.http.client.config.RequestConfig;
+import org.apache.http.conn.ConnectionKeepAliveStrategy;
+import org.apache.http.impl.client.DefaultConnectionKeepAliveStrategy;
+import org.apache.http.impl.client.HttpClientBuilder;
+import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import org.jboss.resteasy.client.jaxrs.ResteasyClient;
+import org.jboss.resteasy.client.jaxrs.ResteasyClientBuilder;
+import org.jboss.resteasy.client.jaxrs.engines.ApacheHttpClient43Engine;
 
+import com.github.robozonky.internal.Defaults;
 import com.github.robozonky.internal.Settings;
 
+import io.micrometer.core.instrument.Gauge;
+
 final class ProxyFactory {
 
     private static final Logger LOGGER = LogManager.getLogger(ProxyFactory.class);
@@ -35,6 +47,17 @@ final class ProxyFactory {
     }
 
     public static ResteasyClient newResteasyClient() {
+        return newResteasyClient("default");
+    }
+
+    /**
+     * Build a client backed by a bounded pool of keep-alive connections, so that the marketplace polls and investment
+     * requests do not need to go through a new TCP and TLS handshake every time.
+     * 
+     * @param clientName Used to tell apart connection pool metrics of different clients.
+     * @return New client, to be closed by the caller.
+     */
+    public static ResteasyClient newResteasyClient(final String clientName) {
         LOGGER.debug("Creating RESTEasy client.");
         var settings = Settings.INSTANCE;
         var socketTimeout = settings.getSocketTimeout()
@@ -43,21 +66,83 @@ final class ProxyFactory {
         var connectionTimeout = settings.getConnectionTimeout()
             .toMillis();
         LOGGER.debug("Set connection timeout to {} ms.", connectionTimeout);
-        var builder = ClientBuilder.newBuilder()
-            .readTimeout(socketTimeout, TimeUnit.MILLISECONDS)
-            .connectTimeout(connectionTimeout, TimeUnit.MILLISECONDS);
-        /*
-         * setup HTTP proxy when required (see
-         * http://docs.jboss.org/resteasy/docs/4.0.0.Final/userguide/html/RESTEasy_Client_Framework.html#http_proxy)
-         */
+        var connectionManager = newConnectionManager(settings);
+        registerPoolMetrics(connectionManager, clientName);
+        var requestConfig = RequestConfig.custom()
+            .setSocketTimeout((int) socketTimeout)
+            .setConnectTimeout((int) connectionTimeout)
+            .setConnectionRequestTimeout((int) connectionTimeout) // How long to wait for a free pooled connection.
+            .build();
+        var idleEviction = settings.getConnectionIdleEviction()
+            .toMillis();
+        LOGGER.debug("Set idle connection eviction to {} ms.", idleEviction);
+        var httpClientBuilder = HttpClientBuilder.create()
+            .setConnectionManager(connectionManager)
+            .setDefaultRequestConfig(requestConfig)
+            .setKeepAliveStrategy(newKeepAliveStrategy(settings.getConnectionKeepAlive()
+                .toMillis()))
+            .evictExpiredConnections()
+            .evictIdleConnections(idleEviction, TimeUnit.MILLISECONDS); // Gzip decoding is enabled by default.
         settings.getHttpsProxyHostname()
             .ifPresent(host -> {
                 var port = settings.getHttpsProxyPort();
-                builder.property("org.jboss.resteasy.jaxrs.client.proxy.host", host)
-                    .property("org.jboss.resteasy.jaxrs.client.proxy.port", port);
+                httpClientBuilder.setProxy(new HttpHost(host, port));
                 LOGGER.debug("Set HTTP proxy to {}:{}.", host, port);
             });
-        return (ResteasyClient) builder.build();
+        var engine = new ApacheHttpClient43Engine(httpClientBuilder.build(), true);
+        return ((ResteasyClientBuilder) ClientBuilder.newBuilder()).httpEngine(engine)
+            .build();
+    }
+
+    private static PoolingHttpClientConnectionManager newConnectionManager(final Settings settings) {
+        var keepAlive = settings.getConnectionKeepAlive()
+            .toMillis();
+        var connectionManager = new PoolingHttpClientConnectionManager(keepAlive, TimeUnit.MILLISECONDS);
+        var poolSize = settings.getConnectionPoolSize();
+        var poolSizePerHost = Math.min(poolSize, settings.getConnectionPoolSizePerHost());
+        connectionManager.setMaxTotal(poolSize);
+        connectionManager.setDefaultMaxPerRoute(poolSizePerHost);
+        LOGGER.debug("Set connection pool size to {}, {} per host, keep-alive {} ms.", poolSize, poolSizePerHost,
+                keepAlive);
+        return connectionManager;
+    }
+
+    /**
+     * Honor the keep-alive timeout sent by the server, but never keep the connection longer than configured.
+     * 
+     * @param maxKeepAliveMillis Upper bound for how long an idle connection is kept in the pool.
+     * @return Keep-alive strategy to use with the connection pool.
+     */
+    static ConnectionKeepAliveStrategy newKeepAliveStrategy(final long maxKeepAliveMillis) {
+        return (response, context) -> {
+            var serverKeepAlive = DefaultConnectionKeepAliveStrategy.INSTANCE.getKeepAliveDuration(response, context);
+            if (serverKeepAlive < 0) { // Server did not say, keep alive for as long as we're allowed to.
+                return maxKeepAliveMillis;
+            }
+            return Math.min(serverKeepAlive, maxKeepAliveMillis);
+        };
+    }
+
+    private static void registerPoolMetrics(final PoolingHttpClientConnectionManager connectionManager,
+            final String clientName) {
+        registerPoolGauge(connectionManager, clientName, "leased", c -> c.getTotalStats()
+            .getLeased());
+        registerPoolGauge(connectionManager, clientName, "available", c -> c.getTotalStats()
+            .getAvailable());
+        registerPoolGauge(connectionManager, clientName, "pending", c -> c.getTotalStats()
+            .getPending());
+        registerPoolGauge(connectionManager, clientName, "max", c -> c.getTotalStats()
+            .getMax());
+    }
+
+    private static void registerPoolGauge(final PoolingHttpClientConnectionManager connectionManager,
+            final String clientName, final String state,
+            final ToDoubleFunction<PoolingHttpClientConnectionManager> value) {
+        Gauge.builder("robozonky.api.connections", connectionManager, value)
+            .tag("client", clientName)
+            .tag("state", state)
+            .description("Connections in the HTTP connection pool of the Zonky API client.")
+            .register(Defaults.METER_REGISTRY);
     }
 
     public static <T> T newProxy(final ResteasyClient client, final RoboZonkyFilter filter, final Class<T> api,
@@ -0,0 +1,215 @@
+/*
+ * Copyright 2020 The RoboZonky Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.robozonky.internal.remote;
+
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import com.github.robozonky.internal.Defaults;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.Timer;
+
+/**
+ * Client-side token bucket guarding one of Zonky's API quotas. Rather than finding out about an exhausted quota from
+ * HTTP 429 after the fact, requests wait here until the bucket has enough tokens for them.
+ * <p>
+ * Requests in the {@link RequestLane#BACKGROUND} lane are throttled first. They may not dip into the reserved part of
+ * the bucket, and they always give way to {@link RequestLane#FOREGROUND} requests which are waiting for the same
+ * quota. Requests which would have to wait longer than allowed are rejected with {@link RequestThrottledException}.
+ */
+final class RateGovernor {
+
+    private static final Logger LOGGER = LogManager.getLogger(RateGovernor.class);
+    private static final long YIELD_NANOS = TimeUnit.MILLISECONDS.toNanos(10);
+
+    private final boolean enabled;
+    private final double capacity;
+    private final double refillPerNano;
+    private final double backgroundReserve;
+    private final long maxWaitNanos;
+    private final LongSupplier nanoClock;
+    private final Map<RequestLane, Timer> waitTimers = new EnumMap<>(RequestLane.class);
+    private final Map<RequestLane, Counter> rejectionCounters = new EnumMap<>(RequestLane.class);
+    private double tokens;
+    private long lastRefillNanos;
+    private int foregroundWaiting = 0;
+
+    /**
+     * @param clientName        Name of the client, for the purposes of metrics.
+     * @param quota             Name of the quota, for the purposes of metrics.
+     * @param capacity          Maximum number of requests that can be made in a burst. Zero or less disables the
+     *                          governor.
+     * @param refillPerSecond   How many requests are returned to the quota every second.
+     * @param backgroundReserve Share of the capacity, between 0 and 1, which background requests may not use.
+     * @param maxWait           How long a request may wait before it is rejected.
+     */
+    public RateGovernor(final String clientName, final String quota, final int capacity, final double refillPerSecond,
+            final double backgroundReserve, final Duration maxWait) {
+        this(clientName, quota, capacity, refillPerSecond, backgroundReserve, maxWait, System::nanoTime);
+    }
+
+    RateGovernor(final String clientName, final String quota, final int capacity, final double refillPerSecond,
+            final double backgroundReserve, final Duration maxWait, final LongSupplier nanoClock) {
+        this.enabled = capacity > 0 && refillPerSecond > 0;
+        this.capacity = Math.max(1, capacity);
+        this.refillPerNano = refillPerSecond / TimeUnit.SECONDS.toNanos(1);
+        // Background requests must always be able to get at least one token eventually.
+        this.backgroundReserve = Math.min(this.capacity - 1, this.capacity * Math.max(0, backgroundReserve));
+        this.maxWaitNanos = maxWait.toNanos();
+        this.nanoClock = nanoClock;
+        this.tokens = this.capacity;
+        this.lastRefillNanos = nanoClock.getAsLong();
+        if (enabled) {
+            registerMetrics(clientName, quota);
+        }
+    }
+
+    private void registerMetrics(final String clientName, final String quota) {
+        for (var lane : RequestLane.values()) {
+            var laneName = lane.name()
+                .toLowerCase();
+            waitTimers.put(lane, Timer.builder("robozonky.api.governor.wait")
+                .tag("client", clientName)
+                .tag("quota", quota)
+                .tag("lane", laneName)
+                .description("Time spent waiting for Zonky API quota.")
+                .register(Defaults.METER_REGISTRY));
+            rejectionCounters.put(lane, Counter.builder("robozonky.api.governor.rejections")
+                .tag("client", clientName)
+                .tag("quota", quota)
+                .tag("lane", laneName)
+                .description("Requests not sent, as they would have waited for Zonky API quota for too long.")
+                .register(Defaults.METER_REGISTRY));
+        }
+        Gauge.builder("robozonky.api.governor.tokens", this, RateGovernor::getAvailableTokens)
+            .tag("client", clientName)
+            .tag("quota", quota)
+            .description("Requests that can currently be made without waiting for Zonky API quota.")
+            .register(Defaults.METER_REGISTRY);
+    }
+
+    /**
+     * @return Governor which never makes anyone wait.
+     */
+    static RateGovernor unlimited() {
+        return new RateGovernor("unlimited", "unlimited", 0, 0, 0, Duration.ZERO);
+    }
+
+    private void refill(final long now) {
+        var elapsed = now - lastRefillNanos;
+        if (elapsed > 0) {
+            tokens = Math.min(capacity, tokens + elapsed * refillPerNano);
+            lastRefillNanos = now;
+        }
+    }
+
+    synchronized double getAvailableTokens() {
+        refill(nanoClock.getAsLong());
+        return tokens;
+    }
+
+    /**
+     * Take a token from the bucket, if the lane is allowed to.
+     * 
+     * @param lane Lane of the request.
+     * @param now  Current value of the nano clock.
+     * @return 0 if the token was taken, otherwise how many nanoseconds to wait before trying again.
+     */
+    synchronized long tryAcquire(final RequestLane lane, final long now) {
+        refill(now);
+        var isBackground = lane == RequestLane.BACKGROUND;
+        if (isBackground && foregroundWaiting > 0) {
+            return YIELD_NANOS;
+        }
+        var missing = (isBackground ? backgroundReserve : 0) + 1 - tokens;
+        if (missing <= 0) {
+            tokens -= 1;
+            return 0;
+        }
+        return Math.max(1, (long) Math.ceil(missing / refillPerNano));
+    }
+
+    /**
+     * Block until the request is allowed to be made, in the lane of the current thread.
+     * 
+     * @throws RequestThrottledException When the wait would take longer than allowed.
+     */
+    public void acquire() {
+        if (!enabled) {
+            return;
+        }
+        var lane = RequestLane.current();
+        var start = nanoClock.getAsLong();
+        var deadline = start + maxWaitNanos;
+        synchronized (this) {
+            var isForeground = lane == RequestLane.FOREGROUND;
+            if (isForeground) {
+                foregroundWaiting++;
+            }
+            try {
+                awaitToken(lane, deadline);
+            } finally {
+                if (isForeground) {
+                    foregroundWaiting--;
+                    notifyAll(); // Background requests may have been yielding to this one.
+                }
+            }
+        }
+        waitTimers.get(lane)
+            .record(nanoClock.getAsLong() - start, TimeUnit.NANOSECONDS);
+    }
+
+    private void awaitToken(final RequestLane lane, final long deadline) {
+        while (true) {
+            var now = nanoClock.getAsLong();
+            var waitNanos = tryAcquire(lane, now);
+            if (waitNanos == 0) {
+                return;
+            } else if (now + waitNanos > deadline) {
+                rejectionCounters.get(lane)
+                    .increment();
+                LOGGER.debug("Throttling {} request, quota would not be available for {} ms.", lane,
+                        TimeUnit.NANOSECONDS.toMillis(waitNanos));
+                throw new RequestThrottledException("Zonky API quota exhausted for " + lane + " requests.");
+            }
+            try {
+                TimeUnit.NANOSECONDS.timedWait(this, waitNanos);
+            } catch (final InterruptedException ex) {
+                Thread.currentThread()
+                    .interrupt();
+                throw new IllegalStateException("Interrupted while waiting for Zonky API quota.", ex);
+            }
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "RateGovernor{" +
+                "enabled=" + enabled +
+                ", capacity=" + capacity +
+                ", backgroundReserve=" + backgroundReserve +
+                '}';
+    }
+}
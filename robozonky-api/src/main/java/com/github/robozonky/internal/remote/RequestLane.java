@@ -0,0 +1,83 @@
+/*
+ * Copyright 2020 The RoboZonky Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.robozonky.internal.remote;
+
+import java.util.concurrent.Executor;
+import java.util.function.Supplier;
+
+/**
+ * Priority of requests to Zonky API, as seen by {@link RateGovernor}. Requests are made in the
+ * {@link #FOREGROUND} lane, unless the code making them runs inside {@link #call(Supplier)} of another lane.
+ * <p>
+ * The lane is bound to the current thread. Work handed over to other threads needs to be put into a lane again, such
+ * as by going through {@link #inheriting(Executor)}.
+ */
+public enum RequestLane {
+
+    /**
+     * Investing, purchasing and marketplace checks; whatever needs to happen now in order not to miss an opportunity.
+     */
+    FOREGROUND,
+    /**
+     * Periodic jobs such as summaries, notifications and sale checks; they can wait.
+     */
+    BACKGROUND;
+
+    private static final ThreadLocal<RequestLane> CURRENT = ThreadLocal.withInitial(() -> FOREGROUND);
+
+    /**
+     * @return The lane in which requests from the current thread are made.
+     */
+    public static RequestLane current() {
+        return CURRENT.get();
+    }
+
+    /**
+     * @param executor Where to run the work.
+     * @return Runs the work with the given executor, in the lane of the thread which handed the work over.
+     */
+    public static Executor inheriting(final Executor executor) {
+        return command -> {
+            var lane = current();
+            executor.execute(() -> lane.run(command));
+        };
+    }
+
+    /**
+     * Make all requests from the operation in this lane.
+     * 
+     * @param operation Operation which is expected to make the requests.
+     * @param <T>       Return type of the operation.
+     * @return Whatever the operation returned.
+     */
+    public <T> T call(final Supplier<T> operation) {
+        var previous = CURRENT.get();
+        CURRENT.set(this);
+        try {
+            return operation.get();
+        } finally {
+            CURRENT.set(previous);
+        }
+    }
+
+    public void run(final Runnable operation) {
+        call(() -> {
+            operation.run();
+            return null;
+        });
+    }
+}
@@ -0,0 +1,235 @@
+/*
+ * Copyright 2020 The RoboZonky Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.robozonky.internal.remote;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.SequenceInputStream;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Pattern;
+
+import javax.ws.rs.HttpMethod;
+import javax.ws.rs.client.ClientRequestContext;
+import javax.ws.rs.client.ClientResponseContext;
+import javax.ws.rs.core.HttpHeaders;
+import javax.ws.rs.core.Response;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import com.github.robozonky.internal.Defaults;
+
+import io.micrometer.core.instrument.Counter;
+
+/**
+ * Remembers responses to GET requests which came with a validator ({@code ETag} or {@code Last-Modified}), and uses
+ * the validators to turn subsequent identical requests into conditional ones. When the server responds with "304 Not
+ * Modified", the remembered response is served instead, sparing us the transfer and the parsing of the body.
+ * <p>
+ * Paged requests are not cached; they are listings which change all the time and would only take up memory. The cache
+ * is bounded, both in the number of entries and in the size of each entry, and evicts the least recently used entry
+ * first.
+ */
+final class ResponseCache {
+
+    static final int MAX_ENTITY_SIZE = 64 * 1024;
+    private static final Logger LOGGER = LogManager.getLogger(ResponseCache.class);
+    private static final String CACHE_KEY_PROPERTY = "robozonkyCacheKey";
+    private static final String ENDPOINT_PROPERTY = "robozonkyCacheEndpoint";
+    private static final Pattern NUMERIC_PATH_SEGMENT = Pattern.compile("/\\d+");
+    private static final String[] KEY_HEADERS = new String[] { "X-Page", "X-Size", "X-Order" };
+
+    private final int maxEntries;
+    private final Map<String, CachedResponse> entries;
+
+    /**
+     * @param maxEntries Maximum number of responses to keep. Zero or less disables the cache.
+     */
+    public ResponseCache(final int maxEntries) {
+        this.maxEntries = maxEntries;
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(final Map.Entry<String, CachedResponse> eldest) {
+                return size() > maxEntries;
+            }
+        };
+    }
+
+    /**
+     * Replaces numeric path segments, such as loan IDs, so that the number of distinct endpoints stays bounded.
+     * 
+     * @param requestContext Request to identify the endpoint of.
+     * @return Path of the request, with all numeric IDs replaced by a placeholder.
+     */
+    static String getEndpoint(final ClientRequestContext requestContext) {
+        return NUMERIC_PATH_SEGMENT.matcher(requestContext.getUri()
+            .getPath())
+            .replaceAll("/{id}");
+    }
+
+    private static void count(final String endpoint, final String result) {
+        Counter.builder("robozonky.api.cache")
+            .tag("endpoint", endpoint)
+            .tag("result", result)
+            .description("Use of the HTTP response cache, per endpoint.")
+            .register(Defaults.METER_REGISTRY)
+            .increment();
+    }
+
+    private static String getCacheKey(final ClientRequestContext requestContext) {
+        if (!HttpMethod.GET.equals(requestContext.getMethod())) {
+            return null;
+        }
+        var headers = requestContext.getHeaders();
+        if (headers.containsKey("X-Page")) {
+            return null;
+        }
+        var key = new StringBuilder(requestContext.getUri()
+            .toString());
+        for (var header : KEY_HEADERS) {
+            var value = headers.getFirst(header);
+            if (value != null) {
+                key.append('|')
+                    .append(header)
+                    .append('=')
+                    .append(value);
+            }
+        }
+        return key.toString();
+    }
+
+    private synchronized CachedResponse get(final String key) {
+        return entries.get(key);
+    }
+
+    private synchronized void put(final String key, final CachedResponse entry) {
+        entries.put(key, entry);
+    }
+
+    private synchronized void remove(final String key) {
+        entries.remove(key);
+    }
+
+    synchronized int size() {
+        return entries.size();
+    }
+
+    /**
+     * If we have a response for this request cached, make the request conditional.
+     * 
+     * @param requestContext Request about to be sent.
+     */
+    public void beforeRequest(final ClientRequestContext requestContext) {
+        if (maxEntries < 1) {
+            return;
+        }
+        var key = getCacheKey(requestContext);
+        if (key == null) {
+            return;
+        }
+        requestContext.setProperty(CACHE_KEY_PROPERTY, key);
+        var entry = get(key);
+        if (entry == null) {
+            return;
+        }
+        var endpoint = getEndpoint(requestContext);
+        requestContext.setProperty(ENDPOINT_PROPERTY, endpoint);
+        var headers = requestContext.getHeaders();
+        if (entry.eTag != null) {
+            headers.putSingle(HttpHeaders.IF_NONE_MATCH, entry.eTag);
+        }
+        if (entry.lastModified != null) {
+            headers.putSingle(HttpHeaders.IF_MODIFIED_SINCE, entry.lastModified);
+        }
+        count(endpoint, "revalidation");
+    }
+
+    /**
+     * Serve the cached response if the server says it is still valid, or cache the new response if it has validators.
+     * 
+     * @param requestContext  Request that was sent.
+     * @param responseContext Response that was received, may be modified.
+     * @throws IOException When the response body could not be read.
+     */
+    public void afterResponse(final ClientRequestContext requestContext, final ClientResponseContext responseContext)
+            throws IOException {
+        var key = (String) requestContext.getProperty(CACHE_KEY_PROPERTY);
+        if (key == null) {
+            return;
+        }
+        var endpoint = (String) requestContext.getProperty(ENDPOINT_PROPERTY);
+        if (endpoint == null) {
+            endpoint = getEndpoint(requestContext);
+        }
+        var status = responseContext.getStatus();
+        if (status == Response.Status.NOT_MODIFIED.getStatusCode()) {
+            var entry = get(key);
+            if (entry == null) { // Evicted in the meantime; nothing we can do.
+                LOGGER.debug("Got HTTP 304 for {}, but no longer have the response.", key);
+                return;
+            }
+            count(endpoint, "hit");
+            responseContext.setStatus(Response.Status.OK.getStatusCode());
+            var headers = responseContext.getHeaders();
+            entry.headers.forEach((k, v) -> {
+                if (!headers.containsKey(k)) {
+                    headers.put(k, new ArrayList<>(v));
+                }
+            });
+            responseContext.setEntityStream(new ByteArrayInputStream(entry.entity));
+            return;
+        }
+        count(endpoint, "miss");
+        var eTag = responseContext.getHeaderString(HttpHeaders.ETAG);
+        var lastModified = responseContext.getHeaderString(HttpHeaders.LAST_MODIFIED);
+        if (status != Response.Status.OK.getStatusCode() || !responseContext.hasEntity() ||
+                (eTag == null && lastModified == null)) {
+            remove(key);
+            return;
+        }
+        var entityStream = responseContext.getEntityStream();
+        var entity = entityStream.readNBytes(MAX_ENTITY_SIZE + 1);
+        if (entity.length > MAX_ENTITY_SIZE) {
+            LOGGER.trace("Not caching {}, response too large.", key);
+            remove(key);
+            responseContext.setEntityStream(new SequenceInputStream(new ByteArrayInputStream(entity), entityStream));
+            return;
+        }
+        put(key, new CachedResponse(entity, eTag, lastModified, responseContext.getHeaders()));
+        responseContext.setEntityStream(new ByteArrayInputStream(entity));
+    }
+
+    private static final class CachedResponse {
+
+        private final byte[] entity;
+        private final String eTag;
+        private final String lastModified;
+        private final Map<String, List<String>> headers;
+
+        CachedResponse(final byte[] entity, final String eTag, final String lastModified,
+                final Map<String, List<String>> headers) {
+            this.entity = entity;
+            this.eTag = eTag;
+            this.lastModified = lastModified;
+            this.headers = new LinkedHashMap<>(headers.size());
+            headers.forEach((k, v) -> this.headers.put(k, List.copyOf(v)));
+        }
+    }
+}
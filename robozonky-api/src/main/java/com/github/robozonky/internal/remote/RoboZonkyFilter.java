@@ -18,12 +18,9 @@ package com.github.robozonky.internal.remote;
 
 import java.io.IOException;
 import java.net.URI;
-import java.util.Collections;
-import java.util.HashMap;
+import java.time.Duration;
 import java.util.Map;
-import java.util.Optional;
 import java.util.TreeMap;
-import java.util.UUID;
 import java.util.stream.Collectors;
 
 import javax.ws.rs.client.ClientRequestContext;
@@ -41,22 +38,33 @@ import com.github.robozonky.internal.Settings;
 /**
  * Decorates the request with User-Agent and adds some simple request logging.
  * If ever a filter is needed for JAX-RS communication, this class should serve as the base class for that filter.
- * This class is not thread-safe. Consider using {@link ThreadLocal}.
+ * The filter itself only carries headers common to all requests; per-request state travels in {@link CallContext}.
+ * Therefore the filter can be shared among threads, as long as subclasses only call
+ * {@link #setRequestHeader(String, String)} from their constructors.
  */
 class RoboZonkyFilter implements ClientRequestFilter,
         ClientResponseFilter {
 
-    private static final String REQUEST_ID_PROPERTY = "robozonkyRequestId";
+    private static final String REQUEST_START_PROPERTY = "robozonkyRequestStart";
+    private static final String CALL_CONTEXT_PROPERTY = "robozonkyCallContext";
 
     // not static, so that filters extending this one get the proper logger class
     protected final Logger logger = LogManager.getLogger(this.getClass());
-    // In case the same filter is used multiple times, we add support for timing multiple requests.
-    private final Map<String, Long> requestStartNanotimes = new HashMap<>(1);
-    private final Map<String, Object[]> queryParams = new TreeMap<>();
     private final Map<String, String> requestHeaders = new TreeMap<>();
-    private Map<String, String> responseHeaders = Collections.emptyMap();
+    private final ResponseCache responseCache;
 
+    /**
+     * Creates a filter which caches no responses.
+     */
     public RoboZonkyFilter() {
+        this(new ResponseCache(0));
+    }
+
+    /**
+     * @param responseCache Where to remember the responses; may be shared with other filters.
+     */
+    public RoboZonkyFilter(final ResponseCache responseCache) {
+        this.responseCache = responseCache;
         this.setRequestHeader("User-Agent", Defaults.ROBOZONKY_USER_AGENT);
     }
 
@@ -70,6 +78,18 @@ class RoboZonkyFilter implements ClientRequestFilter,
         }
     }
 
+    /**
+     * Much cheaper than going through {@link UriBuilder}, as the query is already encoded.
+     */
+    static URI appendEncodedQuery(final URI info, final String encodedQuery) {
+        var uri = info.toString();
+        var fragmentStart = uri.indexOf('#');
+        var beforeFragment = fragmentStart < 0 ? uri : uri.substring(0, fragmentStart);
+        var fragment = fragmentStart < 0 ? "" : uri.substring(fragmentStart);
+        var separator = info.getRawQuery() == null ? "?" : "&";
+        return URI.create(beforeFragment + separator + encodedQuery + fragment);
+    }
+
     static URI addQueryParams(final URI info, final Map<String, Object[]> params) {
         final UriBuilder builder = UriBuilder.fromUri(info);
         builder.uri(info);
@@ -77,31 +97,36 @@ class RoboZonkyFilter implements ClientRequestFilter,
         return builder.build();
     }
 
-    public void setQueryParam(final String key, final Object... values) {
-        queryParams.put(key, values);
-    }
-
-    public void setRequestHeader(final String key, final String value) {
+    /**
+     * Set a header to be sent with every request going through this filter.
+     * 
+     * @param key   Name of the header.
+     * @param value Value of the header.
+     */
+    protected void setRequestHeader(final String key, final String value) {
         requestHeaders.put(key, value);
     }
 
-    public Optional<String> getLastResponseHeader(final String key) {
-        return Optional.ofNullable(responseHeaders.get(key));
-    }
-
-    private URI rebuild(final URI info) {
-        return addQueryParams(info, queryParams);
-    }
-
     @Override
     public void filter(final ClientRequestContext clientRequestContext) {
-        requestHeaders.forEach((k, v) -> clientRequestContext.getHeaders()
-            .putSingle(k, v));
-        clientRequestContext.setUri(rebuild(clientRequestContext.getUri()));
-        var requestId = UUID.randomUUID()
-            .toString();
-        clientRequestContext.setProperty(REQUEST_ID_PROPERTY, requestId);
-        requestStartNanotimes.put(requestId, System.nanoTime());
+        var headers = clientRequestContext.getHeaders();
+        requestHeaders.forEach(headers::putSingle);
+        CallContext.current()
+            .ifPresent(context -> {
+                context.getRequestHeaders()
+                    .forEach(headers::putSingle);
+                var encodedQuery = context.getEncodedQuery();
+                if (!encodedQuery.isEmpty()) {
+                    clientRequestContext.setUri(appendEncodedQuery(clientRequestContext.getUri(), encodedQuery));
+                }
+                var queryParams = context.getQueryParams();
+                if (!queryParams.isEmpty()) {
+                    clientRequestContext.setUri(addQueryParams(clientRequestContext.getUri(), queryParams));
+                }
+                clientRequestContext.setProperty(CALL_CONTEXT_PROPERTY, context);
+            });
+        responseCache.beforeRequest(clientRequestContext);
+        clientRequestContext.setProperty(REQUEST_START_PROPERTY, System.nanoTime());
         logger.trace("Request {} {}.", clientRequestContext.getMethod(), clientRequestContext.getUri());
     }
 
@@ -120,32 +145,44 @@ class RoboZonkyFilter implements ClientRequestFilter,
     public void filter(final ClientRequestContext clientRequestContext,
             final ClientResponseContext clientResponseContext) throws IOException {
         var currentNanotime = System.nanoTime();
-        var requestId = (String) clientRequestContext.getProperty(REQUEST_ID_PROPERTY);
-        if (requestId == null) { // Happens during testing, where a lot of things are mocked.
+        var startNanotime = (Long) clientRequestContext.getProperty(REQUEST_START_PROPERTY);
+        var metrics = EndpointMetrics.of(clientRequestContext);
+        if (startNanotime == null) { // Happens during testing, where a lot of things are mocked.
+            metrics.record(clientResponseContext, null);
             logger.debug("HTTP {} Response from {}: {} {}.", clientRequestContext.getMethod(),
                     clientRequestContext.getUri(), clientResponseContext.getStatus(),
                     clientResponseContext.getStatusInfo()
                         .getReasonPhrase());
         } else {
-            var startNanotime = requestStartNanotimes.remove(requestId);
-            var millisSpent = (currentNanotime - startNanotime) / 1000 / 1000;
-            logger.debug("HTTP {} Response from {}: {} {} ({} ms).", clientRequestContext.getMethod(),
-                    clientRequestContext.getUri(), clientResponseContext.getStatus(),
+            var spent = Duration.ofNanos(currentNanotime - startNanotime);
+            metrics.record(clientResponseContext, spent);
+            logger.debug("HTTP {} Response from {} ({}): {} {} ({} ms).", clientRequestContext.getMethod(),
+                    clientRequestContext.getUri(), metrics.getEndpoint(), clientResponseContext.getStatus(),
                     clientResponseContext.getStatusInfo()
                         .getReasonPhrase(),
-                    millisSpent);
+                    spent.toMillis());
         }
         var responseEntity = getResponseEntity(clientResponseContext);
         if (clientResponseContext.getStatus() == 400 && responseEntity.contains("invalid_token")) {
             // Zonky is dumb and throws 400 when it should throw 401
             clientResponseContext.setStatus(401);
         }
-        responseHeaders = clientResponseContext.getHeaders()
+        responseCache.afterResponse(clientRequestContext, clientResponseContext);
+        var context = (CallContext) clientRequestContext.getProperty(CALL_CONTEXT_PROPERTY);
+        if (context == null) { // Mocked request context, or a request that nobody is interested in the headers of.
+            context = CallContext.current()
+                .orElse(null);
+        }
+        if (context == null) {
+            return;
+        }
+        // Header names are case-insensitive, and some servers do not send them the way Zonky does.
+        context.setResponseHeaders(clientResponseContext.getHeaders()
             .entrySet()
             .stream()
             .filter(e -> !e.getValue()
                 .isEmpty())
             .collect(Collectors.toMap(Map.Entry::getKey, e -> e.getValue()
-                .get(0), (a, b) -> a, TreeMap::new));
+                .get(0), (a, b) -> a, () -> new TreeMap<>(String.CASE_INSENSITIVE_ORDER))));
     }
 }
@@ -16,6 +16,8 @@
 
 package com.github.robozonky.internal.remote;
 
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDate;
 import java.time.ZonedDateTime;
 import java.time.format.DateTimeFormatter;
@@ -24,17 +26,15 @@ import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
-import java.util.function.Consumer;
-import java.util.stream.Collectors;
-import java.util.stream.LongStream;
-import java.util.stream.Stream;
+import java.util.StringJoiner;
+import java.util.TreeMap;
 
 /**
  * Allows to filter Zonky API requests based on the values of individual fields.
  * 
  * @see <a href="https://zonky.docs.apiary.io/#introduction/pagination,-sorting-and-filtering">Zonky API docs.</a>
  */
-public class Select implements Consumer<RoboZonkyFilter> {
+public class Select {
 
     private final Map<String, List<Object>> conditions = new HashMap<>(0);
 
@@ -42,37 +42,55 @@ public class Select implements Consumer<RoboZonkyFilter> {
         return new Select();
     }
 
+    static String toKey(final String field, final String operation) {
+        return operation == null ? field : field + "__" + operation;
+    }
+
+    /**
+     * @param value Value of a condition.
+     * @return The value in the form that Zonky expects to receive.
+     */
+    static String toValue(final Object value) {
+        if (value instanceof ZonedDateTime) {
+            return DateTimeFormatter.ISO_OFFSET_DATE_TIME.format((ZonedDateTime) value);
+        } else if (value instanceof LocalDate) {
+            return DateTimeFormatter.ISO_DATE.format((LocalDate) value);
+        } else {
+            return value.toString();
+        }
+    }
+
+    static String encode(final String value) {
+        return URLEncoder.encode(value, StandardCharsets.UTF_8);
+    }
+
+    private static String toList(final Object... value) {
+        var joiner = new StringJoiner("\",\"", "[\"", "\"]");
+        for (var v : value) {
+            joiner.add(v.toString());
+        }
+        return joiner.toString();
+    }
+
+    private static String toList(final long... value) {
+        var joiner = new StringJoiner("\",\"", "[\"", "\"]");
+        for (var v : value) {
+            joiner.add(String.valueOf(v));
+        }
+        return joiner.toString();
+    }
+
     private void addObjects(final String field, final String operation, final Object... value) {
-        final String key = field + "__" + operation;
-        conditions.compute(key, (k, v) -> {
-            final String val = Stream.of(value)
-                .map(Object::toString)
-                .collect(Collectors.joining("\",\"", "[\"", "\"]"));
-            final List<Object> result = (v == null) ? new ArrayList<>(1) : v;
-            result.add(val);
-            return result;
-        });
+        addObject(field, operation, toList(value));
     }
 
     private void addLongs(final String field, final String operation, final long... value) {
-        final String key = operation == null ? field : field + "__" + operation;
-        conditions.compute(key, (k, v) -> {
-            final String val = LongStream.of(value)
-                .mapToObj(String::valueOf)
-                .collect(Collectors.joining("\",\"", "[\"", "\"]"));
-            final List<Object> result = (v == null) ? new ArrayList<>(1) : v;
-            result.add(val);
-            return result;
-        });
+        addObject(field, operation, toList(value));
     }
 
     private void addObject(final String field, final String operation, final Object value) {
-        final String key = operation == null ? field : field + "__" + operation;
-        conditions.compute(key, (k, v) -> {
-            final List<Object> result = (v == null) ? new ArrayList<>(1) : v;
-            result.add(value);
-            return result;
-        });
+        conditions.computeIfAbsent(toKey(field, operation), k -> new ArrayList<>(1))
+            .add(value);
     }
 
     private void addLong(final String field, final String operation, final long value) {
@@ -80,11 +98,11 @@ public class Select implements Consumer<RoboZonkyFilter> {
     }
 
     private void addDate(final String field, final String operation, final LocalDate value) {
-        addObject(field, operation, DateTimeFormatter.ISO_DATE.format(value));
+        addObject(field, operation, toValue(value));
     }
 
     private void addDateTime(final String field, final String operation, final ZonedDateTime value) {
-        addObject(field, operation, DateTimeFormatter.ISO_OFFSET_DATE_TIME.format(value));
+        addObject(field, operation, toValue(value));
     }
 
     public Select contains(final String field, final String value) {
@@ -252,9 +270,35 @@ public class Select implements Consumer<RoboZonkyFilter> {
         return this;
     }
 
-    @Override
-    public void accept(final RoboZonkyFilter roboZonkyFilter) {
-        conditions.forEach((k, v) -> v.forEach(r -> roboZonkyFilter.setQueryParam(k, r)));
+    /**
+     * Compile the current conditions into a plan which can be applied repeatedly without rebuilding the query. Later
+     * changes to this instance do not affect the plan.
+     *
+     * @return Plan with no parameters; add them through the plan's methods.
+     */
+    public SelectPlan compile() {
+        return new SelectPlan(toEncodedQuery());
+    }
+
+    /**
+     * @return The conditions as a URL-encoded query string, with the same parameters that
+     *         {@link #accept(CallContext)} would set.
+     */
+    String toEncodedQuery() {
+        var lastValues = new TreeMap<String, Object>(); // Same as when setting the query params one by one.
+        conditions.forEach((k, v) -> lastValues.put(k, v.get(v.size() - 1)));
+        var joiner = new StringJoiner("&");
+        lastValues.forEach((k, v) -> joiner.add(encode(k) + "=" + encode(v.toString())));
+        return joiner.toString();
+    }
+
+    /**
+     * Not public, as the context is internal to the API clients.
+     *
+     * @param callContext Receives the conditions as query params.
+     */
+    void accept(final CallContext callContext) {
+        conditions.forEach((k, v) -> v.forEach(r -> callContext.setQueryParam(k, r)));
     }
 
     @Override
@@ -0,0 +1,149 @@
+/*
+ * Copyright 2020 The RoboZonky Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.robozonky.internal.remote;
+
+import java.util.Arrays;
+import java.util.Objects;
+
+/**
+ * Immutable, precompiled form of {@link Select}, for filters which are applied over and over with only a few values
+ * changing; such as the marketplace checks, whose cursor moves with every check. The fixed conditions are encoded into
+ * a query string once, when the plan is created. Only the values of the parameters are encoded when the plan is
+ * {@link #bind(Object...) bound}.
+ * <p>
+ * Plans are thread-safe and meant to be stored in constants.
+ */
+public final class SelectPlan {
+
+    private final String staticQuery;
+    private final String[] parameterPrefixes;
+
+    SelectPlan(final String staticQuery) {
+        this(staticQuery, new String[0]);
+    }
+
+    private SelectPlan(final String staticQuery, final String... parameterPrefixes) {
+        this.staticQuery = staticQuery;
+        this.parameterPrefixes = parameterPrefixes;
+    }
+
+    private SelectPlan withParameter(final String field, final String operation) {
+        var prefix = Select.encode(Select.toKey(field, operation)) + "=";
+        var prefixes = Arrays.copyOf(parameterPrefixes, parameterPrefixes.length + 1);
+        prefixes[parameterPrefixes.length] = prefix;
+        return new SelectPlan(staticQuery, prefixes);
+    }
+
+    /**
+     * @param field Field to restrict by the value of the parameter.
+     * @return New plan with an extra parameter at the end.
+     */
+    public SelectPlan greaterThanOrEquals(final String field) {
+        return withParameter(field, "gte");
+    }
+
+    /**
+     * @param field Field to restrict by the value of the parameter.
+     * @return New plan with an extra parameter at the end.
+     */
+    public SelectPlan lessThanOrEquals(final String field) {
+        return withParameter(field, "lte");
+    }
+
+    public int getParameterCount() {
+        return parameterPrefixes.length;
+    }
+
+    /**
+     * @param values Values for the parameters, in the order in which the parameters were added to the plan.
+     * @return Filter to be used with the API.
+     */
+    public Select bind(final Object... values) {
+        if (values.length != parameterPrefixes.length) {
+            throw new IllegalArgumentException("Expected " + parameterPrefixes.length + " values, got "
+                    + values.length + ".");
+        }
+        if (values.length == 0) {
+            return new BoundSelect(staticQuery);
+        }
+        var query = new StringBuilder(staticQuery.length() + values.length * 40).append(staticQuery);
+        for (var i = 0; i < values.length; i++) {
+            if (query.length() > 0) {
+                query.append('&');
+            }
+            query.append(parameterPrefixes[i])
+                .append(Select.encode(Select.toValue(values[i])));
+        }
+        return new BoundSelect(query.toString());
+    }
+
+    @Override
+    public String toString() {
+        return "SelectPlan{" +
+                "staticQuery='" + staticQuery + '\'' +
+                ", parameterPrefixes=" + Arrays.toString(parameterPrefixes) +
+                '}';
+    }
+
+    /**
+     * The conditions of the plan are applied as a complete query string. Any conditions added to the instance later
+     * are applied on top, the usual way.
+     */
+    private static final class BoundSelect extends Select {
+
+        private final String encodedQuery;
+
+        BoundSelect(final String encodedQuery) {
+            this.encodedQuery = encodedQuery;
+        }
+
+        @Override
+        String toEncodedQuery() {
+            var additional = super.toEncodedQuery();
+            if (additional.isEmpty()) {
+                return encodedQuery;
+            } else if (encodedQuery.isEmpty()) {
+                return additional;
+            }
+            return encodedQuery + "&" + additional;
+        }
+
+        @Override
+        void accept(final CallContext callContext) {
+            callContext.setEncodedQuery(encodedQuery);
+            super.accept(callContext);
+        }
+
+        @Override
+        public boolean equals(final Object o) {
+            return super.equals(o) && Objects.equals(encodedQuery, ((BoundSelect) o).encodedQuery);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(super.hashCode(), encodedQuery);
+        }
+
+        @Override
+        public String toString() {
+            return "BoundSelect{" +
+                    "encodedQuery='" + encodedQuery + '\'' +
+                    ", " + super.toString() +
+                    '}';
+        }
+    }
+}
@@ -0,0 +1,111 @@
+/*
+ * Copyright 2020 The RoboZonky Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.robozonky.internal.remote;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Supplier;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import com.github.robozonky.internal.Defaults;
+
+import io.micrometer.core.instrument.Counter;
+
+/**
+ * Makes sure that concurrent callers asking for the same remote object share a single request. The first caller
+ * executes the request, everyone else arriving before the request completes waits for it and receives the same result,
+ * or the same exception. Nothing is cached; once the request completes, the next caller will execute a new one.
+ * <p>
+ * Requests in flight are kept per {@link RequestLane}. A caller in the {@link RequestLane#FOREGROUND} never joins a
+ * request from the {@link RequestLane#BACKGROUND}, as that request may be held back or throttled to leave room for
+ * the foreground. A background caller may join a foreground request, as it only gets there sooner.
+ */
+final class SingleFlight {
+
+    private static final Logger LOGGER = LogManager.getLogger(SingleFlight.class);
+
+    private final Map<RequestLane, ConcurrentMap<String, CompletableFuture<Object>>> inFlight = new EnumMap<>(
+            RequestLane.class);
+
+    SingleFlight() {
+        for (var lane : RequestLane.values()) {
+            inFlight.put(lane, new ConcurrentHashMap<>(0));
+        }
+    }
+
+    private static Counter getDeduplicatedCounter(final String endpoint) {
+        return Counter.builder("robozonky.api.requests.deduplicated")
+            .tag("endpoint", endpoint)
+            .description("Requests to Zonky API not made, since an identical request was already in flight.")
+            .register(Defaults.METER_REGISTRY);
+    }
+
+    private static RuntimeException unwrap(final CompletionException ex) {
+        var cause = ex.getCause();
+        if (cause instanceof RuntimeException) {
+            return (RuntimeException) cause;
+        } else if (cause instanceof Error) {
+            throw (Error) cause;
+        }
+        return ex;
+    }
+
+    /**
+     * @param endpoint Identifies the remote operation.
+     * @param id       Identifies the remote object.
+     * @param request  Executes the request.
+     * @param <T>      Type of the remote object.
+     * @return Result of the request, either executed by this thread or by another one which got there first.
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T call(final String endpoint, final Object id, final Supplier<T> request) {
+        var key = endpoint + '/' + id;
+        var lane = RequestLane.current();
+        var laneInFlight = inFlight.get(lane);
+        var future = new CompletableFuture<>();
+        var existing = lane == RequestLane.BACKGROUND ? inFlight.get(RequestLane.FOREGROUND)
+            .get(key) : null;
+        if (existing == null) {
+            existing = laneInFlight.putIfAbsent(key, future);
+        }
+        if (existing != null) {
+            LOGGER.trace("Joining request in flight for {} from {} lane.", key, lane);
+            getDeduplicatedCounter(endpoint).increment();
+            try {
+                return (T) existing.join();
+            } catch (final CompletionException ex) {
+                throw unwrap(ex);
+            }
+        }
+        try {
+            var result = request.get();
+            future.complete(result);
+            return result;
+        } catch (final RuntimeException | Error ex) {
+            future.completeExceptionally(ex);
+            throw ex;
+        } finally {
+            laneInFlight.remove(key, future);
+        }
+    }
+}
@@ -0,0 +1,55 @@
+/*
+ * Copyright 2020 The RoboZonky Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.robozonky.internal.remote;
+
+import java.io.InputStream;
+import java.util.function.Function;
+import java.util.function.LongConsumer;
+import java.util.stream.Stream;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import com.github.robozonky.internal.util.stream.StreamingPageSource;
+
+class StreamingEntityCollectionPageSource<T, S> implements StreamingPageSource<T> {
+
+    private static final Logger LOGGER = LogManager.getLogger(StreamingEntityCollectionPageSource.class);
+
+    private final PaginatedApi<T, S> api;
+    private final Function<S, InputStream> function;
+    private final Class<T> type;
+    private final Select select;
+    private final int pageSize;
+
+    public StreamingEntityCollectionPageSource(final PaginatedApi<T, S> api, final Function<S, InputStream> function,
+            final Class<T> type, final Select select, final int pageSize) {
+        this.api = api;
+        this.function = function;
+        this.type = type;
+        this.select = select;
+        this.pageSize = pageSize;
+    }
+
+    @Override
+    public Stream<T> fetch(final long offset, final long limit, final LongConsumer totalSizeSink) {
+        LOGGER.trace("Requested with offset {}, limit {}.", offset, limit);
+        var pageId = offset < 1 ? 0 : (int) (offset / pageSize);
+        // limit is ignored, as the page size determines the page number; offset+limit is not supported by Zonky
+        return api.stream(function, type, select, pageId, pageSize, totalSizeSink);
+    }
+}
@@ -0,0 +1,231 @@
+/*
+ * Copyright 2020 The RoboZonky Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.robozonky.internal.remote;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.PushbackReader;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.util.Spliterators;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+import javax.json.Json;
+import javax.json.JsonArray;
+import javax.json.JsonException;
+import javax.json.JsonObject;
+import javax.json.JsonValue;
+import javax.json.bind.JsonbBuilder;
+import javax.json.stream.JsonLocation;
+import javax.json.stream.JsonParser;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.eclipse.yasson.YassonJsonb;
+
+import com.github.robozonky.internal.Defaults;
+
+/**
+ * Reads a JSON array of entities from a HTTP response body one element at a time, so that the first entity can be
+ * processed long before the last one has even arrived over the network. The response body is closed when the array
+ * ends, when parsing fails, or when the returned {@link Stream} is closed; whichever comes first.
+ */
+final class StreamingEntityReader<T> extends Spliterators.AbstractSpliterator<T> implements AutoCloseable {
+
+    private static final Logger LOGGER = LogManager.getLogger(StreamingEntityReader.class);
+    private static final YassonJsonb JSONB = (YassonJsonb) JsonbBuilder.create();
+
+    private final InputStream entityStream;
+    private final Class<T> type;
+    private PushbackJsonParser parser;
+    private boolean closed = false;
+
+    private StreamingEntityReader(final InputStream entityStream, final Class<T> type) {
+        super(Long.MAX_VALUE, ORDERED
+                | NONNULL
+                | IMMUTABLE);
+        this.entityStream = entityStream;
+        this.type = type;
+    }
+
+    /**
+     * @param entityStream Response body, expected to contain a JSON array of objects. Null is treated as empty.
+     * @param type         Type of the objects in the array.
+     * @param <T>          Type of the objects in the array.
+     * @return Entities in the order in which they appear in the array. Must be closed if not fully consumed.
+     */
+    public static <T> Stream<T> read(final InputStream entityStream, final Class<T> type) {
+        if (entityStream == null) {
+            return Stream.empty();
+        }
+        var reader = new StreamingEntityReader<>(entityStream, type);
+        return StreamSupport.stream(reader, false)
+            .onClose(reader::close);
+    }
+
+    private JsonParser.Event nextEvent() throws IOException {
+        if (parser == null) {
+            var reader = new PushbackReader(new InputStreamReader(entityStream, Defaults.CHARSET));
+            var firstChar = reader.read();
+            if (firstChar < 0) { // Empty body, which the JSON parser would reject.
+                return JsonParser.Event.END_ARRAY;
+            }
+            reader.unread(firstChar);
+            parser = new PushbackJsonParser(Json.createParser(reader));
+            var first = parser.next();
+            if (first != JsonParser.Event.START_ARRAY) {
+                throw new IllegalStateException("Expected JSON array, got " + first + ".");
+            }
+        }
+        return parser.next();
+    }
+
+    @Override
+    public boolean tryAdvance(final Consumer<? super T> action) {
+        if (closed) {
+            return false;
+        }
+        try {
+            var event = nextEvent();
+            if (event != JsonParser.Event.START_OBJECT) { // End of array.
+                close();
+                return false;
+            }
+            parser.pushback(event); // Yasson needs to see the start of the object.
+            action.accept(JSONB.fromJson(parser, type));
+            return true;
+        } catch (final IOException ex) {
+            close();
+            throw new UncheckedIOException(ex);
+        } catch (final RuntimeException ex) {
+            close();
+            throw ex;
+        }
+    }
+
+    @Override
+    public void close() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        try {
+            if (parser != null) {
+                parser.close();
+            }
+            entityStream.close();
+        } catch (final JsonException | IOException ex) {
+            LOGGER.debug("Failed closing response body.", ex);
+        }
+    }
+
+    /**
+     * Yasson will only deserialize an object if it can read its opening brace itself. Therefore, after we have read
+     * the brace to find out whether or not the array has ended, it needs to be pushed back for Yasson to read again.
+     */
+    private static final class PushbackJsonParser implements JsonParser {
+
+        private final JsonParser parser;
+        private Event pushedBack;
+
+        public PushbackJsonParser(final JsonParser parser) {
+            this.parser = parser;
+        }
+
+        public void pushback(final Event event) {
+            this.pushedBack = event;
+        }
+
+        @Override
+        public boolean hasNext() {
+            return pushedBack != null || parser.hasNext();
+        }
+
+        @Override
+        public Event next() {
+            if (pushedBack == null) {
+                return parser.next();
+            }
+            var event = pushedBack;
+            pushedBack = null;
+            return event;
+        }
+
+        @Override
+        public String getString() {
+            return parser.getString();
+        }
+
+        @Override
+        public boolean isIntegralNumber() {
+            return parser.isIntegralNumber();
+        }
+
+        @Override
+        public int getInt() {
+            return parser.getInt();
+        }
+
+        @Override
+        public long getLong() {
+            return parser.getLong();
+        }
+
+        @Override
+        public BigDecimal getBigDecimal() {
+            return parser.getBigDecimal();
+        }
+
+        @Override
+        public JsonLocation getLocation() {
+            return parser.getLocation();
+        }
+
+        @Override
+        public JsonObject getObject() {
+            return parser.getObject();
+        }
+
+        @Override
+        public JsonValue getValue() {
+            return parser.getValue();
+        }
+
+        @Override
+        public JsonArray getArray() {
+            return parser.getArray();
+        }
+
+        @Override
+        public void skipArray() {
+            parser.skipArray();
+        }
+
+        @Override
+        public void skipObject() {
+            parser.skipObject();
+        }
+
+        @Override
+        public void close() {
+            parser.close();
+        }
+    }
+}
@@ -18,9 +18,14 @@ package com.github.robozonky.internal.remote;
 
 import static java.util.Collections.singleton;
 
+import java.io.InputStream;
 import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.function.Function;
 import java.util.function.Supplier;
+import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
 import org.apache.logging.log4j.LogManager;
@@ -54,6 +59,7 @@ import com.github.robozonky.internal.remote.entities.ReservationPreferencesImpl;
 import com.github.robozonky.internal.remote.entities.ResolutionRequest;
 import com.github.robozonky.internal.remote.entities.Resolutions;
 import com.github.robozonky.internal.remote.entities.SellRequest;
+import com.github.robozonky.internal.test.DateUtil;
 import com.github.robozonky.internal.util.stream.PagingStreams;
 
 /**
@@ -70,18 +76,33 @@ import com.github.robozonky.internal.util.stream.PagingStreams;
  * <li>Everything else is on the same quote and therefore is request-counted.</li>
  * </ul>
  * <p>
- * Request counting does not actually limit anything. It just gives us an idea through logs how close or how far we are
- * from reaching the quota.
+ * Request-counted operations are held back by a {@link RateGovernor} before they reach the quota. Requests from the
+ * {@link RequestLane#BACKGROUND} lane are held back first. Purchases are additionally limited to one per second, which
+ * is what Zonky allows.
  */
 public class Zonky {
 
     private static final Logger LOGGER = LogManager.getLogger(Zonky.class);
+    /**
+     * Prefetched pages are requested in the lane of whoever consumes the stream, and never by more threads than any one
+     * stream prefetches.
+     */
+    private static final Executor PREFETCHER = RequestLane.inheriting(Executors.newFixedThreadPool(
+            Math.max(1, Settings.INSTANCE.getDefaultApiPageLookAhead()), r -> {
+                var thread = new Thread(r, "robozonky-prefetcher");
+                thread.setDaemon(true);
+                return thread;
+            }));
 
     private final Api<ControlApi> controlApi;
     private final Api<ReservationApi> reservationApi;
     private final PaginatedApi<LoanImpl, LoanApi> loanApi;
     private final PaginatedApi<ParticipationImpl, ParticipationApi> participationApi;
     private final PaginatedApi<InvestmentImpl, PortfolioApi> portfolioApi;
+    private final RateGovernor purchaseGovernor;
+    private final SingleFlight singleFlight = new SingleFlight();
+    private final PortfolioSnapshots portfolioSnapshots = new PortfolioSnapshots(singleFlight,
+            this::createPortfolioSnapshot, Settings.INSTANCE.getApiPortfolioSnapshotTtl());
 
     Zonky(final ApiProvider api, final Supplier<ZonkyApiToken> tokenSupplier) {
         this.controlApi = api.control(tokenSupplier);
@@ -89,13 +110,38 @@ public class Zonky {
         this.reservationApi = api.reservations(tokenSupplier);
         this.participationApi = api.secondaryMarketplace(tokenSupplier);
         participationApi.setSortString("-deadline"); // Order participations from the newest one.
+        participationApi.setListingRequestCounted(false); // Has a quota of its own, see class Javadoc.
         this.portfolioApi = api.portfolio(tokenSupplier);
+        this.purchaseGovernor = api.getPurchaseGovernor();
     }
 
     private static <X, T extends X, S extends EntityCollectionApi<T>> Stream<X> getStream(final PaginatedApi<T, S> api,
             final Function<S, List<T>> function, final Select select) {
+        return getStream(api, function, select, 0);
+    }
+
+    /**
+     * @param lookAhead How many pages to prefetch while the current one is being consumed. Only use for listings which
+     *                  are not request-counted, as pages may be fetched and then never used.
+     */
+    private static <X, T extends X, S extends EntityCollectionApi<T>> Stream<X> getStream(final PaginatedApi<T, S> api,
+            final Function<S, List<T>> function, final Select select, final int lookAhead) {
         var pageSize = Settings.INSTANCE.getDefaultApiPageSize();
-        return PagingStreams.build(new EntityCollectionPageSource<>(api, function, select, pageSize))
+        return PagingStreams.build(new EntityCollectionPageSource<>(api, function, select, pageSize), pageSize,
+                lookAhead, PREFETCHER)
+            .map(x -> x);
+    }
+
+    /**
+     * Items are parsed from the response body one by one, as the stream is being consumed. Pages are only requested
+     * once the terminal operation starts, and each is closed as soon as it has been consumed or abandoned.
+     */
+    private static <X, T extends X, S extends EntityCollectionApi<T>> Stream<X> getItemStream(
+            final PaginatedApi<T, S> api, final Function<S, InputStream> function, final Class<T> type,
+            final Select select) {
+        var pageSize = Settings.INSTANCE.getDefaultApiPageSize();
+        return PagingStreams.streaming(new StreamingEntityCollectionPageSource<>(api, function, type, select,
+                pageSize), pageSize)
             .map(x -> x);
     }
 
@@ -116,6 +162,7 @@ public class Zonky {
                 participation.getRemainingPrincipal());
         LOGGER.debug("Purchasing participation #{} in loan #{} ({}).", participation.getId(), participation.getLoanId(),
                 request);
+        purchaseGovernor.acquire();
         controlApi.run(api -> api.purchase(participation.getId(), request));
     }
 
@@ -156,48 +203,79 @@ public class Zonky {
      * @return All items from the remote API, lazy-loaded.
      */
     public Stream<Investment> getInvestments(final Select select) {
-        return getStream(portfolioApi, PortfolioApi::items, select)
+        return getInvestments(select, () -> {
+            // Nobody is interested in the number of pages.
+        });
+    }
+
+    /**
+     * @param onPage Will be called whenever a page is requested from Zonky.
+     */
+    private Stream<Investment> getInvestments(final Select select, final Runnable onPage) {
+        var pageSize = Settings.INSTANCE.getDefaultApiPageSize();
+        var source = new EntityCollectionPageSource<>(portfolioApi, PortfolioApi::items, select, pageSize);
+        return PagingStreams.<InvestmentImpl>build((offset, limit, totalSizeSink) -> {
+            onPage.run();
+            return source.fetch(offset, limit, totalSizeSink);
+        }, pageSize)
             .map(i -> new AutoExtendingInvestmentImpl(i, this));
     }
 
+    private PortfolioSnapshot createPortfolioSnapshot(final PortfolioListing listing) {
+        var createdOn = DateUtil.now();
+        var pageCount = new AtomicInteger(0);
+        var investments = getInvestments(listing.getSelect(), pageCount::incrementAndGet)
+            .filter(listing.getFilter())
+            .collect(Collectors.toList());
+        return new PortfolioSnapshot(listing, investments, createdOn, pageCount.get());
+    }
+
+    /**
+     * Retrieve the whole listing at once. Listings are shared between callers for a short while, so that callers
+     * asking shortly after one another do not each page through the entire listing.
+     *
+     * @param listing      The listing to retrieve.
+     * @param requireFresh True to never receive a snapshot that was created before this call.
+     * @return Snapshot of the listing, which knows its age.
+     */
+    public PortfolioSnapshot getPortfolioSnapshot(final PortfolioListing listing, final boolean requireFresh) {
+        return portfolioSnapshots.get(listing, requireFresh);
+    }
+
     public Stream<Investment> getPendingInvestments() {
         final Select s = new Select()
             .equals("investmentStatus", "AWAITING_INVESTMENT");
         return getInvestments(s);
     }
 
+    /**
+     * @return Possibly slightly outdated, see {@link #getPortfolioSnapshot(PortfolioListing, boolean)}.
+     */
     public Stream<Investment> getSoldInvestments() {
-        final Select s = Select.unrestricted()
-            .equals("investmentStatus", "ACTIVE")
-            .in("sellStatus", "SOLD");
-        return getInvestments(s);
+        return getPortfolioSnapshot(PortfolioListing.SOLD, false).getInvestments();
     }
 
+    /**
+     * @return Possibly slightly outdated, see {@link #getPortfolioSnapshot(PortfolioListing, boolean)}.
+     */
     public Stream<Investment> getSellableInvestments() {
-        var select = Select.unrestricted()
-            .equals("investmentStatus", "ACTIVE")
-            .in("sellStatus", "SELLABLE_WITH_FEE", "SELLABLE_WITHOUT_FEE");
-        // And now actually filter out the non-sellable stuff.
-        // It makes no sense, but we have already seen Zonky return these here.
-        return getInvestments(select)
-            .filter(i -> i.getSellStatus()
-                .isSellable());
+        return getPortfolioSnapshot(PortfolioListing.SELLABLE, false).getInvestments();
     }
 
+    /**
+     * @return Possibly slightly outdated, see {@link #getPortfolioSnapshot(PortfolioListing, boolean)}.
+     */
     public Stream<Investment> getDelinquentInvestments() {
-        final Select s = Select.unrestricted()
-            .equals("investmentStatus", "ACTIVE")
-            .in("loanHealth", "ONE_TO_FIFTEEN_DPD", "SIXTEEN_TO_THIRTY_DPD", "THIRTY_ONE_TO_SIXTY_DPD",
-                    "SIXTY_ONE_TO_NINETY_DPD", "MORE_THAN_NINETY_DPD", "PAID_OFF");
-        return getInvestments(s);
+        return getPortfolioSnapshot(PortfolioListing.DELINQUENT, false).getInvestments();
     }
 
     public Loan getLoan(final int id) {
-        return loanApi.execute(api -> api.item(id));
+        return singleFlight.<Loan>call("loan", id, () -> loanApi.execute(api -> api.item(id)));
     }
 
     public Investment getInvestment(final long id) {
-        return portfolioApi.execute(api -> api.getInvestment(id));
+        return singleFlight.<Investment>call("investment", id,
+                () -> portfolioApi.execute(api -> api.getInvestment(id)));
     }
 
     public LastPublishedItem getLastPublishedLoanInfo() {
@@ -209,17 +287,18 @@ public class Zonky {
     }
 
     public ParticipationDetail getParticipationDetail(final int loanId) {
-        return participationApi.execute(pa -> pa.getDetail(loanId));
+        return singleFlight.<ParticipationDetail>call("participationDetail", loanId,
+                () -> participationApi.execute(pa -> pa.getDetail(loanId)));
     }
 
     /**
      * Retrieve loans from marketplace via {@link LoanApi}.
      * 
      * @param select Rules to filter the selection by.
-     * @return All items from the remote API, lazy-loaded.
+     * @return All items from the remote API, lazy-loaded and parsed one by one as they are consumed.
      */
     public Stream<Loan> getAvailableLoans(final Select select) {
-        return getStream(loanApi, LoanApi::items, select);
+        return getItemStream(loanApi, LoanApi::itemStream, LoanImpl.class, select);
     }
 
     /**
@@ -229,7 +308,12 @@ public class Zonky {
      * @return All items from the remote API, lazy-loaded.
      */
     public Stream<Participation> getAvailableParticipations(final Select select) {
-        return getStream(participationApi, ParticipationApi::items, select);
+        var lookAhead = Settings.INSTANCE.getDefaultApiPageLookAhead();
+        if (lookAhead < 1) {
+            return getItemStream(participationApi, ParticipationApi::itemStream, ParticipationImpl.class, select);
+        }
+        // Prefetched pages are parsed in the background, there is nothing to gain from parsing them lazily.
+        return getStream(participationApi, ParticipationApi::items, select, lookAhead);
     }
 
     public ReservationPreferences getReservationPreferences() {
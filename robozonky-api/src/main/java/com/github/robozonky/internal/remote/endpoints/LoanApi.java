@@ -16,6 +16,7 @@
 
 package com.github.robozonky.internal.remote.endpoints;
 
+import java.io.InputStream;
 import java.util.List;
 
 import javax.ws.rs.Consumes;
@@ -49,4 +50,13 @@ public interface LoanApi extends EntityCollectionApi<LoanImpl> {
     @GET
     @Path(ApiConstants.LOANS + "/{loanId}")
     LoanImpl item(@PathParam("loanId") int id);
+
+    /**
+     * Same as {@link #items()}, only the response body is left to be parsed by the caller.
+     * 
+     * @return Must be closed after use, otherwise the underlying connection will not be released.
+     */
+    @GET
+    @Path(ApiConstants.MARKETPLACE)
+    InputStream itemStream();
 }
@@ -16,6 +16,7 @@
 
 package com.github.robozonky.internal.remote.endpoints;
 
+import java.io.InputStream;
 import java.util.List;
 
 import javax.ws.rs.Consumes;
@@ -46,4 +47,13 @@ public interface ParticipationApi extends EntityCollectionApi<ParticipationImpl>
     @Path(ApiConstants.SMP_INVESTMENTS)
     @Override
     List<ParticipationImpl> items();
+
+    /**
+     * Same as {@link #items()}, only the response body is left to be parsed by the caller.
+     * 
+     * @return Must be closed after use, otherwise the underlying connection will not be released.
+     */
+    @GET
+    @Path(ApiConstants.SMP_INVESTMENTS)
+    InputStream itemStream();
 }
@@ -23,9 +23,14 @@ import java.io.FileNotFoundException;
 import java.io.FileOutputStream;
 import java.io.IOException;
 import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
 import java.security.KeyStore;
 import java.security.KeyStoreException;
+import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.atomic.AtomicBoolean;
 
 import javax.crypto.SecretKey;
@@ -40,6 +45,9 @@ import com.github.robozonky.internal.util.FileUtil;
 /**
  * Simple abstraction for dealing with the overly complicated {@link KeyStore} API. Always call {@link #save()} to
  * persist changes made.
+ * <p>
+ * Every entry is protected by a key derived from a password, which makes reading and writing the entries expensive.
+ * Therefore the values are kept in memory once read or written, and only ever read from the {@link KeyStore} once.
  */
 public class KeyStoreHandler {
 
@@ -51,6 +59,7 @@ public class KeyStoreHandler {
     private final KeyStore keyStore;
     private final KeyStore.ProtectionParameter protectionParameter;
     private final SecretKeyFactory keyFactory;
+    private final Map<String, char[]> values = new ConcurrentHashMap<>(0);
     private char[] password;
 
     /**
@@ -149,11 +158,12 @@ public class KeyStoreHandler {
      * @param value The value to be stored.
      * @return True if stored in the key store.
      */
-    public boolean set(final String alias, final char... value) {
+    public synchronized boolean set(final String alias, final char... value) {
         try {
             var secret = this.keyFactory.generateSecret(new PBEKeySpec(value));
             var entry = new KeyStore.SecretKeyEntry(secret);
             this.keyStore.setEntry(alias, entry, this.protectionParameter);
+            this.values.put(alias, value.clone());
             this.dirty.set(true);
             return true;
         } catch (Exception ex) {
@@ -169,16 +179,31 @@ public class KeyStoreHandler {
      * @return Present if the alias is present in the key store.
      */
     public Optional<char[]> get(final String alias) {
+        var value = values.get(alias);
+        if (value == null) {
+            value = read(alias);
+        }
+        return Optional.ofNullable(value)
+            .map(char[]::clone);
+    }
+
+    private synchronized char[] read(final String alias) {
+        var value = values.get(alias);
+        if (value != null) { // Read by another thread in the meantime.
+            return value;
+        }
         try {
             var skEntry = (KeyStore.SecretKeyEntry) this.keyStore.getEntry(alias, this.protectionParameter);
             if (skEntry == null) {
-                return Optional.empty();
+                return null;
             }
             var keySpec = (PBEKeySpec) this.keyFactory.getKeySpec(skEntry.getSecretKey(), PBEKeySpec.class);
-            return Optional.of(keySpec.getPassword());
+            value = keySpec.getPassword();
+            values.put(alias, value);
+            return value;
         } catch (Exception ex) {
             LOGGER.debug("Unrecoverable entry '{}'.", alias, ex);
-            return Optional.empty();
+            return null;
         }
     }
 
@@ -188,9 +213,10 @@ public class KeyStoreHandler {
      * @param alias The alias to locate the entry.
      * @return True if there is now no entry with a given key.
      */
-    public boolean delete(final String alias) {
+    public synchronized boolean delete(final String alias) {
         try {
             this.keyStore.deleteEntry(alias);
+            this.values.remove(alias);
             this.dirty.set(true);
             return true;
         } catch (Exception ex) {
@@ -222,11 +248,18 @@ public class KeyStoreHandler {
      * 
      * @param secret Password to persist the changes with.
      */
-    public void save(final char... secret) {
+    public synchronized void save(final char... secret) {
         this.password = secret.clone();
-        try (var outputStream = new BufferedOutputStream(new FileOutputStream(this.keyStoreFile))) {
-            FileUtil.configurePermissions(this.keyStoreFile, false);
-            this.keyStore.store(outputStream, secret);
+        // Write next to the keystore and replace it only when done, so that a failure never leaves it half-written.
+        var target = this.keyStoreFile.toPath()
+            .toAbsolutePath();
+        var temporary = Path.of(target + ".tmp");
+        try {
+            try (var outputStream = new BufferedOutputStream(new FileOutputStream(temporary.toFile()))) {
+                FileUtil.configurePermissions(temporary.toFile(), false);
+                this.keyStore.store(outputStream, secret);
+            }
+            Files.move(temporary, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
             this.dirty.set(false);
         } catch (Exception ex) {
             throw new IllegalStateException(ex);
@@ -16,7 +16,15 @@
 
 package com.github.robozonky.internal.secrets;
 
+import java.util.ArrayList;
 import java.util.Optional;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
 import java.util.function.Supplier;
 
 import org.apache.logging.log4j.LogManager;
@@ -27,6 +35,10 @@ import com.github.robozonky.internal.remote.entities.ZonkyApiTokenImpl;
 
 /**
  * Every set*() operation must result in a {@link KeyStoreHandler#save()} call.
+ * <p>
+ * The token is kept in memory and served from there. Writing it to the keystore happens on a background thread, so
+ * that the token refresh does not wait for the keystore to be rewritten. When the token changes faster than it can be
+ * written, only the latest one is.
  */
 final class KeyStoreSecretProvider implements SecretProvider {
 
@@ -35,13 +47,27 @@ final class KeyStoreSecretProvider implements SecretProvider {
     private static final String ALIAS_PASSWORD = "pwd";
     private static final String ALIAS_USERNAME = "usr";
     private static final String ALIAS_TOKEN = "tkn";
+    private static final Executor WRITER = Executors.newSingleThreadExecutor(r -> {
+        var thread = new Thread(r, "robozonky-keystore-writer");
+        thread.setDaemon(true);
+        return thread;
+    });
     private final KeyStoreHandler ksh;
+    private final Executor writer;
+    private final AtomicReference<Optional<ZonkyApiToken>> token = new AtomicReference<>(); // Null until first read.
+    private final Queue<CompletableFuture<Boolean>> pendingTokenWrites = new ConcurrentLinkedQueue<>();
+    private final AtomicBoolean isTokenWriteScheduled = new AtomicBoolean(false);
 
     public KeyStoreSecretProvider(final KeyStoreHandler ksh) {
+        this(ksh, WRITER);
+    }
+
+    KeyStoreSecretProvider(final KeyStoreHandler ksh, final Executor writer) {
         if (ksh == null) {
             throw new IllegalArgumentException("KeyStoreHandler must be provided.");
         }
         this.ksh = ksh;
+        this.writer = writer;
     }
 
     /**
@@ -74,8 +100,7 @@ final class KeyStoreSecretProvider implements SecretProvider {
             .orElseThrow(() -> new IllegalStateException("Username not present in KeyStore.")));
     }
 
-    @Override
-    public Optional<ZonkyApiToken> getToken() {
+    private Optional<ZonkyApiToken> readToken() {
         try {
             final ZonkyApiToken result = this.ksh.get(ALIAS_TOKEN)
                 .map(String::new)
@@ -89,14 +114,23 @@ final class KeyStoreSecretProvider implements SecretProvider {
     }
 
     @Override
-    public boolean setToken(ZonkyApiToken apiToken) {
+    public Optional<ZonkyApiToken> getToken() {
+        var current = token.get();
+        if (current == null) {
+            token.compareAndSet(null, readToken()); // Unless set in the meantime.
+            return token.get();
+        }
+        return current;
+    }
+
+    private boolean writeToken(final Optional<ZonkyApiToken> apiToken) {
         try {
-            if (apiToken == null) {
+            if (apiToken.isEmpty()) {
                 this.ksh.delete(ALIAS_TOKEN);
                 this.ksh.save();
                 return true;
             } else {
-                return this.set(ALIAS_TOKEN, () -> ZonkyApiTokenImpl.marshal(apiToken)
+                return this.set(ALIAS_TOKEN, () -> ZonkyApiTokenImpl.marshal(apiToken.get())
                     .toCharArray());
             }
         } catch (final Exception ex) {
@@ -105,6 +139,35 @@ final class KeyStoreSecretProvider implements SecretProvider {
         }
     }
 
+    private void writeLatestToken() {
+        isTokenWriteScheduled.set(false); // Tokens set from now on schedule another write.
+        var writes = new ArrayList<CompletableFuture<Boolean>>(1);
+        for (var write = pendingTokenWrites.poll(); write != null; write = pendingTokenWrites.poll()) {
+            writes.add(write);
+        }
+        if (writes.isEmpty()) {
+            return;
+        }
+        var result = writeToken(token.get()); // Includes all the tokens set before the writes were taken.
+        writes.forEach(write -> write.complete(result));
+    }
+
+    @Override
+    public boolean setToken(final ZonkyApiToken apiToken) {
+        return setTokenAsync(apiToken).join();
+    }
+
+    @Override
+    public CompletableFuture<Boolean> setTokenAsync(final ZonkyApiToken apiToken) {
+        token.set(Optional.ofNullable(apiToken));
+        var write = new CompletableFuture<Boolean>();
+        pendingTokenWrites.add(write);
+        if (isTokenWriteScheduled.compareAndSet(false, true)) {
+            writer.execute(this::writeLatestToken);
+        }
+        return write;
+    }
+
     public boolean setPassword(final char[] password) {
         return this.set(ALIAS_PASSWORD, () -> password);
     }
@@ -18,6 +18,7 @@ package com.github.robozonky.internal.secrets;
 
 import java.security.KeyStore;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
 
 import com.github.robozonky.api.remote.entities.ZonkyApiToken;
 
@@ -90,6 +91,17 @@ public interface SecretProvider {
      */
     boolean setToken(ZonkyApiToken apiToken);
 
+    /**
+     * Same as {@link #setToken(ZonkyApiToken)}, but does not wait for the token to be stored. {@link #getToken()} will
+     * return the new token immediately.
+     * 
+     * @param apiToken If null, subsequent {@link #getToken()} calls will return empty {@link Optional}.
+     * @return Completes once the token has been stored, with false if that failed.
+     */
+    default CompletableFuture<Boolean> setTokenAsync(final ZonkyApiToken apiToken) {
+        return CompletableFuture.completedFuture(setToken(apiToken));
+    }
+
     /**
      * Whether or not this provider will store all data in such a way that it survives JVM restart.
      * 
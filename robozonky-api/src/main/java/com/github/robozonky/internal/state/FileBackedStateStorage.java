@@ -16,13 +16,22 @@
 
 package com.github.robozonky.internal.state;
 
+import static java.util.stream.Collectors.toMap;
+
 import java.io.File;
 import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicReference;
 import java.util.function.Function;
 import java.util.stream.Stream;
@@ -35,17 +44,57 @@ import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
 import com.github.robozonky.internal.Defaults;
+import com.github.robozonky.internal.Settings;
 
+/**
+ * Keeps the state in memory, backed by a JSON file.
+ * <p>
+ * Unless journaling is disabled, {@link #store()} does not rewrite the JSON file. Instead, it appends the changes made
+ * since the last {@link #store()} to a {@link StateJournal}, which is replayed over the JSON file when the state is
+ * next read. Once the journal grows over {@link Settings#getStateJournalCompactionThreshold()}, the JSON file is
+ * rewritten in the background and the journal emptied. The rewrite does not hold up {@link #store()}; only taking the
+ * snapshot and swapping the files does.
+ */
 class FileBackedStateStorage implements StateStorage {
 
     private static final Logger LOGGER = LogManager.getLogger(FileBackedStateStorage.class);
+    private static final Executor COMPACTOR = Executors.newSingleThreadExecutor(r -> {
+        var thread = new Thread(r, "robozonky-state-compactor");
+        thread.setDaemon(true);
+        return thread;
+    });
 
     private final JsonbConfig jsonbConfig = new JsonbConfig().withFormatting(true);
     private final File stateLocation;
     private final AtomicReference<Map<String, Map<String, String>>> state = new AtomicReference<>();
+    private final StateJournal journal;
+    private final long compactionThreshold;
+    private final Executor compactor;
+    private final List<StateJournal.Change> pendingChanges = new ArrayList<>(0);
+    private final AtomicBoolean isCompactionScheduled = new AtomicBoolean(false);
 
     public FileBackedStateStorage(final File file) {
+        this(file, Settings.INSTANCE.isStateJournalEnabled());
+    }
+
+    FileBackedStateStorage(final File file, final boolean journaled) {
+        this(file, journaled, Settings.INSTANCE.getStateJournalCompactionThreshold());
+    }
+
+    FileBackedStateStorage(final File file, final boolean journaled, final long compactionThreshold) {
+        this(file, journaled, compactionThreshold, COMPACTOR);
+    }
+
+    FileBackedStateStorage(final File file, final boolean journaled, final long compactionThreshold,
+            final Executor compactor) {
         this.stateLocation = file;
+        this.journal = journaled ? new StateJournal(Path.of(file.getAbsolutePath() + ".journal")) : null;
+        this.compactionThreshold = compactionThreshold;
+        this.compactor = compactor;
+    }
+
+    private static Path getCorruptedLocation(final Path location) {
+        return Path.of(location.toAbsolutePath() + ".corrupted");
     }
 
     private <T> T applyJsonb(Function<Jsonb, T> operation) throws Exception {
@@ -54,37 +103,63 @@ class FileBackedStateStorage implements StateStorage {
         }
     }
 
-    synchronized void destroy() {
+    @Override
+    public synchronized void destroy() {
         try {
             Files.deleteIfExists(stateLocation.toPath());
+            if (journal != null) {
+                journal.delete();
+            }
             LOGGER.debug("State destroyed.");
         } catch (final IOException ex) {
             LOGGER.debug("Failed deleting state file.", ex);
         } finally {
+            synchronized (pendingChanges) {
+                pendingChanges.clear();
+            }
             state.set(null);
         }
     }
 
-    private synchronized Map<String, Map<String, String>> getState() {
+    private Map<String, Map<String, String>> getState() {
+        var current = state.get();
+        if (current == null) {
+            return loadState();
+        }
+        return current;
+    }
+
+    private synchronized Map<String, Map<String, String>> loadState() {
         if (state.get() == null) {
             if (!stateLocation.exists()) {
                 state.set(new ConcurrentHashMap<>(0));
+                replayJournal();
                 return state.get();
             }
             try {
                 LOGGER.trace("Reading state: '{}'.", stateLocation.getAbsolutePath());
                 String json = new String(Files.readAllBytes(stateLocation.toPath()));
                 Map<String, Map<String, String>> deserialized = applyJsonb(jsonb -> jsonb.fromJson(json, Map.class));
-                state.set(new ConcurrentHashMap<>(deserialized));
+                // Sections are updated in parallel, so none of the maps may be a plain HashMap.
+                var loaded = new ConcurrentHashMap<String, Map<String, String>>(deserialized.size());
+                deserialized.forEach((section, values) -> loaded.put(section, new ConcurrentHashMap<>(values)));
+                state.set(loaded);
+                replayJournal();
             } catch (final Exception ex) {
                 Path oldStateLocation = stateLocation.toPath();
-                Path corruptedStateLocation = Path.of(oldStateLocation.toAbsolutePath() + ".corrupted");
+                Path corruptedStateLocation = getCorruptedLocation(oldStateLocation);
                 try {
                     LOGGER.debug("State file corruption detected.", ex);
                     Files.move(oldStateLocation, corruptedStateLocation);
                     LOGGER.warn("Using clean state, old state moved to {}.",
                             corruptedStateLocation.toAbsolutePath());
-                    return getState();
+                    if (journal != null && Files.exists(journal.getLocation())) {
+                        // The journal makes no sense without the state it was based on.
+                        Files.move(journal.getLocation(), getCorruptedLocation(journal.getLocation()),
+                                StandardCopyOption.REPLACE_EXISTING);
+                    }
+                    state.set(null);
+                    return loadState();
                 } catch (final IOException ex2) {
                     throw new IllegalStateException(
                             "State file corrupted and could not be fixed: " + oldStateLocation.toAbsolutePath(), ex2);
@@ -94,6 +169,30 @@ class FileBackedStateStorage implements StateStorage {
         return state.get();
     }
 
+    private void replayJournal() {
+        if (journal == null) {
+            return;
+        }
+        var current = state.get();
+        try {
+            var replay = journal.read();
+            replay.getChanges()
+                .forEach(change -> change.applyTo(current));
+            LOGGER.trace("Replayed {} changes from '{}'.", replay.getChanges()
+                .size(), journal.getLocation());
+            if (!replay.isCorrupted()) {
+                return;
+            }
+            var corruptedJournalLocation = getCorruptedLocation(journal.getLocation());
+            Files.move(journal.getLocation(), corruptedJournalLocation, StandardCopyOption.REPLACE_EXISTING);
+            LOGGER.warn("Using state recovered up to the first bad change, old journal moved to {}.",
+                    corruptedJournalLocation.toAbsolutePath());
+            writeSnapshot(current); // Otherwise the valid changes would be lost with the journal.
+        } catch (final Exception ex) {
+            throw new IllegalStateException("State journal could not be read: " + journal.getLocation(), ex);
+        }
+    }
+
     private boolean containskey(final String section, final String key) {
         final boolean hasSection = getState()
             .containsKey(section);
@@ -134,19 +233,31 @@ class FileBackedStateStorage implements StateStorage {
             .stream();
     }
 
+    /**
+     * Apply the change to the state and, if journaling, remember it for the next {@link #store()}. Both happen
+     * atomically, so that the journal sees the changes in the same order as the state did.
+     */
+    private void change(final StateJournal.Change change) {
+        var current = getState(); // Outside of the lock, as loading the state locks this instance.
+        synchronized (pendingChanges) {
+            change.applyTo(current);
+            if (journal != null) {
+                pendingChanges.add(change);
+            }
+        }
+    }
+
     @Override
     public void setValue(final String section, final String key, final String value) {
         LOGGER.trace("Setting '{}' in '{}' to '{}'.", key, section, value);
-        getState().computeIfAbsent(section, __ -> new ConcurrentHashMap<>(1))
-            .put(key, value);
+        change(StateJournal.Change.set(section, key, value));
     }
 
     @Override
     public void unsetValue(final String section, final String key) {
         if (this.containskey(section, key)) {
             LOGGER.trace("Unsetting '{}' in '{}'.", key, section);
-            getState().get(section)
-                .remove(key);
+            change(StateJournal.Change.unset(section, key));
         } else {
             LOGGER.trace("Unsetting non-existent '{}' in '{}'.", key, section);
         }
@@ -155,19 +266,131 @@ class FileBackedStateStorage implements StateStorage {
     @Override
     public void unsetValues(final String section) {
         LOGGER.trace("Unsetting values in '{}'.", section);
-        getState().remove(section);
+        change(StateJournal.Change.unsetSection(section));
+    }
+
+    /**
+     * 
+     * @return True if anything was ever stored, either in the file or in the journal.
+     */
+    boolean exists() {
+        return stateLocation.exists() || (journal != null && Files.exists(journal.getLocation()));
+    }
+
+    /**
+     * Move the files aside, so that they are no longer used but can still be recovered by hand.
+     * 
+     * @param suffix Appended to the names of the files.
+     * @throws IOException When the files could not be moved.
+     */
+    synchronized void retire(final String suffix) throws IOException {
+        var target = stateLocation.toPath();
+        if (Files.exists(target)) {
+            Files.move(target, Path.of(target.toAbsolutePath() + suffix), StandardCopyOption.REPLACE_EXISTING);
+        }
+        if (journal != null && Files.exists(journal.getLocation())) { // Only makes sense together with the file.
+            Files.move(journal.getLocation(), Path.of(journal.getLocation()
+                .toAbsolutePath() + suffix), StandardCopyOption.REPLACE_EXISTING);
+        }
+        synchronized (pendingChanges) {
+            pendingChanges.clear();
+        }
+        state.set(null);
+    }
+
+    private Path writeTemporary(final Map<String, Map<String, String>> snapshot) throws Exception {
+        String json = applyJsonb(jsonb -> jsonb.toJson(snapshot));
+        var temporary = Path.of(stateLocation.getAbsolutePath() + ".tmp");
+        Files.write(temporary, json.getBytes(Defaults.CHARSET));
+        return temporary;
+    }
+
+    private void publish(final Path temporary) throws IOException {
+        Files.move(temporary, stateLocation.toPath(), StandardCopyOption.REPLACE_EXISTING,
+                StandardCopyOption.ATOMIC_MOVE);
+        LOGGER.debug("Stored state: '{}'.", stateLocation.getAbsolutePath());
+    }
+
+    private void writeSnapshot(final Map<String, Map<String, String>> snapshot) throws Exception {
+        publish(writeTemporary(snapshot));
     }
 
     @Override
     public synchronized boolean store() {
+        if (journal == null) {
+            try {
+                String json = applyJsonb(jsonb -> jsonb.toJson(this.getState()));
+                Files.write(stateLocation.toPath(), json.getBytes(Defaults.CHARSET));
+                LOGGER.debug("Stored state: '{}'.", stateLocation.getAbsolutePath());
+                return true;
+            } catch (final Exception e) {
+                LOGGER.warn("Failed storing state.", e);
+                return false;
+            }
+        }
+        List<StateJournal.Change> changes;
+        synchronized (pendingChanges) {
+            changes = new ArrayList<>(pendingChanges);
+            pendingChanges.clear();
+        }
+        if (changes.isEmpty()) {
+            return true;
+        }
         try {
-            String json = applyJsonb(jsonb -> jsonb.toJson(this.getState()));
-            Files.write(stateLocation.toPath(), json.getBytes(Defaults.CHARSET));
-            LOGGER.debug("Stored state: '{}'.", stateLocation.getAbsolutePath());
+            journal.append(changes);
+            LOGGER.debug("Journaled {} changes: '{}'.", changes.size(), journal.getLocation());
+            if (journal.size() > compactionThreshold && isCompactionScheduled.compareAndSet(false, true)) {
+                compactor.execute(this::compact);
+            }
             return true;
         } catch (final Exception e) {
             LOGGER.warn("Failed storing state.", e);
+            synchronized (pendingChanges) { // Try again the next time.
+                pendingChanges.addAll(0, changes);
+            }
             return false;
         }
     }
+
+    /**
+     * Rewrite the JSON file with the current state and empty the journal. Changes not yet in the journal stay
+     * pending; they will be replayed over the new JSON file, which is harmless even if they are already part of it.
+     * <p>
+     * Only taking the snapshot and swapping the files happen under the lock, the JSON is written outside of it. Should
+     * the journal be appended to in the meantime, the new JSON file is thrown away, as emptying the journal would lose
+     * the appended changes. The next {@link #store()} will then ask for another compaction.
+     */
+    void compact() {
+        isCompactionScheduled.set(false);
+        if (journal == null) {
+            return;
+        }
+        try {
+            Map<String, Map<String, String>> current;
+            Map<String, Map<String, String>> snapshot;
+            long journaled;
+            synchronized (this) {
+                current = getState();
+                synchronized (pendingChanges) {
+                    snapshot = current.entrySet()
+                        .stream()
+                        .collect(toMap(Map.Entry::getKey, e -> new HashMap<>(e.getValue())));
+                }
+                journaled = journal.size();
+            }
+            var temporary = writeTemporary(snapshot);
+            synchronized (this) {
+                if (state.get() != current || journal.size() != journaled) {
+                    Files.deleteIfExists(temporary);
+                    LOGGER.debug("State changed while compacting, will try again: '{}'.", journal.getLocation());
+                    return;
+                }
+                publish(temporary);
+                journal.truncate();
+            }
+            LOGGER.debug("Compacted state journal: '{}'.", journal.getLocation());
+        } catch (final Exception ex) {
+            LOGGER.warn("Failed compacting state journal.", ex);
+        }
+    }
 }
@@ -0,0 +1,37 @@
+/*
+ * Copyright 2020 The RoboZonky Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.robozonky.internal.state;
+
+import com.github.robozonky.api.SessionInfo;
+
+/**
+ * Provides {@link FileBackedStateStorage}, the default.
+ */
+public final class FileBackedStateStorageService implements StateStorageService {
+
+    static final String NAME = "json";
+
+    @Override
+    public String getName() {
+        return NAME;
+    }
+
+    @Override
+    public StateStorage create(final SessionInfo session) {
+        return new FileBackedStateStorage(TenantState.getFile(session, "state"));
+    }
+}
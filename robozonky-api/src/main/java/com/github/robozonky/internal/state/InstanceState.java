@@ -16,6 +16,7 @@
 
 package com.github.robozonky.internal.state;
 
+import java.util.concurrent.CompletableFuture;
 import java.util.function.Consumer;
 
 /**
@@ -33,6 +34,18 @@ public interface InstanceState<T> extends StateReader {
      */
     void update(Consumer<StateModifier<T>> modifier);
 
+    /**
+     * Same as {@link #update(Consumer)}, but does not wait for the updates to be persisted. Concurrent updates may be
+     * persisted together.
+     * 
+     * @param modifier Modifier to use.
+     * @return Completes once the updates have been persisted, with false if that failed.
+     */
+    default CompletableFuture<Boolean> updateAsync(Consumer<StateModifier<T>> modifier) {
+        update(modifier);
+        return CompletableFuture.completedFuture(true);
+    }
+
     /**
      * Perform updates to state using a given setter, deleting all pre-existing state information. Not guaranteed to
      * happen immediately, {@link #getValue(String)} may still reflect the state at instantiation.
@@ -41,6 +54,18 @@ public interface InstanceState<T> extends StateReader {
      */
     void reset(Consumer<StateModifier<T>> setter);
 
+    /**
+     * Same as {@link #reset(Consumer)}, but does not wait for the updates to be persisted. Concurrent updates may be
+     * persisted together.
+     * 
+     * @param setter Modifier to use.
+     * @return Completes once the updates have been persisted, with false if that failed.
+     */
+    default CompletableFuture<Boolean> resetAsync(Consumer<StateModifier<T>> setter) {
+        reset(setter);
+        return CompletableFuture.completedFuture(true);
+    }
+
     /**
      * Delete all pre-existing information kept here. Not guaranteed to happen immediately, {@link #getValue(String)}
      * may still reflect the state at instantiation.
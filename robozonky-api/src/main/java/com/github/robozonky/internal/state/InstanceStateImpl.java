@@ -18,6 +18,7 @@ package com.github.robozonky.internal.state;
 
 import java.util.Objects;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
 import java.util.function.Consumer;
 import java.util.stream.Stream;
 
@@ -33,26 +34,35 @@ final class InstanceStateImpl<T> implements InstanceState<T> {
         this.current = current;
     }
 
-    private void execute(final StateModifierImpl<T> modifier) {
-        synchronized (parent) {
-            modifier.run();
-        }
+    private CompletableFuture<Boolean> execute(final StateModifierImpl<T> modifier) {
+        parent.inSection(sectionName, modifier);
+        return parent.commit();
     }
 
-    private void execute(final Consumer<StateModifier<T>> modifier, final boolean fresh) {
+    private CompletableFuture<Boolean> execute(final Consumer<StateModifier<T>> modifier, final boolean fresh) {
         final StateModifierImpl<T> b = new StateModifierImpl<>(this, fresh);
         modifier.accept(b);
-        execute(b);
+        return execute(b);
     }
 
     @Override
     public void update(final Consumer<StateModifier<T>> modifier) {
-        execute(modifier, false);
+        execute(modifier, false).join();
+    }
+
+    @Override
+    public CompletableFuture<Boolean> updateAsync(final Consumer<StateModifier<T>> modifier) {
+        return execute(modifier, false);
     }
 
     @Override
     public void reset(final Consumer<StateModifier<T>> modifier) {
-        execute(modifier, true);
+        execute(modifier, true).join();
+    }
+
+    @Override
+    public CompletableFuture<Boolean> resetAsync(final Consumer<StateModifier<T>> modifier) {
+        return execute(modifier, true);
     }
 
     String getSectionName() {
@@ -0,0 +1,480 @@
+/*
+ * Copyright 2020 The RoboZonky Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.robozonky.internal.state;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import com.github.robozonky.internal.Defaults;
+
+/**
+ * Keeps the state in a single file of fixed-size pages, one record per key. Unlike {@link FileBackedStateStorage},
+ * {@link #store()} only writes the keys changed since the last {@link #store()}, and values are read from the file
+ * when needed instead of being kept in memory. Only the location of every key is kept in memory.
+ * <p>
+ * Every record takes one or more consecutive pages: a header (marker, CRC32 of the rest, number of pages, sequence
+ * number, lengths of section, key and value) followed by the section, key and value. A new value is always written to
+ * free pages, and only then the pages of the old value are released. Should both be found after a crash, the one with
+ * the higher sequence number wins. Pages which do not start a record with a valid checksum are free.
+ * <p>
+ * The file is kept open from the first use until {@link #close()}, and opened again if used afterwards.
+ */
+final class PagedStateStorage implements StateStorage {
+
+    static final int PAGE_SIZE = 256;
+    private static final Logger LOGGER = LogManager.getLogger(PagedStateStorage.class);
+    private static final int HEADER_SIZE = 1 + 4 + 4 + 8 + 4 + 4 + 4;
+    private static final int CHECKSUM_POSITION = 1;
+    private static final int CHECKSUM_START = CHECKSUM_POSITION + 4; // Covers everything after, page count included.
+    private static final int PAGES_POSITION = CHECKSUM_START;
+    private static final int SEQUENCE_POSITION = PAGES_POSITION + 4;
+    private static final byte USED = 0x5A;
+    private static final byte FREE = 0x00;
+
+    private final Path location;
+    private final ReadWriteLock fileLock = new ReentrantReadWriteLock(); // Reads may happen during writes otherwise.
+    private final Map<String, Map<String, Location>> locations = new ConcurrentHashMap<>(0);
+    private final Map<String, Map<String, Optional<String>>> pending = new ConcurrentHashMap<>(0);
+    private final BitSet usedPages = new BitSet();
+    private int firstFreePage = 0; // No free page before this one; saves scanning the whole file for every record.
+    private FileChannel channel;
+    private long nextSequence = 0;
+    private volatile boolean isLoaded = false;
+
+    public PagedStateStorage(final Path location) {
+        this.location = location;
+    }
+
+    private static int checksum(final ByteBuffer record, final int length) {
+        var crc = new CRC32();
+        crc.update(record.duplicate()
+            .position(CHECKSUM_START)
+            .limit(length));
+        return (int) crc.getValue();
+    }
+
+    private static int getPageCount(final int recordLength) {
+        return (recordLength + PAGE_SIZE - 1) / PAGE_SIZE;
+    }
+
+    private static long getPosition(final int page) {
+        return (long) page * PAGE_SIZE;
+    }
+
+    private void ensureLoaded() {
+        if (isLoaded) {
+            return;
+        }
+        fileLock.writeLock()
+            .lock();
+        try {
+            if (!isLoaded) {
+                load();
+                isLoaded = true;
+            }
+        } catch (final IOException ex) {
+            throw new IllegalStateException("State could not be read: " + location, ex);
+        } finally {
+            fileLock.writeLock()
+                .unlock();
+        }
+    }
+
+    private synchronized FileChannel getChannel() throws IOException {
+        if (channel == null) {
+            channel = FileChannel.open(location, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                    StandardOpenOption.WRITE);
+        }
+        return channel;
+    }
+
+    private synchronized void closeChannel() {
+        if (channel == null) {
+            return;
+        }
+        try {
+            channel.close();
+        } catch (final IOException ex) {
+            LOGGER.debug("Failed closing state file.", ex);
+        } finally {
+            channel = null;
+        }
+    }
+
+    private void load() throws IOException {
+        try {
+            readRecords();
+        } catch (final IOException | RuntimeException ex) {
+            closeChannel();
+            reset();
+            throw ex;
+        }
+    }
+
+    private int getFilePageCount() throws IOException {
+        return (int) (getChannel().size() / PAGE_SIZE);
+    }
+
+    private void readRecords() throws IOException {
+        var pageCount = getFilePageCount();
+        var recordCount = 0;
+        var page = 0;
+        while (page < pageCount) {
+            var record = readRecord(page, pageCount);
+            if (record == null) {
+                page++;
+                continue;
+            }
+            recordCount++;
+            var sectionLocations = locations.computeIfAbsent(record.section, key -> new ConcurrentHashMap<>(1));
+            var existing = sectionLocations.get(record.key);
+            usedPages.set(page, page + record.location.pages);
+            if (existing == null || existing.sequence < record.location.sequence) {
+                sectionLocations.put(record.key, record.location);
+                if (existing != null) {
+                    release(existing);
+                }
+            } else { // Left behind by a crash before the old value could be released.
+                release(record.location);
+            }
+            nextSequence = Math.max(nextSequence, record.location.sequence + 1);
+            page += record.location.pages;
+        }
+        LOGGER.debug("Read {} records from {} pages of '{}'.", recordCount, pageCount, location);
+    }
+
+    private ByteBuffer read(final int page, final int length) throws IOException {
+        var buffer = ByteBuffer.allocate(length);
+        var position = getPosition(page);
+        while (buffer.hasRemaining()) {
+            if (getChannel().read(buffer, position + buffer.position()) < 0) {
+                break;
+            }
+        }
+        return buffer.flip();
+    }
+
+    private void write(final int page, final ByteBuffer buffer) throws IOException {
+        var position = getPosition(page);
+        while (buffer.hasRemaining()) {
+            getChannel().write(buffer, position + buffer.position());
+        }
+    }
+
+    /**
+     * 
+     * @param page      First page of the record.
+     * @param pageCount Number of pages in the file.
+     * @return Null unless a valid record starts at the page.
+     */
+    private Record readRecord(final int page, final int pageCount) throws IOException {
+        var header = read(page, HEADER_SIZE);
+        if (header.remaining() < HEADER_SIZE || header.get(0) != USED) {
+            return null;
+        }
+        var pages = header.getInt(PAGES_POSITION);
+        if (pages < 1 || pages > pageCount - page) {
+            return null;
+        }
+        var record = read(page, pages * PAGE_SIZE);
+        var sectionLength = record.getInt(HEADER_SIZE - 12);
+        var keyLength = record.getInt(HEADER_SIZE - 8);
+        var valueLength = record.getInt(HEADER_SIZE - 4);
+        var length = (long) HEADER_SIZE + sectionLength + keyLength + valueLength;
+        if (sectionLength < 0 || keyLength < 0 || valueLength < 0 || length > record.limit()) {
+            return null;
+        } else if (checksum(record, (int) length) != record.getInt(CHECKSUM_POSITION)) {
+            return null;
+        }
+        var sequence = record.getLong(SEQUENCE_POSITION);
+        var section = readString(record, HEADER_SIZE, sectionLength);
+        var key = readString(record, HEADER_SIZE + sectionLength, keyLength);
+        var value = readString(record, HEADER_SIZE + sectionLength + keyLength, valueLength);
+        return new Record(section, key, value, new Location(page, pages, sequence));
+    }
+
+    private static String readString(final ByteBuffer record, final int offset, final int length) {
+        return new String(record.array(), offset, length, Defaults.CHARSET);
+    }
+
+    private Location writeRecord(final String section, final String key, final String value) throws IOException {
+        var sectionBytes = section.getBytes(Defaults.CHARSET);
+        var keyBytes = key.getBytes(Defaults.CHARSET);
+        var valueBytes = value.getBytes(Defaults.CHARSET);
+        var length = HEADER_SIZE + sectionBytes.length + keyBytes.length + valueBytes.length;
+        var pages = getPageCount(length);
+        var sequence = nextSequence++;
+        var record = ByteBuffer.allocate(pages * PAGE_SIZE)
+            .put(USED)
+            .putInt(0) // Checksum, to be filled in once the rest is known.
+            .putInt(pages)
+            .putLong(sequence)
+            .putInt(sectionBytes.length)
+            .putInt(keyBytes.length)
+            .putInt(valueBytes.length)
+            .put(sectionBytes)
+            .put(keyBytes)
+            .put(valueBytes);
+        record.putInt(CHECKSUM_POSITION, checksum(record, length))
+            .clear();
+        var page = allocate(pages);
+        write(page, record);
+        return new Location(page, pages, sequence);
+    }
+
+    /**
+     * Find the first run of free pages long enough, or append to the end of the file.
+     */
+    private int allocate(final int pages) {
+        var start = usedPages.nextClearBit(firstFreePage);
+        firstFreePage = start;
+        while (true) {
+            var nextUsed = usedPages.nextSetBit(start);
+            if (nextUsed < 0 || nextUsed - start >= pages) {
+                usedPages.set(start, start + pages);
+                if (start == firstFreePage) {
+                    firstFreePage = usedPages.nextClearBit(start + pages);
+                }
+                return start;
+            }
+            start = usedPages.nextClearBit(nextUsed);
+        }
+    }
+
+    private void release(final Location location) throws IOException {
+        write(location.page, ByteBuffer.wrap(new byte[] { FREE }));
+        usedPages.clear(location.page, location.page + location.pages);
+        firstFreePage = Math.min(firstFreePage, location.page);
+    }
+
+    private Optional<String> readValue(final String section, final String key) {
+        fileLock.readLock()
+            .lock();
+        try {
+            var sectionLocations = locations.get(section);
+            var location = sectionLocations == null ? null : sectionLocations.get(key);
+            if (location == null) {
+                return Optional.empty();
+            }
+            var record = readRecord(location.page, getFilePageCount());
+            if (record == null) {
+                throw new IllegalStateException("State corrupted at page " + location.page + ": " + this.location);
+            }
+            return Optional.of(record.value);
+        } catch (final IOException ex) {
+            throw new IllegalStateException("State could not be read: " + location, ex);
+        } finally {
+            fileLock.readLock()
+                .unlock();
+        }
+    }
+
+    @Override
+    public Optional<String> getValue(final String section, final String key) {
+        ensureLoaded();
+        var change = pending.getOrDefault(section, Collections.emptyMap())
+            .get(key);
+        var value = change == null ? readValue(section, key) : change;
+        return value.map(String::trim)
+            .filter(v -> !v.isEmpty());
+    }
+
+    @Override
+    public Stream<String> getKeys(final String section) {
+        ensureLoaded();
+        Set<String> result = new HashSet<>(locations.getOrDefault(section, Collections.emptyMap())
+            .keySet());
+        pending.getOrDefault(section, Collections.emptyMap())
+            .forEach((key, value) -> {
+                if (value.isPresent()) {
+                    result.add(key);
+                } else {
+                    result.remove(key);
+                }
+            });
+        return result.stream();
+    }
+
+    @Override
+    public Stream<String> getSections() {
+        ensureLoaded();
+        return Stream.concat(locations.keySet()
+            .stream(),
+                pending.keySet()
+                    .stream())
+            .distinct()
+            .filter(section -> getKeys(section).findAny()
+                .isPresent());
+    }
+
+    private void change(final String section, final String key, final Optional<String> value) {
+        pending.computeIfAbsent(section, s -> new ConcurrentHashMap<>(1))
+            .put(key, value);
+    }
+
+    @Override
+    public void setValue(final String section, final String key, final String value) {
+        LOGGER.trace("Setting '{}' in '{}' to '{}'.", key, section, value);
+        change(section, key, Optional.of(value));
+    }
+
+    @Override
+    public void unsetValue(final String section, final String key) {
+        LOGGER.trace("Unsetting '{}' in '{}'.", key, section);
+        change(section, key, Optional.empty());
+    }
+
+    @Override
+    public void unsetValues(final String section) {
+        LOGGER.trace("Unsetting values in '{}'.", section);
+        getKeys(section).forEach(key -> change(section, key, Optional.empty()));
+    }
+
+    @Override
+    public boolean store() {
+        ensureLoaded();
+        fileLock.writeLock()
+            .lock();
+        try {
+            List<Runnable> stored = new ArrayList<>(0);
+            List<Location> released = new ArrayList<>(0);
+            pending.forEach((section, changes) -> changes.forEach((key, value) -> {
+                var sectionLocations = locations.computeIfAbsent(section, s -> new ConcurrentHashMap<>(1));
+                try {
+                    var previous = value.isPresent() ? sectionLocations.put(key, writeRecord(section, key, value.get()))
+                            : sectionLocations.remove(key);
+                    if (previous != null) {
+                        released.add(previous);
+                    }
+                } catch (final IOException ex) {
+                    throw new IllegalStateException(ex);
+                }
+                stored.add(() -> changes.remove(key, value)); // Unless changed again in the meantime.
+            }));
+            if (stored.isEmpty()) {
+                return true;
+            }
+            getChannel().force(false); // New values are durable; only now can the old ones go.
+            for (var location : released) {
+                release(location);
+            }
+            getChannel().force(false);
+            stored.forEach(Runnable::run);
+            LOGGER.debug("Stored {} changes: '{}'.", stored.size(), location);
+            return true;
+        } catch (final Exception ex) {
+            LOGGER.warn("Failed storing state.", ex);
+            return false;
+        } finally {
+            fileLock.writeLock()
+                .unlock();
+        }
+    }
+
+    /**
+     * Forget everything read from the file, so that the next use reads it again.
+     */
+    private void reset() {
+        locations.clear();
+        usedPages.clear();
+        firstFreePage = 0;
+        nextSequence = 0;
+        isLoaded = false;
+    }
+
+    /**
+     * Waits for reads and writes in progress. Neither the state in memory nor the changes not yet stored are lost.
+     */
+    @Override
+    public void close() {
+        fileLock.writeLock()
+            .lock();
+        try {
+            closeChannel();
+            LOGGER.debug("State file closed: '{}'.", location);
+        } finally {
+            fileLock.writeLock()
+                .unlock();
+        }
+    }
+
+    @Override
+    public void destroy() {
+        fileLock.writeLock()
+            .lock();
+        try {
+            closeChannel();
+            Files.deleteIfExists(location);
+            LOGGER.debug("State destroyed.");
+        } catch (final IOException ex) {
+            LOGGER.debug("Failed deleting state file.", ex);
+        } finally {
+            pending.clear();
+            reset();
+            fileLock.writeLock()
+                .unlock();
+        }
+    }
+
+    private static final class Location {
+
+        private final int page;
+        private final int pages;
+        private final long sequence;
+
+        Location(final int page, final int pages, final long sequence) {
+            this.page = page;
+            this.pages = pages;
+            this.sequence = sequence;
+        }
+    }
+
+    private static final class Record {
+
+        private final String section;
+        private final String key;
+        private final String value;
+        private final Location location;
+
+        Record(final String section, final String key, final String value, final Location location) {
+            this.section = section;
+            this.key = key;
+            this.value = value;
+            this.location = location;
+        }
+    }
+}
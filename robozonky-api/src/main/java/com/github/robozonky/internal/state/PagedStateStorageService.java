@@ -0,0 +1,86 @@
+/*
+ * Copyright 2020 The RoboZonky Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.robozonky.internal.state;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import com.github.robozonky.api.SessionInfo;
+
+/**
+ * Provides {@link PagedStateStorage}. State previously kept by {@link FileBackedStateStorageService} is copied over
+ * the first time, after which the old files are only kept with a ".migrated" suffix.
+ */
+public final class PagedStateStorageService implements StateStorageService {
+
+    private static final Logger LOGGER = LogManager.getLogger(PagedStateStorageService.class);
+
+    static void copy(final StateStorage source, final StateStorage target) {
+        source.getSections()
+            .forEach(section -> source.getKeys(section)
+                .forEach(key -> source.getValue(section, key)
+                    .ifPresent(value -> target.setValue(section, key, value))));
+    }
+
+    /**
+     * The state is migrated into a temporary file, which only replaces the paged file once complete. Should the
+     * migration be interrupted, the paged file does not exist and the next start migrates again.
+     */
+    static StateStorage create(final File file, final File legacyFile) {
+        var legacyStorage = new FileBackedStateStorage(legacyFile);
+        if (file.exists() || !legacyStorage.exists()) {
+            return new PagedStateStorage(file.toPath());
+        }
+        LOGGER.info("Migrating state from '{}' to '{}'.", legacyFile, file);
+        var temporary = Path.of(file.getAbsolutePath() + ".tmp");
+        var storage = new PagedStateStorage(temporary);
+        try {
+            Files.deleteIfExists(temporary); // Left behind by an interrupted migration.
+            copy(legacyStorage, storage);
+            if (!storage.store()) {
+                throw new IllegalStateException("Failed storing migrated state.");
+            }
+            storage.close();
+            Files.move(temporary, file.toPath(), StandardCopyOption.ATOMIC_MOVE);
+        } catch (final Exception ex) {
+            LOGGER.warn("Failed migrating state, will keep using '{}'.", legacyFile, ex);
+            storage.destroy();
+            return legacyStorage;
+        }
+        try {
+            legacyStorage.retire(".migrated");
+        } catch (final Exception ex) { // The migrated state is complete and will be used from now on regardless.
+            LOGGER.warn("Failed retiring '{}'.", legacyFile, ex);
+        }
+        return new PagedStateStorage(file.toPath());
+    }
+
+    @Override
+    public String getName() {
+        return "paged";
+    }
+
+    @Override
+    public StateStorage create(final SessionInfo session) {
+        return create(TenantState.getFile(session, "pages"), TenantState.getFile(session, "state"));
+    }
+}
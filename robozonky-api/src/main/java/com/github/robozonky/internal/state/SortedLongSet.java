@@ -0,0 +1,273 @@
+/*
+ * Copyright 2020 The RoboZonky Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.robozonky.internal.state;
+
+import java.io.ByteArrayOutputStream;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.regex.Pattern;
+import java.util.stream.LongStream;
+
+/**
+ * Immutable set of primitive longs, such as IDs of investments, kept sorted so that membership can be checked in
+ * logarithmic time without boxing. Stored in {@link InstanceState} using
+ * {@link StateModifier#put(String, SortedLongSet)}
+ * and read back using {@link StateReader#getLongSet(String)}.
+ * <p>
+ * The stored form is the first value followed by the differences between neighbouring values, all as variable-length
+ * integers, encoded in Base64. Values stored the old way, as decimal numbers separated by ";", are read as well.
+ */
+public final class SortedLongSet {
+
+    private static final SortedLongSet EMPTY = new SortedLongSet(new long[0]);
+    private static final String PREFIX = "#";
+    private static final Pattern LEGACY_SEPARATOR = Pattern.compile("\\Q" + Constants.VALUE_SEPARATOR.getValue() +
+            "\\E");
+
+    private final long[] values;
+
+    private SortedLongSet(final long[] values) {
+        this.values = values;
+    }
+
+    public static SortedLongSet empty() {
+        return EMPTY;
+    }
+
+    public static SortedLongSet of(final long... values) {
+        return of(LongStream.of(values));
+    }
+
+    public static SortedLongSet of(final LongStream values) {
+        return wrap(values.sorted()
+            .distinct()
+            .toArray());
+    }
+
+    private static SortedLongSet wrap(final long[] sortedDistinct) {
+        return sortedDistinct.length == 0 ? EMPTY : new SortedLongSet(sortedDistinct);
+    }
+
+    /**
+     * Read the set back from what {@link #encode()} produced, or from the legacy ";"-separated decimal format.
+     * 
+     * @param encoded Never null.
+     * @return Never null.
+     * @throws IllegalArgumentException When the string is in neither of the formats.
+     */
+    public static SortedLongSet decode(final String encoded) {
+        if (encoded.startsWith(PREFIX)) {
+            return decodeVarints(Base64.getUrlDecoder()
+                .decode(encoded.substring(PREFIX.length())));
+        } else if (encoded.isBlank()) {
+            return EMPTY;
+        }
+        return of(LEGACY_SEPARATOR.splitAsStream(encoded)
+            .map(String::trim)
+            .mapToLong(Long::parseLong));
+    }
+
+    private static SortedLongSet decodeVarints(final byte[] bytes) {
+        var result = new long[bytes.length]; // Every value takes at least one byte.
+        var count = 0;
+        var position = 0;
+        var previous = 0L;
+        while (position < bytes.length) {
+            var value = 0L;
+            var shift = 0;
+            byte current;
+            do {
+                if (position == bytes.length || shift > 63) {
+                    throw new IllegalArgumentException("Truncated or overlong value at byte " + position + ".");
+                }
+                current = bytes[position++];
+                value |= (current
+                        & 0x7FL) << shift;
+                shift += 7;
+            } while ((current
+                    & 0x80) != 0);
+            if (count == 0) {
+                previous = (value >>> 1)
+                        ^ -(value
+                                & 1); // The first value is zig-zag encoded, so that it may be < 0.
+            } else if (value == 0) {
+                throw new IllegalArgumentException("Duplicate value at byte " + position + ".");
+            } else {
+                previous += value; // Unsigned difference; overflow is intended, the sum ends up where it should.
+            }
+            result[count++] = previous;
+        }
+        return wrap(Arrays.copyOf(result, count));
+    }
+
+    private static void writeVarint(final ByteArrayOutputStream out, final long value) {
+        var remaining = value;
+        while ((remaining
+                & ~0x7FL) != 0) {
+            out.write((int) ((remaining
+                    & 0x7F)
+                    | 0x80));
+            remaining >>>= 7;
+        }
+        out.write((int) remaining);
+    }
+
+    /**
+     * 
+     * @return Compact string representation, to be read back by {@link #decode(String)}.
+     */
+    public String encode() {
+        var out = new ByteArrayOutputStream(values.length * 2);
+        for (var i = 0; i < values.length; i++) {
+            if (i == 0) {
+                writeVarint(out, (values[0] << 1)
+                        ^ (values[0] >> 63));
+            } else {
+                writeVarint(out, values[i] - values[i - 1]);
+            }
+        }
+        return PREFIX + Base64.getUrlEncoder()
+            .withoutPadding()
+            .encodeToString(out.toByteArray());
+    }
+
+    public boolean contains(final long value) {
+        return Arrays.binarySearch(values, value) >= 0;
+    }
+
+    public int size() {
+        return values.length;
+    }
+
+    public boolean isEmpty() {
+        return values.length == 0;
+    }
+
+    public SortedLongSet with(final long value) {
+        var index = Arrays.binarySearch(values, value);
+        if (index >= 0) {
+            return this;
+        }
+        var insertAt = -index - 1;
+        var result = new long[values.length + 1];
+        System.arraycopy(values, 0, result, 0, insertAt);
+        result[insertAt] = value;
+        System.arraycopy(values, insertAt, result, insertAt + 1, values.length - insertAt);
+        return new SortedLongSet(result);
+    }
+
+    public SortedLongSet without(final long value) {
+        var index = Arrays.binarySearch(values, value);
+        if (index < 0) {
+            return this;
+        }
+        var result = new long[values.length - 1];
+        System.arraycopy(values, 0, result, 0, index);
+        System.arraycopy(values, index + 1, result, index, values.length - index - 1);
+        return wrap(result);
+    }
+
+    /**
+     * 
+     * @param other Never null.
+     * @return Values present in either of the sets.
+     */
+    public SortedLongSet union(final SortedLongSet other) {
+        if (other.isEmpty()) {
+            return this;
+        } else if (isEmpty()) {
+            return other;
+        }
+        var result = new long[values.length + other.values.length];
+        int i = 0, j = 0, count = 0;
+        while (i < values.length && j < other.values.length) {
+            var compared = Long.compare(values[i], other.values[j]);
+            if (compared < 0) {
+                result[count++] = values[i++];
+            } else if (compared > 0) {
+                result[count++] = other.values[j++];
+            } else {
+                result[count++] = values[i++];
+                j++;
+            }
+        }
+        while (i < values.length) {
+            result[count++] = values[i++];
+        }
+        while (j < other.values.length) {
+            result[count++] = other.values[j++];
+        }
+        return new SortedLongSet(Arrays.copyOf(result, count));
+    }
+
+    /**
+     * 
+     * @param other Never null.
+     * @return Values present in this set and not in the other.
+     */
+    public SortedLongSet difference(final SortedLongSet other) {
+        if (isEmpty() || other.isEmpty()) {
+            return this;
+        }
+        var result = new long[values.length];
+        int i = 0, j = 0, count = 0;
+        while (i < values.length && j < other.values.length) {
+            var compared = Long.compare(values[i], other.values[j]);
+            if (compared < 0) {
+                result[count++] = values[i++];
+            } else if (compared > 0) {
+                j++;
+            } else {
+                i++;
+                j++;
+            }
+        }
+        while (i < values.length) {
+            result[count++] = values[i++];
+        }
+        return count == values.length ? this : wrap(Arrays.copyOf(result, count));
+    }
+
+    /**
+     * 
+     * @return Values in ascending order.
+     */
+    public LongStream stream() {
+        return Arrays.stream(values);
+    }
+
+    @Override
+    public boolean equals(final Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (o == null || getClass() != o.getClass()) {
+            return false;
+        }
+        return Arrays.equals(values, ((SortedLongSet) o).values);
+    }
+
+    @Override
+    public int hashCode() {
+        return Arrays.hashCode(values);
+    }
+
+    @Override
+    public String toString() {
+        return Arrays.toString(values);
+    }
+}
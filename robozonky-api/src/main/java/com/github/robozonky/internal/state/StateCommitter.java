@@ -0,0 +1,115 @@
+/*
+ * Copyright 2020 The RoboZonky Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.robozonky.internal.state;
+
+import java.util.ArrayList;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import com.github.robozonky.internal.Defaults;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Timer;
+
+/**
+ * Persists changes to {@link StateStorage} in groups. Changes are applied to the storage in memory by their callers,
+ * who then ask for a commit. A single writer thread takes all the commits requested so far and persists them with one
+ * {@link StateStorage#store()}, no matter how many there are.
+ */
+final class StateCommitter {
+
+    private static final Logger LOGGER = LogManager.getLogger(StateCommitter.class);
+    private static final Executor WRITER = Executors.newSingleThreadExecutor(r -> {
+        var thread = new Thread(r, "robozonky-state-writer");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private static final DistributionSummary BATCH_SIZE = DistributionSummary.builder("robozonky.state.commit.batch")
+        .description("How many commits were persisted with a single write.")
+        .register(Defaults.METER_REGISTRY);
+    private static final Timer LATENCY = Timer.builder("robozonky.state.commit.latency")
+        .description("Time from requesting a commit until it was persisted.")
+        .register(Defaults.METER_REGISTRY);
+
+    private final StateStorage storage;
+    private final Executor writer;
+    private final Queue<Commit> pending = new ConcurrentLinkedQueue<>();
+    private final AtomicBoolean isWriteScheduled = new AtomicBoolean(false);
+
+    public StateCommitter(final StateStorage storage) {
+        this(storage, WRITER);
+    }
+
+    StateCommitter(final StateStorage storage, final Executor writer) {
+        this.storage = storage;
+        this.writer = writer;
+    }
+
+    /**
+     * Request that all the changes made to the storage so far be persisted.
+     * 
+     * @return Completes once the changes have been persisted, with false if that failed.
+     */
+    public CompletableFuture<Boolean> commit() {
+        var commit = new Commit();
+        pending.add(commit);
+        if (isWriteScheduled.compareAndSet(false, true)) {
+            writer.execute(this::write);
+        }
+        return commit.result;
+    }
+
+    private void write() {
+        isWriteScheduled.set(false); // Commits from now on schedule another write; it may find nothing to do.
+        var batch = new ArrayList<Commit>(pending.size());
+        for (var commit = pending.poll(); commit != null; commit = pending.poll()) {
+            batch.add(commit);
+        }
+        if (batch.isEmpty()) {
+            return;
+        }
+        var stored = false;
+        try {
+            stored = storage.store();
+        } catch (final Exception ex) {
+            LOGGER.warn("Failed storing state.", ex);
+        } finally {
+            BATCH_SIZE.record(batch.size());
+            var now = System.nanoTime();
+            for (var commit : batch) {
+                LATENCY.record(now - commit.requestedOn, TimeUnit.NANOSECONDS);
+                commit.result.complete(stored);
+            }
+            LOGGER.trace("Committed {} changes.", batch.size());
+        }
+    }
+
+    private static final class Commit {
+
+        private final long requestedOn = System.nanoTime();
+        private final CompletableFuture<Boolean> result = new CompletableFuture<>();
+
+    }
+}
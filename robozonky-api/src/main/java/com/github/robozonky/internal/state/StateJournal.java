@@ -0,0 +1,312 @@
+/*
+ * Copyright 2020 The RoboZonky Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.robozonky.internal.state;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.zip.CRC32;
+
+import com.github.robozonky.internal.Defaults;
+
+/**
+ * Append-only log of changes to {@link FileBackedStateStorage}, to be replayed over its last snapshot.
+ * <p>
+ * Every record is the length of its payload, a CRC32 of the payload and the payload itself: type of the change,
+ * section, key and value, as applicable. Replay stops at the first record which is incomplete or fails its checksum;
+ * everything before it is still valid.
+ * <p>
+ * Replaying changes which are already part of the snapshot is harmless, as the result of applying any sequence of
+ * changes twice is the same as applying it once.
+ */
+final class StateJournal {
+
+    private static final int MAX_RECORD_LENGTH = 64 * 1024 * 1024;
+
+    private final Path location;
+    private final ChannelWriter writer;
+    private long tornAt = -1;
+
+    public StateJournal(final Path location) {
+        this(location, StateJournal::writeFully);
+    }
+
+    StateJournal(final Path location, final ChannelWriter writer) {
+        this.location = location;
+        this.writer = writer;
+    }
+
+    private static void writeFully(final FileChannel channel, final ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+    }
+
+    private static void writeString(final DataOutputStream out, final String string) throws IOException {
+        var bytes = string.getBytes(Defaults.CHARSET);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static String readString(final ByteBuffer buffer) {
+        var length = buffer.getInt();
+        if (length < 0 || length > buffer.remaining()) {
+            throw new IllegalArgumentException("Invalid string length: " + length);
+        }
+        var bytes = new byte[length];
+        buffer.get(bytes);
+        return new String(bytes, Defaults.CHARSET);
+    }
+
+    private static int checksum(final byte[] payload, final int offset, final int length) {
+        var crc = new CRC32();
+        crc.update(payload, offset, length);
+        return (int) crc.getValue();
+    }
+
+    public Path getLocation() {
+        return location;
+    }
+
+    public long size() throws IOException {
+        return Files.exists(location) ? Files.size(location) : 0;
+    }
+
+    /**
+     * Write the changes to the end of the journal, in a single write, and make sure they reach the disk. If that fails
+     * halfway through, whatever was written is cut off again; otherwise replay would stop at the torn record and lose
+     * everything appended after it.
+     * 
+     * @param changes Changes in the order in which they happened.
+     * @throws IOException When the journal could not be written.
+     */
+    public synchronized void append(final Collection<Change> changes) throws IOException {
+        var records = new ByteArrayOutputStream();
+        var recordsOut = new DataOutputStream(records);
+        for (var change : changes) {
+            var payload = change.toBytes();
+            recordsOut.writeInt(payload.length);
+            recordsOut.writeInt(checksum(payload, 0, payload.length));
+            recordsOut.write(payload);
+        }
+        try (var channel = FileChannel.open(location, StandardOpenOption.CREATE, StandardOpenOption.WRITE)) {
+            if (tornAt >= 0) { // Could not be cut off when the previous append failed.
+                channel.truncate(tornAt);
+                tornAt = -1;
+            }
+            var start = channel.size();
+            try {
+                writer.write(channel.position(start), ByteBuffer.wrap(records.toByteArray()));
+                channel.force(false); // The changes are only ever as durable as this.
+            } catch (final IOException | RuntimeException ex) {
+                tornAt = start;
+                try {
+                    channel.truncate(start);
+                    channel.force(false);
+                    tornAt = -1;
+                } catch (final IOException ex2) {
+                    ex.addSuppressed(ex2);
+                }
+                throw ex;
+            }
+        }
+    }
+
+    /**
+     * Read all the valid changes from the journal.
+     * 
+     * @return Changes in the order in which they were written.
+     * @throws IOException When the journal could not be read.
+     */
+    public Replay read() throws IOException {
+        if (!Files.exists(location)) {
+            return new Replay(Collections.emptyList(), false);
+        }
+        var buffer = ByteBuffer.wrap(Files.readAllBytes(location));
+        var changes = new ArrayList<Change>(0);
+        while (buffer.hasRemaining()) {
+            try {
+                var length = buffer.getInt();
+                var checksum = buffer.getInt();
+                if (length < 0 || length > MAX_RECORD_LENGTH || length > buffer.remaining()) {
+                    return new Replay(changes, true);
+                }
+                var offset = buffer.position();
+                if (checksum(buffer.array(), offset, length) != checksum) {
+                    return new Replay(changes, true);
+                }
+                changes.add(Change.fromBytes(buffer.slice()
+                    .limit(length)));
+                buffer.position(offset + length);
+            } catch (final BufferUnderflowException | IllegalArgumentException ex) { // Truncated or unknown record.
+                return new Replay(changes, true);
+            }
+        }
+        return new Replay(changes, false);
+    }
+
+    /**
+     * Remove all changes from the journal. To be called once they are all part of the snapshot.
+     * 
+     * @throws IOException When the journal could not be truncated.
+     */
+    public synchronized void truncate() throws IOException {
+        tornAt = -1;
+        Files.write(location, new byte[0], StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING,
+                StandardOpenOption.WRITE);
+    }
+
+    public synchronized void delete() throws IOException {
+        tornAt = -1;
+        Files.deleteIfExists(location);
+    }
+
+    @FunctionalInterface
+    interface ChannelWriter {
+
+        void write(FileChannel channel, ByteBuffer buffer) throws IOException;
+
+    }
+
+    enum ChangeType {
+
+        SET,
+        UNSET,
+        UNSET_SECTION;
+
+    }
+
+    static final class Replay {
+
+        private final List<Change> changes;
+        private final boolean corrupted;
+
+        private Replay(final List<Change> changes, final boolean corrupted) {
+            this.changes = Collections.unmodifiableList(changes);
+            this.corrupted = corrupted;
+        }
+
+        public List<Change> getChanges() {
+            return changes;
+        }
+
+        /**
+         * @return True if the journal contained a record which could not be read. Neither that record, nor any that
+         *         came after it, are part of {@link #getChanges()}.
+         */
+        public boolean isCorrupted() {
+            return corrupted;
+        }
+    }
+
+    static final class Change {
+
+        private final ChangeType type;
+        private final String section;
+        private final String key;
+        private final String value;
+
+        private Change(final ChangeType type, final String section, final String key, final String value) {
+            this.type = type;
+            this.section = section;
+            this.key = key;
+            this.value = value;
+        }
+
+        public static Change set(final String section, final String key, final String value) {
+            return new Change(ChangeType.SET, section, key, value);
+        }
+
+        public static Change unset(final String section, final String key) {
+            return new Change(ChangeType.UNSET, section, key, null);
+        }
+
+        public static Change unsetSection(final String section) {
+            return new Change(ChangeType.UNSET_SECTION, section, null, null);
+        }
+
+        static Change fromBytes(final ByteBuffer buffer) {
+            var types = ChangeType.values();
+            var ordinal = buffer.get();
+            if (ordinal < 0 || ordinal >= types.length) {
+                throw new IllegalArgumentException("Unknown change type: " + ordinal);
+            }
+            var type = types[ordinal];
+            var section = readString(buffer);
+            switch (type) {
+                case SET:
+                    return set(section, readString(buffer), readString(buffer));
+                case UNSET:
+                    return unset(section, readString(buffer));
+                default:
+                    return unsetSection(section);
+            }
+        }
+
+        byte[] toBytes() throws IOException {
+            var bytes = new ByteArrayOutputStream();
+            var out = new DataOutputStream(bytes);
+            out.writeByte(type.ordinal());
+            writeString(out, section);
+            if (type != ChangeType.UNSET_SECTION) {
+                writeString(out, key);
+            }
+            if (type == ChangeType.SET) {
+                writeString(out, value);
+            }
+            return bytes.toByteArray();
+        }
+
+        public void applyTo(final Map<String, Map<String, String>> state) {
+            switch (type) {
+                case SET:
+                    state.computeIfAbsent(section, __ -> new ConcurrentHashMap<>(1))
+                        .put(key, value);
+                    break;
+                case UNSET:
+                    var values = state.get(section);
+                    if (values != null) {
+                        values.remove(key);
+                    }
+                    break;
+                default:
+                    state.remove(section);
+            }
+        }
+
+        @Override
+        public String toString() {
+            return "Change{" +
+                    "type=" + type +
+                    ", section='" + section + '\'' +
+                    ", key='" + key + '\'' +
+                    '}';
+        }
+    }
+}
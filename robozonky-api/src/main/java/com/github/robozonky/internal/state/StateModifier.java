@@ -55,6 +55,18 @@ public interface StateModifier<T> {
         return put(key, values.collect(Collectors.joining(separator)));
     }
 
+    /**
+     * Associate a set of longs with a key in the underlying {@link StateStorage}, in a compact form. Such values can
+     * then be read back with {@link StateReader#getLongSet(String)}.
+     * 
+     * @param key    Key to look up the value with.
+     * @param values Values to associate with the key, overwriting anything previously set there.
+     * @return This.
+     */
+    default StateModifier<T> put(final String key, final SortedLongSet values) {
+        return put(key, values.encode());
+    }
+
     /**
      * Remove value associated with the key from underlying {@link StateStorage}.
      * 
@@ -23,7 +23,8 @@ import java.util.function.BiConsumer;
 import com.github.robozonky.internal.test.DateUtil;
 
 /**
- * Has to be thread-safe, as {@link #put(String, String)} and {@link #run()} may happen in parallel.
+ * Has to be thread-safe, as {@link #put(String, String)} and {@link #run()} may happen in parallel. Only changes the
+ * storage in memory; persisting the changes is up to the caller.
  * 
  * @param <T>
  */
@@ -66,6 +67,5 @@ final class StateModifierImpl<T> implements StateModifier<T>,
         backend.setValue(sectionName, Constants.LAST_UPDATED_KEY.getValue(), DateUtil.zonedNow()
             .toOffsetDateTime()
             .toString());
-        backend.store();
     }
 }
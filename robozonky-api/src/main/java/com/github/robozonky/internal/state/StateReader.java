@@ -63,6 +63,17 @@ interface StateReader {
         return getValue(key).map(value -> Stream.of(value.split("\\Q" + separator + "\\E")));
     }
 
+    /**
+     * Retrieve a set of longs previously stored with {@link StateModifier#put(String, SortedLongSet)}, or as
+     * ";"-separated values using {@link StateModifier#put(String, Stream)}.
+     * 
+     * @param key Key under which the value was previously stored.
+     * @return A (possibly empty) set if the key is present, empty otherwise.
+     */
+    default Optional<SortedLongSet> getLongSet(final String key) {
+        return getValue(key).map(SortedLongSet::decode);
+    }
+
     /**
      * Retrieve all keys associated with this class-specific state storage.
      * 
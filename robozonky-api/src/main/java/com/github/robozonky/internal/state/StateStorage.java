@@ -19,7 +19,12 @@ package com.github.robozonky.internal.state;
 import java.util.Optional;
 import java.util.stream.Stream;
 
-interface StateStorage {
+/**
+ * Keeps the state of a single tenant, as sections of key-value pairs. Changes are made in memory and only persisted
+ * with {@link #store()}. Must be thread-safe; different sections may be changed in parallel.
+ * Implementations are provided by {@link StateStorageService}.
+ */
+public interface StateStorage {
 
     Optional<String> getValue(final String section, final String key);
 
@@ -33,5 +38,22 @@ interface StateStorage {
 
     void unsetValues(final String section);
 
+    /**
+     * Persist all the changes made so far.
+     * 
+     * @return False if that failed; the changes will then be attempted again with the next call.
+     */
     boolean store();
+
+    /**
+     * Release the files held open, if any. The storage remains usable, and will open them again if needed.
+     */
+    default void close() {
+        // Nothing held open by default.
+    }
+
+    /**
+     * Forget all the state, both in memory and persisted.
+     */
+    void destroy();
 }
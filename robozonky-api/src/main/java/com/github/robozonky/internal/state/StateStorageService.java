@@ -0,0 +1,42 @@
+/*
+ * Copyright 2020 The RoboZonky Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.robozonky.internal.state;
+
+import java.util.ServiceLoader;
+
+import com.github.robozonky.api.SessionInfo;
+
+/**
+ * Use Java's {@link ServiceLoader} to load different {@link StateStorage} implementations. The one to use is chosen
+ * by {@link com.github.robozonky.internal.Settings#getStateStorage()}.
+ */
+public interface StateStorageService {
+
+    /**
+     * 
+     * @return Name under which this implementation can be chosen.
+     */
+    String getName();
+
+    /**
+     * 
+     * @param session The tenant whose state will be kept. Use {@link TenantState#getFile(SessionInfo, String)} to
+     *                locate the files to keep it in.
+     * @return New instance, which will be the only one for the tenant.
+     */
+    StateStorage create(SessionInfo session);
+}
@@ -20,7 +20,10 @@ import java.io.File;
 import java.math.BigInteger;
 import java.security.MessageDigest;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
 import java.util.stream.Stream;
 
 import org.apache.logging.log4j.LogManager;
@@ -28,15 +31,21 @@ import org.apache.logging.log4j.Logger;
 
 import com.github.robozonky.api.SessionInfo;
 import com.github.robozonky.internal.Defaults;
+import com.github.robozonky.internal.extensions.StateStorageServiceLoader;
+
+import io.micrometer.core.instrument.Timer;
 
 public final class TenantState {
 
     private static final Logger LOGGER = LogManager.getLogger(TenantState.class);
     private static final Map<SessionInfo, TenantState> TENANT_STATE_MAP = new ConcurrentHashMap<>(0);
-    private final FileBackedStateStorage stateStorage;
+    private final StateStorage stateStorage;
+    private final StateCommitter committer;
+    private final Map<String, SectionLock> sectionLocks = new ConcurrentHashMap<>(0);
 
     TenantState(final SessionInfo sessionInfo) { // no external instances
-        this.stateStorage = new FileBackedStateStorage(getFile(sessionInfo.getUsername()));
+        this.stateStorage = StateStorageServiceLoader.load(sessionInfo);
+        this.committer = new StateCommitter(stateStorage);
         LOGGER.debug("Created new tenant state for {}: {}.", sessionInfo, this);
     }
 
@@ -59,12 +68,23 @@ public final class TenantState {
         }
     }
 
-    private static File getFile(final String username) {
+    private static File getFile(final String username, final String extension) {
         final String encoded = encode(username);
-        final String filename = "robozonky-" + encoded + ".state";
+        final String filename = "robozonky-" + encoded + "." + extension;
         return new File(filename);
     }
 
+    /**
+     * Locate a file which belongs to a given tenant, stored alongside the tenant's state.
+     *
+     * @param session   The tenant.
+     * @param extension Distinguishes the file from the state file and from the other files of the tenant.
+     * @return The file, which may not exist.
+     */
+    public static File getFile(final SessionInfo session, final String extension) {
+        return getFile(session.getUsername(), extension);
+    }
+
     /**
      * For testing purposes only.
      */
@@ -77,7 +97,76 @@ public final class TenantState {
         TENANT_STATE_MAP.clear();
     }
 
+    /**
+     * Persist all the changes made to the state so far and release the files held open by the storage. The state
+     * remains usable; the storage will open the files again if needed.
+     */
+    public void close() {
+        if (!commit().join()) {
+            LOGGER.debug("Failed storing state of {} before closing.", this);
+        }
+        stateStorage.close();
+    }
+
+    /**
+     * Persist all the changes made to the state so far, together with changes from any other concurrent callers.
+     * 
+     * @return Completes once the changes have been persisted, with false if that failed.
+     */
+    CompletableFuture<Boolean> commit() {
+        return committer.commit();
+    }
+
+    /**
+     * Run the action while no other action runs on the same section of the state. Actions on different sections run
+     * in parallel; the storage keeps the individual changes in order.
+     * 
+     * @param section Name of the section, as used by {@link InstanceStateImpl}.
+     * @param action  Changes to the section.
+     */
+    void inSection(final String section, final Runnable action) {
+        getSectionLock(section).run(action);
+    }
+
+    SectionLock getSectionLock(final String section) {
+        return sectionLocks.computeIfAbsent(section, SectionLock::new);
+    }
+
     public <T> InstanceState<T> in(final Class<T> cls) {
         return new InstanceStateImpl<>(this, cls.getName(), stateStorage);
     }
+
+    static final class SectionLock {
+
+        private final ReentrantLock lock = new ReentrantLock();
+        private final Timer contention;
+
+        private SectionLock(final String section) {
+            this.contention = Timer.builder("robozonky.state.lock.contention")
+                .description("Time spent waiting for another update of the same state section to finish.")
+                .tag("section", section)
+                .register(Defaults.METER_REGISTRY);
+        }
+
+        void run(final Runnable action) {
+            if (!lock.tryLock()) { // Only measure when actually blocked, so that the metric shows the contention.
+                var start = System.nanoTime();
+                lock.lock();
+                contention.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            }
+            try {
+                action.run();
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        ReentrantLock getLock() {
+            return lock;
+        }
+
+        Timer getContention() {
+            return contention;
+        }
+    }
 }
@@ -28,10 +28,13 @@
  * {@link com.github.robozonky.internal.state.TenantState#in(java.lang.Class)}.</li>
  * </ul>
  * <p>
- * At the moment, there is only one implementation of these concepts, one backed by a file.
- * ({@link com.github.robozonky.internal.state.FileBackedStateStorage}, implementing the INI file format.) Every tenant
- * gets a single file, every instance then is a section in this file. Each such section is a fairly standard property
- * file.
+ * The state is kept by a {@link com.github.robozonky.internal.state.StateStorage}, loaded through
+ * {@link com.github.robozonky.internal.state.StateStorageService} and chosen by
+ * {@link com.github.robozonky.internal.Settings#getStateStorage()}. By default, that is
+ * {@link com.github.robozonky.internal.state.FileBackedStateStorage}, where every tenant gets a single JSON file and
+ * every instance then is a section in this file. Alternatively,
+ * {@link com.github.robozonky.internal.state.PagedStateStorage} keeps every key as a separate record in a file of
+ * fixed-size pages, so that changing a key does not rewrite the rest of the state.
  */
 package com.github.robozonky.internal.state;
 
@@ -16,11 +16,16 @@
 
 package com.github.robozonky.internal.util.stream;
 
+import static java.lang.Math.min;
 import static java.util.Spliterator.IMMUTABLE;
 import static java.util.Spliterator.ORDERED;
 import static java.util.Spliterator.SIZED;
 import static java.util.Spliterator.SUBSIZED;
 
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.stream.LongStream;
 import java.util.stream.Stream;
 import java.util.stream.StreamSupport;
 
@@ -32,6 +37,8 @@ public final class PagingStreams {
             | ORDERED
             | SIZED
             | SUBSIZED;
+    static final int PREFETCHING_CHARACTERISTICS = IMMUTABLE
+            | ORDERED;
 
     public static <T> Stream<T> build(final PageSource<T> source) {
         return build(source, Settings.INSTANCE.getDefaultApiPageSize());
@@ -41,4 +48,49 @@ public final class PagingStreams {
         return StreamSupport.stream(() -> PagingSpliterator.build(source, pageSize), CHARACTERISTICS, false);
     }
 
+    /**
+     * Build a stream which, while the current page is being consumed, already requests up to a given number of
+     * following pages in the background.
+     * 
+     * @param source     Where to get the pages from.
+     * @param pageSize   How many items to request per page.
+     * @param lookAhead  How many pages to request ahead of the current one. Zero or less means no prefetching.
+     * @param prefetcher Where to request the pages ahead. Requests block, so this should not be a shared pool such as
+     *                   the common pool.
+     * @param <T>        Type of the items.
+     * @return Sequential ordered stream of all the items from all the pages.
+     */
+    public static <T> Stream<T> build(final PageSource<T> source, final long pageSize, final int lookAhead,
+            final Executor prefetcher) {
+        if (lookAhead < 1 || pageSize < 1) {
+            return build(source, pageSize);
+        }
+        var spliterator = new PrefetchingPagingSpliterator<>(source, pageSize, lookAhead, prefetcher);
+        return StreamSupport.stream(spliterator, false)
+            .onClose(spliterator::close);
+    }
+
+    /**
+     * Build a stream which hands out items as soon as they are read from the page, without waiting for the rest of
+     * the page. Only one page is ever open at a time; it is closed as soon as it is exhausted, or when the stream
+     * short-circuits or fails.
+     *
+     * @param source   Where to get the pages from.
+     * @param pageSize How many items to request per page.
+     * @param <T>      Type of the items.
+     * @return Sequential ordered stream of all the items from all the pages.
+     */
+    public static <T> Stream<T> streaming(final StreamingPageSource<T> source, final long pageSize) {
+        if (pageSize < 1) {
+            return Stream.empty();
+        }
+        var end = new AtomicLong(Long.MAX_VALUE); // Unknown until the first page arrives.
+        return LongStream.iterate(0, offset -> offset < end.get(), offset -> offset + pageSize)
+            .mapToObj(offset -> {
+                var knownEnd = end.getAndSet(offset + pageSize); // Unless the source tells otherwise, this is the end.
+                return source.fetch(offset, pageSize, l -> end.set(min(l, knownEnd)));
+            })
+            .flatMap(Function.identity()); // Closes every page once it has been consumed.
+    }
+
 }
@@ -0,0 +1,273 @@
+/*
+ * Copyright 2020 The RoboZonky Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.robozonky.internal.util.stream;
+
+import static java.lang.Math.min;
+
+import java.lang.ref.Cleaner;
+import java.util.Deque;
+import java.util.List;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.function.LongConsumer;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import com.github.robozonky.internal.Defaults;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Timer;
+
+/**
+ * Unlike {@link PagingSpliterator}, this one does not wait for the current page to be consumed before requesting the
+ * next one. Instead, it keeps up to a given number of following pages in flight, so that the network round-trips
+ * overlap with the consumption of the current page. Pages are still handed out in order and the end of the stream is
+ * still determined by the total size reported by the {@link PageSource}.
+ * <p>
+ * Memory use is bounded by the look-ahead, as only that many pages are ever requested ahead of the current one. Pages
+ * which were requested but never consumed, such as when the stream is short-circuited, are reported as wasted once the
+ * stream is closed or garbage-collected.
+ * <p>
+ * This spliterator does not split, as the whole point is to traverse the pages in order with a bounded amount of
+ * concurrency.
+ */
+final class PrefetchingPagingSpliterator<T> implements Spliterator<T>,
+        AutoCloseable {
+
+    private static final Logger LOGGER = LogManager.getLogger(PrefetchingPagingSpliterator.class);
+    private static final Cleaner CLEANER = Cleaner.create();
+    private static final Counter PREFETCH_HITS = prefetchCounter("hit",
+            "Pages which had already been fetched when they were needed.");
+    private static final Counter PREFETCH_MISSES = prefetchCounter("miss",
+            "Pages which still had to be waited for when they were needed.");
+    private static final Counter PREFETCH_WASTED = prefetchCounter("wasted",
+            "Pages which had been requested ahead of time, but were never used.");
+    private static final Timer PAGE_WAIT = Timer.builder("robozonky.api.prefetch.wait")
+        .description("Time spent waiting for a page of results to arrive.")
+        .register(Defaults.METER_REGISTRY);
+
+    private final PageSource<T> source;
+    private final long pageSize;
+    private final int lookAhead;
+    private final Executor prefetcher;
+    private final AtomicLong end = new AtomicLong(Long.MAX_VALUE);
+    private final LongConsumer totalSizeSink = total -> end.accumulateAndGet(total, Math::min);
+    private final Prefetches<T> prefetches = new Prefetches<>();
+    private final Cleaner.Cleanable cleanable;
+    private Spliterator<T> currentPage;
+    private long currentPageEnd = 0;
+    private long nextOffset = 0;
+
+    PrefetchingPagingSpliterator(final PageSource<T> source, final long pageSize, final int lookAhead,
+            final Executor prefetcher) {
+        this.source = source;
+        this.pageSize = pageSize;
+        this.lookAhead = lookAhead;
+        this.prefetcher = prefetcher;
+        this.cleanable = CLEANER.register(this, prefetches);
+    }
+
+    private static Counter prefetchCounter(final String result, final String description) {
+        return Counter.builder("robozonky.api.prefetch")
+            .tag("result", result)
+            .description(description)
+            .register(Defaults.METER_REGISTRY);
+    }
+
+    private static <X> List<X> await(final CompletableFuture<List<X>> page) {
+        if (page.isDone()) {
+            PREFETCH_HITS.increment();
+        } else {
+            PREFETCH_MISSES.increment();
+        }
+        var start = System.nanoTime();
+        try {
+            return page.join();
+        } catch (final CompletionException ex) { // Make sure the callers see the same exceptions as without prefetch.
+            var cause = ex.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            throw ex;
+        } finally {
+            PAGE_WAIT.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    private List<T> fetch(final long offset) {
+        var limit = min(end.get() - offset, pageSize);
+        return source.fetch(offset, limit, totalSizeSink);
+    }
+
+    private void schedule() {
+        while (prefetches.size() < lookAhead && nextOffset < end.get()) {
+            var offset = nextOffset;
+            LOGGER.trace("Prefetching page at offset {}.", offset);
+            prefetches.add(new Prefetch<>(offset, CompletableFuture.supplyAsync(() -> fetch(offset), prefetcher)));
+            nextOffset += pageSize;
+        }
+    }
+
+    private Spliterator<T> firstPage() {
+        var start = System.nanoTime();
+        PREFETCH_MISSES.increment(); // We need the total size before we can prefetch anything.
+        try {
+            var first = fetch(0);
+            nextOffset = pageSize;
+            return toPage(0, first);
+        } finally {
+            PAGE_WAIT.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    private Spliterator<T> toPage(final long offset, final List<T> items) {
+        if (items.isEmpty()) { // No more data, regardless of what the reported total size says.
+            end.accumulateAndGet(offset, Math::min);
+            return null;
+        }
+        var limit = end.get() - offset;
+        var result = items.size() > limit ? items.subList(0, (int) limit) : items;
+        currentPageEnd = offset + result.size();
+        return Spliterators.spliterator(result.toArray(), PagingStreams.PREFETCHING_CHARACTERISTICS);
+    }
+
+    /**
+     * @return Null when there are no more pages.
+     */
+    private Spliterator<T> nextPage() {
+        if (nextOffset == 0) {
+            var first = firstPage();
+            schedule();
+            return first;
+        }
+        do {
+            var prefetch = prefetches.poll();
+            if (prefetch == null) {
+                return null;
+            }
+            var items = await(prefetch.page);
+            if (prefetch.offset >= end.get()) { // The total size shrunk while we were waiting.
+                PREFETCH_WASTED.increment();
+                continue;
+            }
+            var page = toPage(prefetch.offset, items);
+            schedule();
+            if (page != null) {
+                return page;
+            }
+        } while (true);
+    }
+
+    @Override
+    public boolean tryAdvance(final Consumer<? super T> action) {
+        do {
+            if (currentPage != null && currentPage.tryAdvance(action)) {
+                return true;
+            }
+            currentPage = nextPage();
+            if (currentPage == null) {
+                close();
+                return false;
+            }
+        } while (true);
+    }
+
+    @Override
+    public void forEachRemaining(final Consumer<? super T> action) {
+        while (tryAdvance(action)) {
+            // Keep advancing.
+        }
+    }
+
+    @Override
+    public Spliterator<T> trySplit() {
+        return null;
+    }
+
+    @Override
+    public long estimateSize() {
+        var total = end.get();
+        if (total == Long.MAX_VALUE) { // Nothing fetched yet.
+            return Long.MAX_VALUE;
+        }
+        var remainingInCurrentPage = currentPage == null ? 0 : currentPage.estimateSize();
+        return Math.max(0, total - currentPageEnd) + remainingInCurrentPage;
+    }
+
+    @Override
+    public int characteristics() {
+        return PagingStreams.PREFETCHING_CHARACTERISTICS;
+    }
+
+    /**
+     * Give up on all pages that were prefetched but not consumed.
+     */
+    @Override
+    public void close() {
+        cleanable.clean();
+    }
+
+    private static final class Prefetch<T> {
+
+        private final long offset;
+        private final CompletableFuture<List<T>> page;
+
+        Prefetch(final long offset, final CompletableFuture<List<T>> page) {
+            this.offset = offset;
+            this.page = page;
+        }
+    }
+
+    /**
+     * Must not reference the spliterator, otherwise it would never become phantom-reachable and would therefore never
+     * be cleaned.
+     */
+    private static final class Prefetches<T> implements Runnable {
+
+        private final Deque<Prefetch<T>> pending = new ConcurrentLinkedDeque<>();
+
+        void add(final Prefetch<T> prefetch) {
+            pending.add(prefetch);
+        }
+
+        Prefetch<T> poll() {
+            return pending.poll();
+        }
+
+        int size() {
+            return pending.size();
+        }
+
+        @Override
+        public void run() {
+            var prefetch = pending.poll();
+            while (prefetch != null) {
+                prefetch.page.cancel(false);
+                PREFETCH_WASTED.increment();
+                prefetch = pending.poll();
+            }
+        }
+    }
+}
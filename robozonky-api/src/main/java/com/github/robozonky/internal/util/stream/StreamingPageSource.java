@@ -0,0 +1,40 @@
+/*
+ * Copyright 2020 The RoboZonky Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.robozonky.internal.util.stream;
+
+import java.util.function.LongConsumer;
+import java.util.stream.Stream;
+
+/**
+ * Like {@link PageSource}, but the items of the page are handed out as they become available, instead of the whole
+ * page being materialized first.
+ * 
+ * @param <T> Type of the items.
+ */
+@FunctionalInterface
+public interface StreamingPageSource<T> {
+
+    /**
+     * @param offset        Index of the first item on the page.
+     * @param limit         Maximum number of items on the page.
+     * @param totalSizeSink Will receive the total number of items across all pages, before this method returns.
+     * @return Lazily populated items on the page. Closing the stream releases whatever resources were used to read
+     *         the page, even if not all of the items were consumed.
+     */
+    Stream<T> fetch(long offset, long limit, LongConsumer totalSizeSink);
+
+}
@@ -22,6 +22,8 @@ import static org.assertj.core.api.SoftAssertions.assertSoftly;
 import java.math.BigDecimal;
 import java.util.Arrays;
 import java.util.Currency;
+import java.util.Objects;
+import java.util.Random;
 import java.util.SortedSet;
 import java.util.TreeSet;
 import java.util.UUID;
@@ -237,4 +239,83 @@ class MoneyTest {
         assertThat(Money.sum(Arrays.asList(a, b))).isEqualTo(Money.from(3));
     }
 
+    /**
+     * Amounts in currencies other than CZK never take the long-based shortcut, and therefore serve as the reference.
+     */
+    @Test
+    void compactArithmeticEquivalentToBigDecimal() {
+        var reference = Currency.getInstance("EUR");
+        var random = new Random(0);
+        for (var i = 0; i < 20_000; i++) {
+            var a = randomAmount(random);
+            var b = randomAmount(random);
+            var compactA = Money.from(a);
+            var compactB = Money.from(b);
+            var referenceA = Money.from(a, reference);
+            var referenceB = Money.from(b, reference);
+            var description = a + " and " + b;
+            assertThat(compactA.add(compactB)
+                .getValue()).as("Adding " + description)
+                    .isEqualTo(referenceA.add(referenceB)
+                        .getValue());
+            assertThat(compactA.subtract(compactB)
+                .getValue()).as("Subtracting " + description)
+                    .isEqualTo(referenceA.subtract(referenceB)
+                        .getValue());
+            assertThat(compactA.multiplyBy(compactB)
+                .getValue()).as("Multiplying " + description)
+                    .isEqualTo(referenceA.multiplyBy(referenceB)
+                        .getValue());
+            if (!compactB.isZero()) {
+                assertThat(compactA.divideBy(compactB)
+                    .getValue()).as("Dividing " + description)
+                        .isEqualTo(referenceA.divideBy(referenceB)
+                            .getValue());
+            }
+            assertThat(compactA.compareTo(compactB)).as("Comparing " + description)
+                .isEqualTo(referenceA.compareTo(referenceB));
+            assertThat(compactA.equals(compactB)).as("Equating " + description)
+                .isEqualTo(referenceA.equals(referenceB));
+            assertThat(compactA.hashCode()).as("Hashing " + a)
+                .isEqualTo(Objects.hash(referenceA.getValue(), Defaults.CURRENCY));
+        }
+    }
+
+    private static BigDecimal randomAmount(final Random random) {
+        switch (random.nextInt(5)) {
+            case 0:
+                return BigDecimal.valueOf(random.nextInt(2_001) - 1_000, 2); // Plenty of zeroes and ties.
+            case 1:
+                return BigDecimal.valueOf(random.nextInt(), 2);
+            case 2:
+                return BigDecimal.valueOf(random.nextLong() / 1_000_000, 2);
+            case 3:
+                return BigDecimal.valueOf(random.nextLong(), 2); // Will overflow in most operations.
+            default:
+                return BigDecimal.valueOf(random.nextLong(), 2)
+                    .multiply(BigDecimal.valueOf(random.nextInt())); // Never compact.
+        }
+    }
+
+    @Test
+    void compactOverflow() {
+        var max = Money.from(Long.MAX_VALUE);
+        var expected = BigDecimal.valueOf(Long.MAX_VALUE)
+            .multiply(BigDecimal.valueOf(2))
+            .setScale(2);
+        assertSoftly(softly -> {
+            softly.assertThat(max.add(max)
+                .getValue())
+                .isEqualTo(expected);
+            softly.assertThat(max.multiplyBy(2)
+                .getValue())
+                .isEqualTo(expected);
+            softly.assertThat(max.add(max)
+                .subtract(max))
+                .isEqualTo(max);
+        });
+        assertThatThrownBy(() -> Money.from(1)
+            .divideBy(0)).isInstanceOf(ArithmeticException.class);
+    }
+
 }
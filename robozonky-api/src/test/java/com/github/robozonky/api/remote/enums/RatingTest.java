@@ -126,4 +126,38 @@ class RatingTest {
         assertThat(revenue.doubleValue()).isEqualTo(0.0234, Offset.offset(0.0001));
     }
 
+    @Test
+    void tabulatedValuesMatchCalculation() {
+        var dates = Stream.of(Rating.MIDNIGHT_2017_09_01, Rating.MIDNIGHT_2019_03_18)
+            .flatMap(d -> Stream.of(d.minusYears(1), d.minusSeconds(1), d, d.plusSeconds(1)))
+            .collect(Collectors.toList());
+        dates.add(Rating.MIDNIGHT_2019_03_18.plusYears(10));
+        var amounts = Stream.of(0, 150_000, 200_000, 500_000, 1_000_000)
+            .flatMap(i -> Stream.of(Money.from(i - 1), Money.from(i)
+                .subtract(Money.from("0.01")), Money.from(i),
+                    Money.from(i)
+                        .add(Money.from("0.01")),
+                    Money.from(i + 1)))
+            .collect(Collectors.toList());
+        amounts.add(Money.from(Integer.MAX_VALUE + 1L));
+        amounts.add(Money.from(Long.MAX_VALUE));
+        assertSoftly(softly -> {
+            for (var rating : Rating.values()) {
+                for (var date : dates) {
+                    for (var amount : amounts) {
+                        var description = rating + " on " + date + " with " + amount;
+                        softly.assertThat(rating.getFee(date, amount))
+                            .as("Fee for " + description)
+                            .isEqualTo(rating.calculateFee(date, amount));
+                        softly.assertThat(rating.getMinimalRevenueRate(date, amount))
+                            .as("Min revenue rate for " + description)
+                            .isEqualTo(rating.calculateMinimalRevenueRate(date, amount));
+                        softly.assertThat(rating.getMaximalRevenueRate(date, amount))
+                            .as("Max revenue rate for " + description)
+                            .isEqualTo(rating.calculateMaximalRevenueRate(date, amount));
+                    }
+                }
+            }
+        });
+    }
 }
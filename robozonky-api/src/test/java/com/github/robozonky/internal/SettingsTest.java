@@ -59,10 +59,46 @@ class SettingsTest {
                 .matches(new SettingsTest.TemporalPredicate(10));
             softly.assertThat(Settings.INSTANCE.getConnectionTimeout())
                 .matches(new SettingsTest.TemporalPredicate(10));
+            softly.assertThat(Settings.INSTANCE.getConnectionPoolSize())
+                .isEqualTo(20);
+            softly.assertThat(Settings.INSTANCE.getConnectionPoolSizePerHost())
+                .isEqualTo(10);
+            softly.assertThat(Settings.INSTANCE.getConnectionKeepAlive())
+                .matches(new SettingsTest.TemporalPredicate(60));
+            softly.assertThat(Settings.INSTANCE.getConnectionIdleEviction())
+                .matches(new SettingsTest.TemporalPredicate(30));
             softly.assertThat(Settings.INSTANCE.getDefaultApiPageSize())
                 .isEqualTo(100);
+            softly.assertThat(Settings.INSTANCE.getDefaultApiPageLookAhead())
+                .isEqualTo(2);
+            softly.assertThat(Settings.INSTANCE.getApiResponseCacheSize())
+                .isEqualTo(1000);
+            softly.assertThat(Settings.INSTANCE.getApiQuota())
+                .isEqualTo(3000);
+            softly.assertThat(Settings.INSTANCE.getApiQuotaRefillPerSecond())
+                .isEqualTo(1);
+            softly.assertThat(Settings.INSTANCE.getApiQuotaBackgroundReservePercent())
+                .isEqualTo(50);
+            softly.assertThat(Settings.INSTANCE.getApiQuotaMaxWait())
+                .matches(new SettingsTest.TemporalPredicate(10));
+            softly.assertThat(Settings.INSTANCE.getApiPortfolioSnapshotTtl())
+                .matches(new SettingsTest.TemporalPredicate(300));
+            softly.assertThat(Settings.INSTANCE.getLoanCacheMaximumWeight())
+                .isEqualTo(10_000);
+            softly.assertThat(Settings.INSTANCE.getLoanCacheExpireAfterWrite())
+                .matches(new SettingsTest.TemporalPredicate(86_400));
+            softly.assertThat(Settings.INSTANCE.getParticipationDetailCacheTtl())
+                .matches(new SettingsTest.TemporalPredicate(300));
+            softly.assertThat(Settings.INSTANCE.isStateJournalEnabled())
+                .isTrue();
+            softly.assertThat(Settings.INSTANCE.getStateJournalCompactionThreshold())
+                .isEqualTo(262_144);
+            softly.assertThat(Settings.INSTANCE.getStateStorage())
+                .isEqualTo("json");
             softly.assertThat(Settings.INSTANCE.getHttpsProxyPort())
                 .isEqualTo(443);
+            softly.assertThat(Settings.INSTANCE.getZonkyApiUrl())
+                .isEqualTo(ApiConstants.ZONKY_API_HOSTNAME);
             softly.assertThat(Settings.INSTANCE.getHttpsProxyHostname())
                 .isEmpty();
             softly.assertThat(Settings.INSTANCE.isDebugHttpResponseLoggingEnabled())
@@ -99,10 +135,46 @@ class SettingsTest {
                 .matches(new SettingsTest.TemporalPredicate(2000));
             softly.assertThat(Settings.INSTANCE.getConnectionTimeout())
                 .matches(new SettingsTest.TemporalPredicate(2000));
+            softly.assertThat(Settings.INSTANCE.getConnectionPoolSize())
+                .isEqualTo(2000);
+            softly.assertThat(Settings.INSTANCE.getConnectionPoolSizePerHost())
+                .isEqualTo(2000);
+            softly.assertThat(Settings.INSTANCE.getConnectionKeepAlive())
+                .matches(new SettingsTest.TemporalPredicate(2000));
+            softly.assertThat(Settings.INSTANCE.getConnectionIdleEviction())
+                .matches(new SettingsTest.TemporalPredicate(2000));
             softly.assertThat(Settings.INSTANCE.getDefaultApiPageSize())
                 .isEqualTo(2000);
+            softly.assertThat(Settings.INSTANCE.getDefaultApiPageLookAhead())
+                .isEqualTo(2000);
+            softly.assertThat(Settings.INSTANCE.getApiResponseCacheSize())
+                .isEqualTo(2000);
+            softly.assertThat(Settings.INSTANCE.getApiQuota())
+                .isEqualTo(2000);
+            softly.assertThat(Settings.INSTANCE.getApiQuotaRefillPerSecond())
+                .isEqualTo(2000);
+            softly.assertThat(Settings.INSTANCE.getApiQuotaBackgroundReservePercent())
+                .isEqualTo(2000);
+            softly.assertThat(Settings.INSTANCE.getApiQuotaMaxWait())
+                .matches(new SettingsTest.TemporalPredicate(2000));
+            softly.assertThat(Settings.INSTANCE.getApiPortfolioSnapshotTtl())
+                .matches(new SettingsTest.TemporalPredicate(2000));
+            softly.assertThat(Settings.INSTANCE.getLoanCacheMaximumWeight())
+                .isEqualTo(2000);
+            softly.assertThat(Settings.INSTANCE.getLoanCacheExpireAfterWrite())
+                .matches(new SettingsTest.TemporalPredicate(2000));
+            softly.assertThat(Settings.INSTANCE.getParticipationDetailCacheTtl())
+                .matches(new SettingsTest.TemporalPredicate(2000));
+            softly.assertThat(Settings.INSTANCE.isStateJournalEnabled())
+                .isFalse();
+            softly.assertThat(Settings.INSTANCE.getStateJournalCompactionThreshold())
+                .isEqualTo(2000);
+            softly.assertThat(Settings.INSTANCE.getStateStorage())
+                .isEqualTo("2000");
             softly.assertThat(Settings.INSTANCE.getHttpsProxyPort())
                 .isEqualTo(2000);
+            softly.assertThat(Settings.INSTANCE.getZonkyApiUrl())
+                .isEqualTo("2000");
             softly.assertThat(Settings.INSTANCE.getHttpsProxyHostname())
                 .contains("2000");
         });
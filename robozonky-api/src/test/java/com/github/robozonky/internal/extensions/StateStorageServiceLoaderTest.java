@@ -0,0 +1,42 @@
+/*
+ * Copyright 2020 The RoboZonky Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.robozonky.internal.extensions;
+
+import static org.assertj.core.api.Assertions.*;
+
+import java.util.ServiceLoader;
+
+import org.junit.jupiter.api.Test;
+
+import com.github.robozonky.internal.state.FileBackedStateStorageService;
+import com.github.robozonky.internal.state.PagedStateStorageService;
+import com.github.robozonky.internal.state.StateStorageService;
+
+class StateStorageServiceLoaderTest {
+
+    private final ServiceLoader<StateStorageService> loader = ServiceLoader.load(StateStorageService.class);
+
+    @Test
+    void defaultContents() {
+        assertThat(StateStorageServiceLoader.load(loader, "json"))
+            .containsInstanceOf(FileBackedStateStorageService.class);
+        assertThat(StateStorageServiceLoader.load(loader, "paged"))
+            .containsInstanceOf(PagedStateStorageService.class);
+        assertThat(StateStorageServiceLoader.load(loader, "unknown"))
+            .isEmpty();
+    }
+}
@@ -76,9 +76,23 @@ abstract class AbstractCommonFilterTest {
     void request() throws URISyntaxException {
         final ClientRequestContext ctx = mockClientRequestContext();
         final RoboZonkyFilter filter = getTestedFilter();
-        filter.setQueryParam("something", "value");
-        filter.filter(ctx);
+        final CallContext context = new CallContext();
+        context.setQueryParam("something", "value");
+        context.setRequestHeader("X-Page", "1");
+        context.call(() -> {
+            filter.filter(ctx);
+            return null;
+        });
         verify(ctx).setUri(new URI("http://localhost?something=value"));
+        verify(ctx.getHeaders()).putSingle(eq("X-Page"), eq("1"));
+    }
+
+    @Test
+    void requestOutsideOfContext() throws URISyntaxException {
+        final ClientRequestContext ctx = mockClientRequestContext();
+        getTestedFilter().filter(ctx);
+        verify(ctx, never()).setUri(any());
+        verify(ctx.getHeaders()).putSingle(eq("User-Agent"), any());
     }
 
     @Test
@@ -93,11 +107,20 @@ abstract class AbstractCommonFilterTest {
         final ClientResponseContext ctx2 = mockClientResponseContext(headers);
         when(ctx2.getStatusInfo()).thenReturn(mock(Response.StatusType.class));
         final RoboZonkyFilter filter = getTestedFilter();
-        filter.filter(mockClientRequestContext(), ctx2);
+        final ClientRequestContext ctx = mockClientRequestContext();
+        final CallContext context = new CallContext();
+        context.call(() -> {
+            try {
+                filter.filter(ctx, ctx2);
+            } catch (final IOException ex) {
+                throw new IllegalStateException(ex);
+            }
+            return null;
+        });
         assertSoftly(softly -> {
-            softly.assertThat(filter.getLastResponseHeader(key))
+            softly.assertThat(context.getLastResponseHeader(key))
                 .contains(value);
-            softly.assertThat(filter.getLastResponseHeader(key2))
+            softly.assertThat(context.getLastResponseHeader(key2))
                 .isEmpty();
         });
     }
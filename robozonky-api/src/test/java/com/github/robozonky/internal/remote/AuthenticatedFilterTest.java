@@ -51,7 +51,7 @@ class AuthenticatedFilterTest extends AbstractCommonFilterTest {
 
     @Override
     protected RoboZonkyFilter getTestedFilter() {
-        return new AuthenticatedFilter(() -> AuthenticatedFilterTest.TOKEN);
+        return new AuthenticatedFilter(() -> AuthenticatedFilterTest.TOKEN, new ResponseCache(0));
     }
 
     @Test
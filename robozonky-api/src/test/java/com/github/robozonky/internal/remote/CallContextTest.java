@@ -0,0 +1,64 @@
+/*
+ * Copyright 2020 The RoboZonky Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.robozonky.internal.remote;
+
+import static org.assertj.core.api.Assertions.*;
+
+import java.util.concurrent.CompletableFuture;
+
+import org.junit.jupiter.api.Test;
+
+class CallContextTest {
+
+    @Test
+    void visibleOnlyWithinCall() {
+        final CallContext context = new CallContext();
+        assertThat(CallContext.current()).isEmpty();
+        assertThat(context.call(CallContext::current)).contains(context);
+        assertThat(CallContext.current()).isEmpty();
+    }
+
+    @Test
+    void nested() {
+        final CallContext outer = new CallContext();
+        final CallContext inner = new CallContext();
+        final CallContext result = outer.call(() -> {
+            assertThat(inner.call(CallContext::current)).contains(inner);
+            return CallContext.current()
+                .orElseThrow();
+        });
+        assertThat(result).isSameAs(outer);
+    }
+
+    @Test
+    void notVisibleFromOtherThreads() {
+        final CallContext context = new CallContext();
+        var otherThread = context.call(() -> CompletableFuture.supplyAsync(CallContext::current)
+            .join());
+        assertThat(otherThread).isEmpty();
+    }
+
+    @Test
+    void survivesException() {
+        final CallContext context = new CallContext();
+        assertThatThrownBy(() -> context.call(() -> {
+            throw new IllegalStateException();
+        })).isInstanceOf(IllegalStateException.class);
+        assertThat(CallContext.current()).isEmpty();
+    }
+
+}
@@ -0,0 +1,120 @@
+/*
+ * Copyright 2020 The RoboZonky Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.robozonky.internal.remote;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.assertj.core.api.SoftAssertions.assertSoftly;
+import static org.mockito.Mockito.*;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.time.Duration;
+
+import javax.ws.rs.client.ClientRequestContext;
+import javax.ws.rs.client.ClientResponseContext;
+
+import org.jboss.resteasy.client.jaxrs.internal.ClientInvocation;
+import org.jboss.resteasy.client.jaxrs.internal.ClientRequestContextImpl;
+import org.jboss.resteasy.client.jaxrs.internal.proxy.ClientInvoker;
+import org.junit.jupiter.api.Test;
+
+import com.github.robozonky.internal.Defaults;
+import com.github.robozonky.internal.remote.endpoints.LoanApi;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class EndpointMetricsTest {
+
+    @Test
+    void unknownEndpoint() {
+        assertThat(EndpointMetrics.getEndpoint(mock(ClientRequestContext.class)))
+            .isEqualTo(EndpointMetrics.UNKNOWN_ENDPOINT);
+        var invocation = mock(ClientInvocation.class);
+        var context = mock(ClientRequestContextImpl.class);
+        when(context.getInvocation()).thenReturn(invocation);
+        assertThat(EndpointMetrics.getEndpoint(context))
+            .isEqualTo(EndpointMetrics.UNKNOWN_ENDPOINT);
+    }
+
+    @Test
+    void endpointFromProxy() throws NoSuchMethodException {
+        var invoker = mock(ClientInvoker.class);
+        doReturn(LoanApi.class).when(invoker)
+            .getDeclaring();
+        when(invoker.getMethod()).thenReturn(LoanApi.class.getMethod("items"));
+        var invocation = mock(ClientInvocation.class);
+        when(invocation.getClientInvoker()).thenReturn(invoker);
+        var context = mock(ClientRequestContextImpl.class);
+        when(context.getInvocation()).thenReturn(invocation);
+        assertThat(EndpointMetrics.getEndpoint(context)).isEqualTo("LoanApi.items");
+        assertThat(EndpointMetrics.of(context)
+            .getEndpoint()).isEqualTo("LoanApi.items");
+    }
+
+    @Test
+    void recordsResponse() {
+        var metrics = EndpointMetrics.of(mock(ClientRequestContext.class));
+        var response = mock(ClientResponseContext.class);
+        when(response.getStatus()).thenReturn(429);
+        when(response.hasEntity()).thenReturn(true);
+        when(response.getLength()).thenReturn(-1);
+        when(response.getEntityStream()).thenReturn(new ByteArrayInputStream(new byte[0]));
+        metrics.record(response, Duration.ofMillis(1));
+        verify(response).setEntityStream(any(EndpointMetrics.CountingInputStream.class));
+        var registry = Defaults.METER_REGISTRY;
+        assertSoftly(softly -> {
+            softly.assertThat(registry.find("robozonky.api.endpoint.latency")
+                .tag("endpoint", EndpointMetrics.UNKNOWN_ENDPOINT)
+                .timer())
+                .isNotNull();
+            softly.assertThat(registry.find("robozonky.api.endpoint.responses")
+                .tag("endpoint", EndpointMetrics.UNKNOWN_ENDPOINT)
+                .tag("status", "429")
+                .counter())
+                .isNotNull();
+            softly.assertThat(registry.find("robozonky.api.endpoint.throttled")
+                .tag("endpoint", EndpointMetrics.UNKNOWN_ENDPOINT)
+                .counter())
+                .isNotNull();
+        });
+    }
+
+    @Test
+    void knownLengthNotCounted() {
+        var response = mock(ClientResponseContext.class);
+        when(response.getStatus()).thenReturn(200);
+        when(response.hasEntity()).thenReturn(true);
+        when(response.getLength()).thenReturn(10);
+        EndpointMetrics.of(mock(ClientRequestContext.class))
+            .record(response, null);
+        verify(response, never()).setEntityStream(any());
+    }
+
+    @Test
+    void countsBodyOnce() throws IOException {
+        var summary = DistributionSummary.builder("test")
+            .register(new SimpleMeterRegistry());
+        try (var stream = new EndpointMetrics.CountingInputStream(new ByteArrayInputStream(new byte[10]), summary)) {
+            assertThat(stream.read()).isZero();
+            assertThat(stream.read(new byte[20], 0, 20)).isEqualTo(9);
+            assertThat(stream.read()).isEqualTo(-1);
+        }
+        assertThat(summary.count()).isEqualTo(1);
+        assertThat(summary.totalAmount()).isEqualTo(10);
+    }
+}
@@ -37,14 +37,14 @@ class PaginatedApiTest<S, T> {
     void checkFilter() {
         final Function<T, BigDecimal> f = o -> BigDecimal.ONE;
         final Select sel = mock(Select.class);
-        final RoboZonkyFilter filter = new RoboZonkyFilter();
+        final CallContext context = new CallContext();
         final PaginatedApi<BigDecimal, T> p = spy(
                 new PaginatedApi<>(null, null, null, null, mock(Timer.class), mock(Timer.class)));
         doReturn(BigDecimal.ONE).when(p)
-            .execute(eq(f), eq(filter), anyBoolean());
-        assertThat(p.execute(f, sel, filter)).isEqualTo(BigDecimal.ONE);
-        verify(sel).accept(filter);
-        verify(p).execute(eq(f), any(RoboZonkyFilter.class), eq(true));
+            .execute(eq(f), eq(context), anyBoolean());
+        assertThat(p.execute(f, sel, context)).isEqualTo(BigDecimal.ONE);
+        verify(sel).accept(context);
+        verify(p).execute(eq(f), any(CallContext.class), eq(true));
     }
 
     @Test
@@ -63,19 +63,37 @@ class PaginatedApiTest<S, T> {
         final PaginatedApi<S, T> p = spy(
                 new PaginatedApi<>(null, null, null, mock(ResteasyClient.class), mock(Timer.class), mock(Timer.class)));
         doReturn(null).when(p)
-            .execute(any(), any(), any());
+            .execute(any(), any(), any(), anyBoolean());
         final Function<T, List<S>> f = o -> Collections.emptyList();
         final Select sel = mock(Select.class);
         final int total = 1000;
-        final RoboZonkyFilter filter = mock(RoboZonkyFilter.class);
-        when(filter.getLastResponseHeader(eq("X-Total")))
+        final CallContext context = mock(CallContext.class);
+        when(context.getLastResponseHeader(eq("X-Total")))
             .thenReturn(Optional.of("" + total));
-        final PaginatedResult<S> result = p.execute(f, sel, 1, 10, filter);
+        final PaginatedResult<S> result = p.execute(f, sel, 1, 10, context);
         assertThat(result.getTotalResultCount()).isEqualTo(total);
-        verify(filter, never()).setRequestHeader(eq("X-Order"), any());
-        verify(filter).setRequestHeader(eq("X-Size"), eq("10"));
-        verify(filter).setRequestHeader(eq("X-Page"), eq("1"));
-        verify(p).execute(eq(f), eq(sel), eq(filter));
+        verify(context, never()).setRequestHeader(eq("X-Order"), any());
+        verify(context).setRequestHeader(eq("X-Size"), eq("10"));
+        verify(context).setRequestHeader(eq("X-Page"), eq("1"));
+        verify(p).execute(eq(f), eq(sel), eq(context), eq(true));
+    }
+
+    @Test
+    void checkUncountedPagination() {
+        final PaginatedApi<S, T> p = spy(
+                new PaginatedApi<>(null, null, null, mock(ResteasyClient.class), mock(Timer.class), mock(Timer.class)));
+        p.setListingRequestCounted(false);
+        doReturn(null).when(p)
+            .execute(any(), any(), any(), anyBoolean());
+        final Function<T, List<S>> f = o -> Collections.emptyList();
+        final Select sel = mock(Select.class);
+        final CallContext context = mock(CallContext.class);
+        when(context.getLastResponseHeader(eq("X-Total")))
+            .thenReturn(Optional.of("10"));
+        p.execute(f, sel, 0, 10, context);
+        verify(p).execute(eq(f), eq(sel), eq(context), eq(false));
+        p.execute(o -> 1); // Only the listing is not counted.
+        verify(p).execute(any(), any(Select.class), any(CallContext.class), eq(true));
     }
 
     @Test
@@ -86,16 +104,16 @@ class PaginatedApiTest<S, T> {
                 new PaginatedApi<>(null, null, null, mock(ResteasyClient.class), mock(Timer.class), mock(Timer.class)));
         p.setSortString(sortString);
         doReturn(null).when(p)
-            .execute(any(), any(), any());
+            .execute(any(), any(), any(), anyBoolean());
         final Function<T, List<S>> f = o -> Collections.emptyList();
         final Select sel = mock(Select.class);
         final int total = 1000;
-        final RoboZonkyFilter filter = mock(RoboZonkyFilter.class);
-        when(filter.getLastResponseHeader(eq("X-Total")))
+        final CallContext context = mock(CallContext.class);
+        when(context.getLastResponseHeader(eq("X-Total")))
             .thenReturn(Optional.of("" + total));
-        final PaginatedResult<S> result = p.execute(f, sel, 1, 10, filter);
+        final PaginatedResult<S> result = p.execute(f, sel, 1, 10, context);
         assertThat(result.getTotalResultCount()).isEqualTo(total);
-        verify(filter, times(1)).setRequestHeader(eq("X-Order"), eq(sortString));
-        verify(p).execute(eq(f), eq(sel), eq(filter));
+        verify(context, times(1)).setRequestHeader(eq("X-Order"), eq(sortString));
+        verify(p).execute(eq(f), eq(sel), eq(context), eq(true));
     }
 }
@@ -0,0 +1,135 @@
+/*
+ * Copyright 2020 The RoboZonky Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.robozonky.internal.remote;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.assertj.core.api.SoftAssertions.assertSoftly;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import com.github.robozonky.internal.Defaults;
+import com.github.robozonky.internal.test.DateUtil;
+
+class PortfolioSnapshotsTest {
+
+    private final AtomicInteger created = new AtomicInteger();
+    private final PortfolioSnapshots snapshots = new PortfolioSnapshots(new SingleFlight(), listing -> {
+        created.incrementAndGet();
+        return new PortfolioSnapshot(listing, List.of(), DateUtil.now(), 3);
+    }, Duration.ofMinutes(5));
+
+    @AfterEach
+    void resetClock() {
+        DateUtil.resetSystemClock();
+    }
+
+    @Test
+    void reusedWhileYoung() {
+        var now = Instant.now();
+        DateUtil.setSystemClock(Clock.fixed(now, Defaults.ZONKYCZ_ZONE_ID));
+        var first = snapshots.get(PortfolioListing.SOLD, false);
+        DateUtil.setSystemClock(Clock.fixed(now.plus(Duration.ofMinutes(4)), Defaults.ZONKYCZ_ZONE_ID));
+        var second = snapshots.get(PortfolioListing.SOLD, false);
+        assertSoftly(softly -> {
+            softly.assertThat(second)
+                .isSameAs(first);
+            softly.assertThat(second.getAge())
+                .isEqualTo(Duration.ofMinutes(4));
+            softly.assertThat(created)
+                .hasValue(1);
+        });
+        DateUtil.setSystemClock(Clock.fixed(now.plus(Duration.ofMinutes(6)), Defaults.ZONKYCZ_ZONE_ID));
+        var third = snapshots.get(PortfolioListing.SOLD, false);
+        assertThat(third).isNotSameAs(first);
+        assertThat(created).hasValue(2);
+    }
+
+    @Test
+    void listingsSeparate() {
+        snapshots.get(PortfolioListing.SOLD, false);
+        var other = snapshots.get(PortfolioListing.DELINQUENT, false);
+        assertThat(other.getListing()).isEqualTo(PortfolioListing.DELINQUENT);
+        assertThat(created).hasValue(2);
+    }
+
+    @Test
+    void freshOnDemand() {
+        var first = snapshots.get(PortfolioListing.SELLABLE, false);
+        var fresh = snapshots.get(PortfolioListing.SELLABLE, true);
+        assertThat(fresh).isNotSameAs(first);
+        assertThat(snapshots.get(PortfolioListing.SELLABLE, false)).isSameAs(fresh);
+        assertThat(created).hasValue(2);
+    }
+
+    @Test
+    void freshNotJoiningSnapshotInFlight() throws Exception {
+        var inFlight = new CountDownLatch(1);
+        var release = new CountDownLatch(1);
+        var blocking = new PortfolioSnapshots(new SingleFlight(), listing -> {
+            var createdOn = DateUtil.now(); // As Zonky does, before reading the listing.
+            if (created.incrementAndGet() == 1) {
+                inFlight.countDown();
+                try {
+                    release.await();
+                } catch (final InterruptedException ex) {
+                    Thread.currentThread()
+                        .interrupt();
+                }
+            }
+            return new PortfolioSnapshot(listing, List.of(), createdOn, 1);
+        }, Duration.ofMinutes(5));
+        var now = Instant.now();
+        DateUtil.setSystemClock(Clock.fixed(now, Defaults.ZONKYCZ_ZONE_ID));
+        var executor = Executors.newSingleThreadExecutor();
+        try {
+            var older = executor.submit(() -> blocking.get(PortfolioListing.SOLD, false));
+            inFlight.await();
+            DateUtil.setSystemClock(Clock.fixed(now.plusSeconds(1), Defaults.ZONKYCZ_ZONE_ID));
+            var fresh = blocking.get(PortfolioListing.SOLD, true); // Would block if it joined the older one.
+            assertThat(created).hasValue(2);
+            release.countDown();
+            assertThat(older.get()).isNotSameAs(fresh);
+            assertThat(blocking.get(PortfolioListing.SOLD, false)).isSameAs(fresh); // Not replaced by the older.
+        } finally {
+            release.countDown();
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void failureNotRemembered() {
+        var failing = new PortfolioSnapshots(new SingleFlight(), listing -> {
+            if (created.incrementAndGet() == 1) {
+                throw new IllegalStateException("Failed.");
+            }
+            return new PortfolioSnapshot(listing, List.of(), DateUtil.now(), 1);
+        }, Duration.ofMinutes(5));
+        assertThatThrownBy(() -> failing.get(PortfolioListing.SOLD, false))
+            .isInstanceOf(IllegalStateException.class);
+        assertThat(failing.get(PortfolioListing.SOLD, false)).isNotNull();
+        assertThat(created).hasValue(2);
+    }
+}
@@ -18,10 +18,17 @@ package com.github.robozonky.internal.remote;
 
 import static org.assertj.core.api.Assertions.*;
 
+import java.util.UUID;
+
+import org.apache.http.HttpResponse;
+import org.apache.http.HttpVersion;
+import org.apache.http.message.BasicHttpResponse;
+import org.apache.http.protocol.BasicHttpContext;
 import org.jboss.resteasy.client.jaxrs.ResteasyClient;
 import org.junit.jupiter.api.Test;
 
 import com.github.robozonky.internal.ApiConstants;
+import com.github.robozonky.internal.Defaults;
 import com.github.robozonky.internal.remote.endpoints.LoanApi;
 
 class ProxyFactoryTest {
@@ -33,4 +40,37 @@ class ProxyFactoryTest {
         assertThat(ProxyFactory.newProxy(client, f, LoanApi.class, ApiConstants.ZONKY_API_HOSTNAME)).isNotNull();
     }
 
+    @Test
+    void registersPoolMetrics() {
+        var clientName = UUID.randomUUID()
+            .toString();
+        final ResteasyClient client = ProxyFactory.newResteasyClient(clientName);
+        try {
+            var gauges = Defaults.METER_REGISTRY.find("robozonky.api.connections")
+                .tag("client", clientName)
+                .gauges();
+            assertThat(gauges).hasSize(4);
+            var max = Defaults.METER_REGISTRY.find("robozonky.api.connections")
+                .tag("client", clientName)
+                .tag("state", "max")
+                .gauge();
+            assertThat(max).isNotNull();
+        } finally {
+            client.close();
+        }
+    }
+
+    @Test
+    void keepAliveBoundedByConfiguration() {
+        var strategy = ProxyFactory.newKeepAliveStrategy(1_000);
+        final HttpResponse noHeader = new BasicHttpResponse(HttpVersion.HTTP_1_1, 200, "OK");
+        assertThat(strategy.getKeepAliveDuration(noHeader, new BasicHttpContext())).isEqualTo(1_000);
+        final HttpResponse shortKeepAlive = new BasicHttpResponse(HttpVersion.HTTP_1_1, 200, "OK");
+        shortKeepAlive.addHeader("Keep-Alive", "timeout=0");
+        assertThat(strategy.getKeepAliveDuration(shortKeepAlive, new BasicHttpContext())).isEqualTo(0);
+        final HttpResponse longKeepAlive = new BasicHttpResponse(HttpVersion.HTTP_1_1, 200, "OK");
+        longKeepAlive.addHeader("Keep-Alive", "timeout=60");
+        assertThat(strategy.getKeepAliveDuration(longKeepAlive, new BasicHttpContext())).isEqualTo(1_000);
+    }
+
 }
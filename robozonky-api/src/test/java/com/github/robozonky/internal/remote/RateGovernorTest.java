@@ -0,0 +1,123 @@
+/*
+ * Copyright 2020 The RoboZonky Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.robozonky.internal.remote;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.assertj.core.api.SoftAssertions.assertSoftly;
+
+import java.time.Duration;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.jupiter.api.Test;
+
+import com.github.robozonky.internal.Defaults;
+
+import io.micrometer.core.instrument.Counter;
+
+class RateGovernorTest {
+
+    private final AtomicLong clock = new AtomicLong(0);
+    private final String clientName = UUID.randomUUID()
+        .toString();
+
+    private RateGovernor governor(final int capacity, final Duration maxWait) {
+        return new RateGovernor(clientName, "metered", capacity, 1, 0.5, maxWait, clock::get);
+    }
+
+    private Counter rejections(final RequestLane lane) {
+        return Defaults.METER_REGISTRY.find("robozonky.api.governor.rejections")
+            .tag("client", clientName)
+            .tag("lane", lane.name()
+                .toLowerCase())
+            .counter();
+    }
+
+    @Test
+    void foregroundDrainsBucketThenWaitsForRefill() {
+        var governor = governor(4, Duration.ZERO);
+        for (int i = 0; i < 4; i++) {
+            assertThat(governor.tryAcquire(RequestLane.FOREGROUND, clock.get())).isZero();
+        }
+        assertThat(governor.tryAcquire(RequestLane.FOREGROUND, clock.get()))
+            .isEqualTo(TimeUnit.SECONDS.toNanos(1));
+        clock.addAndGet(TimeUnit.SECONDS.toNanos(1));
+        assertThat(governor.tryAcquire(RequestLane.FOREGROUND, clock.get())).isZero();
+    }
+
+    @Test
+    void backgroundLeavesReserve() {
+        var governor = governor(4, Duration.ZERO);
+        assertThat(governor.tryAcquire(RequestLane.BACKGROUND, clock.get())).isZero();
+        assertThat(governor.tryAcquire(RequestLane.BACKGROUND, clock.get())).isZero();
+        assertThat(governor.tryAcquire(RequestLane.BACKGROUND, clock.get())).isPositive(); // 2 of 4 reserved
+        assertThat(governor.tryAcquire(RequestLane.FOREGROUND, clock.get())).isZero();
+        assertThat(governor.getAvailableTokens()).isEqualTo(1.0);
+    }
+
+    @Test
+    void refillDoesNotExceedCapacity() {
+        var governor = governor(4, Duration.ZERO);
+        governor.tryAcquire(RequestLane.FOREGROUND, clock.get());
+        clock.addAndGet(TimeUnit.HOURS.toNanos(1));
+        assertThat(governor.getAvailableTokens()).isEqualTo(4.0);
+    }
+
+    @Test
+    void rejectsWhenWaitTooLong() {
+        var governor = governor(2, Duration.ZERO);
+        RequestLane.BACKGROUND.run(governor::acquire);
+        assertThatThrownBy(() -> RequestLane.BACKGROUND.run(governor::acquire))
+            .isInstanceOf(RequestThrottledException.class);
+        governor.acquire(); // Foreground still has its reserve.
+        assertThatThrownBy(governor::acquire)
+            .isInstanceOf(RequestThrottledException.class);
+        assertSoftly(softly -> {
+            softly.assertThat(rejections(RequestLane.BACKGROUND))
+                .isNotNull();
+            softly.assertThat(rejections(RequestLane.FOREGROUND))
+                .isNotNull();
+        });
+    }
+
+    @Test
+    void waitsWithinLimit() {
+        var governor = new RateGovernor(clientName, "metered", 1, 100, 0, Duration.ofSeconds(1));
+        var start = System.nanoTime();
+        governor.acquire();
+        governor.acquire(); // Needs to wait roughly 10 ms for the bucket to refill.
+        assertThat(System.nanoTime() - start).isGreaterThanOrEqualTo(TimeUnit.MILLISECONDS.toNanos(5));
+    }
+
+    @Test
+    void unlimited() {
+        var governor = RateGovernor.unlimited();
+        for (int i = 0; i < 10_000; i++) {
+            governor.acquire();
+        }
+    }
+
+    @Test
+    void laneBoundToThread() {
+        assertThat(RequestLane.current()).isEqualTo(RequestLane.FOREGROUND);
+        assertThat(RequestLane.BACKGROUND.call(RequestLane::current)).isEqualTo(RequestLane.BACKGROUND);
+        assertThat(RequestLane.BACKGROUND.call(() -> RequestLane.FOREGROUND.call(RequestLane::current)))
+            .isEqualTo(RequestLane.FOREGROUND);
+        assertThat(RequestLane.current()).isEqualTo(RequestLane.FOREGROUND);
+    }
+}
@@ -0,0 +1,52 @@
+/*
+ * Copyright 2020 The RoboZonky Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.robozonky.internal.remote;
+
+import static org.assertj.core.api.Assertions.*;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+
+import org.junit.jupiter.api.Test;
+
+class RequestLaneTest {
+
+    @Test
+    void defaultsToForeground() {
+        assertThat(RequestLane.current()).isEqualTo(RequestLane.FOREGROUND);
+        assertThat(RequestLane.BACKGROUND.call(RequestLane::current)).isEqualTo(RequestLane.BACKGROUND);
+        assertThat(RequestLane.current()).isEqualTo(RequestLane.FOREGROUND);
+    }
+
+    @Test
+    void handsLaneOverToExecutor() {
+        var pool = Executors.newSingleThreadExecutor();
+        try {
+            var executor = RequestLane.inheriting(pool);
+            var background = RequestLane.BACKGROUND.call(() -> CompletableFuture.supplyAsync(RequestLane::current,
+                    executor));
+            var foreground = CompletableFuture.supplyAsync(RequestLane::current, executor);
+            assertThat(background.join()).isEqualTo(RequestLane.BACKGROUND);
+            assertThat(foreground.join()).isEqualTo(RequestLane.FOREGROUND);
+            // The pooled thread does not stay in the lane.
+            assertThat(CompletableFuture.supplyAsync(RequestLane::current, pool)
+                .join()).isEqualTo(RequestLane.FOREGROUND);
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+}
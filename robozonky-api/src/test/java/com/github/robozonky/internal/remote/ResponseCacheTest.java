@@ -0,0 +1,183 @@
+/*
+ * Copyright 2020 The RoboZonky Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.robozonky.internal.remote;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.util.HashMap;
+import java.util.Map;
+
+import javax.ws.rs.client.ClientRequestContext;
+import javax.ws.rs.client.ClientResponseContext;
+import javax.ws.rs.core.MultivaluedHashMap;
+import javax.ws.rs.core.MultivaluedMap;
+import javax.ws.rs.core.Response;
+
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+
+import com.github.robozonky.internal.Defaults;
+
+class ResponseCacheTest {
+
+    private static ClientRequestContext mockRequest(final String method, final String uri) {
+        final Map<String, Object> properties = new HashMap<>();
+        final MultivaluedMap<String, Object> headers = new MultivaluedHashMap<>();
+        final ClientRequestContext ctx = mock(ClientRequestContext.class);
+        when(ctx.getMethod()).thenReturn(method);
+        when(ctx.getUri()).thenReturn(URI.create(uri));
+        when(ctx.getHeaders()).thenReturn(headers);
+        doAnswer(i -> properties.put(i.getArgument(0), i.getArgument(1))).when(ctx)
+            .setProperty(any(), any());
+        when(ctx.getProperty(any())).thenAnswer(i -> properties.get(i.getArgument(0)));
+        return ctx;
+    }
+
+    private static ClientResponseContext mockResponse(final int status, final String eTag, final String body) {
+        final MultivaluedMap<String, String> headers = new MultivaluedHashMap<>();
+        headers.putSingle("Content-Type", Defaults.MEDIA_TYPE);
+        if (eTag != null) {
+            headers.putSingle("ETag", eTag);
+        }
+        final ClientResponseContext ctx = mock(ClientResponseContext.class);
+        when(ctx.getStatus()).thenReturn(status);
+        when(ctx.getHeaders()).thenReturn(headers);
+        when(ctx.getHeaderString(any())).thenAnswer(i -> headers.getFirst(i.getArgument(0)));
+        when(ctx.hasEntity()).thenReturn(body != null);
+        if (body != null) {
+            when(ctx.getEntityStream())
+                .thenReturn(new ByteArrayInputStream(body.getBytes(Defaults.CHARSET)));
+        }
+        return ctx;
+    }
+
+    private static String read(final ClientResponseContext ctx) throws IOException {
+        final ArgumentCaptor<InputStream> captor = ArgumentCaptor.forClass(InputStream.class);
+        verify(ctx, atLeastOnce()).setEntityStream(captor.capture());
+        return new String(captor.getValue()
+            .readAllBytes(), Defaults.CHARSET);
+    }
+
+    @Test
+    void servesNotModifiedFromCache() throws IOException {
+        final ResponseCache cache = new ResponseCache(10);
+        final String uri = "https://api.zonky.cz/loans/1";
+        // First request is unconditional and its response gets cached.
+        final ClientRequestContext first = mockRequest("GET", uri);
+        cache.beforeRequest(first);
+        assertThat(first.getHeaders()).doesNotContainKey("If-None-Match");
+        final ClientResponseContext firstResponse = mockResponse(200, "\"abc\"", "{\"id\":1}");
+        cache.afterResponse(first, firstResponse);
+        assertThat(read(firstResponse)).isEqualTo("{\"id\":1}");
+        assertThat(cache.size()).isEqualTo(1);
+        // Second request is conditional and the cached body is served.
+        final ClientRequestContext second = mockRequest("GET", uri);
+        cache.beforeRequest(second);
+        assertThat(second.getHeaders()
+            .getFirst("If-None-Match")).isEqualTo("\"abc\"");
+        final ClientResponseContext secondResponse = mockResponse(304, null, null);
+        secondResponse.getHeaders()
+            .remove("Content-Type");
+        cache.afterResponse(second, secondResponse);
+        verify(secondResponse).setStatus(200);
+        assertThat(read(secondResponse)).isEqualTo("{\"id\":1}");
+        assertThat(secondResponse.getHeaders()
+            .getFirst("Content-Type")).isEqualTo(Defaults.MEDIA_TYPE);
+    }
+
+    @Test
+    void sharedAcrossFilters() throws IOException {
+        final ResponseCache cache = new ResponseCache(10);
+        final String uri = "https://api.zonky.cz/loans/1";
+        final ClientRequestContext first = mockRequest("GET", uri);
+        final RoboZonkyFilter firstFilter = new RoboZonkyFilter(cache);
+        firstFilter.filter(first);
+        final ClientResponseContext firstResponse = mockResponse(200, "\"abc\"", "{\"id\":1}");
+        when(firstResponse.getStatusInfo()).thenReturn(Response.Status.OK);
+        firstFilter.filter(first, firstResponse);
+        final ClientRequestContext second = mockRequest("GET", uri);
+        new RoboZonkyFilter(cache).filter(second); // Another API of the same provider.
+        assertThat(second.getHeaders()
+            .getFirst("If-None-Match")).isEqualTo("\"abc\"");
+        assertThat(cache.size()).isEqualTo(1);
+    }
+
+    @Test
+    void replacesOnChange() throws IOException {
+        final ResponseCache cache = new ResponseCache(10);
+        final String uri = "https://api.zonky.cz/loans/1";
+        final ClientRequestContext first = mockRequest("GET", uri);
+        cache.beforeRequest(first);
+        cache.afterResponse(first, mockResponse(200, "\"abc\"", "{\"id\":1}"));
+        final ClientRequestContext second = mockRequest("GET", uri);
+        cache.beforeRequest(second);
+        cache.afterResponse(second, mockResponse(200, "\"def\"", "{\"id\":2}"));
+        final ClientRequestContext third = mockRequest("GET", uri);
+        cache.beforeRequest(third);
+        assertThat(third.getHeaders()
+            .getFirst("If-None-Match")).isEqualTo("\"def\"");
+    }
+
+    @Test
+    void ignoresUncacheable() throws IOException {
+        final ResponseCache cache = new ResponseCache(10);
+        final ClientRequestContext post = mockRequest("POST", "https://api.zonky.cz/marketplace/investment");
+        cache.beforeRequest(post);
+        cache.afterResponse(post, mockResponse(200, "\"abc\"", "{}"));
+        final ClientRequestContext paged = mockRequest("GET", "https://api.zonky.cz/loans/marketplace");
+        paged.getHeaders()
+            .putSingle("X-Page", "0");
+        cache.beforeRequest(paged);
+        cache.afterResponse(paged, mockResponse(200, "\"abc\"", "{}"));
+        final ClientRequestContext noValidator = mockRequest("GET", "https://api.zonky.cz/loans/1");
+        cache.beforeRequest(noValidator);
+        cache.afterResponse(noValidator, mockResponse(200, null, "{}"));
+        assertThat(cache.size()).isZero();
+    }
+
+    @Test
+    void bounded() throws IOException {
+        final ResponseCache cache = new ResponseCache(2);
+        for (int i = 0; i < 5; i++) {
+            final ClientRequestContext request = mockRequest("GET", "https://api.zonky.cz/loans/" + i);
+            cache.beforeRequest(request);
+            cache.afterResponse(request, mockResponse(200, "\"" + i + "\"", "{}"));
+        }
+        assertThat(cache.size()).isEqualTo(2);
+    }
+
+    @Test
+    void disabled() throws IOException {
+        final ResponseCache cache = new ResponseCache(0);
+        final ClientRequestContext request = mockRequest("GET", "https://api.zonky.cz/loans/1");
+        cache.beforeRequest(request);
+        cache.afterResponse(request, mockResponse(200, "\"abc\"", "{}"));
+        assertThat(cache.size()).isZero();
+    }
+
+    @Test
+    void endpointHasBoundedCardinality() {
+        final ClientRequestContext request = mockRequest("GET", "https://api.zonky.cz/loans/123456/investments/789");
+        assertThat(ResponseCache.getEndpoint(request)).isEqualTo("/loans/{id}/investments/{id}");
+    }
+
+}
@@ -33,6 +33,16 @@ class RoboZonkyFilterTest extends AbstractCommonFilterTest {
         assertThat(u2).isNotEqualTo(u);
     }
 
+    @Test
+    void appendEncodedQuery() throws URISyntaxException {
+        final URI u = new URI("http://localhost/somewhere/something");
+        assertThat(RoboZonkyFilter.appendEncodedQuery(u, "a=%22b%22"))
+            .isEqualTo(new URI("http://localhost/somewhere/something?a=%22b%22"));
+        final URI u2 = new URI("http://localhost/somewhere/something?param1=b#fragment");
+        assertThat(RoboZonkyFilter.appendEncodedQuery(u2, "a=c"))
+            .isEqualTo(new URI("http://localhost/somewhere/something?param1=b&a=c#fragment"));
+    }
+
     @Override
     protected RoboZonkyFilter getTestedFilter() {
         return new RoboZonkyFilter();
@@ -0,0 +1,100 @@
+/*
+ * Copyright 2020 The RoboZonky Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.robozonky.internal.remote;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+import java.time.LocalDateTime;
+import java.time.ZonedDateTime;
+
+import org.junit.jupiter.api.Test;
+
+import com.github.robozonky.internal.Defaults;
+
+class SelectPlanTest {
+
+    private static final SelectPlan PLAN = new Select()
+        .equalsPlain("willNotExceedLoanInvestmentLimit", "true")
+        .greaterThanOrEquals("remainingPrincipal", 2)
+        .compile()
+        .lessThanOrEquals("remainingPrincipal");
+
+    @Test
+    void compilesStaticConditions() {
+        var select = new Select()
+            .in("id", 1, 2)
+            .equals("field", "value");
+        var plan = select.compile();
+        assertThat(plan.getParameterCount()).isZero();
+        var context = mock(CallContext.class);
+        plan.bind()
+            .accept(context);
+        verify(context).setEncodedQuery("field__eq=value&id__in=%5B%221%22%2C%222%22%5D");
+        verify(context, never()).setQueryParam(any(), any());
+    }
+
+    @Test
+    void bindsParameters() {
+        var dateTime = ZonedDateTime.of(LocalDateTime.of(2000, 1, 2, 4, 5, 6), Defaults.ZONKYCZ_ZONE_ID);
+        var plan = PLAN.greaterThanOrEquals("datePublished");
+        assertThat(plan.getParameterCount()).isEqualTo(2);
+        assertThat(PLAN.getParameterCount()).isEqualTo(1); // Plans are immutable.
+        var context = mock(CallContext.class);
+        plan.bind(200, dateTime)
+            .accept(context);
+        verify(context).setEncodedQuery("remainingPrincipal__gte=2&willNotExceedLoanInvestmentLimit=true"
+                + "&remainingPrincipal__lte=200&datePublished__gte=2000-01-02T04%3A05%3A06%2B01%3A00");
+    }
+
+    @Test
+    void bindsOnlyParameters() {
+        var context = mock(CallContext.class);
+        new Select().compile()
+            .lessThanOrEquals("remainingPrincipal")
+            .bind(200)
+            .accept(context);
+        verify(context).setEncodedQuery("remainingPrincipal__lte=200");
+    }
+
+    @Test
+    void wrongParameterCount() {
+        assertThatThrownBy(PLAN::bind).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> PLAN.bind(1, 2)).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void boundAppliesLaterConditions() {
+        var select = PLAN.bind(200)
+            .equals("field", "value");
+        var context = mock(CallContext.class);
+        select.accept(context);
+        verify(context).setEncodedQuery(any());
+        verify(context).setQueryParam("field__eq", "value");
+        assertThat(select.compile()
+            .bind()).isNotEqualTo(select);
+    }
+
+    @Test
+    void equality() {
+        assertThat(PLAN.bind(200))
+            .isEqualTo(PLAN.bind(200))
+            .hasSameHashCodeAs(PLAN.bind(200))
+            .isNotEqualTo(PLAN.bind(300))
+            .isNotEqualTo(new Select());
+    }
+}
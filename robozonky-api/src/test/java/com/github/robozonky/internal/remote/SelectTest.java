@@ -36,9 +36,9 @@ class SelectTest {
         final String fieldName = "field";
         final String value = "value";
         final Select select = new Select().contains(fieldName, value);
-        final RoboZonkyFilter filter = mock(RoboZonkyFilter.class);
-        select.accept(filter);
-        verify(filter).setQueryParam(eq(fieldName + "__contains"), eq(value));
+        final CallContext context = mock(CallContext.class);
+        select.accept(context);
+        verify(context).setQueryParam(eq(fieldName + "__contains"), eq(value));
     }
 
     @Test
@@ -46,9 +46,9 @@ class SelectTest {
         final String fieldName = "field";
         final String value = "value";
         final Select select = new Select().startsWith(fieldName, value);
-        final RoboZonkyFilter filter = mock(RoboZonkyFilter.class);
-        select.accept(filter);
-        verify(filter).setQueryParam(eq(fieldName + "__startswith"), eq(value));
+        final CallContext context = mock(CallContext.class);
+        select.accept(context);
+        verify(context).setQueryParam(eq(fieldName + "__startswith"), eq(value));
     }
 
     @Test
@@ -56,9 +56,9 @@ class SelectTest {
         final String fieldName = "field";
         final String value = "value";
         final Select select = new Select().endsWith(fieldName, value);
-        final RoboZonkyFilter filter = mock(RoboZonkyFilter.class);
-        select.accept(filter);
-        verify(filter).setQueryParam(eq(fieldName + "__endswith"), eq(value));
+        final CallContext context = mock(CallContext.class);
+        select.accept(context);
+        verify(context).setQueryParam(eq(fieldName + "__endswith"), eq(value));
     }
 
     @Test
@@ -66,9 +66,9 @@ class SelectTest {
         final String fieldName = "field";
         final String value = "value";
         final Select select = new Select().containsCaseInsensitive(fieldName, value);
-        final RoboZonkyFilter filter = mock(RoboZonkyFilter.class);
-        select.accept(filter);
-        verify(filter).setQueryParam(eq(fieldName + "__icontains"), eq(value));
+        final CallContext context = mock(CallContext.class);
+        select.accept(context);
+        verify(context).setQueryParam(eq(fieldName + "__icontains"), eq(value));
     }
 
     @Test
@@ -76,9 +76,9 @@ class SelectTest {
         final String fieldName = "field";
         final String value = "value";
         final Select select = new Select().startsWithCaseInsensitive(fieldName, value);
-        final RoboZonkyFilter filter = mock(RoboZonkyFilter.class);
-        select.accept(filter);
-        verify(filter).setQueryParam(eq(fieldName + "__istartswith"), eq(value));
+        final CallContext context = mock(CallContext.class);
+        select.accept(context);
+        verify(context).setQueryParam(eq(fieldName + "__istartswith"), eq(value));
     }
 
     @Test
@@ -86,9 +86,9 @@ class SelectTest {
         final String fieldName = "field";
         final String value = "value";
         final Select select = new Select().endsWithCaseInsensitive(fieldName, value);
-        final RoboZonkyFilter filter = mock(RoboZonkyFilter.class);
-        select.accept(filter);
-        verify(filter).setQueryParam(eq(fieldName + "__iendswith"), eq(value));
+        final CallContext context = mock(CallContext.class);
+        select.accept(context);
+        verify(context).setQueryParam(eq(fieldName + "__iendswith"), eq(value));
     }
 
     @Test
@@ -96,9 +96,9 @@ class SelectTest {
         final String fieldName = "field";
         final long value = Long.MAX_VALUE;
         final Select select = new Select().greaterThan(fieldName, value);
-        final RoboZonkyFilter filter = mock(RoboZonkyFilter.class);
-        select.accept(filter);
-        verify(filter).setQueryParam(eq(fieldName + "__gt"), eq(String.valueOf(value)));
+        final CallContext context = mock(CallContext.class);
+        select.accept(context);
+        verify(context).setQueryParam(eq(fieldName + "__gt"), eq(String.valueOf(value)));
     }
 
     @Test
@@ -106,9 +106,9 @@ class SelectTest {
         final String fieldName = "field";
         final long value = Long.MAX_VALUE;
         final Select select = new Select().greaterThanOrEquals(fieldName, value);
-        final RoboZonkyFilter filter = mock(RoboZonkyFilter.class);
-        select.accept(filter);
-        verify(filter).setQueryParam(eq(fieldName + "__gte"), eq(String.valueOf(value)));
+        final CallContext context = mock(CallContext.class);
+        select.accept(context);
+        verify(context).setQueryParam(eq(fieldName + "__gte"), eq(String.valueOf(value)));
     }
 
     @Test
@@ -116,9 +116,9 @@ class SelectTest {
         final String fieldName = "field";
         final long value = Long.MAX_VALUE;
         final Select select = new Select().greaterThanOrNull(fieldName, value);
-        final RoboZonkyFilter filter = mock(RoboZonkyFilter.class);
-        select.accept(filter);
-        verify(filter).setQueryParam(eq(fieldName + "__gteornull"), eq(String.valueOf(value)));
+        final CallContext context = mock(CallContext.class);
+        select.accept(context);
+        verify(context).setQueryParam(eq(fieldName + "__gteornull"), eq(String.valueOf(value)));
     }
 
     @Test
@@ -126,9 +126,9 @@ class SelectTest {
         final String fieldName = "field";
         final LocalDate value = LocalDate.of(1, 2, 3);
         final Select select = new Select().greaterThanOrNull(fieldName, value);
-        final RoboZonkyFilter filter = mock(RoboZonkyFilter.class);
-        select.accept(filter);
-        verify(filter).setQueryParam(eq(fieldName + "__gteornull"), eq("0001-02-03"));
+        final CallContext context = mock(CallContext.class);
+        select.accept(context);
+        verify(context).setQueryParam(eq(fieldName + "__gteornull"), eq("0001-02-03"));
     }
 
     @Test
@@ -139,9 +139,9 @@ class SelectTest {
         final ZonedDateTime value = LocalDateTime.of(date, time)
             .atZone(Defaults.ZONKYCZ_ZONE_ID);
         final Select select = new Select().greaterThanOrNull(fieldName, value);
-        final RoboZonkyFilter filter = mock(RoboZonkyFilter.class);
-        select.accept(filter);
-        verify(filter).setQueryParam(eq(fieldName + "__gteornull"), eq("2000-01-02T04:05:06+01:00"));
+        final CallContext context = mock(CallContext.class);
+        select.accept(context);
+        verify(context).setQueryParam(eq(fieldName + "__gteornull"), eq("2000-01-02T04:05:06+01:00"));
     }
 
     @Test
@@ -149,9 +149,9 @@ class SelectTest {
         final String fieldName = "field";
         final long value = Long.MAX_VALUE;
         final Select select = new Select().lessThan(fieldName, value);
-        final RoboZonkyFilter filter = mock(RoboZonkyFilter.class);
-        select.accept(filter);
-        verify(filter).setQueryParam(eq(fieldName + "__lt"), eq(String.valueOf(value)));
+        final CallContext context = mock(CallContext.class);
+        select.accept(context);
+        verify(context).setQueryParam(eq(fieldName + "__lt"), eq(String.valueOf(value)));
     }
 
     @Test
@@ -159,9 +159,9 @@ class SelectTest {
         final String fieldName = "field";
         final long value = Long.MAX_VALUE;
         final Select select = new Select().lessThanOrEquals(fieldName, value);
-        final RoboZonkyFilter filter = mock(RoboZonkyFilter.class);
-        select.accept(filter);
-        verify(filter).setQueryParam(eq(fieldName + "__lte"), eq(String.valueOf(value)));
+        final CallContext context = mock(CallContext.class);
+        select.accept(context);
+        verify(context).setQueryParam(eq(fieldName + "__lte"), eq(String.valueOf(value)));
     }
 
     @Test
@@ -169,9 +169,9 @@ class SelectTest {
         final String fieldName = "field";
         final LocalDate value = LocalDate.of(1, 2, 3);
         final Select select = new Select().lessThan(fieldName, value);
-        final RoboZonkyFilter filter = mock(RoboZonkyFilter.class);
-        select.accept(filter);
-        verify(filter).setQueryParam(eq(fieldName + "__lt"), eq("0001-02-03"));
+        final CallContext context = mock(CallContext.class);
+        select.accept(context);
+        verify(context).setQueryParam(eq(fieldName + "__lt"), eq("0001-02-03"));
     }
 
     @Test
@@ -179,9 +179,9 @@ class SelectTest {
         final String fieldName = "field";
         final LocalDate value = LocalDate.of(1, 2, 3);
         final Select select = new Select().lessThanOrEquals(fieldName, value);
-        final RoboZonkyFilter filter = mock(RoboZonkyFilter.class);
-        select.accept(filter);
-        verify(filter).setQueryParam(eq(fieldName + "__lte"), eq("0001-02-03"));
+        final CallContext context = mock(CallContext.class);
+        select.accept(context);
+        verify(context).setQueryParam(eq(fieldName + "__lte"), eq("0001-02-03"));
     }
 
     @Test
@@ -189,9 +189,9 @@ class SelectTest {
         final String fieldName = "field";
         final LocalDate value = LocalDate.of(1, 2, 3);
         final Select select = new Select().greaterThan(fieldName, value);
-        final RoboZonkyFilter filter = mock(RoboZonkyFilter.class);
-        select.accept(filter);
-        verify(filter).setQueryParam(eq(fieldName + "__gt"), eq("0001-02-03"));
+        final CallContext context = mock(CallContext.class);
+        select.accept(context);
+        verify(context).setQueryParam(eq(fieldName + "__gt"), eq("0001-02-03"));
     }
 
     @Test
@@ -199,9 +199,9 @@ class SelectTest {
         final String fieldName = "field";
         final LocalDate value = LocalDate.of(1, 2, 3);
         final Select select = new Select().greaterThanOrEquals(fieldName, value);
-        final RoboZonkyFilter filter = mock(RoboZonkyFilter.class);
-        select.accept(filter);
-        verify(filter).setQueryParam(eq(fieldName + "__gte"), eq("0001-02-03"));
+        final CallContext context = mock(CallContext.class);
+        select.accept(context);
+        verify(context).setQueryParam(eq(fieldName + "__gte"), eq("0001-02-03"));
     }
 
     @Test
@@ -212,9 +212,9 @@ class SelectTest {
         final ZonedDateTime value = LocalDateTime.of(date, time)
             .atZone(Defaults.ZONKYCZ_ZONE_ID);
         final Select select = new Select().lessThan(fieldName, value);
-        final RoboZonkyFilter filter = mock(RoboZonkyFilter.class);
-        select.accept(filter);
-        verify(filter).setQueryParam(eq(fieldName + "__lt"), eq("2000-01-02T04:05:06+01:00"));
+        final CallContext context = mock(CallContext.class);
+        select.accept(context);
+        verify(context).setQueryParam(eq(fieldName + "__lt"), eq("2000-01-02T04:05:06+01:00"));
     }
 
     @Test
@@ -225,9 +225,9 @@ class SelectTest {
         final ZonedDateTime value = LocalDateTime.of(date, time)
             .atZone(Defaults.ZONKYCZ_ZONE_ID);
         final Select select = new Select().lessThanOrEquals(fieldName, value);
-        final RoboZonkyFilter filter = mock(RoboZonkyFilter.class);
-        select.accept(filter);
-        verify(filter).setQueryParam(eq(fieldName + "__lte"), eq("2000-01-02T04:05:06+01:00"));
+        final CallContext context = mock(CallContext.class);
+        select.accept(context);
+        verify(context).setQueryParam(eq(fieldName + "__lte"), eq("2000-01-02T04:05:06+01:00"));
     }
 
     @Test
@@ -238,9 +238,9 @@ class SelectTest {
         final ZonedDateTime value = LocalDateTime.of(date, time)
             .atZone(Defaults.ZONKYCZ_ZONE_ID);
         final Select select = new Select().greaterThan(fieldName, value);
-        final RoboZonkyFilter filter = mock(RoboZonkyFilter.class);
-        select.accept(filter);
-        verify(filter).setQueryParam(eq(fieldName + "__gt"), eq("2000-01-02T04:05:06+01:00"));
+        final CallContext context = mock(CallContext.class);
+        select.accept(context);
+        verify(context).setQueryParam(eq(fieldName + "__gt"), eq("2000-01-02T04:05:06+01:00"));
     }
 
     @Test
@@ -251,9 +251,9 @@ class SelectTest {
         final ZonedDateTime value = LocalDateTime.of(date, time)
             .atZone(Defaults.ZONKYCZ_ZONE_ID);
         final Select select = new Select().greaterThanOrEquals(fieldName, value);
-        final RoboZonkyFilter filter = mock(RoboZonkyFilter.class);
-        select.accept(filter);
-        verify(filter).setQueryParam(eq(fieldName + "__gte"), eq("2000-01-02T04:05:06+01:00"));
+        final CallContext context = mock(CallContext.class);
+        select.accept(context);
+        verify(context).setQueryParam(eq(fieldName + "__gte"), eq("2000-01-02T04:05:06+01:00"));
     }
 
     @Test
@@ -261,9 +261,9 @@ class SelectTest {
         final String fieldName = "field";
         final long value = Long.MAX_VALUE;
         final Select select = new Select().lessThanOrNull(fieldName, value);
-        final RoboZonkyFilter filter = mock(RoboZonkyFilter.class);
-        select.accept(filter);
-        verify(filter).setQueryParam(eq(fieldName + "__lteornull"), eq(String.valueOf(value)));
+        final CallContext context = mock(CallContext.class);
+        select.accept(context);
+        verify(context).setQueryParam(eq(fieldName + "__lteornull"), eq(String.valueOf(value)));
     }
 
     @Test
@@ -271,9 +271,9 @@ class SelectTest {
         final String fieldName = "field";
         final LocalDate value = LocalDate.of(1, 2, 3);
         final Select select = new Select().lessThanOrNull(fieldName, value);
-        final RoboZonkyFilter filter = mock(RoboZonkyFilter.class);
-        select.accept(filter);
-        verify(filter).setQueryParam(eq(fieldName + "__lteornull"), eq("0001-02-03"));
+        final CallContext context = mock(CallContext.class);
+        select.accept(context);
+        verify(context).setQueryParam(eq(fieldName + "__lteornull"), eq("0001-02-03"));
     }
 
     @Test
@@ -284,9 +284,9 @@ class SelectTest {
         final ZonedDateTime value = LocalDateTime.of(date, time)
             .atZone(Defaults.ZONKYCZ_ZONE_ID);
         final Select select = new Select().lessThanOrNull(fieldName, value);
-        final RoboZonkyFilter filter = mock(RoboZonkyFilter.class);
-        select.accept(filter);
-        verify(filter).setQueryParam(eq(fieldName + "__lteornull"), eq("2000-01-02T04:05:06+01:00"));
+        final CallContext context = mock(CallContext.class);
+        select.accept(context);
+        verify(context).setQueryParam(eq(fieldName + "__lteornull"), eq("2000-01-02T04:05:06+01:00"));
     }
 
     @Test
@@ -294,9 +294,9 @@ class SelectTest {
         final String fieldName = "field";
         final long value = Long.MAX_VALUE;
         final Select select = new Select().containsAll(fieldName, value);
-        final RoboZonkyFilter filter = mock(RoboZonkyFilter.class);
-        select.accept(filter);
-        verify(filter).setQueryParam(eq(fieldName + "__containsall"), eq("[\"" + value + "\"]"));
+        final CallContext context = mock(CallContext.class);
+        select.accept(context);
+        verify(context).setQueryParam(eq(fieldName + "__containsall"), eq("[\"" + value + "\"]"));
     }
 
     @Test
@@ -304,9 +304,9 @@ class SelectTest {
         final String fieldName = "field";
         final long value = Long.MAX_VALUE;
         final Select select = new Select().containsAny(fieldName, value);
-        final RoboZonkyFilter filter = mock(RoboZonkyFilter.class);
-        select.accept(filter);
-        verify(filter).setQueryParam(eq(fieldName + "__containsany"), eq("[\"" + value + "\"]"));
+        final CallContext context = mock(CallContext.class);
+        select.accept(context);
+        verify(context).setQueryParam(eq(fieldName + "__containsany"), eq("[\"" + value + "\"]"));
     }
 
     @Test
@@ -314,9 +314,9 @@ class SelectTest {
         final String fieldName = "field";
         final String value = "value";
         final Select select = new Select().containsAll(fieldName, value);
-        final RoboZonkyFilter filter = mock(RoboZonkyFilter.class);
-        select.accept(filter);
-        verify(filter).setQueryParam(eq(fieldName + "__containsall"), eq("[\"" + value + "\"]"));
+        final CallContext context = mock(CallContext.class);
+        select.accept(context);
+        verify(context).setQueryParam(eq(fieldName + "__containsall"), eq("[\"" + value + "\"]"));
     }
 
     @Test
@@ -324,9 +324,9 @@ class SelectTest {
         final String fieldName = "field";
         final String value = "value";
         final Select select = new Select().containsAny(fieldName, value);
-        final RoboZonkyFilter filter = mock(RoboZonkyFilter.class);
-        select.accept(filter);
-        verify(filter).setQueryParam(eq(fieldName + "__containsany"), eq("[\"" + value + "\"]"));
+        final CallContext context = mock(CallContext.class);
+        select.accept(context);
+        verify(context).setQueryParam(eq(fieldName + "__containsany"), eq("[\"" + value + "\"]"));
     }
 
     @Test
@@ -334,9 +334,9 @@ class SelectTest {
         final String fieldName = "field";
         final long value = Long.MAX_VALUE;
         final Select select = new Select().in(fieldName, value);
-        final RoboZonkyFilter filter = mock(RoboZonkyFilter.class);
-        select.accept(filter);
-        verify(filter).setQueryParam(eq(fieldName + "__in"), eq("[\"" + value + "\"]"));
+        final CallContext context = mock(CallContext.class);
+        select.accept(context);
+        verify(context).setQueryParam(eq(fieldName + "__in"), eq("[\"" + value + "\"]"));
     }
 
     @Test
@@ -344,9 +344,9 @@ class SelectTest {
         final String fieldName = "field";
         final String value = "value";
         final Select select = new Select().in(fieldName, value);
-        final RoboZonkyFilter filter = mock(RoboZonkyFilter.class);
-        select.accept(filter);
-        verify(filter).setQueryParam(eq(fieldName + "__in"), eq("[\"" + value + "\"]"));
+        final CallContext context = mock(CallContext.class);
+        select.accept(context);
+        verify(context).setQueryParam(eq(fieldName + "__in"), eq("[\"" + value + "\"]"));
     }
 
     @Test
@@ -373,9 +373,9 @@ class SelectTest {
         final String fieldName = "field";
         final String value = "value";
         final Select select = new Select().equals(fieldName, value);
-        final RoboZonkyFilter filter = mock(RoboZonkyFilter.class);
-        select.accept(filter);
-        verify(filter).setQueryParam(eq(fieldName + "__eq"), eq(value));
+        final CallContext context = mock(CallContext.class);
+        select.accept(context);
+        verify(context).setQueryParam(eq(fieldName + "__eq"), eq(value));
     }
 
     @Test
@@ -385,9 +385,9 @@ class SelectTest {
         final String value = "value";
         final Select select = Select.unrestricted()
             .equalsPlain(fieldName, value);
-        final RoboZonkyFilter filter = mock(RoboZonkyFilter.class);
-        select.accept(filter);
-        verify(filter).setQueryParam(eq(fieldName), eq(value));
+        final CallContext context = mock(CallContext.class);
+        select.accept(context);
+        verify(context).setQueryParam(eq(fieldName), eq(value));
     }
 
     @Test
@@ -395,8 +395,8 @@ class SelectTest {
         final String fieldName = "field";
         final String value = "value";
         final Select select = new Select().notEquals(fieldName, value);
-        final RoboZonkyFilter filter = mock(RoboZonkyFilter.class);
-        select.accept(filter);
-        verify(filter).setQueryParam(eq(fieldName + "__noteq"), eq(value));
+        final CallContext context = mock(CallContext.class);
+        select.accept(context);
+        verify(context).setQueryParam(eq(fieldName + "__noteq"), eq(value));
     }
 }
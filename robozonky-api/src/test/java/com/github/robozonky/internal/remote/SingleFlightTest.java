@@ -0,0 +1,119 @@
+/*
+ * Copyright 2020 The RoboZonky Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.robozonky.internal.remote;
+
+import static org.assertj.core.api.Assertions.*;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+
+class SingleFlightTest {
+
+    private final SingleFlight singleFlight = new SingleFlight();
+
+    @Test
+    void concurrentCallersShareRequest() throws Exception {
+        var requests = new AtomicInteger();
+        var requestStarted = new CountDownLatch(1);
+        var requestMayFinish = new CountDownLatch(1);
+        var leader = CompletableFuture.supplyAsync(() -> singleFlight.call("loan", 1, () -> {
+            requestStarted.countDown();
+            try {
+                requestMayFinish.await(10, TimeUnit.SECONDS);
+            } catch (final InterruptedException ex) {
+                throw new IllegalStateException(ex);
+            }
+            return requests.incrementAndGet();
+        }));
+        requestStarted.await(10, TimeUnit.SECONDS);
+        var follower = CompletableFuture.supplyAsync(() -> singleFlight.call("loan", 1, requests::incrementAndGet));
+        Thread.sleep(100); // Give the follower time to join the request in flight.
+        requestMayFinish.countDown();
+        assertThat(leader.get()).isEqualTo(1);
+        assertThat(follower.get()).isEqualTo(1);
+        assertThat(requests).hasValue(1);
+    }
+
+    @Test
+    void differentKeysDoNotShare() {
+        var requests = new AtomicInteger();
+        var result = singleFlight.call("loan", 1, () -> singleFlight.call("loan", 2, requests::incrementAndGet));
+        assertThat(result).isEqualTo(1);
+        assertThat(singleFlight.call("investment", 1, requests::incrementAndGet)).isEqualTo(2);
+    }
+
+    @Test
+    void nothingCached() {
+        var requests = new AtomicInteger();
+        singleFlight.call("loan", 1, requests::incrementAndGet);
+        singleFlight.call("loan", 1, requests::incrementAndGet);
+        assertThat(requests).hasValue(2);
+    }
+
+    @Test
+    void exceptionPropagated() {
+        assertThatThrownBy(() -> singleFlight.call("loan", 1, () -> {
+            throw new IllegalStateException("Failed.");
+        })).isInstanceOf(IllegalStateException.class);
+        assertThat(singleFlight.call("loan", 1, () -> 1)).isEqualTo(1); // Failure not remembered.
+    }
+
+    private int await(final CountDownLatch started, final CountDownLatch mayFinish, final AtomicInteger requests) {
+        started.countDown();
+        try {
+            mayFinish.await(10, TimeUnit.SECONDS);
+        } catch (final InterruptedException ex) {
+            throw new IllegalStateException(ex);
+        }
+        return requests.incrementAndGet();
+    }
+
+    @Test
+    void foregroundDoesNotJoinBackground() throws Exception {
+        var requests = new AtomicInteger();
+        var requestStarted = new CountDownLatch(1);
+        var requestMayFinish = new CountDownLatch(1);
+        var background = CompletableFuture.supplyAsync(() -> RequestLane.BACKGROUND
+            .call(() -> singleFlight.call("loan", 1, () -> await(requestStarted, requestMayFinish, requests))));
+        requestStarted.await(10, TimeUnit.SECONDS);
+        assertThat(singleFlight.call("loan", 1, requests::incrementAndGet)).isEqualTo(1); // Not held up.
+        requestMayFinish.countDown();
+        assertThat(background.get()).isEqualTo(2);
+        assertThat(requests).hasValue(2);
+    }
+
+    @Test
+    void backgroundJoinsForeground() throws Exception {
+        var requests = new AtomicInteger();
+        var requestStarted = new CountDownLatch(1);
+        var requestMayFinish = new CountDownLatch(1);
+        var foreground = CompletableFuture.supplyAsync(() -> RequestLane.FOREGROUND
+            .call(() -> singleFlight.call("loan", 1, () -> await(requestStarted, requestMayFinish, requests))));
+        requestStarted.await(10, TimeUnit.SECONDS);
+        var background = CompletableFuture.supplyAsync(() -> RequestLane.BACKGROUND
+            .call(() -> singleFlight.call("loan", 1, requests::incrementAndGet)));
+        Thread.sleep(100); // Give the background caller time to join the request in flight.
+        requestMayFinish.countDown();
+        assertThat(foreground.get()).isEqualTo(1);
+        assertThat(background.get()).isEqualTo(1);
+        assertThat(requests).hasValue(1);
+    }
+}
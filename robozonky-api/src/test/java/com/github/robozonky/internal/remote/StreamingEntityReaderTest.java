@@ -0,0 +1,128 @@
+/*
+ * Copyright 2020 The RoboZonky Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.robozonky.internal.remote;
+
+import static org.assertj.core.api.Assertions.*;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import org.junit.jupiter.api.Test;
+
+import com.github.robozonky.api.remote.entities.Loan;
+import com.github.robozonky.internal.remote.entities.LoanImpl;
+
+class StreamingEntityReaderTest {
+
+    private static String loan(final int id) {
+        return "{\"id\":" + id + ",\"name\":\"Loan " + id + "\",\"photos\":[{\"name\":\"x\",\"url\":\"y\"}]," +
+                "\"flags\":[],\"insuranceHistory\":[{\"policyPeriodFrom\":\"2020-04-22\"," +
+                "\"policyPeriodTo\":\"2025-04-13\"}],\"myOtherInvestments\":null,\"amount\":1000.00}";
+    }
+
+    private static String loans(final int count) {
+        return IntStream.range(0, count)
+            .mapToObj(StreamingEntityReaderTest::loan)
+            .collect(Collectors.joining(",", "[", "]"));
+    }
+
+    @Test
+    void readsAllItemsInOrder() {
+        var body = new TrackingInputStream(loans(10));
+        try (var stream = StreamingEntityReader.read(body, LoanImpl.class)) {
+            assertThat(stream.map(Loan::getId))
+                .containsExactly(0, 1, 2, 3, 4, 5, 6, 7, 8, 9);
+        }
+        assertThat(body.closed).isTrue();
+    }
+
+    @Test
+    void closesWhenExhausted() {
+        var body = new TrackingInputStream(loans(2));
+        assertThat(StreamingEntityReader.read(body, LoanImpl.class)
+            .count()).isEqualTo(2);
+        assertThat(body.closed).isTrue();
+    }
+
+    @Test
+    void closesWhenShortCircuited() {
+        var body = new TrackingInputStream(loans(100));
+        try (var stream = StreamingEntityReader.read(body, LoanImpl.class)) {
+            assertThat(stream.findFirst()).hasValueSatisfying(l -> assertThat(l.getId()).isEqualTo(0));
+        }
+        assertThat(body.closed).isTrue();
+    }
+
+    @Test
+    void emptyArray() {
+        var body = new TrackingInputStream("[]");
+        assertThat(StreamingEntityReader.read(body, LoanImpl.class)).isEmpty();
+        assertThat(body.closed).isTrue();
+    }
+
+    @Test
+    void emptyBody() {
+        var body = new TrackingInputStream("");
+        assertThat(StreamingEntityReader.read(body, LoanImpl.class)).isEmpty();
+        assertThat(body.closed).isTrue();
+        assertThat(StreamingEntityReader.read(null, LoanImpl.class)).isEmpty();
+    }
+
+    @Test
+    void notAnArray() {
+        var body = new TrackingInputStream(loan(1));
+        var stream = StreamingEntityReader.read(body, LoanImpl.class);
+        assertThatThrownBy(stream::count).isInstanceOf(IllegalStateException.class);
+        assertThat(body.closed).isTrue();
+    }
+
+    @Test
+    void firstItemAvailableBeforeRestOfBodyArrives() {
+        var firstItem = "[" + loan(1) + ",";
+        var body = new TrackingInputStream(firstItem) {
+            @Override
+            public int read(final byte[] b, final int off, final int len) {
+                if (available() == 0) {
+                    throw new IllegalStateException("The rest of the body did not arrive yet.");
+                }
+                return super.read(b, off, len);
+            }
+        };
+        try (var stream = StreamingEntityReader.read(body, LoanImpl.class)) {
+            assertThat(stream.findFirst()).hasValueSatisfying(l -> assertThat(l.getId()).isEqualTo(1));
+        }
+        assertThat(body.closed).isTrue();
+    }
+
+    private static class TrackingInputStream extends ByteArrayInputStream {
+
+        boolean closed = false;
+
+        public TrackingInputStream(final String contents) {
+            super(contents.getBytes(StandardCharsets.UTF_8));
+        }
+
+        @Override
+        public void close() throws IOException {
+            closed = true;
+            super.close();
+        }
+    }
+}
@@ -97,4 +97,20 @@ class KeyStoreHandlerTest {
         assertThat(ksh2.isDirty()).isTrue();
         assertThat(ksh2.get(key)).isEmpty();
     }
+
+    @Test
+    void savesAtomicallyAndServesFromMemory() throws IOException, KeyStoreException {
+        final File f = File.createTempFile("robozonky-", ".keystore");
+        f.delete();
+        final KeyStoreHandler ksh = KeyStoreHandler.create(f, KeyStoreHandlerTest.PASSWORD);
+        ksh.set("abc", "def".toCharArray());
+        ksh.save();
+        assertThat(new File(f.getAbsolutePath() + ".tmp")).doesNotExist();
+        final char[] value = ksh.get("abc")
+            .orElseThrow();
+        value[0] = 'x'; // Callers get a copy, so that they can not change what is kept in memory.
+        assertThat(ksh.get("abc")).contains("def".toCharArray());
+        final KeyStoreHandler ksh2 = KeyStoreHandler.open(f, KeyStoreHandlerTest.PASSWORD);
+        assertThat(ksh2.get("abc")).contains("def".toCharArray());
+    }
 }
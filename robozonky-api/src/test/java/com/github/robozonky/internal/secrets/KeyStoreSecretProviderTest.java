@@ -22,16 +22,24 @@ import static org.mockito.Mockito.*;
 import java.io.File;
 import java.io.IOException;
 import java.security.KeyStoreException;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
 
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
 
 import com.github.robozonky.api.remote.entities.ZonkyApiToken;
 import com.github.robozonky.internal.remote.entities.ZonkyApiTokenImpl;
 
 class KeyStoreSecretProviderTest {
 
+    private static final Logger LOGGER = LogManager.getLogger(KeyStoreSecretProviderTest.class);
+
     private static final String USR = "username";
     private static final String PWD = "password";
 
@@ -123,11 +131,71 @@ class KeyStoreSecretProviderTest {
                     .toString(),
                 299);
         assertThat(p.setToken(token)).isFalse();
-        assertThat(p.getToken()).isEmpty();
+        assertThat(p.getToken()).contains(token); // Still usable, only not persisted.
         assertThat(p.setToken(null)).isFalse();
         assertThat(p.getToken()).isEmpty();
     }
 
+    @Test
+    void setTokenAsync() {
+        final KeyStoreHandler ksh = spy(getKeyStoreHandler());
+        final List<Runnable> writes = new ArrayList<>(0);
+        final KeyStoreSecretProvider p = new KeyStoreSecretProvider(ksh, writes::add);
+        assertThat(p.getToken()).isEmpty();
+        final ZonkyApiToken token = new ZonkyApiTokenImpl(UUID.randomUUID()
+            .toString(),
+                UUID.randomUUID()
+                    .toString(),
+                299);
+        final ZonkyApiToken token2 = new ZonkyApiTokenImpl(UUID.randomUUID()
+            .toString(),
+                UUID.randomUUID()
+                    .toString(),
+                299);
+        var first = p.setTokenAsync(token);
+        var second = p.setTokenAsync(token2);
+        assertThat(p.getToken()).contains(token2); // Served from memory before it is written.
+        assertThat(writes).hasSize(1); // Both tokens written at once.
+        assertThat(first).isNotDone();
+        verify(ksh, never()).save();
+        writes.get(0)
+            .run();
+        assertThat(first).isCompletedWithValue(true);
+        assertThat(second).isCompletedWithValue(true);
+        verify(ksh, times(1)).save();
+        assertThat(new KeyStoreSecretProvider(ksh).getToken()).contains(token2);
+    }
+
+    /**
+     * Run with -Drobozonky.keystore_benchmark=true to compare how long the token refresh waits for the keystore.
+     */
+    @Test
+    @EnabledIfSystemProperty(named = "robozonky.keystore_benchmark", matches = "true")
+    void benchmark() {
+        final KeyStoreSecretProvider p = newProvider(USR, PWD);
+        final int iterations = 100;
+        final ZonkyApiToken token = new ZonkyApiTokenImpl(UUID.randomUUID()
+            .toString(),
+                UUID.randomUUID()
+                    .toString(),
+                299);
+        var start = System.nanoTime();
+        for (var i = 0; i < iterations; i++) {
+            p.setToken(token); // Waits for the keystore, as the refresh did before.
+        }
+        var synchronous = System.nanoTime();
+        CompletableFuture<Boolean> last = null;
+        for (var i = 0; i < iterations; i++) {
+            last = p.setTokenAsync(token);
+            p.getToken();
+        }
+        var asynchronous = System.nanoTime();
+        last.join();
+        LOGGER.info("Token refresh waited {} us synchronously, {} us asynchronously; {} us until all written.",
+                (synchronous - start) / iterations / 1_000, (asynchronous - synchronous) / iterations / 1_000,
+                (System.nanoTime() - synchronous) / iterations / 1_000);
+    }
+
     @Test
     void noKeyStoreHandlerProvided() {
         assertThatThrownBy(() -> new KeyStoreSecretProvider(null))
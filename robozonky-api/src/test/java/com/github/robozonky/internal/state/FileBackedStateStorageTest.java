@@ -23,6 +23,8 @@ import java.io.File;
 import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
 import java.util.UUID;
 
 import org.apache.logging.log4j.LogManager;
@@ -246,4 +248,130 @@ class FileBackedStateStorageTest {
         }
 
     }
+
+    @Nested
+    @DisplayName("When changes are journaled")
+    class JournalTesting {
+
+        private final Path journal = Path.of(f.getAbsolutePath() + ".journal");
+        private final Path corruptedJournal = Path.of(journal + ".corrupted");
+
+        @BeforeEach
+        void storeChanges() {
+            s.setValue("section", "key", "value");
+            s.setValue("section", "key2", "value2");
+            s.setValue("section2", "key", "value");
+            s.store();
+            s.unsetValue("section", "key2");
+            s.unsetValues("section2");
+            s.store();
+        }
+
+        @Test
+        @DisplayName("only the journal is written.")
+        void appendsToJournal() {
+            assertSoftly(softly -> {
+                softly.assertThat(f)
+                    .doesNotExist();
+                softly.assertThat(journal)
+                    .exists();
+            });
+        }
+
+        @Test
+        @DisplayName("they are replayed by a new storage instance.")
+        void replays() {
+            final FileBackedStateStorage s2 = new FileBackedStateStorage(f);
+            assertSoftly(softly -> {
+                softly.assertThat(s2.getValue("section", "key"))
+                    .contains("value");
+                softly.assertThat(s2.getKeys("section"))
+                    .containsOnly("key");
+                softly.assertThat(s2.getSections())
+                    .containsOnly("section");
+            });
+        }
+
+        @Test
+        @DisplayName("they are replayed over the compacted state.")
+        void compacts() throws IOException {
+            s.compact();
+            s.setValue("section", "key3", "value3");
+            s.store();
+            final FileBackedStateStorage s2 = new FileBackedStateStorage(f);
+            assertSoftly(softly -> {
+                softly.assertThat(f)
+                    .exists();
+                softly.assertThat(s2.getKeys("section"))
+                    .containsOnly("key", "key3");
+                softly.assertThat(s2.getSections())
+                    .containsOnly("section");
+            });
+        }
+
+        @Test
+        @DisplayName("they are compacted by the compactor, not by store().")
+        void compactsInBackground() throws IOException {
+            var compactions = new ArrayList<Runnable>(0);
+            var storage = new FileBackedStateStorage(f, true, 0, compactions::add);
+            storage.setValue("section", "key3", "value3");
+            assertThat(storage.store()).isTrue();
+            assertThat(f).doesNotExist();
+            assertThat(compactions).hasSize(1);
+            compactions.get(0)
+                .run();
+            assertThat(f).exists();
+            assertThat(Files.size(journal)).isZero();
+            final FileBackedStateStorage s2 = new FileBackedStateStorage(f);
+            assertThat(s2.getKeys("section")).containsOnly("key", "key3");
+        }
+
+        @Test
+        @DisplayName("a bad record is moved out of the way, and changes before it are kept.")
+        void recoversFromCorruption() throws IOException {
+            Files.write(journal, new byte[] { 0, 0, 0, 10, 1, 2, 3 }, StandardOpenOption.APPEND);
+            final FileBackedStateStorage s2 = new FileBackedStateStorage(f);
+            assertSoftly(softly -> {
+                softly.assertThat(s2.getKeys("section"))
+                    .containsOnly("key");
+                softly.assertThat(s2.getSections())
+                    .containsOnly("section");
+                softly.assertThat(corruptedJournal)
+                    .exists();
+                softly.assertThat(f)
+                    .exists(); // The recovered changes were stored.
+            });
+            final FileBackedStateStorage s3 = new FileBackedStateStorage(f);
+            assertThat(s3.getKeys("section")).containsOnly("key");
+        }
+
+        @AfterEach
+        void deleteCorruptJournal() throws IOException {
+            Files.deleteIfExists(corruptedJournal);
+        }
+
+    }
+
+    @Nested
+    @DisplayName("When journaling is disabled")
+    class NoJournalTesting {
+
+        private final FileBackedStateStorage unjournaled = new FileBackedStateStorage(f, false);
+
+        @Test
+        @DisplayName("the whole state is written on every store.")
+        void writesWholeState() {
+            unjournaled.setValue("section", "key", "value");
+            assertThat(unjournaled.store()).isTrue();
+            assertSoftly(softly -> {
+                softly.assertThat(f)
+                    .exists();
+                softly.assertThat(Path.of(f.getAbsolutePath() + ".journal"))
+                    .doesNotExist();
+                softly.assertThat(new FileBackedStateStorage(f).getValue("section", "key"))
+                    .contains("value");
+            });
+        }
+
+    }
 }
@@ -18,10 +18,20 @@ package com.github.robozonky.internal.state;
 
 import static org.assertj.core.api.Assertions.*;
 import static org.assertj.core.api.SoftAssertions.assertSoftly;
+import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
 import static org.mockito.Mockito.*;
 
+import java.time.Duration;
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 import java.util.stream.Stream;
 
 import org.junit.jupiter.api.AfterEach;
@@ -32,6 +42,9 @@ import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 
 import com.github.robozonky.api.SessionInfo;
+import com.github.robozonky.internal.Defaults;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 
 @ExtendWith(MockitoExtension.class)
 class InstanceStateImplTest {
@@ -39,10 +52,12 @@ class InstanceStateImplTest {
     @Mock
     private SessionInfo sessionInfo;
 
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
     private InstanceStateImpl<InstanceStateImplTest> s;
 
     @BeforeEach
     void mockSession() {
+        Defaults.METER_REGISTRY.add(meterRegistry); // Otherwise the metrics would not record anything.
         when(sessionInfo.getUsername()).thenReturn("someone@somewhere.cz");
         s = (InstanceStateImpl<InstanceStateImplTest>) TenantState
             .of(sessionInfo)
@@ -51,6 +66,7 @@ class InstanceStateImplTest {
 
     @AfterEach
     void deleteState() {
+        Defaults.METER_REGISTRY.remove(meterRegistry);
         TenantState.destroyAll();
     }
 
@@ -92,4 +108,101 @@ class InstanceStateImplTest {
                 .isNotEmpty();
         });
     }
+
+    private static void await(final CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (final InterruptedException ex) {
+            Thread.currentThread()
+                .interrupt();
+        }
+    }
+
+    @Test
+    void sectionsDoNotBlockEachOther() throws InterruptedException {
+        var tenantState = TenantState.of(sessionInfo);
+        var contendedBefore = tenantState.getSectionLock(s.getSectionName())
+            .getContention()
+            .count();
+        var holding = new CountDownLatch(1);
+        var release = new CountDownLatch(1);
+        var otherUpdate = CompletableFuture.runAsync(() -> tenantState.inSection(String.class.getName(), () -> {
+            holding.countDown();
+            await(release);
+        }));
+        holding.await(); // The other section is now being updated, and will be until released.
+        try {
+            assertTimeoutPreemptively(Duration.ofSeconds(5), () -> s.update(m -> m.put("key", "value")));
+        } finally {
+            release.countDown();
+        }
+        otherUpdate.join();
+        assertThat(s.getValue("key")).contains("value");
+        assertThat(tenantState.getSectionLock(s.getSectionName())
+            .getContention()
+            .count()).isEqualTo(contendedBefore);
+    }
+
+    @Test
+    void measuresContention() throws InterruptedException {
+        var section = TenantState.of(sessionInfo)
+            .getSectionLock(s.getSectionName());
+        var contendedBefore = section.getContention()
+            .count();
+        section.getLock()
+            .lock();
+        CompletableFuture<Void> update;
+        try {
+            update = CompletableFuture.runAsync(() -> s.update(m -> m.put("key", "value")));
+            while (!section.getLock()
+                .hasQueuedThreads()) {
+                Thread.sleep(1);
+            }
+            assertThat(s.getValue("key")).isEmpty(); // Still waiting for the lock.
+        } finally {
+            section.getLock()
+                .unlock();
+        }
+        update.join();
+        assertThat(s.getValue("key")).contains("value");
+        assertThat(section.getContention()
+            .count()).isEqualTo(contendedBefore + 1);
+    }
+
+    @Test
+    void concurrentUpdates() throws InterruptedException {
+        var tenantState = TenantState.of(sessionInfo);
+        List<InstanceState<?>> sections = List.of(s, tenantState.in(String.class), tenantState.in(Integer.class),
+                tenantState.in(Long.class));
+        var threadsPerSection = 2;
+        var updatesPerThread = 100;
+        var start = new CountDownLatch(1);
+        var executor = Executors.newFixedThreadPool(sections.size() * threadsPerSection);
+        try {
+            var futures = new ArrayList<CompletableFuture<Void>>(0);
+            for (var section : sections) {
+                for (var thread = 0; thread < threadsPerSection; thread++) {
+                    var prefix = "thread" + thread + "-";
+                    futures.add(CompletableFuture.runAsync(() -> {
+                        await(start);
+                        IntStream.range(0, updatesPerThread)
+                            .forEach(i -> section.updateAsync(m -> m.put(prefix + i, String.valueOf(i))));
+                    }, executor));
+                }
+            }
+            start.countDown();
+            CompletableFuture.allOf(futures.toArray(CompletableFuture[]::new))
+                .join();
+        } finally {
+            shutdown(executor);
+        }
+        tenantState.commit()
+            .join(); // Do not leave writes behind for the next test.
+        sections.forEach(section -> assertThat(section.getKeys()).hasSize(threadsPerSection * updatesPerThread));
+    }
+
+    private static void shutdown(final ExecutorService executor) throws InterruptedException {
+        executor.shutdown();
+        assertThat(executor.awaitTermination(1, TimeUnit.MINUTES)).isTrue();
+    }
 }
@@ -0,0 +1,278 @@
+/*
+ * Copyright 2020 The RoboZonky Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.robozonky.internal.state;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.assertj.core.api.SoftAssertions.assertSoftly;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.UUID;
+import java.util.function.Function;
+import java.util.stream.IntStream;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+
+class PagedStateStorageTest {
+
+    private static final Logger LOGGER = LogManager.getLogger(PagedStateStorageTest.class);
+
+    private final String name = UUID.randomUUID()
+        .toString();
+    private final Path path = Path.of(name + ".pages");
+    private final Path temporaryPath = Path.of(path.toAbsolutePath() + ".tmp");
+    private final File legacyFile = new File(name + ".state");
+    private final PagedStateStorage s = new PagedStateStorage(path);
+
+    @AfterEach
+    void delete() throws IOException {
+        s.destroy();
+        Files.deleteIfExists(temporaryPath);
+        Files.deleteIfExists(legacyFile.toPath());
+        Files.deleteIfExists(Path.of(legacyFile.getAbsolutePath() + ".journal"));
+        Files.deleteIfExists(Path.of(legacyFile.getAbsolutePath() + ".migrated"));
+        Files.deleteIfExists(Path.of(legacyFile.getAbsolutePath() + ".journal.migrated"));
+    }
+
+    @Test
+    @DisplayName("Storing empty string means no value.")
+    void valueEmpty() {
+        s.setValue("section", "key", "     ");
+        assertThat(s.getValue("section", "key")).isEmpty();
+        assertThat(s.store()).isTrue();
+        assertThat(new PagedStateStorage(path).getValue("section", "key")).isEmpty();
+    }
+
+    @Test
+    void setsAndUnsets() {
+        s.setValue("section", "key", "value");
+        s.setValue("section", "key2", "value2");
+        s.setValue("section2", "key", "value3");
+        assertThat(s.store()).isTrue();
+        s.unsetValue("section", "key");
+        assertSoftly(softly -> {
+            softly.assertThat(s.getValue("section", "key"))
+                .isEmpty();
+            softly.assertThat(s.getValue("section", "key2"))
+                .contains("value2");
+            softly.assertThat(s.getKeys("section"))
+                .containsOnly("key2");
+            softly.assertThat(s.getSections())
+                .containsOnly("section", "section2");
+        });
+        s.unsetValues("section");
+        assertSoftly(softly -> {
+            softly.assertThat(s.getKeys("section"))
+                .isEmpty();
+            softly.assertThat(s.getSections())
+                .containsOnly("section2");
+        });
+    }
+
+    @Test
+    void persistsOnlyWhenStored() {
+        s.setValue("section", "key", "value");
+        s.setValue("section", "key2", "value2");
+        assertThat(s.store()).isTrue();
+        s.unsetValue("section", "key2");
+        s.setValue("section", "key3", "value3");
+        var reopened = new PagedStateStorage(path);
+        assertSoftly(softly -> {
+            softly.assertThat(reopened.getValue("section", "key"))
+                .contains("value");
+            softly.assertThat(reopened.getValue("section", "key2"))
+                .contains("value2");
+            softly.assertThat(reopened.getKeys("section"))
+                .containsOnly("key", "key2");
+        });
+        assertThat(s.store()).isTrue();
+        var reopenedAgain = new PagedStateStorage(path);
+        assertThat(reopenedAgain.getKeys("section")).containsOnly("key", "key3");
+    }
+
+    @Test
+    void reusesReleasedPages() throws IOException {
+        s.setValue("section", "other", "value");
+        for (var i = 0; i < 10; i++) {
+            s.setValue("section", "key", "value" + i);
+            assertThat(s.store()).isTrue();
+        }
+        // One page for the other key, and the updated key alternating between two pages.
+        assertThat(Files.size(path)).isLessThanOrEqualTo(3 * PagedStateStorage.PAGE_SIZE);
+        assertThat(new PagedStateStorage(path).getValue("section", "key")).contains("value9");
+    }
+
+    @Test
+    void storesValuesLongerThanPage() {
+        var value = "a".repeat(10 * PagedStateStorage.PAGE_SIZE);
+        s.setValue("section", "key", value);
+        s.setValue("section", "key2", "value2");
+        assertThat(s.store()).isTrue();
+        var reopened = new PagedStateStorage(path);
+        assertThat(reopened.getValue("section", "key")).contains(value);
+        assertThat(reopened.getValue("section", "key2")).contains("value2");
+    }
+
+    @Test
+    void skipsCorruptedRecords() throws IOException {
+        s.setValue("section", "key", "value");
+        assertThat(s.store()).isTrue();
+        s.setValue("section", "key2", "value2");
+        assertThat(s.store()).isTrue();
+        try (var channel = FileChannel.open(path, StandardOpenOption.WRITE)) { // Damage the value of the first key.
+            channel.write(ByteBuffer.wrap(new byte[] { 0 }), 40);
+        }
+        var reopened = new PagedStateStorage(path);
+        assertSoftly(softly -> {
+            softly.assertThat(reopened.getValue("section", "key"))
+                .isEmpty();
+            softly.assertThat(reopened.getValue("section", "key2"))
+                .contains("value2");
+        });
+    }
+
+    @Test
+    void skipsRecordsWithCorruptedPageCount() throws IOException {
+        s.setValue("section", "key", "value");
+        assertThat(s.store()).isTrue();
+        s.setValue("section", "key2", "value2");
+        assertThat(s.store()).isTrue();
+        try (var channel = FileChannel.open(path, StandardOpenOption.WRITE)) { // First record to swallow the second.
+            channel.write(ByteBuffer.allocate(4)
+                .putInt(0, 2), 5);
+        }
+        var reopened = new PagedStateStorage(path);
+        assertSoftly(softly -> {
+            softly.assertThat(reopened.getValue("section", "key"))
+                .isEmpty();
+            softly.assertThat(reopened.getValue("section", "key2"))
+                .contains("value2");
+        });
+    }
+
+    @Test
+    void usableAfterClose() {
+        s.setValue("section", "key", "value");
+        assertThat(s.store()).isTrue();
+        s.setValue("section", "key2", "value2");
+        s.close();
+        assertThat(s.getValue("section", "key")).contains("value");
+        assertThat(s.store()).isTrue();
+        s.close();
+        var reopened = new PagedStateStorage(path);
+        assertThat(reopened.getKeys("section")).containsOnly("key", "key2");
+        reopened.close();
+    }
+
+    @Test
+    void migratesFromJson() {
+        var legacy = new FileBackedStateStorage(legacyFile);
+        legacy.setValue("section", "key", "value");
+        legacy.setValue("section2", "key2", "value2");
+        assertThat(legacy.store()).isTrue();
+        var migrated = PagedStateStorageService.create(path.toFile(), legacyFile);
+        assertSoftly(softly -> {
+            softly.assertThat(migrated)
+                .isInstanceOf(PagedStateStorage.class);
+            softly.assertThat(migrated.getValue("section", "key"))
+                .contains("value");
+            softly.assertThat(migrated.getValue("section2", "key2"))
+                .contains("value2");
+            softly.assertThat(new FileBackedStateStorage(legacyFile).exists())
+                .isFalse();
+            softly.assertThat(new File(legacyFile.getAbsolutePath() + ".journal.migrated"))
+                .exists();
+        });
+        migrated.setValue("section", "key", "value3");
+        assertThat(migrated.store()).isTrue();
+        var reopened = PagedStateStorageService.create(path.toFile(), legacyFile); // Nothing more to migrate.
+        assertThat(reopened.getValue("section", "key")).contains("value3");
+    }
+
+    @Test
+    void retriesInterruptedMigration() {
+        var legacy = new FileBackedStateStorage(legacyFile);
+        legacy.setValue("section", "key", "value");
+        assertThat(legacy.store()).isTrue();
+        var interrupted = new PagedStateStorage(temporaryPath);
+        interrupted.setValue("section", "key2", "value2"); // Part of a migration that never finished.
+        assertThat(interrupted.store()).isTrue();
+        interrupted.close();
+        assertThat(path).doesNotExist();
+        var migrated = PagedStateStorageService.create(path.toFile(), legacyFile);
+        assertSoftly(softly -> {
+            softly.assertThat(migrated)
+                .isInstanceOf(PagedStateStorage.class);
+            softly.assertThat(migrated.getValue("section", "key"))
+                .contains("value");
+            softly.assertThat(migrated.getValue("section", "key2"))
+                .isEmpty();
+            softly.assertThat(temporaryPath)
+                .doesNotExist();
+            softly.assertThat(path)
+                .exists();
+        });
+        migrated.close();
+    }
+
+    /**
+     * Run with -Drobozonky.state_storage_benchmark=true to compare both storages on large amounts of keys.
+     */
+    @Test
+    @EnabledIfSystemProperty(named = "robozonky.state_storage_benchmark", matches = "true")
+    void benchmark() throws IOException {
+        for (var keys : new int[] { 10_000, 100_000, 1_000_000 }) {
+            benchmark("json", keys, f -> new FileBackedStateStorage(f, true, Long.MAX_VALUE), "state");
+            benchmark("paged", keys, f -> new PagedStateStorage(f.toPath()), "pages");
+        }
+    }
+
+    private void benchmark(final String type, final int keys, final Function<File, StateStorage> constructor,
+            final String extension) throws IOException {
+        var file = new File(name + "-benchmark." + extension);
+        var storage = constructor.apply(file);
+        try {
+            var start = System.nanoTime();
+            IntStream.range(0, keys)
+                .forEach(i -> storage.setValue("section" + (i % 10), "key" + i, "value" + i));
+            assertThat(storage.store()).isTrue();
+            var written = System.nanoTime();
+            var reopened = constructor.apply(file);
+            IntStream.range(0, keys)
+                .forEach(i -> assertThat(reopened.getValue("section" + (i % 10), "key" + i)).isPresent());
+            var read = System.nanoTime();
+            IntStream.range(0, keys / 100)
+                .forEach(i -> reopened.setValue("section" + (i % 10), "key" + i, "updated" + i));
+            assertThat(reopened.store()).isTrue();
+            var updated = System.nanoTime();
+            LOGGER.info("{} with {} keys: write all {} ms, read all {} ms, update 1 % {} ms.", type, keys,
+                    (written - start) / 1_000_000, (read - written) / 1_000_000, (updated - read) / 1_000_000);
+        } finally {
+            storage.destroy();
+        }
+    }
+}
@@ -0,0 +1,125 @@
+/*
+ * Copyright 2020 The RoboZonky Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.robozonky.internal.state;
+
+import static org.assertj.core.api.Assertions.*;
+
+import java.util.Random;
+import java.util.TreeSet;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.Test;
+
+class SortedLongSetTest {
+
+    private static TreeSet<Long> randomReference(final Random random) {
+        return random.longs(random.nextInt(50))
+            .map(l -> random.nextBoolean() ? l : l % 1_000)
+            .boxed()
+            .collect(Collectors.toCollection(TreeSet::new));
+    }
+
+    private static SortedLongSet toSet(final TreeSet<Long> reference) {
+        return SortedLongSet.of(reference.stream()
+            .mapToLong(l -> l));
+    }
+
+    @Test
+    void empty() {
+        var empty = SortedLongSet.empty();
+        assertThat(empty.isEmpty()).isTrue();
+        assertThat(empty.size()).isZero();
+        assertThat(empty.contains(0)).isFalse();
+        assertThat(SortedLongSet.decode(empty.encode())).isEqualTo(empty);
+        assertThat(SortedLongSet.of()).isSameAs(empty);
+    }
+
+    @Test
+    void sortsAndDeduplicates() {
+        var set = SortedLongSet.of(3, 1, 2, 3, 1);
+        assertThat(set.stream()).containsExactly(1L, 2L, 3L);
+        assertThat(set.size()).isEqualTo(3);
+    }
+
+    @Test
+    void addsAndRemoves() {
+        var set = SortedLongSet.of(1, 5);
+        assertThat(set.with(1)).isSameAs(set);
+        assertThat(set.without(3)).isSameAs(set);
+        var added = set.with(3);
+        assertThat(added.stream()).containsExactly(1L, 3L, 5L);
+        assertThat(added.without(1)
+            .without(5)
+            .stream()).containsExactly(3L);
+        assertThat(set.stream()).containsExactly(1L, 5L); // Immutable.
+    }
+
+    @Test
+    void encodesCompactly() {
+        var set = SortedLongSet.of(10_000_000, 10_000_001, 10_000_002);
+        var encoded = set.encode();
+        assertThat(encoded).hasSizeLessThan("10000000;10000001;10000002".length() / 2);
+        assertThat(SortedLongSet.decode(encoded)).isEqualTo(set);
+    }
+
+    @Test
+    void decodesLegacyFormat() {
+        assertThat(SortedLongSet.decode("3;1;2")
+            .stream()).containsExactly(1L, 2L, 3L);
+        assertThat(SortedLongSet.decode("")).isSameAs(SortedLongSet.empty());
+        assertThatThrownBy(() -> SortedLongSet.decode("a;b")).isInstanceOf(NumberFormatException.class);
+    }
+
+    @Test
+    void rejectsCorruptedEncoding() {
+        assertThatThrownBy(() -> SortedLongSet.decode("#gA")) // Continuation bit set on the last byte.
+            .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> SortedLongSet.decode("#AgA")) // Zero difference means a duplicate.
+            .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void matchesReferenceImplementation() {
+        var random = new Random(0);
+        for (var i = 0; i < 1_000; i++) {
+            var first = randomReference(random);
+            var second = randomReference(random);
+            var firstSet = toSet(first);
+            var secondSet = toSet(second);
+            var union = new TreeSet<>(first);
+            union.addAll(second);
+            var difference = new TreeSet<>(first);
+            difference.removeAll(second);
+            assertThat(firstSet.stream()
+                .boxed()).containsExactlyElementsOf(first);
+            assertThat(firstSet.union(secondSet)
+                .stream()
+                .boxed()).containsExactlyElementsOf(union);
+            assertThat(firstSet.difference(secondSet)
+                .stream()
+                .boxed()).containsExactlyElementsOf(difference);
+            assertThat(SortedLongSet.decode(firstSet.encode())).isEqualTo(firstSet);
+            second.forEach(l -> assertThat(firstSet.contains(l)).isEqualTo(first.contains(l)));
+        }
+    }
+
+    @Test
+    void encodesExtremes() {
+        var set = SortedLongSet.of(Long.MIN_VALUE, -1, 0, Long.MAX_VALUE);
+        assertThat(SortedLongSet.decode(set.encode())).isEqualTo(set);
+    }
+}
@@ -0,0 +1,63 @@
+/*
+ * Copyright 2020 The RoboZonky Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.robozonky.internal.state;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+class StateCommitterTest {
+
+    @Test
+    void commitsInGroups() {
+        final StateStorage storage = mock(StateStorage.class);
+        when(storage.store()).thenReturn(true);
+        final List<Runnable> writes = new ArrayList<>(0);
+        final StateCommitter committer = new StateCommitter(storage, writes::add);
+        var first = committer.commit();
+        var second = committer.commit();
+        var third = committer.commit();
+        assertThat(writes).hasSize(1); // Only one write scheduled for all the commits.
+        assertThat(first).isNotDone();
+        writes.get(0)
+            .run();
+        assertThat(first).isCompletedWithValue(true);
+        assertThat(second).isCompletedWithValue(true);
+        assertThat(third).isCompletedWithValue(true);
+        verify(storage, times(1)).store();
+        var fourth = committer.commit(); // The next commit schedules another write.
+        assertThat(writes).hasSize(2);
+        writes.get(1)
+            .run();
+        assertThat(fourth).isCompletedWithValue(true);
+        verify(storage, times(2)).store();
+    }
+
+    @Test
+    void reportsFailure() {
+        final StateStorage storage = mock(StateStorage.class);
+        doThrow(IllegalStateException.class).when(storage)
+            .store();
+        final StateCommitter committer = new StateCommitter(storage, Runnable::run);
+        assertThat(committer.commit()).isCompletedWithValue(false);
+    }
+
+}
@@ -0,0 +1,77 @@
+/*
+ * Copyright 2020 The RoboZonky Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.robozonky.internal.state;
+
+import static org.assertj.core.api.Assertions.*;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+class StateJournalTest {
+
+    private final Path location = Path.of(File.createTempFile("robozonky-", ".journal")
+        .getAbsolutePath());
+    private final AtomicBoolean failNextWrite = new AtomicBoolean(false);
+    private final StateJournal journal = new StateJournal(location, this::write);
+
+    StateJournalTest() throws IOException {
+        // Only needed for the temporary file.
+    }
+
+    /**
+     * Writes half of the buffer and then fails, if so asked.
+     */
+    private void write(final FileChannel channel, final ByteBuffer buffer) throws IOException {
+        if (failNextWrite.getAndSet(false)) {
+            channel.write(buffer.limit(buffer.limit() / 2));
+            throw new IOException("Disk full.");
+        }
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+    }
+
+    @AfterEach
+    void delete() throws IOException {
+        journal.delete();
+    }
+
+    @Test
+    void failedAppendLeavesNoTornRecord() throws IOException {
+        journal.append(List.of(StateJournal.Change.set("section", "key", "value")));
+        var size = journal.size();
+        failNextWrite.set(true);
+        var changes = List.of(StateJournal.Change.set("section", "key2", "value2"),
+                StateJournal.Change.unset("section", "key"));
+        assertThatThrownBy(() -> journal.append(changes)).isInstanceOf(IOException.class);
+        assertThat(journal.size()).isEqualTo(size);
+        journal.append(changes); // Retried, as the storage would do.
+        var replay = journal.read();
+        assertThat(replay.isCorrupted()).isFalse();
+        assertThat(replay.getChanges()).hasSize(3);
+        assertThat(Files.size(location)).isGreaterThan(size);
+    }
+}
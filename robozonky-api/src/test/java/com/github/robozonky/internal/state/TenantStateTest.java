@@ -65,6 +65,18 @@ class TenantStateTest {
         assertThat(is.getValue("a")).isEmpty();
     }
 
+    @Test
+    void usableAfterClose() {
+        final TenantState ts = TenantState.of(sessionInfo);
+        final InstanceState<TenantStateTest> is = ts.in(TenantStateTest.class);
+        is.update(m -> m.put("a", "b"));
+        ts.close();
+        assertThat(is.getValue("a")).contains("b");
+        is.update(m -> m.put("c", "d"));
+        ts.close();
+        assertThat(is.getValue("c")).contains("d");
+    }
+
     @Test
     void encode() {
         final String hashed = TenantState.encode("The quick brown fox jumps over the lazy dog.");
@@ -27,6 +27,8 @@ import java.util.List;
 import java.util.Objects;
 import java.util.Spliterator;
 import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.function.IntUnaryOperator;
 import java.util.function.LongConsumer;
@@ -37,6 +39,8 @@ import org.junit.jupiter.api.Test;
 
 class PagingStreamsTest {
 
+    private static final Executor PREFETCHER = Executors.newCachedThreadPool();
+
     private static List<String> strings(int start, int end) {
         return IntStream.range(start, end)
             .boxed()
@@ -53,6 +57,10 @@ class PagingStreamsTest {
         return PagingStreams.build(getSource(items), pageSize);
     }
 
+    private static <T> Stream<T> prefetching(long pageSize, int lookAhead, List<T> items) {
+        return PagingStreams.build(getSource(items), pageSize, lookAhead, PREFETCHER);
+    }
+
     private static <T> Stream<T> dwindlingParallel(long pageSize, List<T> items) {
         return PagingStreams.build(getDwindlingSource(items), pageSize)
             .parallel();
@@ -213,4 +221,131 @@ class PagingStreamsTest {
             .containsExactly("0", "1", "2", "3", "4", "5", "6", "7", "8");
     }
 
+    @Test
+    public void prefetchingMaintainsOrder() {
+        assertSoftly(softly -> {
+            softly.assertThat(prefetching(2, 3, strings(0, 9)))
+                .containsExactly("0", "1", "2", "3", "4", "5", "6", "7", "8");
+            softly.assertThat(prefetching(4, 1, strings(0, 4)))
+                .containsExactly("0", "1", "2", "3");
+            softly.assertThat(prefetching(4, 2, strings(0, 0)))
+                .isEmpty();
+            softly.assertThat(prefetching(2, 3, strings(0, 9)).parallel())
+                .containsExactly("0", "1", "2", "3", "4", "5", "6", "7", "8");
+        });
+    }
+
+    @Test
+    public void prefetchingWithoutLookAheadIsPlainPaging() {
+        assertThat(prefetching(2, 0, strings(0, 9)).spliterator())
+            .hasCharacteristics(PagingStreams.CHARACTERISTICS);
+    }
+
+    @Test
+    public void prefetchingStopsAtCap() {
+        assertSoftly(softly -> {
+            softly.assertThat(PagingStreams.build(getDwindlingSource(strings(0, 9)), 2, 2, PREFETCHER))
+                .containsSubsequence("0", "1")
+                .hasSizeLessThanOrEqualTo(9);
+            softly.assertThat(PagingStreams.build(getGrowingSource(strings(0, 9)), 2, 2, PREFETCHER))
+                .containsExactly("0", "1", "2", "3", "4", "5", "6", "7", "8");
+        });
+    }
+
+    @Test
+    public void prefetchingFetchesConcurrentlyWithinLookAhead() {
+        final int lookAhead = 3;
+        final AtomicInteger inFlight = new AtomicInteger();
+        final AtomicInteger maxInFlight = new AtomicInteger();
+        final List<String> items = strings(0, 20);
+        final PageSource<String> source = (offset, limit, totalSizeSink) -> {
+            maxInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+            try {
+                sleep();
+                totalSizeSink.accept(items.size());
+                return items.subList((int) offset, min((int) (offset + limit), items.size()));
+            } finally {
+                inFlight.decrementAndGet();
+            }
+        };
+        assertThat(PagingStreams.build(source, 2, lookAhead, PREFETCHER)
+            .map(s -> {
+                sleep(); // Slow consumer, so that the prefetches have time to pile up.
+                return s;
+            }))
+                .hasSize(20);
+        assertThat(maxInFlight.get()).isGreaterThan(1)
+            .isLessThanOrEqualTo(lookAhead);
+    }
+
+    @Test
+    public void prefetchingShortCircuitedStreamRequestsBoundedNumberOfPages() {
+        final int lookAhead = 2;
+        final AtomicInteger requests = new AtomicInteger();
+        final List<String> items = strings(0, 100);
+        final PageSource<String> source = (offset, limit, totalSizeSink) -> {
+            requests.incrementAndGet();
+            totalSizeSink.accept(items.size());
+            return items.subList((int) offset, min((int) (offset + limit), items.size()));
+        };
+        try (var stream = PagingStreams.build(source, 10, lookAhead, PREFETCHER)) {
+            assertThat(stream.takeWhile(s -> Integer.parseInt(s) < 5)).hasSize(5);
+        }
+        assertThat(requests.get()).isLessThanOrEqualTo(1 + lookAhead);
+    }
+
+    private static StreamingPageSource<String> getStreamingSource(final List<String> items, final AtomicInteger opened,
+            final AtomicInteger closed) {
+        return (offset, limit, totalSizeSink) -> {
+            opened.incrementAndGet();
+            totalSizeSink.accept(items.size());
+            return items.subList((int) min(offset, items.size()), min((int) (offset + limit), items.size()))
+                .stream()
+                .onClose(closed::incrementAndGet);
+        };
+    }
+
+    @Test
+    public void streamingReadsAllPagesAndClosesThem() {
+        final AtomicInteger opened = new AtomicInteger();
+        final AtomicInteger closed = new AtomicInteger();
+        final List<String> items = strings(0, 25);
+        assertThat(PagingStreams.streaming(getStreamingSource(items, opened, closed), 10)
+            .collect(toList())).containsExactlyElementsOf(items);
+        assertSoftly(softly -> {
+            softly.assertThat(opened.get())
+                .isEqualTo(3);
+            softly.assertThat(closed.get())
+                .isEqualTo(3);
+        });
+    }
+
+    @Test
+    public void streamingShortCircuitedStreamClosesOpenPage() {
+        final AtomicInteger opened = new AtomicInteger();
+        final AtomicInteger closed = new AtomicInteger();
+        final List<String> items = strings(0, 100);
+        assertThat(PagingStreams.streaming(getStreamingSource(items, opened, closed), 10)
+            .takeWhile(s -> Integer.parseInt(s) < 15)).hasSize(15);
+        assertSoftly(softly -> {
+            softly.assertThat(opened.get())
+                .isEqualTo(2);
+            softly.assertThat(closed.get())
+                .isEqualTo(2);
+        });
+    }
+
+    @Test
+    public void streamingEmpty() {
+        final AtomicInteger opened = new AtomicInteger();
+        final AtomicInteger closed = new AtomicInteger();
+        assertSoftly(softly -> {
+            softly.assertThat(PagingStreams.streaming(getStreamingSource(strings(0, 0), opened, closed), 10))
+                .isEmpty();
+            softly.assertThat(PagingStreams.streaming(getStreamingSource(strings(0, 10), opened, closed), 0))
+                .isEmpty();
+        });
+        assertThat(opened.get()).isEqualTo(1);
+    }
+
 }
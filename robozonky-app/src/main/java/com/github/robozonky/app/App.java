@@ -82,12 +82,21 @@ public class App implements Runnable {
             .fire(EventFactory.roboZonkyStarting());
         shutdownHooks.register(() -> Optional.of(r -> LogManager.shutdown()));
         shutdownHooks.register(new RoboZonkyStartupNotifier(m.getSessionInfo()));
+        shutdownHooks.register(() -> Optional.of(r -> close(m))); // Runs first, while logging is still available.
         final ReturnCode code = m.get();
         // trigger all shutdown hooks in reverse order, before the token is closed after exiting this method
         shutdownHooks.execute(code);
         return code;
     }
 
+    private static void close(final InvestmentMode mode) {
+        try {
+            mode.close();
+        } catch (final Exception ex) {
+            LOGGER.debug("Failed closing {}.", mode, ex);
+        }
+    }
+
     String[] getArgs() {
         return args.clone();
     }
@@ -20,6 +20,7 @@ import java.time.Duration;
 import java.time.Instant;
 import java.time.ZonedDateTime;
 import java.time.temporal.ChronoUnit;
+import java.util.Arrays;
 import java.util.OptionalInt;
 import java.util.concurrent.atomic.AtomicReference;
 import java.util.stream.Stream;
@@ -28,6 +29,7 @@ import org.apache.logging.log4j.Logger;
 
 import com.github.robozonky.internal.Defaults;
 import com.github.robozonky.internal.remote.Select;
+import com.github.robozonky.internal.remote.SelectPlan;
 import com.github.robozonky.internal.test.DateUtil;
 
 /**
@@ -40,11 +42,20 @@ import com.github.robozonky.internal.test.DateUtil;
 abstract class AbstractMarketplaceAccessor<T> {
 
     private final Logger logger;
+    private final SelectPlan fullCheckPlan;
+    private final SelectPlan incrementalCheckPlan;
     private final AtomicReference<ZonedDateTime> lastFullMarketplaceCheckReference = new AtomicReference<>(
             Instant.EPOCH.atZone(Defaults.ZONKYCZ_ZONE_ID));
 
-    protected AbstractMarketplaceAccessor(Logger logger) {
+    /**
+     * @param logger         Logger of the implementing class.
+     * @param baseFilterPlan Filter for the full marketplace check, values provided by
+     *                       {@link #getBaseFilterParameters()}. The incremental check adds one more parameter to it.
+     */
+    protected AbstractMarketplaceAccessor(Logger logger, SelectPlan baseFilterPlan) {
         this.logger = logger;
+        this.fullCheckPlan = baseFilterPlan;
+        this.incrementalCheckPlan = baseFilterPlan.greaterThanOrEquals("datePublished");
     }
 
     protected static OptionalInt sanitizeMaximumItemCount(int max) {
@@ -61,19 +72,35 @@ abstract class AbstractMarketplaceAccessor<T> {
             logger.debug(() -> "Running full marketplace check with timestamp of "
                     + DateUtil.toString(newFullMarketplaceCheck)
                     + ", previous was " + DateUtil.toString(lastFullMarketplaceCheck) + ".");
-            return getBaseFilter();
+            onFullMarketplaceCheck(lastFullMarketplaceCheck);
+            return fullCheckPlan.bind(getBaseFilterParameters());
         } else {
-            var filter = getBaseFilter()
-                .greaterThanOrEquals("datePublished", lastFullMarketplaceCheck);
+            var baseParameters = getBaseFilterParameters();
+            var parameters = Arrays.copyOf(baseParameters, baseParameters.length + 1);
+            parameters[baseParameters.length] = lastFullMarketplaceCheck;
+            var filter = incrementalCheckPlan.bind(parameters);
             logger.debug(() -> "Running incremental marketplace check, starting from " +
                     DateUtil.toString(lastFullMarketplaceCheck) + ".");
             return filter;
         }
     }
 
+    /**
+     * Called whenever {@link #getIncrementalFilter()} decides on a full marketplace check, before the check is made.
+     *
+     * @param previousFullMarketplaceCheck When the previous full marketplace check was started. Anything still on the
+     *                                     marketplace at that time was returned by that check.
+     */
+    protected void onFullMarketplaceCheck(final ZonedDateTime previousFullMarketplaceCheck) {
+        // No need to do anything by default.
+    }
+
     protected abstract OptionalInt getMaximumItemsToRead();
 
-    protected abstract Select getBaseFilter();
+    /**
+     * @return Values for the parameters of the base filter plan, in order.
+     */
+    protected abstract Object[] getBaseFilterParameters();
 
     public abstract Duration getForcedMarketplaceCheckInterval();
 
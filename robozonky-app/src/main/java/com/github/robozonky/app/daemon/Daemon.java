@@ -28,6 +28,7 @@ import com.github.robozonky.app.runtime.Lifecycle;
 import com.github.robozonky.app.tenant.PowerTenant;
 import com.github.robozonky.internal.async.Scheduler;
 import com.github.robozonky.internal.extensions.JobServiceLoader;
+import com.github.robozonky.internal.remote.RequestLane;
 import com.github.robozonky.internal.test.DateUtil;
 
 public class Daemon implements InvestmentMode {
@@ -94,6 +95,10 @@ public class Daemon implements InvestmentMode {
         lifecycle.resumeToFail(throwable);
     }
 
+    /**
+     * Tenant-based batch jobs make their requests to Zonky in the {@link RequestLane#BACKGROUND} lane, so that they
+     * never compete for API quota with investing and purchasing.
+     */
     private void scheduleJobs() {
         LOGGER.debug("Scheduling simple batch jobs.");
         JobServiceLoader.loadSimpleJobs()
@@ -101,8 +106,8 @@ public class Daemon implements InvestmentMode {
                     j.startIn(), j.killIn()));
         LOGGER.debug("Scheduling tenant-based batch jobs.");
         JobServiceLoader.loadTenantJobs()
-            .forEach(j -> submitWithTenant(scheduler, () -> j.payload()
-                .accept(tenant), j.getClass(),
+            .forEach(j -> submitWithTenant(scheduler, () -> RequestLane.BACKGROUND.run(() -> j.payload()
+                .accept(tenant)), j.getClass(),
                     j.repeatEvery(), j.startIn(), j.killIn()));
         LOGGER.debug("Job scheduling over.");
     }
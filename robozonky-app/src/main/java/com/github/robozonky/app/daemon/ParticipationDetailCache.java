@@ -0,0 +1,185 @@
+/*
+ * Copyright 2020 The RoboZonky Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.robozonky.app.daemon;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.IntFunction;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import com.github.robozonky.api.remote.entities.ParticipationDetail;
+import com.github.robozonky.internal.Defaults;
+import com.github.robozonky.internal.test.DateUtil;
+
+import io.micrometer.core.instrument.Counter;
+
+/**
+ * Keeps {@link ParticipationDetail}s of participations on the secondary marketplace, so that a participation which
+ * stays on the marketplace for a while is not fetched again with every marketplace check. Details are kept for a
+ * limited time after they were fetched, and forgotten as soon as their participation is known to have left the
+ * marketplace.
+ */
+final class ParticipationDetailCache {
+
+    private static final Logger LOGGER = LogManager.getLogger(ParticipationDetailCache.class);
+    private static final String TYPE = ParticipationDetail.class.getSimpleName();
+
+    private final Map<Integer, Entry> storage = new ConcurrentHashMap<>(0);
+    private final Duration timeToLive;
+    private final IntFunction<ParticipationDetail> loader;
+    private final Counter hits = Counter.builder("robozonky.cache.requests")
+        .tag("type", TYPE)
+        .tag("result", "hit")
+        .register(Defaults.METER_REGISTRY);
+    private final Counter misses = Counter.builder("robozonky.cache.requests")
+        .tag("type", TYPE)
+        .tag("result", "miss")
+        .register(Defaults.METER_REGISTRY);
+    private final Counter expiryEvictions = Counter.builder("robozonky.cache.evictions")
+        .tag("type", TYPE)
+        .tag("cause", "expired")
+        .register(Defaults.METER_REGISTRY);
+    private final Counter goneEvictions = Counter.builder("robozonky.cache.evictions")
+        .tag("type", TYPE)
+        .tag("cause", "gone")
+        .register(Defaults.METER_REGISTRY);
+
+    /**
+     * @param timeToLive How long after being fetched the detail will be forgotten.
+     * @param loader     Retrieves the detail for a given loan ID, typically from Zonky.
+     */
+    ParticipationDetailCache(final Duration timeToLive, final IntFunction<ParticipationDetail> loader) {
+        this.timeToLive = timeToLive;
+        this.loader = loader;
+    }
+
+    private boolean isExpired(final Entry entry, final Instant now) {
+        return entry.fetchedOn.plus(timeToLive)
+            .isBefore(now);
+    }
+
+    /**
+     * Record that a participation for the given loan is still on the marketplace.
+     *
+     * @param loanId ID of the loan that the participation belongs to.
+     */
+    public void markSeen(final int loanId) {
+        var entry = storage.get(loanId);
+        if (entry != null) {
+            entry.lastSeenOn = DateUtil.now();
+        }
+    }
+
+    private static RuntimeException unwrap(final CompletionException ex) {
+        var cause = ex.getCause();
+        if (cause instanceof RuntimeException) {
+            return (RuntimeException) cause;
+        } else if (cause instanceof Error) {
+            throw (Error) cause;
+        }
+        return ex;
+    }
+
+    /**
+     * Retrieve the detail, either from the cache or by calling the loader. The loader is never called concurrently
+     * for the same loan; whoever asks while the detail is being loaded waits for that load. The loader runs outside
+     * of the map, so that a slow load does not hold up any other loan.
+     *
+     * @param loanId ID of the loan that the participation belongs to.
+     * @return Never null.
+     */
+    public ParticipationDetail get(final int loanId) {
+        var now = DateUtil.now();
+        var isLoading = new AtomicBoolean(false);
+        var entry = storage.compute(loanId, (id, existing) -> {
+            if (existing != null && !isExpired(existing, now)) {
+                return existing;
+            } else if (existing != null) {
+                expiryEvictions.increment();
+            }
+            isLoading.set(true);
+            return new Entry(now);
+        });
+        if (!isLoading.get()) {
+            LOGGER.trace("Hit for participation detail of loan #{}.", loanId);
+            hits.increment();
+            try {
+                return entry.detail.join();
+            } catch (final CompletionException ex) {
+                throw unwrap(ex);
+            }
+        }
+        LOGGER.trace("Miss for participation detail of loan #{}.", loanId);
+        misses.increment();
+        try {
+            var detail = loader.apply(loanId);
+            entry.detail.complete(detail);
+            return detail;
+        } catch (final RuntimeException | Error ex) {
+            LOGGER.debug("Failed loading participation detail of loan #{}.", loanId, ex);
+            storage.remove(loanId, entry); // The next caller will try again.
+            entry.detail.completeExceptionally(ex);
+            throw ex;
+        }
+    }
+
+    /**
+     * Forget details of all participations that were not seen on the marketplace since a given time, as well as all
+     * the expired ones. Call this when a full marketplace check starts, with the time when the previous full check
+     * started; whatever was on the marketplace at that time would have been seen since.
+     *
+     * @param instant Entries last seen before this will be removed.
+     */
+    public void retainSeenSince(final Instant instant) {
+        var now = DateUtil.now();
+        storage.values()
+            .removeIf(entry -> {
+                if (isExpired(entry, now)) {
+                    expiryEvictions.increment();
+                    return true;
+                } else if (entry.lastSeenOn.isBefore(instant)) {
+                    goneEvictions.increment();
+                    return true;
+                }
+                return false;
+            });
+        LOGGER.trace("Retained {} participation details.", storage.size());
+    }
+
+    int size() {
+        return storage.size();
+    }
+
+    private static final class Entry {
+
+        private final CompletableFuture<ParticipationDetail> detail = new CompletableFuture<>();
+        private final Instant fetchedOn;
+        private volatile Instant lastSeenOn;
+
+        Entry(final Instant fetchedOn) {
+            this.fetchedOn = fetchedOn;
+            this.lastSeenOn = fetchedOn;
+        }
+    }
+}
@@ -28,6 +28,7 @@ import com.github.robozonky.api.remote.entities.LastPublishedItem;
 import com.github.robozonky.api.strategies.LoanDescriptor;
 import com.github.robozonky.internal.Settings;
 import com.github.robozonky.internal.remote.Select;
+import com.github.robozonky.internal.remote.SelectPlan;
 import com.github.robozonky.internal.remote.Zonky;
 import com.github.robozonky.internal.tenant.Tenant;
 
@@ -35,11 +36,18 @@ final class PrimaryMarketplaceAccessor extends AbstractMarketplaceAccessor<LoanD
 
     private static final Duration FULL_CHECK_INTERVAL = Duration.ofHours(1);
     private static final Logger LOGGER = Audit.investing();
+    /**
+     * Will make sure that the endpoint only loads loans that are on the marketplace, and not the entire history.
+     */
+    private static final SelectPlan BASE_FILTER = new Select()
+        .greaterThan("nonReservedRemainingInvestment", 0)
+        .compile();
+    private static final Object[] NO_PARAMETERS = new Object[0];
     private final Tenant tenant;
     private final UnaryOperator<LastPublishedItem> stateAccessor;
 
     public PrimaryMarketplaceAccessor(final Tenant tenant, final UnaryOperator<LastPublishedItem> stateAccessor) {
-        super(LOGGER);
+        super(LOGGER, BASE_FILTER);
         this.tenant = tenant;
         this.stateAccessor = stateAccessor;
     }
@@ -51,10 +59,8 @@ final class PrimaryMarketplaceAccessor extends AbstractMarketplaceAccessor<LoanD
     }
 
     @Override
-    protected Select getBaseFilter() {
-        // Will make sure that the endpoint only loads loans that are on the marketplace, and not the entire history.
-        return new Select()
-            .greaterThan("nonReservedRemainingInvestment", 0);
+    protected Object[] getBaseFilterParameters() {
+        return NO_PARAMETERS;
     }
 
     @Override
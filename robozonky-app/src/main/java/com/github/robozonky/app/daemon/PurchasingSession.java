@@ -32,6 +32,7 @@ import com.github.robozonky.api.remote.entities.Participation;
 import com.github.robozonky.api.strategies.ParticipationDescriptor;
 import com.github.robozonky.api.strategies.PurchaseStrategy;
 import com.github.robozonky.app.tenant.PowerTenant;
+import com.github.robozonky.internal.remote.RequestThrottledException;
 
 /**
  * Represents a single session over secondary marketplace, consisting of several attempts to purchase participations.
@@ -93,6 +94,10 @@ final class PurchasingSession extends
         } catch (NotFoundException ex) {
             logger.debug("Failed purchasing participation #{}, not found.", participation.getId());
             return false;
+        } catch (RequestThrottledException ex) {
+            logger.debug("Failed purchasing participation #{}, throttled before reaching Zonky.",
+                    participation.getId());
+            return false;
         } catch (Exception ex) {
             var message = ex.getMessage();
             if (message != null && message.contains("HTTP 429")) {
@@ -20,6 +20,7 @@ import static com.github.robozonky.app.events.impl.EventFactory.investmentSold;
 import static com.github.robozonky.app.events.impl.EventFactory.investmentSoldLazy;
 
 import java.util.Optional;
+import java.util.stream.Collectors;
 
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
@@ -28,6 +29,7 @@ import com.github.robozonky.api.remote.entities.Investment;
 import com.github.robozonky.api.remote.entities.Loan;
 import com.github.robozonky.app.tenant.PowerTenant;
 import com.github.robozonky.internal.jobs.TenantPayload;
+import com.github.robozonky.internal.remote.PortfolioListing;
 import com.github.robozonky.internal.tenant.Tenant;
 
 final class SaleCheck implements TenantPayload {
@@ -60,14 +62,18 @@ final class SaleCheck implements TenantPayload {
     @Override
     public void accept(final Tenant tenant) {
         final SoldParticipationCache cache = SoldParticipationCache.forTenant(tenant);
-        cache.getOffered()
+        var soldNow = cache.getOffered()
             .mapToObj(investmentId -> retrieveInvestmentIfSold(cache, tenant, investmentId))
             .flatMap(Optional::stream)
-            .forEach(sold -> ((PowerTenant) tenant).fire(investmentSoldLazy(() -> {
-                final Loan l = tenant.getLoan(sold.getLoan()
-                    .getId());
-                return investmentSold(sold, l, tenant.getPortfolio()
-                    .getOverview());
-            })));
+            .collect(Collectors.toList());
+        if (!soldNow.isEmpty()) { // Whoever lists sold investments next must already see these.
+            tenant.run(z -> z.getPortfolioSnapshot(PortfolioListing.SOLD, true));
+        }
+        soldNow.forEach(sold -> ((PowerTenant) tenant).fire(investmentSoldLazy(() -> {
+            final Loan l = tenant.getLoan(sold.getLoan()
+                .getId());
+            return investmentSold(sold, l, tenant.getPortfolio()
+                .getOverview());
+        })));
     }
 }
@@ -17,6 +17,7 @@
 package com.github.robozonky.app.daemon;
 
 import java.time.Duration;
+import java.time.ZonedDateTime;
 import java.util.Objects;
 import java.util.OptionalInt;
 import java.util.function.UnaryOperator;
@@ -30,21 +31,33 @@ import com.github.robozonky.api.strategies.ParticipationDescriptor;
 import com.github.robozonky.app.tenant.PowerTenant;
 import com.github.robozonky.internal.Settings;
 import com.github.robozonky.internal.remote.Select;
+import com.github.robozonky.internal.remote.SelectPlan;
 import com.github.robozonky.internal.remote.Zonky;
 
 final class SecondaryMarketplaceAccessor extends AbstractMarketplaceAccessor<ParticipationDescriptor> {
 
     private static final Duration FULL_CHECK_INTERVAL = Duration.ofHours(1);
     private static final Logger LOGGER = Audit.purchasing();
+    /**
+     * The only parameter is the upper bound on the remaining principal, as given by the available balance.
+     */
+    private static final SelectPlan BASE_FILTER = new Select()
+        .equalsPlain("willNotExceedLoanInvestmentLimit", "true")
+        .greaterThanOrEquals("remainingPrincipal", 2) // Ignore near-0 participation clutter.
+        .compile()
+        .lessThanOrEquals("remainingPrincipal");
 
     private final PowerTenant tenant;
     private final UnaryOperator<LastPublishedItem> stateAccessor;
+    private final ParticipationDetailCache detailCache;
 
     public SecondaryMarketplaceAccessor(final PowerTenant tenant,
             final UnaryOperator<LastPublishedItem> stateAccessor) {
-        super(LOGGER);
+        super(LOGGER, BASE_FILTER);
         this.tenant = tenant;
         this.stateAccessor = stateAccessor;
+        this.detailCache = new ParticipationDetailCache(Settings.INSTANCE.getParticipationDetailCacheTtl(),
+                loanId -> tenant.call(zonky -> zonky.getParticipationDetail(loanId)));
     }
 
     @Override
@@ -54,16 +67,18 @@ final class SecondaryMarketplaceAccessor extends AbstractMarketplaceAccessor<Par
     }
 
     @Override
-    protected Select getBaseFilter() {
+    protected Object[] getBaseFilterParameters() {
         Money upperBalanceBound = tenant.getKnownBalanceUpperBound();
         Money maximumInvestmentAmount = tenant.getSessionInfo()
             .getMaximumInvestmentAmount();
         Money limit = upperBalanceBound.min(maximumInvestmentAmount);
-        return new Select()
-            .equalsPlain("willNotExceedLoanInvestmentLimit", "true")
-            .greaterThanOrEquals("remainingPrincipal", 2) // Ignore near-0 participation clutter.
-            .lessThanOrEquals("remainingPrincipal", limit.getValue()
-                .intValue());
+        return new Object[] { limit.getValue()
+            .intValue() };
+    }
+
+    @Override
+    protected void onFullMarketplaceCheck(final ZonedDateTime previousFullMarketplaceCheck) {
+        detailCache.retainSeenSince(previousFullMarketplaceCheck.toInstant());
     }
 
     @Override
@@ -97,11 +112,18 @@ final class SecondaryMarketplaceAccessor extends AbstractMarketplaceAccessor<Par
         }
         return participations.map(p -> {
             var loanId = p.getLoanId();
-            return new ParticipationDescriptor(p, () -> tenant.getLoan(loanId),
-                    () -> tenant.call(a -> a.getParticipationDetail(loanId)));
+            detailCache.markSeen(loanId);
+            return new ParticipationDescriptor(p, () -> tenant.getLoan(loanId), () -> detailCache.get(loanId));
         });
     }
 
+    /**
+     * For testing purposes only.
+     */
+    ParticipationDetailCache getDetailCache() {
+        return detailCache;
+    }
+
     @Override
     public boolean hasUpdates() {
         try {
@@ -76,8 +76,7 @@ final class Selling implements TenantPayload {
                 var remaining = remainingInterest.add(remainingPrincipal);
                 return (remaining.compareTo(Money.from(1)) > 0);
             })
-            .filter(investment -> sold.getOffered()
-                .noneMatch(investmentId -> investmentId == investment.getId())) // To enable dry run.
+            .filter(investment -> !sold.isOffered(investment.getId())) // To enable dry run.
             .filter(i -> !sold.wasOnceSold(i.getId()))
             .map(i -> {
                 Supplier<Loan> loanSupplier = () -> tenant.getLoan(i.getLoan()
@@ -16,17 +16,13 @@
 
 package com.github.robozonky.app.daemon;
 
-import java.util.Collection;
-import java.util.Collections;
-import java.util.Set;
 import java.util.function.ToLongFunction;
-import java.util.stream.Collectors;
-import java.util.stream.LongStream;
 
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
 import com.github.robozonky.internal.state.InstanceState;
+import com.github.robozonky.internal.state.SortedLongSet;
 import com.github.robozonky.internal.tenant.Tenant;
 
 /**
@@ -44,9 +40,8 @@ import com.github.robozonky.internal.tenant.Tenant;
 final class SessionState<T> {
 
     private static final Logger LOGGER = LogManager.getLogger(SessionState.class);
-    private static final long[] NO_LONGS = new long[0];
     private final boolean isEnabled;
-    private final Collection<Long> items;
+    private SortedLongSet items;
     private final ToLongFunction<T> idSupplier;
     private final String key;
     private final InstanceState<SessionState> state;
@@ -65,27 +60,23 @@ final class SessionState<T> {
         this.state = tenant.getState(SessionState.class);
         this.key = key;
         this.idSupplier = idSupplier;
-        this.items = isEnabled ? read() : Collections.emptyList(); // Only do work in dry run.
+        this.items = isEnabled ? read() : SortedLongSet.empty(); // Only do work in dry run.
         LOGGER.debug("'{}' contains {}.", key, items);
     }
 
-    private Set<Long> read() {
-        var result = state.getValues(key)
-            .map(s -> s.mapToLong(Long::parseLong)
-                .toArray())
-            .orElse(NO_LONGS);
+    private SortedLongSet read() {
+        var result = state.getLongSet(key)
+            .orElse(SortedLongSet.empty());
         LOGGER.trace("'{}' read {}.", key, result);
-        return LongStream.of(result)
-            .boxed()
-            .collect(Collectors.toSet());
+        return result;
     }
 
-    private void write(final Collection<Long> items) {
+    private void write(final SortedLongSet items) {
+        // Persisted in the background, together with other concurrent state changes; no need to wait for the disk.
         if (items.isEmpty()) {
-            state.update(c -> c.remove(key));
+            state.updateAsync(c -> c.remove(key));
         } else {
-            state.update(b -> b.put(key, items.stream()
-                .map(String::valueOf)));
+            state.updateAsync(b -> b.put(key, items));
         }
         var value = state.getValue(key)
             .orElse("nothing");
@@ -99,7 +90,7 @@ final class SessionState<T> {
      */
     public synchronized void put(final T item) {
         if (isEnabled) { // Only do work in dry run.
-            items.add(idSupplier.applyAsLong(item));
+            items = items.with(idSupplier.applyAsLong(item));
         }
         write(items); // But store the results anyway, so that the stale dry run data is removed.
     }
@@ -23,7 +23,6 @@ import java.util.WeakHashMap;
 import java.util.concurrent.CopyOnWriteArraySet;
 import java.util.stream.Collectors;
 import java.util.stream.LongStream;
-import java.util.stream.Stream;
 
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
@@ -31,8 +30,10 @@ import org.apache.logging.log4j.Logger;
 import com.github.robozonky.api.SessionInfo;
 import com.github.robozonky.api.remote.entities.Investment;
 import com.github.robozonky.internal.async.Reloadable;
+import com.github.robozonky.internal.remote.RequestLane;
 import com.github.robozonky.internal.remote.Zonky;
 import com.github.robozonky.internal.state.InstanceState;
+import com.github.robozonky.internal.state.SortedLongSet;
 import com.github.robozonky.internal.tenant.Tenant;
 
 final class SoldParticipationCache {
@@ -44,9 +45,12 @@ final class SoldParticipationCache {
     private final InstanceState<SoldParticipationCache> state;
     private final Set<Long> listedSoldLocally = new CopyOnWriteArraySet<>();
     private final Reloadable<Set<Long>> listedSoldRemotely;
+    private volatile SortedLongSet offered;
 
     private SoldParticipationCache(final Tenant tenant) {
         this.state = tenant.getState(SoldParticipationCache.class);
+        this.offered = state.getLongSet(KEY)
+            .orElse(SortedLongSet.empty());
         this.listedSoldRemotely = Reloadable.with(() -> retrieveSoldParticipationIds(tenant))
             .reloadAfter(Duration.ofMinutes(5))
             .async() // Don't block for this.
@@ -54,11 +58,12 @@ final class SoldParticipationCache {
     }
 
     private static Set<Long> retrieveSoldParticipationIds(final Tenant tenant) {
-        return tenant.call(Zonky::getSoldInvestments)
+        // Reloaded asynchronously, outside of the lane of the job which triggered the reload.
+        return RequestLane.BACKGROUND.call(() -> tenant.call(Zonky::getSoldInvestments)
             .mapToLong(Investment::getId)
             .distinct()
             .boxed()
-            .collect(Collectors.toSet());
+            .collect(Collectors.toSet()));
     }
 
     private static SoldParticipationCache newCache(final Tenant tenant) {
@@ -76,25 +81,33 @@ final class SoldParticipationCache {
         INSTANCES.clear();
     }
 
-    public synchronized LongStream getOffered() {
-        return state.getValues(KEY)
-            .orElse(Stream.empty())
-            .mapToLong(Long::parseLong);
+    public LongStream getOffered() {
+        return offered.stream();
     }
 
-    private synchronized void setOffered(final LongStream values) {
-        state.update(m -> m.put(KEY, values.mapToObj(String::valueOf)));
+    public boolean isOffered(final long investmentId) {
+        return offered.contains(investmentId);
+    }
+
+    private void setOffered(final SortedLongSet values) {
+        offered = values;
+        state.update(m -> m.put(KEY, values));
     }
 
     public synchronized void unmarkAsOffered(final long investmentId) {
-        setOffered(getOffered().filter(i -> i != investmentId));
+        var current = offered;
+        var updated = current.without(investmentId);
+        if (updated != current) {
+            setOffered(updated);
+        }
     }
 
-    public void markAsOffered(final long investmentId) {
-        final LongStream existingValue = getOffered();
-        final LongStream newValues = LongStream.concat(existingValue, LongStream.of(investmentId))
-            .distinct();
-        setOffered(newValues);
+    public synchronized void markAsOffered(final long investmentId) {
+        var current = offered;
+        var updated = current.with(investmentId);
+        if (updated != current) {
+            setOffered(updated);
+        }
     }
 
     public void markAsSold(final long investmentId) {
@@ -26,6 +26,7 @@ import java.util.Set;
 import java.util.stream.Collectors;
 
 import com.github.robozonky.api.remote.entities.Investment;
+import com.github.robozonky.internal.state.SortedLongSet;
 import com.github.robozonky.internal.tenant.Tenant;
 
 final class Registry {
@@ -61,9 +62,8 @@ final class Registry {
     }
 
     public Collection<Investment> complement(final Collection<Investment> investments) {
-        final Set<Long> idsToComplement = investments.stream()
-            .map(Registry::getId)
-            .collect(Collectors.toSet());
+        final SortedLongSet idsToComplement = SortedLongSet.of(investments.stream()
+            .mapToLong(Registry::getId));
         return storages.get(Category.NEW)
             .complement(idsToComplement)
             .parallel()
@@ -16,30 +16,25 @@
 
 package com.github.robozonky.app.delinquencies;
 
-import java.util.Set;
-import java.util.TreeSet;
-import java.util.stream.Collectors;
 import java.util.stream.LongStream;
-import java.util.stream.Stream;
 
 import com.github.robozonky.internal.state.InstanceState;
+import com.github.robozonky.internal.state.SortedLongSet;
 import com.github.robozonky.internal.tenant.Tenant;
 
 final class Storage {
 
     private final InstanceState<Storage> state;
     private final String key;
-    private final Set<Long> originalContents;
-    private final Set<Long> toAdd = new TreeSet<>();
-    private final Set<Long> toRemove = new TreeSet<>();
+    private SortedLongSet originalContents;
+    private SortedLongSet toAdd = SortedLongSet.empty();
+    private SortedLongSet toRemove = SortedLongSet.empty();
 
     public Storage(final Tenant tenant, final String key) {
         this.state = tenant.getState(Storage.class);
         this.key = key;
-        this.originalContents = state.getValues(key)
-            .orElse(Stream.empty())
-            .map(Long::parseLong)
-            .collect(Collectors.toSet());
+        this.originalContents = state.getLongSet(key)
+            .orElse(SortedLongSet.empty());
     }
 
     public synchronized boolean isKnown(final long investmentId) {
@@ -47,18 +42,20 @@ final class Storage {
     }
 
     public synchronized boolean add(final long investmentId) {
-        toRemove.remove(investmentId);
-        if (originalContents.contains(investmentId)) {
+        toRemove = toRemove.without(investmentId);
+        if (originalContents.contains(investmentId) || toAdd.contains(investmentId)) {
             return false;
         } else {
-            return toAdd.add(investmentId);
+            toAdd = toAdd.with(investmentId);
+            return true;
         }
     }
 
     public synchronized boolean remove(final long investmentId) {
-        toAdd.remove(investmentId);
-        if (originalContents.contains(investmentId)) {
-            return toRemove.add(investmentId);
+        toAdd = toAdd.without(investmentId);
+        if (originalContents.contains(investmentId) && !toRemove.contains(investmentId)) {
+            toRemove = toRemove.with(investmentId);
+            return true;
         } else {
             return false;
         }
@@ -68,18 +65,14 @@ final class Storage {
         if (toAdd.isEmpty() && toRemove.isEmpty()) {
             return;
         }
-        originalContents.addAll(toAdd);
-        originalContents.removeAll(toRemove);
-        final Stream<String> result = originalContents.stream()
-            .distinct()
-            .sorted()
-            .map(String::valueOf);
+        originalContents = originalContents.union(toAdd)
+            .difference(toRemove);
+        final SortedLongSet result = originalContents;
         state.update(m -> m.put(key, result));
     }
 
-    public synchronized LongStream complement(final Set<Long> investmentIds) {
-        return originalContents.stream()
-            .filter(i -> !investmentIds.contains(i))
-            .mapToLong(i -> i);
+    public synchronized LongStream complement(final SortedLongSet investmentIds) {
+        return originalContents.difference(investmentIds)
+            .stream();
     }
 }
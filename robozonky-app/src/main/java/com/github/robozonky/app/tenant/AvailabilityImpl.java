@@ -31,6 +31,7 @@ import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
 import com.github.robozonky.internal.Defaults;
+import com.github.robozonky.internal.remote.RequestThrottledException;
 import com.github.robozonky.internal.tenant.Availability;
 import com.github.robozonky.internal.test.DateUtil;
 
@@ -75,6 +76,9 @@ final class AvailabilityImpl implements Availability {
             return false;
         } else if (throwable instanceof SocketTimeoutException || throwable instanceof InternalServerErrorException) {
             return true;
+        } else if (throwable instanceof RequestThrottledException) {
+            // The request was held back before it reached Zonky; the quota is protected, no need to pause.
+            return true;
         }
         return canBeIgnored(throwable.getCause());
     }
@@ -0,0 +1,285 @@
+/*
+ * Copyright 2020 The RoboZonky Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.robozonky.app.tenant;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.function.Consumer;
+
+import com.github.robozonky.internal.util.functional.Tuple;
+import com.github.robozonky.internal.util.functional.Tuple3;
+
+/**
+ * Size-bounded storage with frequency-aware admission, loosely following the W-TinyLFU design. New entries enter a
+ * small LRU window; whatever falls out of the window competes with the least recently used entries of the main LRU
+ * segment that would have to make room for it, and is only admitted if it was requested more often (according to
+ * {@link FrequencySketch}) than every one of them. Expiration is
+ * checked when an entry is read, so there is never any need to scan the whole storage.
+ * <p>
+ * All operations are O(1) and synchronized; the storage is meant to be wrapped by {@link Cache}.
+ *
+ * @param <T> Type of the stored items.
+ */
+final class BoundedStorage<T> {
+
+    private final long maximumWeight;
+    private final long windowMaximumWeight;
+    private final Duration expireAfterWrite;
+    private final Consumer<RemovalCause> evictionListener;
+    private final FrequencySketch sketch;
+    private final LinkedHashMap<Long, Entry<T>> window = new LinkedHashMap<>(16, 0.75f, true);
+    private final LinkedHashMap<Long, Entry<T>> main = new LinkedHashMap<>(16, 0.75f, true);
+    private long windowWeight = 0;
+    private long mainWeight = 0;
+
+    BoundedStorage(final long maximumWeight, final Duration expireAfterWrite,
+            final Consumer<RemovalCause> evictionListener) {
+        if (maximumWeight < 1) {
+            throw new IllegalArgumentException("Maximum weight must be positive, was " + maximumWeight + ".");
+        }
+        this.maximumWeight = maximumWeight;
+        this.windowMaximumWeight = Math.max(1, maximumWeight / 100);
+        this.expireAfterWrite = expireAfterWrite;
+        this.evictionListener = evictionListener;
+        this.sketch = new FrequencySketch(maximumWeight);
+    }
+
+    private static boolean isExpired(final Entry<?> entry, final Duration expireAfterWrite, final Instant now) {
+        return entry.writtenAt.plus(expireAfterWrite)
+            .isBefore(now);
+    }
+
+    private static <T> Entry<T> removeEldest(final LinkedHashMap<Long, Entry<T>> segment) {
+        var iterator = segment.entrySet()
+            .iterator();
+        var eldest = iterator.next();
+        iterator.remove();
+        return eldest.getValue();
+    }
+
+    /**
+     * Retrieve an item and record that it was requested, whether present or not.
+     *
+     * @param id  ID of the item.
+     * @param now Current time, used to determine expiration.
+     * @return Null if not present or expired.
+     */
+    public synchronized T get(final long id, final Instant now) {
+        sketch.increment(id);
+        var entry = window.get(id);
+        if (entry == null) {
+            entry = main.get(id);
+        }
+        if (entry == null) {
+            return null;
+        } else if (isExpired(entry, expireAfterWrite, now)) {
+            remove(id);
+            evictionListener.accept(RemovalCause.EXPIRED);
+            return null;
+        }
+        return entry.value;
+    }
+
+    /**
+     * Store an item, possibly evicting other items to make room for it. The new item itself may later be rejected in
+     * favor of the items which are requested more frequently.
+     *
+     * @param id        ID of the item.
+     * @param value     The item.
+     * @param weight    How much of the maximum weight the item occupies. Items heavier than the maximum are not stored.
+     * @param writtenAt Time of writing, from which the expiration is calculated.
+     */
+    public synchronized void put(final long id, final T value, final int weight, final Instant writtenAt) {
+        remove(id);
+        if (weight > maximumWeight) {
+            evictionListener.accept(RemovalCause.SIZE);
+            return;
+        }
+        window.put(id, new Entry<>(id, value, Math.max(1, weight), writtenAt));
+        windowWeight += Math.max(1, weight);
+        while (windowWeight > windowMaximumWeight && window.size() > 1) {
+            var candidate = removeEldest(window);
+            windowWeight -= candidate.weight;
+            admit(candidate);
+        }
+    }
+
+    /**
+     * Store an item, unless an item with the same ID is already stored.
+     *
+     * @param id        ID of the item.
+     * @param value     The item.
+     * @param weight    See {@link #put(long, Object, int, Instant)}.
+     * @param writtenAt See {@link #put(long, Object, int, Instant)}.
+     * @return False if an item with the same ID was already stored.
+     */
+    public synchronized boolean putIfAbsent(final long id, final T value, final int weight, final Instant writtenAt) {
+        if (window.containsKey(id) || main.containsKey(id)) {
+            return false;
+        }
+        put(id, value, weight, writtenAt);
+        return true;
+    }
+
+    private void admit(final Entry<T> candidate) {
+        var mainMaximumWeight = maximumWeight - windowMaximumWeight;
+        if (candidate.weight > mainMaximumWeight) {
+            evictionListener.accept(RemovalCause.SIZE);
+            return;
+        }
+        var candidateFrequency = sketch.frequency(candidate.id);
+        var victims = new ArrayList<Entry<T>>(1);
+        var victimWeight = 0L;
+        var iterator = main.values()
+            .iterator(); // Iteration does not count as access, the order stays the same.
+        while (mainWeight - victimWeight + candidate.weight > mainMaximumWeight) {
+            var victim = iterator.next(); // The candidate fits the main segment, so there is always another victim.
+            if (candidateFrequency <= sketch.frequency(victim.id)) { // The incumbents win ties.
+                evictionListener.accept(RemovalCause.SIZE);
+                return;
+            }
+            victims.add(victim);
+            victimWeight += victim.weight;
+        }
+        for (var victim : victims) { // Only evict once it is certain that the candidate will take their place.
+            main.remove(victim.id);
+            mainWeight -= victim.weight;
+            evictionListener.accept(RemovalCause.SIZE);
+        }
+        main.put(candidate.id, candidate);
+        mainWeight += candidate.weight;
+    }
+
+    public synchronized void remove(final long id) {
+        var entry = window.remove(id);
+        if (entry != null) {
+            windowWeight -= entry.weight;
+            return;
+        }
+        entry = main.remove(id);
+        if (entry != null) {
+            mainWeight -= entry.weight;
+        }
+    }
+
+    /**
+     * Copy the current contents, without affecting recency or frequency of any of the entries.
+     *
+     * @return ID, item and time of writing for every entry, including those which already expired.
+     */
+    public synchronized List<Tuple3<Long, T, Instant>> getEntries() {
+        var result = new ArrayList<Tuple3<Long, T, Instant>>(size());
+        window.values()
+            .forEach(e -> result.add(Tuple.of(e.id, e.value, e.writtenAt)));
+        main.values()
+            .forEach(e -> result.add(Tuple.of(e.id, e.value, e.writtenAt)));
+        return result;
+    }
+
+    public synchronized int size() {
+        return window.size() + main.size();
+    }
+
+    public synchronized long getWeight() {
+        return windowWeight + mainWeight;
+    }
+
+    enum RemovalCause {
+        SIZE,
+        EXPIRED
+    }
+
+    private static final class Entry<T> {
+
+        private final long id;
+        private final T value;
+        private final int weight;
+        private final Instant writtenAt;
+
+        Entry(final long id, final T value, final int weight, final Instant writtenAt) {
+            this.id = id;
+            this.value = value;
+            this.weight = weight;
+            this.writtenAt = writtenAt;
+        }
+    }
+
+    /**
+     * Count-min sketch of 4-bit counters, approximating how often each ID was requested. Once the number of
+     * increments reaches ten times the width of the sketch, all counters are halved so that old popularity fades.
+     */
+    static final class FrequencySketch {
+
+        private static final int DEPTH = 4;
+        private static final int MAXIMUM_COUNT = 15;
+        private static final long[] SEEDS = { 0x9E3779B97F4A7C15L, 0xC2B2AE3D27D4EB4FL, 0x165667B19E3779F9L,
+                0xD6E8FEB86659FD93L };
+
+        private final byte[][] table;
+        private final int mask;
+        private final int sampleSize;
+        private int increments = 0;
+
+        FrequencySketch(final long expectedItems) {
+            var width = Integer.highestOneBit((int) Math.min(Math.max(expectedItems, 16), 1 << 24) - 1) << 1;
+            this.table = new byte[DEPTH][width];
+            this.mask = width - 1;
+            this.sampleSize = 10 * width;
+        }
+
+        private int index(final long id, final int row) {
+            var hash = (id + SEEDS[row]) * SEEDS[row];
+            hash ^= hash >>> 32;
+            return (int) hash
+                    & mask;
+        }
+
+        void increment(final long id) {
+            var changed = false;
+            for (var row = 0; row < DEPTH; row++) {
+                var i = index(id, row);
+                if (table[row][i] < MAXIMUM_COUNT) {
+                    table[row][i]++;
+                    changed = true;
+                }
+            }
+            if (changed && ++increments >= sampleSize) {
+                reset();
+            }
+        }
+
+        int frequency(final long id) {
+            var result = MAXIMUM_COUNT;
+            for (var row = 0; row < DEPTH; row++) {
+                result = Math.min(result, table[row][index(id, row)]);
+            }
+            return result;
+        }
+
+        private void reset() {
+            for (var row : table) {
+                for (var i = 0; i < row.length; i++) {
+                    row[i] >>>= 1;
+                }
+            }
+            increments /= 2;
+        }
+    }
+}
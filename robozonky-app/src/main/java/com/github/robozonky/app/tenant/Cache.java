@@ -17,12 +17,10 @@
 package com.github.robozonky.app.tenant;
 
 import java.time.Duration;
-import java.time.ZonedDateTime;
-import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.Executor;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
 
@@ -30,11 +28,16 @@ import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
 import com.github.robozonky.api.remote.entities.Loan;
+import com.github.robozonky.internal.Defaults;
+import com.github.robozonky.internal.Settings;
+import com.github.robozonky.internal.remote.entities.LoanImpl;
+import com.github.robozonky.internal.state.TenantState;
 import com.github.robozonky.internal.tenant.Tenant;
 import com.github.robozonky.internal.test.DateUtil;
 import com.github.robozonky.internal.util.functional.Either;
-import com.github.robozonky.internal.util.functional.Tuple;
-import com.github.robozonky.internal.util.functional.Tuple2;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Timer;
 
 final class Cache<T> {
 
@@ -42,13 +45,13 @@ final class Cache<T> {
 
     private static final Backend<Loan> LOAN_BACKEND = new Backend<>() {
         @Override
-        public Duration getEvictEvery() {
-            return Duration.ofHours(1);
+        public long getMaximumWeight() {
+            return Settings.INSTANCE.getLoanCacheMaximumWeight();
         }
 
         @Override
-        public Duration getEvictAfter() {
-            return Duration.ofDays(1);
+        public Duration getExpireAfterWrite() {
+            return Settings.INSTANCE.getLoanCacheExpireAfterWrite();
         }
 
         @Override
@@ -56,6 +59,16 @@ final class Cache<T> {
             return Loan.class;
         }
 
+        @Override
+        public Class<? extends Loan> getImplementationClass() {
+            return LoanImpl.class;
+        }
+
+        @Override
+        public String getSnapshotExtension() {
+            return "loans";
+        }
+
         @Override
         public Either<Exception, Loan> getItem(final long id, final Tenant tenant) {
             try { // TODO convert loan IDs to longs to get rid of the cast.
@@ -70,19 +83,75 @@ final class Cache<T> {
             return item.getRemainingInvestment()
                 .isZero();
         }
+
+        @Override
+        public int weigh(final Loan item) { // The story is by far the largest part of the loan; count it in kilobytes.
+            var story = item.getStory();
+            return 1 + (story == null ? 0 : story.length() / 1024);
+        }
     };
 
+    private static final Duration SNAPSHOT_EVERY = Duration.ofHours(1);
+
     private final AtomicBoolean isClosed = new AtomicBoolean(false);
+    private final AtomicBoolean isDirty = new AtomicBoolean(false);
     private final Tenant tenant;
     private final Backend<T> backend;
-    private final Map<Long, Tuple2<T, ZonedDateTime>> storage = new ConcurrentHashMap<>(20);
-    private final Executor evictor;
+    private final BoundedStorage<T> storage;
+    private final CacheSnapshot<T> snapshot;
+    private final CompletableFuture<Void> warmUp;
+    private final Set<Long> warmIds = ConcurrentHashMap.newKeySet();
+    private final Counter warmStartAvoidedCalls;
+    private final Counter warmStartRemoteCalls;
+    private final Counter hits;
+    private final Counter misses;
+    private final Counter sizeEvictions;
+    private final Counter expiryEvictions;
+    private final Timer loadTimer;
 
     private Cache(final Tenant tenant, final Backend<T> backend) {
         LOGGER.debug("Starting {} cache for {}.", backend.getItemClass(), tenant);
         this.tenant = tenant;
         this.backend = backend;
-        this.evictor = backend.startEviction(this::evict);
+        var type = backend.getItemClass()
+            .getSimpleName();
+        this.hits = Counter.builder("robozonky.cache.requests")
+            .tag("type", type)
+            .tag("result", "hit")
+            .register(Defaults.METER_REGISTRY);
+        this.misses = Counter.builder("robozonky.cache.requests")
+            .tag("type", type)
+            .tag("result", "miss")
+            .register(Defaults.METER_REGISTRY);
+        this.sizeEvictions = Counter.builder("robozonky.cache.evictions")
+            .tag("type", type)
+            .tag("cause", "size")
+            .register(Defaults.METER_REGISTRY);
+        this.expiryEvictions = Counter.builder("robozonky.cache.evictions")
+            .tag("type", type)
+            .tag("cause", "expired")
+            .register(Defaults.METER_REGISTRY);
+        this.loadTimer = Timer.builder("robozonky.cache.load")
+            .tag("type", type)
+            .register(Defaults.METER_REGISTRY);
+        this.warmStartAvoidedCalls = Counter.builder("robozonky.cache.warm_start.calls")
+            .tag("type", type)
+            .tag("source", "snapshot")
+            .register(Defaults.METER_REGISTRY);
+        this.warmStartRemoteCalls = Counter.builder("robozonky.cache.warm_start.calls")
+            .tag("type", type)
+            .tag("source", "remote")
+            .register(Defaults.METER_REGISTRY);
+        this.storage = new BoundedStorage<>(backend.getMaximumWeight(), backend.getExpireAfterWrite(),
+                cause -> (cause == BoundedStorage.RemovalCause.SIZE ? sizeEvictions : expiryEvictions).increment());
+        var snapshotFile = TenantState.getFile(tenant.getSessionInfo(), backend.getSnapshotExtension());
+        this.snapshot = new CacheSnapshot<>(snapshotFile, backend.getImplementationClass());
+        this.warmUp = CompletableFuture.runAsync(this::warmUp)
+            .exceptionally(ex -> {
+                LOGGER.debug("Failed warming up {} cache.", backend.getItemClass(), ex);
+                return null;
+            });
+        scheduleSnapshot();
     }
 
     public static Cache<Loan> forLoan(final Tenant tenant) {
@@ -93,31 +162,67 @@ final class Cache<T> {
         return clz.getCanonicalName() + " #" + id;
     }
 
-    private boolean isExpired(final Tuple2<T, ZonedDateTime> p) {
-        var now = DateUtil.zonedNow();
-        var expiration = p._2()
-            .plus(backend.getEvictAfter());
-        return expiration.isBefore(now);
+    /**
+     * Fill the cache with the items which were cached when the robot last stopped. Every such item that is later
+     * requested is one less remote call; the "robozonky.cache.warm_start.calls" meters compare those with the remote
+     * calls which had to be made anyway.
+     * <p>
+     * Runs in the background, so that whoever first needs the cache does not wait for the snapshot to be read. Until
+     * then, items are retrieved from Zonky as usual, and those are never replaced by their older versions from the
+     * snapshot.
+     */
+    private void warmUp() {
+        var now = DateUtil.now();
+        var expireAfterWrite = backend.getExpireAfterWrite();
+        snapshot.read()
+            .stream()
+            .filter(e -> !e._3()
+                .plus(expireAfterWrite)
+                .isBefore(now))
+            .forEach(e -> {
+                if (storage.putIfAbsent(e._1(), e._2(), backend.weigh(e._2()), e._3())) {
+                    warmIds.add(e._1());
+                }
+            });
+        LOGGER.debug("Warmed up {} cache with {} items.", backend.getItemClass(), warmIds.size());
     }
 
-    private void evict() {
-        LOGGER.trace("Evicting {}, total: {}.", backend.getItemClass(), storage.size());
-        var evictedCount = storage.entrySet()
-            .stream()
-            .filter(e -> isExpired(e.getValue()))
-            .peek(e -> storage.remove(e.getKey()))
-            .count();
-        LOGGER.trace("Evicted {} items.", evictedCount);
+    private void scheduleSnapshot() {
+        CompletableFuture.delayedExecutor(SNAPSHOT_EVERY.toNanos(), TimeUnit.NANOSECONDS)
+            .execute(() -> {
+                if (isClosed.get()) {
+                    return;
+                }
+                try {
+                    persist();
+                } finally {
+                    scheduleSnapshot();
+                }
+            });
+    }
+
+    /**
+     * Write the cache contents to disk, unless nothing was added since the last time.
+     */
+    void persist() {
+        if (isDirty.getAndSet(false)) {
+            snapshot.write(storage.getEntries());
+        }
     }
 
     Optional<T> getFromCache(final long id) {
-        var result = storage.get(id);
-        if (result == null || isExpired(result)) {
+        var result = storage.get(id, DateUtil.now());
+        if (result == null) {
             LOGGER.trace("Miss for {}.", identify(id));
+            misses.increment();
             return Optional.empty();
         } else {
             LOGGER.trace("Hit for {}.", identify(id));
-            return Optional.of(result._1());
+            hits.increment();
+            if (warmIds.remove(id)) {
+                warmStartAvoidedCalls.increment();
+            }
+            return Optional.of(result);
         }
     }
 
@@ -125,8 +230,15 @@ final class Cache<T> {
         return identify(backend.getItemClass(), id);
     }
 
-    private void add(final long id, final T item) {
-        storage.put(id, Tuple.of(item, DateUtil.zonedNow()));
+    private T load(final long id) {
+        warmStartRemoteCalls.increment();
+        var start = System.nanoTime();
+        try {
+            return backend.getItem(id, tenant)
+                .getOrElseThrow(e -> new IllegalStateException("Can not read " + identify(id) + " from Zonky.", e));
+        } finally {
+            loadTimer.record(Duration.ofNanos(System.nanoTime() - start));
+        }
     }
 
     public T get(final long id) {
@@ -140,10 +252,10 @@ final class Cache<T> {
             storage.remove(id);
         }
         return getFromCache(id).orElseGet(() -> {
-            var item = backend.getItem(id, tenant)
-                .getOrElseThrow(e -> new IllegalStateException("Can not read " + identify(id) + " from Zonky.", e));
+            var item = load(id);
             if (backend.shouldCache(item)) {
-                add(id, item);
+                storage.put(id, item, backend.weigh(item), DateUtil.now());
+                isDirty.set(true);
             } else {
                 // prevent caching information which will soon be outdated
                 LOGGER.debug("Not adding {} as it is not yet fully invested.", identify(id));
@@ -152,36 +264,55 @@ final class Cache<T> {
         });
     }
 
+    /**
+     * Stop using the cache and store its contents for the next start.
+     */
+    public void close() {
+        if (isClosed.getAndSet(true)) {
+            return;
+        }
+        warmUp.join(); // Otherwise the items not yet read from the snapshot would be lost.
+        persist();
+    }
+
     /**
      * For testing purposes only.
      */
-    Executor getEvictor() {
-        return evictor;
+    CompletableFuture<Void> getWarmUp() {
+        return warmUp;
+    }
+
+    /**
+     * For testing purposes only.
+     */
+    CacheSnapshot<T> getSnapshot() {
+        return snapshot;
+    }
+
+    /**
+     * For testing purposes only.
+     */
+    BoundedStorage<T> getStorage() {
+        return storage;
     }
 
     private interface Backend<I> {
 
-        Duration getEvictEvery();
+        long getMaximumWeight();
 
-        Duration getEvictAfter();
+        Duration getExpireAfterWrite();
 
         Class<I> getItemClass();
 
+        Class<? extends I> getImplementationClass();
+
+        String getSnapshotExtension();
+
         Either<Exception, I> getItem(long id, Tenant tenant);
 
         boolean shouldCache(I item);
 
-        default Executor startEviction(Runnable eviction) {
-            var executor = CompletableFuture.delayedExecutor(getEvictEvery().toNanos(), TimeUnit.NANOSECONDS);
-            executor.execute(() -> {
-                try {
-                    eviction.run();
-                } finally {
-                    executor.execute(eviction);
-                }
-            });
-            return executor;
-        }
+        int weigh(I item);
     }
 
 }
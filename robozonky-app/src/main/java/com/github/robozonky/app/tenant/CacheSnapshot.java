@@ -0,0 +1,192 @@
+/*
+ * Copyright 2020 The RoboZonky Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.robozonky.app.tenant;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.CRC32;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+import javax.json.bind.Jsonb;
+import javax.json.bind.JsonbBuilder;
+import javax.json.bind.JsonbConfig;
+import javax.json.bind.config.PropertyVisibilityStrategy;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import com.github.robozonky.internal.Defaults;
+import com.github.robozonky.internal.util.functional.Tuple;
+import com.github.robozonky.internal.util.functional.Tuple3;
+
+/**
+ * On-disk copy of the {@link Cache} contents, so that a restarted robot does not need to fetch the same immutable
+ * items from Zonky again.
+ * <p>
+ * The file starts with a magic number, format version, entry count and a CRC32 of the compressed payload. The
+ * payload is a gzipped sequence of (ID, time of writing, JSON of the item). A file with a different version or a
+ * checksum mismatch is ignored, as is any other problem while reading; the cache then simply starts cold.
+ * <p>
+ * Items are (de)serialized through their fields, not through their getters and setters; those are shaped for the
+ * Zonky API and do not round-trip.
+ *
+ * @param <T> Type of the items in the cache.
+ */
+final class CacheSnapshot<T> {
+
+    static final int MAGIC = 0x525A4348; // "RZCH"
+    static final int VERSION = 1;
+    private static final Logger LOGGER = LogManager.getLogger(CacheSnapshot.class);
+    private static final JsonbConfig JSONB_CONFIG = new JsonbConfig()
+        .withPropertyVisibilityStrategy(new PropertyVisibilityStrategy() {
+            @Override
+            public boolean isVisible(final Field field) {
+                return true;
+            }
+
+            @Override
+            public boolean isVisible(final Method method) {
+                return false;
+            }
+        });
+
+    private final File file;
+    private final Class<? extends T> implementationClass;
+
+    CacheSnapshot(final File file, final Class<? extends T> implementationClass) {
+        this.file = file;
+        this.implementationClass = implementationClass;
+    }
+
+    private static byte[] compress(final List<Tuple3<Long, String, Instant>> entries) throws IOException {
+        var baos = new ByteArrayOutputStream();
+        try (var out = new DataOutputStream(new GZIPOutputStream(baos))) {
+            for (var entry : entries) {
+                out.writeLong(entry._1());
+                out.writeLong(entry._3()
+                    .toEpochMilli());
+                var json = entry._2()
+                    .getBytes(Defaults.CHARSET);
+                out.writeInt(json.length);
+                out.write(json);
+            }
+        }
+        return baos.toByteArray();
+    }
+
+    private static long checksum(final byte[] payload) {
+        var crc = new CRC32();
+        crc.update(payload);
+        return crc.getValue();
+    }
+
+    File getFile() {
+        return file;
+    }
+
+    /**
+     * Read the snapshot.
+     *
+     * @return Empty if the snapshot does not exist or can not be used.
+     */
+    public List<Tuple3<Long, T, Instant>> read() {
+        if (!file.exists()) {
+            LOGGER.debug("No cache snapshot in '{}'.", file.getAbsolutePath());
+            return List.of();
+        }
+        try (var in = new DataInputStream(Files.newInputStream(file.toPath()))) {
+            if (in.readInt() != MAGIC) {
+                LOGGER.info("Ignoring '{}', not a cache snapshot.", file.getAbsolutePath());
+                return List.of();
+            }
+            var version = in.readInt();
+            if (version != VERSION) {
+                LOGGER.info("Ignoring cache snapshot '{}' of unsupported version {}.", file.getAbsolutePath(),
+                        version);
+                return List.of();
+            }
+            var count = in.readInt();
+            var expectedChecksum = in.readLong();
+            var payload = in.readAllBytes();
+            if (checksum(payload) != expectedChecksum) {
+                LOGGER.info("Ignoring corrupt cache snapshot '{}'.", file.getAbsolutePath());
+                return List.of();
+            }
+            return decompress(payload, count);
+        } catch (final Exception ex) {
+            LOGGER.info("Failed reading cache snapshot '{}'.", file.getAbsolutePath(), ex);
+            return List.of();
+        }
+    }
+
+    private List<Tuple3<Long, T, Instant>> decompress(final byte[] payload, final int count) throws Exception {
+        var result = new ArrayList<Tuple3<Long, T, Instant>>(count);
+        try (var in = new DataInputStream(new GZIPInputStream(new ByteArrayInputStream(payload)));
+                Jsonb jsonb = JsonbBuilder.create(JSONB_CONFIG)) {
+            for (var i = 0; i < count; i++) {
+                var id = in.readLong();
+                var writtenAt = Instant.ofEpochMilli(in.readLong());
+                var json = new byte[in.readInt()];
+                in.readFully(json);
+                T item = jsonb.fromJson(new String(json, Defaults.CHARSET), implementationClass);
+                result.add(Tuple.of(id, item, writtenAt));
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Replace the snapshot with the given entries. The file is first written aside and then moved into place, so
+     * that a crash during writing never leaves a half-written snapshot behind.
+     *
+     * @param entries ID, item and time of writing for each entry to store.
+     */
+    public void write(final List<Tuple3<Long, T, Instant>> entries) {
+        try (Jsonb jsonb = JsonbBuilder.create(JSONB_CONFIG)) {
+            var serialized = new ArrayList<Tuple3<Long, String, Instant>>(entries.size());
+            for (var entry : entries) {
+                serialized.add(Tuple.of(entry._1(), jsonb.toJson(entry._2(), implementationClass), entry._3()));
+            }
+            var payload = compress(serialized);
+            var temp = new File(file.getAbsolutePath() + ".tmp");
+            try (var out = new DataOutputStream(Files.newOutputStream(temp.toPath()))) {
+                out.writeInt(MAGIC);
+                out.writeInt(VERSION);
+                out.writeInt(serialized.size());
+                out.writeLong(checksum(payload));
+                out.write(payload);
+            }
+            Files.move(temp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING,
+                    StandardCopyOption.ATOMIC_MOVE);
+            LOGGER.debug("Written {} entries to cache snapshot '{}'.", serialized.size(), file.getAbsolutePath());
+        } catch (final Exception ex) {
+            LOGGER.info("Failed writing cache snapshot '{}'.", file.getAbsolutePath(), ex);
+        }
+    }
+}
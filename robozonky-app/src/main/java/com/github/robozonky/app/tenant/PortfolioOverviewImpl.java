@@ -16,22 +16,54 @@
 
 package com.github.robozonky.app.tenant;
 
+import static com.github.robozonky.internal.util.BigDecimalCalculator.divide;
+import static com.github.robozonky.internal.util.BigDecimalCalculator.plus;
+import static com.github.robozonky.internal.util.BigDecimalCalculator.times;
+import static java.util.function.Function.identity;
+import static java.util.stream.Collectors.toMap;
+
+import java.math.BigDecimal;
 import java.time.ZonedDateTime;
+import java.util.Arrays;
 import java.util.Collections;
+import java.util.Currency;
+import java.util.HashMap;
 import java.util.Map;
 import java.util.Objects;
+import java.util.function.BiFunction;
 
 import com.github.robozonky.api.Money;
 import com.github.robozonky.api.Ratio;
+import com.github.robozonky.api.remote.enums.Rating;
 import com.github.robozonky.api.strategies.PortfolioOverview;
+import com.github.robozonky.internal.Defaults;
 import com.github.robozonky.internal.test.DateUtil;
 
+/**
+ * Amounts are kept as hundredths of the currency unit, one slot per {@link Rating#ordinal()}. Instances are immutable;
+ * {@link #withCharge(Ratio, Money)} derives a new instance in constant time, and anything derived from the amounts is
+ * only calculated when first requested.
+ */
 final class PortfolioOverviewImpl implements PortfolioOverview {
 
+    private static final Rating[] RATINGS = Rating.values();
+    private static final Map<Ratio, Rating> RATINGS_BY_INTEREST_RATE = Arrays.stream(RATINGS)
+        .collect(toMap(Rating::getInterestRate, identity()));
+
     private final ZonedDateTime timestamp = DateUtil.zonedNow();
+    private final ZonedDateTime builtOn;
     private final Ratio profitability;
-    private final Money invested;
-    private final Map<Ratio, Money> investedPerRating;
+    private final Currency currency;
+    private final long[] investedPerRating;
+    /**
+     * Interest rates which do not correspond to any {@link Rating}; Zonky does not send those, therefore usually empty.
+     */
+    private final Map<Ratio, Long> investedPerUnknownRate;
+    private final long invested;
+    private final Money investedAsMoney;
+    private volatile Ratio[] shares;
+    private volatile Ratio minimalProfitability;
+    private volatile Ratio optimalProfitability;
 
     PortfolioOverviewImpl(final RemotePortfolioImpl impl) {
         this(impl.getTotal(), impl.getRemoteData()
@@ -41,23 +73,133 @@ final class PortfolioOverviewImpl implements PortfolioOverview {
     }
 
     PortfolioOverviewImpl(final Map<Ratio, Money> investedPerRating, final Ratio profitability) {
+        this.builtOn = timestamp;
         this.profitability = profitability;
-        this.invested = Money.sum(investedPerRating.values());
-        if (invested.isZero()) {
-            this.investedPerRating = Collections.emptyMap();
-        } else {
-            this.investedPerRating = Collections.unmodifiableMap(investedPerRating);
+        this.currency = investedPerRating.values()
+            .stream()
+            .findFirst()
+            .map(Money::getCurrency)
+            .orElse(Defaults.CURRENCY);
+        this.investedPerRating = new long[RATINGS.length];
+        var unknown = new HashMap<Ratio, Long>(0);
+        investedPerRating.forEach((rate, amount) -> {
+            var rating = RATINGS_BY_INTEREST_RATE.get(rate);
+            var hundredths = toHundredths(amount);
+            if (rating == null) {
+                unknown.merge(rate, hundredths, Long::sum);
+            } else {
+                this.investedPerRating[rating.ordinal()] += hundredths;
+            }
+        });
+        this.investedPerUnknownRate = Collections.unmodifiableMap(unknown);
+        this.invested = sum(this.investedPerRating, unknown);
+        this.investedAsMoney = toMoney(invested);
+    }
+
+    private PortfolioOverviewImpl(final PortfolioOverviewImpl original, final long[] investedPerRating,
+            final Map<Ratio, Long> investedPerUnknownRate) {
+        this.builtOn = original.builtOn;
+        this.profitability = original.profitability;
+        this.currency = original.currency;
+        this.investedPerRating = investedPerRating;
+        this.investedPerUnknownRate = investedPerUnknownRate;
+        this.invested = sum(investedPerRating, investedPerUnknownRate);
+        this.investedAsMoney = toMoney(invested);
+    }
+
+    private static long toHundredths(final Money amount) {
+        return amount.getValue()
+            .movePointRight(2)
+            .longValueExact();
+    }
+
+    private static long sum(final long[] investedPerRating, final Map<Ratio, Long> investedPerUnknownRate) {
+        var result = 0L;
+        for (var amount : investedPerRating) {
+            result += amount;
         }
+        for (var amount : investedPerUnknownRate.values()) {
+            result += amount;
+        }
+        return result;
+    }
+
+    private Money toMoney(final long hundredths) {
+        return Money.from(BigDecimal.valueOf(hundredths, 2), currency);
+    }
+
+    /**
+     * Derive a new overview, which differs from this one only in the given amount having been added.
+     * 
+     * @param rate   Interest rate to add the amount to.
+     * @param amount The amount to add.
+     * @return New instance with the same {@link #getBuiltOn()}.
+     */
+    PortfolioOverviewImpl withCharge(final Ratio rate, final Money amount) {
+        var hundredths = toHundredths(amount);
+        var rating = RATINGS_BY_INTEREST_RATE.get(rate);
+        if (rating == null) {
+            var unknown = new HashMap<>(investedPerUnknownRate);
+            unknown.merge(rate, hundredths, Long::sum);
+            return new PortfolioOverviewImpl(this, investedPerRating, Collections.unmodifiableMap(unknown));
+        }
+        var updated = investedPerRating.clone();
+        updated[rating.ordinal()] += hundredths;
+        return new PortfolioOverviewImpl(this, updated, investedPerUnknownRate);
+    }
+
+    /**
+     * @return When the amounts in this instance were last fully retrieved from the remote portfolio, as opposed to
+     *         being derived through {@link #withCharge(Ratio, Money)}.
+     */
+    ZonedDateTime getBuiltOn() {
+        return builtOn;
+    }
+
+    private long getInvestedHundredths(final Ratio r) {
+        var rating = RATINGS_BY_INTEREST_RATE.get(r);
+        if (rating == null) {
+            return investedPerUnknownRate.getOrDefault(r, 0L);
+        }
+        return investedPerRating[rating.ordinal()];
     }
 
     @Override
     public Money getInvested() {
-        return this.invested;
+        return investedAsMoney;
     }
 
     @Override
     public Money getInvested(final Ratio r) {
-        return this.investedPerRating.getOrDefault(r, invested.getZero());
+        return toMoney(getInvestedHundredths(r));
+    }
+
+    private Ratio calculateShare(final long hundredths) {
+        return Ratio.fromRaw(divide(BigDecimal.valueOf(hundredths, 2), investedAsMoney.getValue()));
+    }
+
+    private Ratio[] getShares() {
+        var result = shares;
+        if (result == null) {
+            result = new Ratio[RATINGS.length];
+            for (var i = 0; i < result.length; i++) {
+                result[i] = calculateShare(investedPerRating[i]);
+            }
+            shares = result;
+        }
+        return result;
+    }
+
+    @Override
+    public Ratio getShareOnInvestment(final Ratio r) {
+        if (invested == 0) {
+            return Ratio.ZERO;
+        }
+        var rating = RATINGS_BY_INTEREST_RATE.get(r);
+        if (rating == null) {
+            return calculateShare(investedPerUnknownRate.getOrDefault(r, 0L));
+        }
+        return getShares()[rating.ordinal()];
     }
 
     @Override
@@ -65,6 +207,40 @@ final class PortfolioOverviewImpl implements PortfolioOverview {
         return profitability;
     }
 
+    private Ratio calculateProfitability(final BiFunction<Rating, Money, Ratio> metric) {
+        if (invested == 0) {
+            return Ratio.ZERO;
+        }
+        var shares = getShares();
+        var result = BigDecimal.ZERO;
+        for (var rating : RATINGS) {
+            var ratingProfitability = metric.apply(rating, investedAsMoney);
+            result = plus(result,
+                    times(shares[rating.ordinal()].bigDecimalValue(), ratingProfitability.bigDecimalValue()));
+        }
+        return Ratio.fromRaw(result);
+    }
+
+    @Override
+    public Ratio getMinimalAnnualProfitability() {
+        var result = minimalProfitability;
+        if (result == null) {
+            result = calculateProfitability(Rating::getMinimalRevenueRate);
+            minimalProfitability = result;
+        }
+        return result;
+    }
+
+    @Override
+    public Ratio getOptimalAnnualProfitability() {
+        var result = optimalProfitability;
+        if (result == null) {
+            result = calculateProfitability(Rating::getMaximalRevenueRate);
+            optimalProfitability = result;
+        }
+        return result;
+    }
+
     @Override
     public ZonedDateTime getTimestamp() {
         return timestamp;
@@ -73,8 +249,9 @@ final class PortfolioOverviewImpl implements PortfolioOverview {
     @Override
     public String toString() {
         return "PortfolioOverviewImpl{" +
-                "czkInvested=" + invested +
-                ", czkInvestedPerRating=" + investedPerRating +
+                "czkInvested=" + investedAsMoney +
+                ", czkInvestedPerRating=" + Arrays.toString(investedPerRating) +
+                ", czkInvestedPerUnknownRate=" + investedPerUnknownRate +
                 ", profitability=" + profitability +
                 ", timestamp=" + timestamp +
                 '}';
@@ -89,12 +266,13 @@ final class PortfolioOverviewImpl implements PortfolioOverview {
             return false;
         }
         final PortfolioOverviewImpl that = (PortfolioOverviewImpl) o;
-        return Objects.equals(invested, that.invested) &&
-                Objects.equals(investedPerRating, that.investedPerRating);
+        return invested == that.invested &&
+                Arrays.equals(investedPerRating, that.investedPerRating) &&
+                Objects.equals(investedPerUnknownRate, that.investedPerUnknownRate);
     }
 
     @Override
     public int hashCode() {
-        return Objects.hash(invested, investedPerRating);
+        return Objects.hash(invested, Arrays.hashCode(investedPerRating), investedPerUnknownRate);
     }
 }
@@ -18,6 +18,7 @@ package com.github.robozonky.app.tenant;
 
 import java.util.Optional;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.function.Function;
 import java.util.function.Supplier;
 
@@ -52,7 +53,11 @@ class PowerTenantImpl implements PowerTenant {
     private final RemotePortfolio portfolio;
     private final ZonkyApiTokenSupplier token;
     private final StrategyProvider strategyProvider;
-    private final Supplier<Cache<Loan>> loanCache = Memoizer.memoize(() -> Cache.forLoan(this));
+    private final AtomicBoolean isLoanCacheStarted = new AtomicBoolean(false);
+    private final Supplier<Cache<Loan>> loanCache = Memoizer.memoize(() -> {
+        isLoanCacheStarted.set(true);
+        return Cache.forLoan(this);
+    });
     private final StatefulBoundedBalance balance;
     private final Supplier<Availability> availability;
 
@@ -122,11 +127,18 @@ class PowerTenantImpl implements PowerTenant {
 
     @Override
     public void close() {
+        if (isLoanCacheStarted.get()) { // Do not start the cache only to close it immediately.
+            loanCache.get()
+                .close();
+        }
+        balance.close();
         try {
             token.close();
         } catch (final Exception ex) {
             LOGGER.debug("Failed closing tenant {}.", this, ex);
         }
+        TenantState.of(getSessionInfo())
+            .close(); // Last, as the above may still change the state.
     }
 
     @Override
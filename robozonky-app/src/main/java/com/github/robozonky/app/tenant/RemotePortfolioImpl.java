@@ -36,14 +36,17 @@ import com.github.robozonky.api.strategies.PortfolioOverview;
 import com.github.robozonky.internal.async.Reloadable;
 import com.github.robozonky.internal.tenant.RemotePortfolio;
 import com.github.robozonky.internal.tenant.Tenant;
+import com.github.robozonky.internal.test.DateUtil;
 
 class RemotePortfolioImpl implements RemotePortfolio {
 
     private static final Logger LOGGER = LogManager.getLogger(RemotePortfolioImpl.class);
+    private static final Duration OVERVIEW_REBUILD_PERIOD = Duration.ofHours(1);
     private final Tenant tenant;
     private final Reloadable<RemoteData> remoteData;
-    private final Reloadable<PortfolioOverviewImpl> portfolioOverview;
     private final AtomicReference<Map<Integer, Blocked>> syntheticByLoanId = new AtomicReference<>(new HashMap<>(0));
+    private final Object portfolioOverviewLock = new Object();
+    private final AtomicReference<PortfolioOverviewImpl> portfolioOverview = new AtomicReference<>();
 
     public RemotePortfolioImpl(final Tenant tenant) {
         this.tenant = tenant;
@@ -51,12 +54,6 @@ class RemotePortfolioImpl implements RemotePortfolio {
             .reloadAfter(Duration.ofMinutes(5))
             .finishWith(this::refresh)
             .build();
-        this.portfolioOverview = Reloadable.with(() -> {
-            LOGGER.debug("Building new portfolio overview.");
-            return new PortfolioOverviewImpl(this);
-        })
-            .reloadAfter(Duration.ofHours(1))
-            .build();
     }
 
     private static void includeAmount(Map<Ratio, Money> amounts, Ratio rating, Money amount) {
@@ -69,28 +66,43 @@ class RemotePortfolioImpl implements RemotePortfolio {
             .filter(e -> e.getValue()
                 .isValid(data))
             .collect(toMap(Map.Entry::getKey, Map.Entry::getValue)));
+        // Force re-fetch of portfolio data now that the remote data has changed.
+        portfolioOverview.set(null);
     }
 
     @Override
     public void simulateCharge(final int loanId, final Ratio rating, final Money amount) {
-        refreshSynthetics(old -> {
-            final Map<Integer, Blocked> result = new LinkedHashMap<>(old);
-            /*
-             * synthetic blocked amounts are persistent only during dry runs; otherwise all synthetics will be removed
-             * after a remote update of blocked amounts.
-             */
-            result.put(loanId, new Blocked(loanId, amount, rating, tenant.getSessionInfo()
-                .isDryRun()));
-            return result;
-        });
+        /*
+         * synthetic blocked amounts are persistent only during dry runs; otherwise all synthetics will be removed
+         * after a remote update of blocked amounts.
+         */
+        var blocked = new Blocked(loanId, amount, rating, tenant.getSessionInfo()
+            .isDryRun());
+        synchronized (portfolioOverviewLock) {
+            var previous = refreshSynthetics(old -> {
+                final Map<Integer, Blocked> result = new LinkedHashMap<>(old);
+                result.put(loanId, blocked);
+                return result;
+            }).get(loanId);
+            portfolioOverview.updateAndGet(current -> {
+                if (current == null || previous != null) {
+                    /*
+                     * Either there is nothing to update, or the previous charge of this loan may or may not have been
+                     * part of the overview. Either way, the next overview will be built from scratch.
+                     */
+                    return null;
+                }
+                // The new synthetic is more recent than any remote data, and therefore counts.
+                return current.withCharge(blocked.getInterestRate(), blocked.getAmount());
+            });
+        }
     }
 
-    private void refreshSynthetics(UnaryOperator<Map<Integer, Blocked>> refresher) {
-        LOGGER.debug("Current synthetics: {}.", syntheticByLoanId.get());
-        var updatedSynthetics = syntheticByLoanId.updateAndGet(refresher);
-        // Force re-fetch of portfolio data now that we have registered a change.
-        portfolioOverview.clear();
-        LOGGER.debug("New synthetics: {}", updatedSynthetics);
+    private Map<Integer, Blocked> refreshSynthetics(UnaryOperator<Map<Integer, Blocked>> refresher) {
+        var originalSynthetics = syntheticByLoanId.getAndUpdate(refresher);
+        LOGGER.debug("Previous synthetics: {}.", originalSynthetics);
+        LOGGER.debug("New synthetics: {}", syntheticByLoanId.get());
+        return originalSynthetics;
     }
 
     RemoteData getRemoteData() {
@@ -122,7 +134,27 @@ class RemotePortfolioImpl implements RemotePortfolio {
 
     @Override
     public PortfolioOverview getOverview() {
-        return portfolioOverview.get()
-            .getOrElseThrow(ex -> new IllegalStateException("Failed loading portfolio overview.", ex));
+        var current = portfolioOverview.get();
+        if (needsRebuild(current)) { // double-checked locking to make sure the rebuild only happens once
+            synchronized (portfolioOverviewLock) {
+                current = portfolioOverview.get();
+                if (needsRebuild(current)) {
+                    LOGGER.debug("Building new portfolio overview.");
+                    try {
+                        current = new PortfolioOverviewImpl(this);
+                    } catch (Exception ex) {
+                        throw new IllegalStateException("Failed loading portfolio overview.", ex);
+                    }
+                    portfolioOverview.set(current);
+                }
+            }
+        }
+        return current;
+    }
+
+    private static boolean needsRebuild(final PortfolioOverviewImpl overview) {
+        return overview == null || overview.getBuiltOn()
+            .plus(OVERVIEW_REBUILD_PERIOD)
+            .isBefore(DateUtil.zonedNow());
     }
 }
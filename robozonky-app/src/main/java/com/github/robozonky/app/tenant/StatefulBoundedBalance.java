@@ -19,6 +19,10 @@ package com.github.robozonky.app.tenant;
 import java.time.Duration;
 import java.time.Instant;
 import java.time.ZonedDateTime;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicReference;
 
 import org.apache.logging.log4j.LogManager;
@@ -42,20 +46,34 @@ import com.github.robozonky.internal.test.DateUtil;
  * The external code is expected to {@link #set(Money)} whatever value it thinks may still be available. For example, if
  * we attempt to invest 600 and Zonky gives us an insufficient balance error, we should {@link #set(Money)} 599 as that
  * is a value that can still be available.
+ * <p>
+ * The balance is only ever read and written in memory. Changes are written to {@link InstanceState} in the background,
+ * at most {@link #FLUSH_DELAY} after they happened, and when {@link #close()} is called. Many changes in quick
+ * succession therefore result in a single write.
  */
 final class StatefulBoundedBalance {
 
     static final Money MAXIMUM = Money.from(Integer.MAX_VALUE);
     private static final Duration BALANCE_INCREASE_INTERVAL_STEP = Duration.ofMinutes(10);
+    static final Duration FLUSH_DELAY = Duration.ofSeconds(5);
     private static final String VALUE_KEY = "lastKnownUpperBound";
     private static final Logger LOGGER = LogManager.getLogger(StatefulBoundedBalance.class);
 
     private final InstanceState<StatefulBoundedBalance> state;
     private final AtomicReference<Money> currentValue = new AtomicReference<>();
     private final AtomicReference<ZonedDateTime> lastModificationDate = new AtomicReference<>();
+    private final AtomicBoolean isDirty = new AtomicBoolean(false);
+    private final AtomicBoolean isFlushScheduled = new AtomicBoolean(false);
+    private final Object flushLock = new Object();
+    private final Executor flushExecutor;
 
     public StatefulBoundedBalance(final Tenant tenant) {
+        this(tenant, CompletableFuture.delayedExecutor(FLUSH_DELAY.toNanos(), TimeUnit.NANOSECONDS));
+    }
+
+    StatefulBoundedBalance(final Tenant tenant, final Executor flushExecutor) {
         this.state = tenant.getState(StatefulBoundedBalance.class);
+        this.flushExecutor = flushExecutor;
         reloadFromState();
     }
 
@@ -75,11 +93,43 @@ final class StatefulBoundedBalance {
         var newValue = value.max(Money.from(1));
         currentValue.set(newValue);
         lastModificationDate.set(DateUtil.zonedNow());
-        state.update(m -> m.put(VALUE_KEY, newValue.getValue()
-            .toPlainString()));
+        isDirty.set(true);
+        if (isFlushScheduled.compareAndSet(false, true)) { // Otherwise the scheduled flush will pick up this value.
+            flushExecutor.execute(this::flush);
+        }
         return newValue;
     }
 
+    /**
+     * Write the latest balance to {@link InstanceState}, unless there was no change since the last time. Never called
+     * while holding the lock on this instance, so that the investing thread is not blocked by the disk I/O.
+     */
+    void flush() {
+        synchronized (flushLock) {
+            isFlushScheduled.set(false); // Any change from now on will schedule another flush.
+            if (!isDirty.getAndSet(false)) {
+                LOGGER.trace("Balance already stored.");
+                return;
+            }
+            var value = currentValue.get();
+            try {
+                state.update(m -> m.put(VALUE_KEY, value.getValue()
+                    .toPlainString()));
+                LOGGER.trace("Stored balance of {}.", value);
+            } catch (final Exception ex) {
+                isDirty.set(true); // Retry with the next flush.
+                LOGGER.debug("Failed storing balance of {}.", value, ex);
+            }
+        }
+    }
+
+    /**
+     * Store the latest balance immediately, so that it survives the robot's restart.
+     */
+    public void close() {
+        flush();
+    }
+
     private Duration getTimeBetweenLastBalanceCheckAndNow() {
         var lastModified = lastModificationDate.get();
         return Duration.between(DateUtil.zonedNow(), lastModified)
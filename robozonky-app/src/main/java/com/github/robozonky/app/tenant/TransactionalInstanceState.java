@@ -18,7 +18,9 @@ package com.github.robozonky.app.tenant;
 
 import java.util.Collection;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
 import java.util.function.Consumer;
+import java.util.function.Supplier;
 import java.util.stream.Stream;
 
 import org.apache.logging.log4j.LogManager;
@@ -29,7 +31,8 @@ import com.github.robozonky.internal.state.StateModifier;
 
 /**
  * Delegates to default {@link InstanceState} implementation, except for {@link #update(Consumer)} and
- * {@link #reset(Consumer)}, which are stored for later.
+ * {@link #reset(Consumer)}, which are stored for later. When they are eventually replayed, they do not wait for
+ * persistence, so that the entire transaction can be persisted at once.
  * 
  * @param <T>
  */
@@ -37,10 +40,11 @@ final class TransactionalInstanceState<T> implements InstanceState<T> {
 
     private static final Logger LOGGER = LogManager.getLogger(TransactionalInstanceState.class);
 
-    private final Collection<Runnable> stateUpdates;
+    private final Collection<Supplier<CompletableFuture<Boolean>>> stateUpdates;
     private final InstanceState<T> parent;
 
-    public TransactionalInstanceState(final Collection<Runnable> stateUpdates, final InstanceState<T> parent) {
+    public TransactionalInstanceState(final Collection<Supplier<CompletableFuture<Boolean>>> stateUpdates,
+            final InstanceState<T> parent) {
         this.stateUpdates = stateUpdates;
         this.parent = parent;
     }
@@ -48,13 +52,13 @@ final class TransactionalInstanceState<T> implements InstanceState<T> {
     @Override
     public void update(final Consumer<StateModifier<T>> modifier) {
         LOGGER.debug("Updating transactional instance state for {}.", parent);
-        stateUpdates.add(() -> parent.update(modifier));
+        stateUpdates.add(() -> parent.updateAsync(modifier));
     }
 
     @Override
     public void reset(final Consumer<StateModifier<T>> setter) {
         LOGGER.debug("Resetting transactional instance state for {}.", parent);
-        stateUpdates.add(() -> parent.reset(setter));
+        stateUpdates.add(() -> parent.resetAsync(setter));
     }
 
     @Override
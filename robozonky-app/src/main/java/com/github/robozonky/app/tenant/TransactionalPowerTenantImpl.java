@@ -16,11 +16,13 @@
 
 package com.github.robozonky.app.tenant;
 
+import java.util.ArrayList;
 import java.util.Optional;
 import java.util.Queue;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.function.Function;
+import java.util.function.Supplier;
 
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
@@ -47,7 +49,7 @@ class TransactionalPowerTenantImpl implements TransactionalPowerTenant {
     private final PowerTenant parent;
     private final Reloadable<DelayedFiring> delayedFiring = Reloadable.with(DelayedFiring::new)
         .build();
-    private final Queue<Runnable> stateUpdates = new ConcurrentLinkedQueue<>();
+    private final Queue<Supplier<CompletableFuture<Boolean>>> stateUpdates = new ConcurrentLinkedQueue<>();
 
     public TransactionalPowerTenantImpl(final PowerTenant parent) {
         this.parent = parent;
@@ -83,10 +85,14 @@ class TransactionalPowerTenantImpl implements TransactionalPowerTenant {
     @Override
     public void commit() {
         LOGGER.debug("Replaying transaction.");
+        var persisted = new ArrayList<CompletableFuture<Boolean>>(stateUpdates.size());
         while (!stateUpdates.isEmpty()) {
-            stateUpdates.poll()
-                .run();
+            persisted.add(stateUpdates.poll()
+                .get());
         }
+        // Wait for all the updates at once, so that they can be persisted together.
+        CompletableFuture.allOf(persisted.toArray(CompletableFuture[]::new))
+            .join();
         getDelayedFiring().run();
         LOGGER.debug("Done.");
     }
@@ -17,7 +17,12 @@
 package com.github.robozonky.app.tenant;
 
 import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
 import java.util.function.Supplier;
 
 import javax.ws.rs.BadRequestException;
@@ -41,18 +46,24 @@ class ZonkyApiTokenSupplier implements Supplier<ZonkyApiToken>,
 
     private static final Logger LOGGER = LogManager.getLogger(ZonkyApiTokenSupplier.class);
     private static final Duration ONE_HOUR = Duration.ofHours(1);
+    private static final Duration MAX_WRITE_WAIT = Duration.ofSeconds(10);
 
     private final SecretProvider secrets;
     private final ApiProvider apis;
     private final Reloadable<ZonkyApiToken> token;
     private final AtomicBoolean isClosed = new AtomicBoolean(false);
+    /**
+     * Completes once all the tokens set so far have been written, so that closing does not lose the latest token.
+     */
+    private final AtomicReference<CompletableFuture<Boolean>> tokenWrites = new AtomicReference<>(
+            CompletableFuture.completedFuture(true));
 
     public ZonkyApiTokenSupplier(final ApiProvider apis, final SecretProvider secrets) {
         this.apis = apis;
         this.secrets = secrets;
         this.token = Reloadable.with(this::refreshOrFail)
             .reloadAfter(ZonkyApiTokenSupplier::reloadAfter)
-            .finishWith(secrets::setToken)
+            .finishWith(this::setToken) // Served from memory; the refresh need not wait for the disk.
             .build();
     }
 
@@ -69,6 +80,11 @@ class ZonkyApiTokenSupplier implements Supplier<ZonkyApiToken>,
         }
     }
 
+    private void setToken(final ZonkyApiToken token) {
+        var write = secrets.setTokenAsync(token);
+        tokenWrites.updateAndGet(previous -> previous.thenCombine(write, (before, after) -> after));
+    }
+
     private static NotAuthorizedException createException(final String message) {
         var response = Response.status(401, message)
             .build();
@@ -91,7 +107,7 @@ class ZonkyApiTokenSupplier implements Supplier<ZonkyApiToken>,
 
     private ZonkyApiToken refreshOrFail(final ZonkyApiToken token) {
         if (token.isExpired()) {
-            secrets.setToken(null);
+            setToken(null);
             throw createException("Token expired.");
         }
         LOGGER.debug(() -> "Current token for '" + secrets.getUsername() +
@@ -99,7 +115,7 @@ class ZonkyApiTokenSupplier implements Supplier<ZonkyApiToken>,
         var newToken = apis.oauth(oauth -> oauth.refresh(token));
         LOGGER.info(() -> "Refreshed access token for '" + secrets.getUsername() +
                 "' expiring on " + DateUtil.toString(newToken.getExpiresOn()) + ".");
-        secrets.setToken(newToken);
+        setToken(newToken);
         return newToken;
     }
 
@@ -116,9 +132,23 @@ class ZonkyApiTokenSupplier implements Supplier<ZonkyApiToken>,
             .getOrElseThrow(ZonkyApiTokenSupplier::createException);
     }
 
+    /**
+     * Stops serving the token and waits for the latest token to be written, since the refresh token it contains may be
+     * the only one that is still valid.
+     */
     @Override
     public void close() {
         isClosed.set(true);
+        try {
+            tokenWrites.get()
+                .get(MAX_WRITE_WAIT.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (final InterruptedException ex) {
+            Thread.currentThread()
+                .interrupt();
+            LOGGER.warn("Interrupted while waiting for the token to be written.", ex);
+        } catch (final ExecutionException | TimeoutException ex) {
+            LOGGER.warn("Token may not have been written.", ex);
+        }
         LOGGER.debug("Token closed.");
     }
 }
@@ -0,0 +1,116 @@
+/*
+ * Copyright 2020 The RoboZonky Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.robozonky.app.daemon;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
+import static org.mockito.Mockito.*;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+
+import com.github.robozonky.api.remote.entities.ParticipationDetail;
+import com.github.robozonky.internal.Defaults;
+import com.github.robozonky.internal.remote.entities.ParticipationDetailImpl;
+import com.github.robozonky.test.AbstractMinimalRoboZonkyTest;
+
+class ParticipationDetailCacheTest extends AbstractMinimalRoboZonkyTest {
+
+    private final AtomicInteger loads = new AtomicInteger();
+    private final ParticipationDetailCache cache = new ParticipationDetailCache(Duration.ofMinutes(5), loanId -> {
+        loads.incrementAndGet();
+        return mock(ParticipationDetailImpl.class);
+    });
+
+    @Test
+    void expires() {
+        var now = Instant.now();
+        setClock(Clock.fixed(now, Defaults.ZONKYCZ_ZONE_ID));
+        ParticipationDetail first = cache.get(1);
+        assertThat(cache.get(1)).isSameAs(first);
+        assertThat(loads).hasValue(1);
+        setClock(Clock.fixed(now.plus(Duration.ofMinutes(6)), Defaults.ZONKYCZ_ZONE_ID));
+        assertThat(cache.get(1)).isNotSameAs(first);
+        assertThat(loads).hasValue(2);
+    }
+
+    @Test
+    void forgetsWhatIsGone() {
+        var now = Instant.now();
+        setClock(Clock.fixed(now, Defaults.ZONKYCZ_ZONE_ID));
+        cache.get(1);
+        cache.get(2);
+        var previousFullCheck = now.plusSeconds(1);
+        setClock(Clock.fixed(previousFullCheck.plusSeconds(1), Defaults.ZONKYCZ_ZONE_ID));
+        cache.markSeen(2); // Only the second participation remains on the marketplace.
+        cache.retainSeenSince(previousFullCheck);
+        assertThat(cache.size()).isEqualTo(1);
+        cache.get(2);
+        assertThat(loads).hasValue(2);
+        cache.get(1);
+        assertThat(loads).hasValue(3);
+    }
+
+    @Test
+    void failuresNotCached() {
+        var failing = new ParticipationDetailCache(Duration.ofMinutes(5), loanId -> {
+            loads.incrementAndGet();
+            throw new IllegalStateException();
+        });
+        assertThatThrownBy(() -> failing.get(1)).isInstanceOf(IllegalStateException.class);
+        assertThatThrownBy(() -> failing.get(1)).isInstanceOf(IllegalStateException.class);
+        assertThat(loads).hasValue(2);
+        assertThat(failing.size()).isZero();
+    }
+
+    @Test
+    void loadsOutsideOfTheMap() throws InterruptedException {
+        var loading = new CountDownLatch(1);
+        var release = new CountDownLatch(1);
+        var slow = new ParticipationDetailCache(Duration.ofMinutes(5), loanId -> {
+            loads.incrementAndGet();
+            if (loanId == 1) {
+                loading.countDown();
+                try {
+                    release.await();
+                } catch (final InterruptedException ex) {
+                    Thread.currentThread()
+                        .interrupt();
+                }
+            }
+            return mock(ParticipationDetailImpl.class);
+        });
+        var first = CompletableFuture.supplyAsync(() -> slow.get(1));
+        loading.await();
+        var second = CompletableFuture.supplyAsync(() -> slow.get(1));
+        // Neither another loan nor the housekeeping waits for the slow load.
+        assertTimeoutPreemptively(Duration.ofSeconds(5), () -> {
+            slow.get(2);
+            slow.retainSeenSince(Instant.EPOCH);
+        });
+        assertThat(second).isNotDone();
+        release.countDown();
+        assertThat(first.join()).isSameAs(second.join());
+        assertThat(loads).hasValue(2);
+    }
+}
@@ -34,6 +34,7 @@ import com.github.robozonky.api.remote.entities.Investment;
 import com.github.robozonky.api.remote.enums.SellStatus;
 import com.github.robozonky.app.AbstractZonkyLeveragingTest;
 import com.github.robozonky.internal.jobs.TenantPayload;
+import com.github.robozonky.internal.remote.PortfolioListing;
 import com.github.robozonky.internal.remote.Zonky;
 import com.github.robozonky.internal.remote.entities.InvestmentImpl;
 import com.github.robozonky.internal.tenant.Tenant;
@@ -54,6 +55,7 @@ class SaleCheckTest extends AbstractZonkyLeveragingTest {
     @Test
     void nothingIsOffered() {
         sut.accept(tenant);
+        verify(zonky, never()).getPortfolioSnapshot(any(), anyBoolean());
     }
 
     @Nested
@@ -96,6 +98,7 @@ class SaleCheckTest extends AbstractZonkyLeveragingTest {
                 softly.assertThat(cache.wasOnceSold(onSmp.getId()))
                     .isFalse();
             });
+            verify(zonky).getPortfolioSnapshot(PortfolioListing.SOLD, true);
             final List<Event> events = getEventsRequested();
             assertThat(events)
                 .hasSize(1)
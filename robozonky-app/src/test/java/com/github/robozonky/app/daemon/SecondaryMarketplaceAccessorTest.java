@@ -35,9 +35,11 @@ import com.github.robozonky.api.strategies.ParticipationDescriptor;
 import com.github.robozonky.app.AbstractZonkyLeveragingTest;
 import com.github.robozonky.app.tenant.PowerTenant;
 import com.github.robozonky.internal.Defaults;
+import com.github.robozonky.internal.Settings;
 import com.github.robozonky.internal.remote.Select;
 import com.github.robozonky.internal.remote.Zonky;
 import com.github.robozonky.internal.remote.entities.LastPublishedItemImpl;
+import com.github.robozonky.internal.remote.entities.ParticipationDetailImpl;
 import com.github.robozonky.internal.remote.entities.ParticipationImpl;
 import com.github.robozonky.internal.test.DateUtil;
 import com.github.robozonky.test.mock.MockLoanBuilder;
@@ -65,6 +67,37 @@ class SecondaryMarketplaceAccessorTest extends AbstractZonkyLeveragingTest {
             .containsExactly(p, l);
     }
 
+    @Test
+    void fetchesDetailOncePerTimeToLive() {
+        final Instant now = Instant.now();
+        setClock(Clock.fixed(now, Defaults.ZONKYCZ_ZONE_ID));
+        final Loan l = new MockLoanBuilder().build();
+        int loanId = l.getId();
+        final Participation p = mock(ParticipationImpl.class);
+        when(p.getId()).thenReturn(1l);
+        when(p.getLoanId()).thenReturn(loanId);
+        final Zonky zonky = harmlessZonky();
+        when(zonky.getLoan(eq(loanId))).thenReturn(l);
+        when(zonky.getAvailableParticipations(any())).thenAnswer(i -> Stream.of(p));
+        when(zonky.getParticipationDetail(eq(loanId))).thenReturn(mock(ParticipationDetailImpl.class));
+        final PowerTenant tenant = mockTenant(zonky);
+        final AbstractMarketplaceAccessor<ParticipationDescriptor> d = new SecondaryMarketplaceAccessor(tenant,
+                UnaryOperator.identity());
+        for (int i = 0; i < 3; i++) { // Every marketplace check brings new descriptors, each asking repeatedly.
+            d.getMarketplace()
+                .forEach(descriptor -> {
+                    descriptor.detail();
+                    descriptor.detail();
+                });
+        }
+        verify(zonky, times(1)).getParticipationDetail(eq(loanId));
+        setClock(Clock.fixed(now.plus(Settings.INSTANCE.getParticipationDetailCacheTtl())
+            .plusSeconds(1), Defaults.ZONKYCZ_ZONE_ID));
+        d.getMarketplace()
+            .forEach(ParticipationDescriptor::detail);
+        verify(zonky, times(2)).getParticipationDetail(eq(loanId));
+    }
+
     @Test
     void detectsUpdates() {
         final Zonky z = harmlessZonky();
@@ -0,0 +1,140 @@
+/*
+ * Copyright 2020 The RoboZonky Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.robozonky.app.daemon;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.assertj.core.api.SoftAssertions.assertSoftly;
+import static org.mockito.Mockito.*;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.github.robozonky.api.remote.entities.ZonkyApiToken;
+import com.github.robozonky.api.remote.enums.Rating;
+import com.github.robozonky.app.AbstractZonkyLeveragingTest;
+import com.github.robozonky.app.ReturnCode;
+import com.github.robozonky.app.runtime.Lifecycle;
+import com.github.robozonky.app.tenant.PowerTenant;
+import com.github.robozonky.internal.Settings;
+import com.github.robozonky.internal.remote.ApiProvider;
+import com.github.robozonky.test.simulator.LatencyDistribution;
+import com.github.robozonky.test.simulator.LoanArrivals;
+import com.github.robozonky.test.simulator.ZonkySimulator;
+
+/**
+ * Runs the entire {@link Daemon}, with strategies that accept everything, against the simulated Zonky. Reports how
+ * long it took the robot to invest into a newly published loan or to purchase a newly offered participation, and how
+ * much CPU time the robot took per tick of investing or purchasing.
+ */
+class SimulatedDaemonTest extends AbstractZonkyLeveragingTest {
+
+    private static final Duration RUNNING_TIME = Duration.ofSeconds(5);
+
+    private final LongAdder ticks = new LongAdder();
+    private ZonkySimulator simulator;
+    private ApiProvider apiProvider;
+
+    private static double getMeanMillis(final Iterable<Duration> durations) {
+        var sum = 0L;
+        var count = 0;
+        for (var duration : durations) {
+            sum += duration.toMillis();
+            count++;
+        }
+        return count == 0 ? 0 : sum / (double) count;
+    }
+
+    @BeforeEach
+    void startSimulator() {
+        simulator = ZonkySimulator.start();
+        System.setProperty(Settings.Key.ZONKY_API_URL.getName(), simulator.getUrl());
+        apiProvider = new ApiProvider();
+    }
+
+    @AfterEach
+    void stopSimulator() {
+        apiProvider.close();
+        System.clearProperty(Settings.Key.ZONKY_API_URL.getName());
+        simulator.close();
+    }
+
+    private PowerTenant createTenant() {
+        ZonkyApiToken token = apiProvider.oauth(oauth -> oauth.login("code".toCharArray()));
+        var zonky = apiProvider.call(Function.identity(), () -> token);
+        var tenant = mockTenant(zonky, false);
+        var availability = tenant.getAvailability();
+        doReturn(true).when(availability)
+            .isAvailable(); // Wake up on marketplace changes only, as the robot would.
+        doAnswer(i -> {
+            ticks.increment();
+            return Optional.of(StrategyExecutorTest.ALL_ACCEPTING_INVESTMENT_STRATEGY);
+        }).when(tenant)
+            .getInvestmentStrategy();
+        doAnswer(i -> {
+            ticks.increment();
+            return Optional.of(StrategyExecutorTest.ALL_ACCEPTING_PURCHASE_STRATEGY);
+        }).when(tenant)
+            .getPurchaseStrategy();
+        return tenant;
+    }
+
+    @Test
+    void investsAndPurchases() throws Exception {
+        simulator.setLatency(LatencyDistribution.uniform(Duration.ZERO, Duration.ofMillis(5)));
+        simulator.setLoanArrivals(LoanArrivals.burst(10, Duration.ZERO)
+            .and(LoanArrivals.steady(2)));
+        simulator.setParticipationArrivals(LoanArrivals.burst(10, Duration.ZERO)
+            .and(LoanArrivals.steady(2)));
+        var lifecycle = new Lifecycle();
+        var executor = Executors.newSingleThreadExecutor();
+        try (var daemon = new Daemon(createTenant(), lifecycle)) {
+            var result = executor.submit(daemon::get);
+            Thread.sleep(RUNNING_TIME.toMillis());
+            lifecycle.resumeToShutdown();
+            assertThat(result.get(10, TimeUnit.SECONDS)).isEqualTo(ReturnCode.OK);
+        } finally {
+            executor.shutdownNow();
+        }
+        var statistics = simulator.getStatistics();
+        var timesToInvest = statistics.getTimesToInvest();
+        var timesToPurchase = statistics.getTimesToPurchase();
+        var tickCount = ticks.sum();
+        logger.info("{} investments, mean time to invest {} ms.", timesToInvest.size(),
+                getMeanMillis(timesToInvest));
+        logger.info("{} purchases, mean time to purchase {} ms.", timesToPurchase.size(),
+                getMeanMillis(timesToPurchase));
+        logger.info("{} ticks, CPU time per tick {}.", tickCount, statistics.getProcessCpuTime()
+            .dividedBy(Math.max(1, tickCount)));
+        logger.info("Simulator: {}.", statistics);
+        assertSoftly(softly -> {
+            softly.assertThat(timesToInvest)
+                .isNotEmpty();
+            softly.assertThat(timesToPurchase)
+                .isNotEmpty();
+            softly.assertThat(tickCount)
+                .isPositive();
+        });
+    }
+}
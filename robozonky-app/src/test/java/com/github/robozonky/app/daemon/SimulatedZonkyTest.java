@@ -0,0 +1,165 @@
+/*
+ * Copyright 2020 The RoboZonky Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.robozonky.app.daemon;
+
+import static org.assertj.core.api.Assertions.*;
+
+import java.time.Duration;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import javax.ws.rs.ClientErrorException;
+import javax.ws.rs.NotAuthorizedException;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.github.robozonky.api.remote.entities.Investment;
+import com.github.robozonky.api.remote.entities.Loan;
+import com.github.robozonky.api.remote.entities.Participation;
+import com.github.robozonky.api.remote.entities.ZonkyApiToken;
+import com.github.robozonky.api.remote.enums.Rating;
+import com.github.robozonky.internal.Settings;
+import com.github.robozonky.internal.remote.ApiProvider;
+import com.github.robozonky.internal.remote.Select;
+import com.github.robozonky.internal.remote.Zonky;
+import com.github.robozonky.test.simulator.LatencyDistribution;
+import com.github.robozonky.test.simulator.LoanArrivals;
+import com.github.robozonky.test.simulator.ZonkySimulator;
+
+/**
+ * Runs the real API client stack against the simulated Zonky.
+ */
+class SimulatedZonkyTest {
+
+    private ZonkySimulator simulator;
+    private ApiProvider apiProvider;
+
+    @BeforeEach
+    void startSimulator() {
+        simulator = ZonkySimulator.start();
+        System.setProperty(Settings.Key.ZONKY_API_URL.getName(), simulator.getUrl());
+        apiProvider = new ApiProvider();
+    }
+
+    @AfterEach
+    void stopSimulator() {
+        apiProvider.close();
+        System.clearProperty(Settings.Key.ZONKY_API_URL.getName());
+        simulator.close();
+    }
+
+    private <T> T call(final Function<Zonky, T> operation) {
+        var token = apiProvider.oauth(oauth -> oauth.login("code".toCharArray()));
+        return apiProvider.call(operation, () -> token);
+    }
+
+    @Test
+    void marketplaceAndInvesting() {
+        simulator.setLatency(LatencyDistribution.uniform(Duration.ZERO, Duration.ofMillis(2)));
+        var pageSize = Settings.INSTANCE.getDefaultApiPageSize();
+        for (var i = 0; i < pageSize + 1; i++) {
+            simulator.publishLoan(Rating.AAAA, 100_000);
+        }
+        var loans = call(zonky -> zonky.getAvailableLoans(Select.unrestricted())
+            .collect(Collectors.toList()));
+        assertThat(loans).hasSize(pageSize + 1);
+        var newest = loans.get(0);
+        assertThat(newest.getInterestRate()).isEqualTo(Rating.AAAA.getInterestRate());
+        call(zonky -> {
+            zonky.invest(newest, 200);
+            return null;
+        });
+        Loan invested = call(zonky -> zonky.getLoan(newest.getId()));
+        assertThat(invested.getMyInvestment()).isPresent();
+        var investments = call(zonky -> zonky.getInvestments(Select.unrestricted())
+            .collect(Collectors.toList()));
+        assertThat(investments).extracting(i -> i.getLoan()
+            .getId())
+            .containsOnly(newest.getId());
+        assertThat(investments).extracting(Investment::getSellStatus)
+            .doesNotContainNull();
+        var statistics = simulator.getStatistics();
+        assertThat(statistics.getTimesToInvest()).hasSize(1);
+        assertThat(statistics.getRequests()).containsEntry("GET /loans/marketplace", 2L)
+            .containsEntry("POST /marketplace/investment", 1L);
+    }
+
+    @Test
+    void secondaryMarketplace() {
+        simulator.publishParticipation(Rating.B, 400);
+        var newestId = simulator.publishParticipation(Rating.AAAA, 600);
+        var lastPublished = call(Zonky::getLastPublishedParticipationInfo);
+        assertThat(lastPublished.getId()).isEqualTo(newestId);
+        var participations = call(zonky -> zonky.getAvailableParticipations(Select.unrestricted())
+            .collect(Collectors.toList()));
+        assertThat(participations).hasSize(2);
+        var newest = participations.get(0);
+        assertThat(newest.getId()).isEqualTo(newestId);
+        var detail = call(zonky -> zonky.getParticipationDetail(newest.getLoanId()));
+        assertThat(detail.getInterestRate()).isEqualTo(Rating.AAAA.getInterestRate());
+        Loan loan = call(zonky -> zonky.getLoan(newest.getLoanId()));
+        assertThat(loan.getRemainingInvestment()
+            .isZero()).isTrue(); // Not on the primary marketplace.
+        call(zonky -> {
+            zonky.purchase(newest);
+            return null;
+        });
+        var remaining = call(zonky -> zonky.getAvailableParticipations(Select.unrestricted())
+            .collect(Collectors.toList()));
+        assertThat(remaining).extracting(Participation::getId)
+            .doesNotContain(newestId);
+        var statistics = simulator.getStatistics();
+        assertThat(statistics.getParticipationsPublished()).isEqualTo(2);
+        assertThat(statistics.getTimesToPurchase()).hasSize(1);
+    }
+
+    @Test
+    void scriptedArrivals() throws InterruptedException {
+        simulator.setLoanArrivals(LoanArrivals.burst(5, Duration.ZERO)
+            .and(LoanArrivals.steady(100)));
+        var statistics = simulator.getStatistics();
+        for (var i = 0; i < 50 && statistics.getLoansPublished() < 10; i++) {
+            Thread.sleep(100);
+        }
+        assertThat(statistics.getLoansPublished()).isGreaterThanOrEqualTo(10);
+        var lastPublished = call(Zonky::getLastPublishedLoanInfo);
+        assertThat(lastPublished.getId()).isPositive();
+    }
+
+    @Test
+    void throttled() {
+        simulator.setThrottlingProbability(1);
+        assertThatThrownBy(() -> call(Zonky::getLastPublishedLoanInfo))
+            .isInstanceOf(ClientErrorException.class);
+        assertThat(simulator.getStatistics()
+            .getThrottledCount()).isEqualTo(1);
+    }
+
+    @Test
+    void expiredToken() {
+        simulator.setTokenLifetime(Duration.ZERO);
+        ZonkyApiToken token = apiProvider.oauth(oauth -> oauth.login("code".toCharArray()));
+        assertThatThrownBy(() -> apiProvider.call(Zonky::getLastPublishedLoanInfo, () -> token))
+            .isInstanceOf(NotAuthorizedException.class);
+        assertThat(simulator.getStatistics()
+            .getUnauthorizedCount()).isEqualTo(1);
+        var refreshed = apiProvider.oauth(oauth -> oauth.refresh(token));
+        assertThat(refreshed).isNotNull();
+    }
+}
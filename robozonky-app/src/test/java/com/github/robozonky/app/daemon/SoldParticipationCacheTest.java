@@ -94,10 +94,17 @@ class SoldParticipationCacheTest extends AbstractZonkyLeveragingTest {
         instance.markAsOffered(1);
         instance.markAsOffered(i1.getId());
         assertThat(instance.getOffered()).containsOnly(1L, i1.getId());
+        assertThat(instance.isOffered(1)).isTrue();
+        SoldParticipationCache.resetAll();
+        final SoldParticipationCache reloaded = SoldParticipationCache.forTenant(tenant);
+        assertThat(reloaded).isNotSameAs(instance);
+        assertThat(reloaded.getOffered()).containsOnly(1L, i1.getId()); // Read back from the state.
         instance.markAsSold(1);
         assertSoftly(softly -> {
             softly.assertThat(instance.getOffered())
                 .containsOnly(i1.getId());
+            softly.assertThat(instance.isOffered(1))
+                .isFalse();
             softly.assertThat(instance.wasOnceSold(1))
                 .isTrue();
             softly.assertThat(instance.wasOnceSold(i1.getId()))
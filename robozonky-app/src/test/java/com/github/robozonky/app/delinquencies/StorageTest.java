@@ -19,12 +19,13 @@ package com.github.robozonky.app.delinquencies;
 import static org.assertj.core.api.Assertions.*;
 import static org.assertj.core.api.Assumptions.assumeThat;
 
-import java.util.Collections;
 import java.util.UUID;
+import java.util.stream.Stream;
 
 import org.junit.jupiter.api.Test;
 
 import com.github.robozonky.internal.remote.Zonky;
+import com.github.robozonky.internal.state.SortedLongSet;
 import com.github.robozonky.internal.tenant.Tenant;
 import com.github.robozonky.test.AbstractRoboZonkyTest;
 
@@ -45,6 +46,18 @@ class StorageTest extends AbstractRoboZonkyTest {
         assertThat(s2.isKnown(id)).isTrue();
     }
 
+    @Test
+    void readsLegacyFormat() {
+        final String uid = UUID.randomUUID()
+            .toString();
+        tenant.getState(Storage.class)
+            .update(m -> m.put(uid, Stream.of("3", "1")));
+        final Storage s = new Storage(tenant, uid);
+        assertThat(s.isKnown(1)).isTrue();
+        assertThat(s.isKnown(2)).isFalse();
+        assertThat(s.isKnown(3)).isTrue();
+    }
+
     @Test
     void doesNotAddTwice() {
         final long id = 1;
@@ -62,8 +75,8 @@ class StorageTest extends AbstractRoboZonkyTest {
         final long id = 1;
         final Storage s = new Storage(tenant, UUID.randomUUID()
             .toString());
-        assertThat(s.complement(Collections.emptySet())).isEmpty();
-        assertThat(s.complement(Collections.singleton(id))).isEmpty();
+        assertThat(s.complement(SortedLongSet.empty())).isEmpty();
+        assertThat(s.complement(SortedLongSet.of(id))).isEmpty();
     }
 
     @Test
@@ -74,9 +87,9 @@ class StorageTest extends AbstractRoboZonkyTest {
         s.add(id);
         s.persist();
         // start the test
-        assertThat(s.complement(Collections.emptySet())).containsOnly(id);
-        assertThat(s.complement(Collections.singleton(2l))).containsOnly(id);
-        assertThat(s.complement(Collections.singleton(id))).isEmpty();
+        assertThat(s.complement(SortedLongSet.empty())).containsOnly(id);
+        assertThat(s.complement(SortedLongSet.of(2l))).containsOnly(id);
+        assertThat(s.complement(SortedLongSet.of(id))).isEmpty();
     }
 
     @Test
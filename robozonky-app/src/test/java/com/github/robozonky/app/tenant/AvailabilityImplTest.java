@@ -36,6 +36,7 @@ import javax.ws.rs.core.Response;
 import org.junit.jupiter.api.Test;
 
 import com.github.robozonky.internal.Defaults;
+import com.github.robozonky.internal.remote.RequestThrottledException;
 import com.github.robozonky.internal.tenant.Availability;
 import com.github.robozonky.internal.test.DateUtil;
 import com.github.robozonky.test.AbstractRoboZonkyTest;
@@ -158,4 +159,16 @@ class AvailabilityImplTest extends AbstractRoboZonkyTest {
         });
     }
 
+    @Test
+    void noPauseWhenThrottledLocally() {
+        final Availability a = new AvailabilityImpl(s);
+        final Exception ex = new IllegalStateException(new RequestThrottledException("Throttled."));
+        assertSoftly(softly -> {
+            softly.assertThat(a.registerException(ex))
+                .isFalse();
+            softly.assertThat(a.isAvailable())
+                .isTrue();
+        });
+    }
+
 }
@@ -0,0 +1,162 @@
+/*
+ * Copyright 2020 The RoboZonky Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.robozonky.app.tenant;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.assertj.core.api.SoftAssertions.assertSoftly;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+class BoundedStorageTest {
+
+    private final List<BoundedStorage.RemovalCause> removals = new ArrayList<>(0);
+
+    @Test
+    void expiresAfterWrite() {
+        var storage = new BoundedStorage<String>(100, Duration.ofHours(1), removals::add);
+        var now = Instant.now();
+        storage.put(1, "a", 1, now);
+        assertSoftly(softly -> {
+            softly.assertThat(storage.get(1, now.plus(Duration.ofMinutes(59))))
+                .isEqualTo("a");
+            softly.assertThat(storage.get(1, now.plus(Duration.ofMinutes(61))))
+                .isNull();
+            softly.assertThat(storage.size())
+                .isZero();
+            softly.assertThat(removals)
+                .containsOnly(BoundedStorage.RemovalCause.EXPIRED);
+        });
+    }
+
+    @Test
+    void boundedByWeight() {
+        var storage = new BoundedStorage<String>(10, Duration.ofHours(1), removals::add);
+        var now = Instant.now();
+        for (var i = 0; i < 100; i++) {
+            storage.get(i, now);
+            storage.put(i, "item" + i, 2, now);
+        }
+        assertSoftly(softly -> {
+            softly.assertThat(storage.getWeight())
+                .isLessThanOrEqualTo(10);
+            softly.assertThat(removals)
+                .isNotEmpty()
+                .containsOnly(BoundedStorage.RemovalCause.SIZE);
+        });
+    }
+
+    @Test
+    void putIfAbsentKeepsStored() {
+        var storage = new BoundedStorage<String>(10, Duration.ofHours(1), removals::add);
+        var now = Instant.now();
+        storage.put(1, "new", 1, now);
+        assertSoftly(softly -> {
+            softly.assertThat(storage.putIfAbsent(1, "old", 1, now.minusSeconds(1)))
+                .isFalse();
+            softly.assertThat(storage.putIfAbsent(2, "old", 1, now.minusSeconds(1)))
+                .isTrue();
+            softly.assertThat(storage.get(1, now))
+                .isEqualTo("new");
+            softly.assertThat(storage.get(2, now))
+                .isEqualTo("old");
+        });
+    }
+
+    @Test
+    void rejectsOverweight() {
+        var storage = new BoundedStorage<String>(10, Duration.ofHours(1), removals::add);
+        storage.put(1, "a", 11, Instant.now());
+        assertThat(storage.size()).isZero();
+        assertThat(removals).containsOnly(BoundedStorage.RemovalCause.SIZE);
+    }
+
+    @Test
+    void frequentItemsSurvive() {
+        var storage = new BoundedStorage<String>(10, Duration.ofHours(1), removals::add);
+        var now = Instant.now();
+        for (var i = 0; i < 10; i++) { // Fill the storage with popular items.
+            storage.put(i, "popular" + i, 1, now);
+            for (var j = 0; j < 5; j++) {
+                storage.get(i, now);
+            }
+        }
+        for (var i = 100; i < 200; i++) { // One-hit wonders must not push the popular items out.
+            storage.get(i, now);
+            storage.put(i, "rare" + i, 1, now);
+        }
+        var survivors = 0;
+        for (var i = 0; i < 10; i++) {
+            if (storage.get(i, now) != null) {
+                survivors++;
+            }
+        }
+        assertThat(survivors).isGreaterThanOrEqualTo(9);
+    }
+
+    @Test
+    void rejectedCandidateEvictsNothing() {
+        var storage = new BoundedStorage<String>(10, Duration.ofHours(1), removals::add); // Main segment holds 9.
+        var now = Instant.now();
+        for (var j = 0; j < 5; j++) {
+            storage.get(2, now); // The second victim is hot.
+        }
+        for (var j = 0; j < 3; j++) {
+            storage.get(10, now); // The candidate is warmer than the first victim only.
+        }
+        for (var i = 1; i < 10; i++) {
+            storage.put(i, "item" + i, 1, now);
+        }
+        storage.put(10, "candidate", 2, now); // Item 9 moves to the main segment, which is now full.
+        assertThat(removals).isEmpty();
+        storage.put(11, "item11", 1, now); // The candidate needs both 1 and 2 evicted.
+        assertSoftly(softly -> {
+            softly.assertThat(storage.getEntries())
+                .extracting(e -> e._1)
+                .containsOnly(1L, 2L, 3L, 4L, 5L, 6L, 7L, 8L, 9L, 11L);
+            softly.assertThat(removals)
+                .containsExactly(BoundedStorage.RemovalCause.SIZE);
+        });
+    }
+
+    @Test
+    void replacesAndRemoves() {
+        var storage = new BoundedStorage<String>(10, Duration.ofHours(1), removals::add);
+        var now = Instant.now();
+        storage.put(1, "a", 3, now);
+        storage.put(1, "b", 4, now);
+        assertSoftly(softly -> {
+            softly.assertThat(storage.get(1, now))
+                .isEqualTo("b");
+            softly.assertThat(storage.getWeight())
+                .isEqualTo(4);
+        });
+        storage.remove(1);
+        assertThat(storage.size()).isZero();
+        assertThat(storage.getWeight()).isZero();
+    }
+
+    @Test
+    void invalidMaximum() {
+        assertThatThrownBy(() -> new BoundedStorage<String>(0, Duration.ofHours(1), c -> {
+        })).isInstanceOf(IllegalArgumentException.class);
+    }
+}
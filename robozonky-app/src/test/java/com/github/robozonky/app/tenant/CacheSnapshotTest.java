@@ -0,0 +1,129 @@
+/*
+ * Copyright 2020 The RoboZonky Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.robozonky.app.tenant;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.assertj.core.api.SoftAssertions.assertSoftly;
+
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.RandomAccessFile;
+import java.nio.file.Files;
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.github.robozonky.api.Money;
+import com.github.robozonky.api.Ratio;
+import com.github.robozonky.api.remote.entities.Loan;
+import com.github.robozonky.api.remote.enums.Purpose;
+import com.github.robozonky.api.remote.enums.Region;
+import com.github.robozonky.internal.remote.entities.LoanImpl;
+import com.github.robozonky.internal.util.functional.Tuple;
+
+class CacheSnapshotTest {
+
+    private File file;
+    private CacheSnapshot<Loan> snapshot;
+
+    @BeforeEach
+    void createFile() throws Exception {
+        file = File.createTempFile("robozonky-", ".loans");
+        Files.delete(file.toPath());
+        snapshot = new CacheSnapshot<>(file, LoanImpl.class);
+    }
+
+    @AfterEach
+    void deleteFile() throws Exception {
+        Files.deleteIfExists(file.toPath());
+    }
+
+    private static LoanImpl loan() { // Not a mock; mocks can not be serialized.
+        var loan = new LoanImpl();
+        loan.setId(1);
+        loan.setName("Loan");
+        loan.setStory("Story");
+        loan.setRegion(Region.JIHOMORAVSKY);
+        loan.setPurpose(Purpose.AUTO_MOTO);
+        loan.setInterestRate(Ratio.fromPercentage("9.99"));
+        loan.setDatePublished(OffsetDateTime.now());
+        loan.setAmount(Money.from(200_000));
+        loan.setRemainingInvestment(Money.from(0));
+        return loan;
+    }
+
+    @Test
+    void missing() {
+        assertThat(snapshot.read()).isEmpty();
+    }
+
+    @Test
+    void roundTrip() {
+        var loan = loan();
+        var writtenAt = Instant.now()
+            .truncatedTo(ChronoUnit.MILLIS);
+        snapshot.write(List.of(Tuple.of((long) loan.getId(), loan, writtenAt)));
+        var result = snapshot.read();
+        assertThat(result).hasSize(1);
+        var entry = result.get(0);
+        assertSoftly(softly -> {
+            softly.assertThat(entry._1())
+                .isEqualTo(loan.getId());
+            softly.assertThat(entry._2())
+                .usingRecursiveComparison()
+                .isEqualTo(loan);
+            softly.assertThat(entry._3())
+                .isEqualTo(writtenAt);
+        });
+    }
+
+    @Test
+    void corrupt() throws Exception {
+        var loan = loan();
+        snapshot.write(List.of(Tuple.of((long) loan.getId(), loan, Instant.now())));
+        try (var raf = new RandomAccessFile(file, "rw")) { // Flip a byte in the payload.
+            raf.seek(raf.length() - 2);
+            var b = raf.read();
+            raf.seek(raf.length() - 2);
+            raf.write(b
+                    ^ 0xFF);
+        }
+        assertThat(snapshot.read()).isEmpty();
+    }
+
+    @Test
+    void unsupportedVersion() throws Exception {
+        try (var out = new DataOutputStream(Files.newOutputStream(file.toPath()))) {
+            out.writeInt(CacheSnapshot.MAGIC);
+            out.writeInt(CacheSnapshot.VERSION + 1);
+            out.writeInt(0);
+            out.writeLong(0);
+        }
+        assertThat(snapshot.read()).isEmpty();
+    }
+
+    @Test
+    void notSnapshot() throws Exception {
+        Files.writeString(file.toPath(), "{}");
+        assertThat(snapshot.read()).isEmpty();
+    }
+}
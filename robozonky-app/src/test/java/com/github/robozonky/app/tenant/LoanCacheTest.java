@@ -19,6 +19,7 @@ package com.github.robozonky.app.tenant;
 import static org.assertj.core.api.Assertions.*;
 import static org.mockito.Mockito.*;
 
+import java.nio.file.Files;
 import java.time.Clock;
 import java.time.Duration;
 import java.time.Instant;
@@ -75,7 +76,8 @@ class LoanCacheTest extends AbstractZonkyLeveragingTest {
         // and now test eviction
         setClock(Clock.fixed(instant.plus(Duration.ofHours(25)), Defaults.ZONKYCZ_ZONE_ID));
         assertThat(c.getFromCache(loanId)).isEmpty();
-        assertThat(c.getEvictor()).isNotNull();
+        assertThat(c.getStorage()
+            .size()).isZero();
     }
 
     @Test
@@ -96,6 +98,37 @@ class LoanCacheTest extends AbstractZonkyLeveragingTest {
         verify(z, times(2)).getLoan(eq(loanId));
     }
 
+    @Test
+    void warmStart() throws Exception {
+        final LoanImpl loan = new LoanImpl(); // Not a mock; mocks can not be serialized.
+        loan.setId(123);
+        loan.setRemainingInvestment(Money.from(0));
+        loan.setStory("Some story.");
+        final int loanId = loan.getId();
+        final Zonky z = harmlessZonky();
+        when(z.getLoan(eq(loanId))).thenReturn(loan);
+        final Tenant t = mockTenant(z);
+        final Cache<Loan> c = Cache.forLoan(t);
+        try {
+            c.get(loanId);
+            c.close();
+            assertThatThrownBy(() -> c.get(loanId)).isInstanceOf(IllegalStateException.class);
+            final Cache<Loan> restarted = Cache.forLoan(t);
+            restarted.getWarmUp()
+                .join();
+            assertThat(restarted.get(loanId)).satisfies(l -> {
+                assertThat(l.getId()).isEqualTo(loanId);
+                assertThat(l.getStory()).isEqualTo("Some story.");
+                assertThat(l.getRemainingInvestment()).isEqualTo(Money.from(0));
+            });
+            verify(z, times(1)).getLoan(eq(loanId)); // The second cache did not need to go to Zonky.
+        } finally {
+            Files.deleteIfExists(c.getSnapshot()
+                .getFile()
+                .toPath());
+        }
+    }
+
     @Test
     void fail() {
         final Instant instant = Instant.now();
@@ -128,4 +128,38 @@ class PortfolioOverviewImplTest extends AbstractRoboZonkyTest {
             }
         });
     }
+
+    @Test
+    void chargeMatchesFullBuild() {
+        final Map<Ratio, Money> investments = new HashMap<>(2);
+        investments.put(Rating.AAAAA.getInterestRate(), Money.from(200_000));
+        investments.put(Rating.D.getInterestRate(), Money.from(20_000));
+        final PortfolioOverviewImpl po = new PortfolioOverviewImpl(investments, Ratio.fromPercentage(4));
+        final Ratio unknownRate = Ratio.fromPercentage(1);
+        final PortfolioOverviewImpl charged = po.withCharge(Rating.D.getInterestRate(), Money.from("0.5"))
+            .withCharge(unknownRate, Money.from(10));
+        investments.put(Rating.D.getInterestRate(), Money.from("20000.5"));
+        investments.put(unknownRate, Money.from(10));
+        final PortfolioOverview expected = new PortfolioOverviewImpl(investments, Ratio.fromPercentage(4));
+        assertSoftly(softly -> {
+            softly.assertThat(charged)
+                .isEqualTo(expected)
+                .isNotEqualTo(po);
+            softly.assertThat(charged.getBuiltOn())
+                .isEqualTo(po.getBuiltOn());
+            softly.assertThat(charged.getInvested())
+                .isEqualTo(Money.from("220010.5"));
+            softly.assertThat(charged.getInvested(unknownRate))
+                .isEqualTo(Money.from(10));
+            for (final Rating r : Rating.values()) {
+                softly.assertThat(charged.getShareOnInvestment(r.getInterestRate()))
+                    .as(r + " as a share")
+                    .isEqualTo(expected.getShareOnInvestment(r.getInterestRate()));
+            }
+            softly.assertThat(charged.getMinimalAnnualProfitability())
+                .isEqualTo(expected.getMinimalAnnualProfitability());
+            softly.assertThat(charged.getOptimalAnnualProfitability())
+                .isEqualTo(expected.getOptimalAnnualProfitability());
+        });
+    }
 }
@@ -31,6 +31,7 @@ import com.github.robozonky.api.remote.entities.Investment;
 import com.github.robozonky.api.remote.entities.Loan;
 import com.github.robozonky.api.remote.entities.Statistics;
 import com.github.robozonky.api.remote.enums.Rating;
+import com.github.robozonky.api.strategies.PortfolioOverview;
 import com.github.robozonky.app.AbstractZonkyLeveragingTest;
 import com.github.robozonky.internal.remote.Zonky;
 import com.github.robozonky.internal.remote.entities.LoanImpl;
@@ -109,4 +110,31 @@ class RemotePortfolioImplTest extends AbstractZonkyLeveragingTest {
                 .isEqualTo(Money.from(32));
         });
     }
+
+    @Test
+    void chargesUpdateOverviewIncrementally() {
+        final Zonky zonky = harmlessZonky();
+        final Tenant tenant = mockTenant(zonky);
+        Statistics s = mock(StatisticsImpl.class);
+        when(s.getRiskPortfolio())
+            .thenReturn(singletonList(
+                    new RiskPortfolioImpl(Rating.D.getInterestRate(), Money.from(1), Money.from(2), Money.from(3))));
+        when(zonky.getStatistics()).thenReturn(s);
+        final RemotePortfolio p = new RemotePortfolioImpl(tenant);
+        final PortfolioOverview original = p.getOverview();
+        p.simulateCharge(1, Rating.D.getInterestRate(), Money.from(15));
+        final PortfolioOverview charged = p.getOverview();
+        assertSoftly(softly -> {
+            softly.assertThat(charged)
+                .isNotSameAs(original);
+            softly.assertThat(charged.getInvested())
+                .isEqualTo(Money.from(20));
+            softly.assertThat(((PortfolioOverviewImpl) charged).getBuiltOn())
+                .isEqualTo(((PortfolioOverviewImpl) original).getBuiltOn());
+        });
+        p.simulateCharge(1, Rating.D.getInterestRate(), Money.from(10)); // replaces the previous charge
+        final PortfolioOverview recharged = p.getOverview();
+        assertThat(recharged.getInvested()).isEqualTo(Money.from(15));
+        verify(zonky, times(1)).getStatistics(); // Nothing was retrieved again.
+    }
 }
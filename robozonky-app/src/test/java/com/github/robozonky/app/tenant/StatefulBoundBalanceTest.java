@@ -18,10 +18,13 @@ package com.github.robozonky.app.tenant;
 
 import static com.github.robozonky.app.tenant.StatefulBoundedBalance.MAXIMUM;
 import static org.assertj.core.api.Assertions.*;
+import static org.assertj.core.api.SoftAssertions.assertSoftly;
 
 import java.time.Clock;
 import java.time.Duration;
 import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
 
 import org.junit.jupiter.api.Test;
 
@@ -54,6 +57,7 @@ class StatefulBoundBalanceTest extends AbstractRoboZonkyTest {
     void persistent() {
         final StatefulBoundedBalance balance = new StatefulBoundedBalance(tenant);
         balance.set(Money.from(1_000));
+        balance.close();
         final StatefulBoundedBalance balance2 = new StatefulBoundedBalance(tenant);
         assertThat(balance2.get()).isEqualTo(Money.from(1_000)); // old state is read in the new instance, simulating
                                                                  // robot restart
@@ -70,4 +74,24 @@ class StatefulBoundBalanceTest extends AbstractRoboZonkyTest {
         assertThat(balance.get()).isEqualTo(Money.from(199)); // make sure the different value is stored and returned
     }
 
+    @Test
+    void writesBehind() {
+        final List<Runnable> scheduledFlushes = new ArrayList<>(0);
+        final StatefulBoundedBalance balance = new StatefulBoundedBalance(tenant, scheduledFlushes::add);
+        balance.set(Money.from(1_000));
+        balance.set(Money.from(500));
+        assertSoftly(softly -> {
+            softly.assertThat(balance.get())
+                .isEqualTo(Money.from(500));
+            softly.assertThat(scheduledFlushes)
+                .hasSize(1); // Changes are coalesced.
+            softly.assertThat(new StatefulBoundedBalance(tenant).get())
+                .isEqualTo(MAXIMUM); // Nothing stored yet.
+        });
+        scheduledFlushes.forEach(Runnable::run);
+        assertThat(new StatefulBoundedBalance(tenant).get()).isEqualTo(Money.from(500));
+        balance.set(Money.from(200)); // New change, new flush.
+        assertThat(scheduledFlushes).hasSize(2);
+    }
+
 }
@@ -27,7 +27,8 @@ import com.github.robozonky.test.TestingTenant;
 
 public class TestingPowerTenant extends TestingTenant implements PowerTenant {
 
-    private final StatefulBoundedBalance balance = new StatefulBoundedBalance(this);
+    // Flush right away, so that no write happens after the test is over and its state destroyed.
+    private final StatefulBoundedBalance balance = new StatefulBoundedBalance(this, Runnable::run);
 
     public TestingPowerTenant(final boolean isDryRun, final Zonky zonky) {
         super(zonky, isDryRun);
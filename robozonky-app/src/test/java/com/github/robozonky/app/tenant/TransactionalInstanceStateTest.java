@@ -24,6 +24,8 @@ import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Supplier;
 import java.util.stream.Stream;
 
 import org.junit.jupiter.api.Test;
@@ -55,28 +57,28 @@ class TransactionalInstanceStateTest extends AbstractRoboZonkyTest {
 
     @Test
     void addsUpdate() {
-        final List<Runnable> items = new ArrayList<>();
+        final List<Supplier<CompletableFuture<Boolean>>> items = new ArrayList<>();
         final InstanceState<String> parent = mock(InstanceState.class);
         final TransactionalInstanceState<String> s = new TransactionalInstanceState<>(items, parent);
         s.update(m -> {
         });
-        verify(parent, never()).update(any());
+        verify(parent, never()).updateAsync(any());
         items.get(0)
-            .run();
-        verify(parent).update(any());
+            .get();
+        verify(parent).updateAsync(any());
     }
 
     @Test
     void addsReset() {
-        final List<Runnable> items = new ArrayList<>();
+        final List<Supplier<CompletableFuture<Boolean>>> items = new ArrayList<>();
         final InstanceState<String> parent = mock(InstanceState.class);
         final TransactionalInstanceState<String> s = new TransactionalInstanceState<>(items, parent);
         s.reset(m -> {
         });
-        verify(parent, never()).reset(any());
+        verify(parent, never()).resetAsync(any());
         items.get(0)
-            .run();
-        verify(parent).reset(any());
+            .get();
+        verify(parent).resetAsync(any());
     }
 
 }
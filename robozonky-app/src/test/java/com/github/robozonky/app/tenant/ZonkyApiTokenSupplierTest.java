@@ -19,11 +19,16 @@ package com.github.robozonky.app.tenant;
 import static com.github.robozonky.app.tenant.ZonkyApiTokenSupplier.reloadAfter;
 import static org.assertj.core.api.Assertions.*;
 import static org.assertj.core.api.AssertionsForClassTypes.assertThatThrownBy;
+import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
 import static org.mockito.Mockito.*;
 
 import java.time.Duration;
 import java.time.OffsetDateTime;
+import java.util.Optional;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 import java.util.function.Consumer;
 import java.util.function.Function;
 import java.util.function.Supplier;
@@ -151,6 +156,28 @@ class ZonkyApiTokenSupplierTest extends AbstractZonkyLeveragingTest {
         assertThat(t.isClosed()).isTrue();
     }
 
+    @Test
+    void closingWaitsForTokenWrite() {
+        final Zonky zonky = mock(Zonky.class);
+        final OAuth oAuth = mock(OAuth.class);
+        final ZonkyApiToken token = getTokenExpiringIn(Duration.ofMinutes(5));
+        final ZonkyApiToken newToken = getTokenExpiringIn(Duration.ofHours(1));
+        when(oAuth.refresh(any())).thenReturn(newToken);
+        final ApiProvider api = mockApi(oAuth, zonky);
+        final SecretProvider s = mock(SecretProvider.class);
+        when(s.getUsername()).thenReturn("someone");
+        when(s.getToken()).thenReturn(Optional.of(token));
+        final CompletableFuture<Boolean> write = new CompletableFuture<>();
+        when(s.setTokenAsync(any())).thenReturn(write);
+        final ZonkyApiTokenSupplier t = new ZonkyApiTokenSupplier(api, s);
+        assertThat(t.get()).isEqualTo(newToken);
+        final CompletableFuture<Void> closing = CompletableFuture.runAsync(t::close);
+        assertThatThrownBy(() -> closing.get(100, TimeUnit.MILLISECONDS)).isInstanceOf(TimeoutException.class);
+        write.complete(true);
+        assertTimeoutPreemptively(Duration.ofSeconds(5), () -> closing.join());
+        assertThat(t.isClosed()).isTrue();
+    }
+
     @Test
     void notClosingWhenExpired() {
         final Zonky zonky = mock(Zonky.class);
@@ -0,0 +1,62 @@
+/*
+ * Copyright 2020 The RoboZonky Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.robozonky.test.simulator;
+
+import java.time.Duration;
+import java.util.Random;
+
+/**
+ * How long the {@link ZonkySimulator} waits before responding to a request.
+ */
+@FunctionalInterface
+public interface LatencyDistribution {
+
+    static LatencyDistribution none() {
+        return random -> Duration.ZERO;
+    }
+
+    static LatencyDistribution fixed(final Duration latency) {
+        return random -> latency;
+    }
+
+    /**
+     * @param min Shortest latency, inclusive.
+     * @param max Longest latency, exclusive.
+     * @return Every latency in the range is equally likely.
+     */
+    static LatencyDistribution uniform(final Duration min, final Duration max) {
+        var minNanos = min.toNanos();
+        var spread = max.toNanos() - minNanos;
+        if (spread < 1) {
+            return fixed(min);
+        }
+        return random -> Duration.ofNanos(minNanos + (long) (random.nextDouble() * spread));
+    }
+
+    /**
+     * @param min  Shortest latency, such as the round trip to Zonky.
+     * @param mean Mean of the latency over the minimum; long tails are likely.
+     * @return Latency with exponentially distributed delay over the minimum, which is what the real API looks like.
+     */
+    static LatencyDistribution exponential(final Duration min, final Duration mean) {
+        var minNanos = min.toNanos();
+        var meanNanos = mean.toNanos();
+        return random -> Duration.ofNanos(minNanos + (long) (-Math.log(1 - random.nextDouble()) * meanNanos));
+    }
+
+    Duration next(Random random);
+}
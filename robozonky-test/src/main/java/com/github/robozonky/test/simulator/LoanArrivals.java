@@ -0,0 +1,71 @@
+/*
+ * Copyright 2020 The RoboZonky Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.robozonky.test.simulator;
+
+import java.time.Duration;
+
+/**
+ * Script of how many new loans the {@link ZonkySimulator} publishes on the primary marketplace. The simulator calls
+ * the script periodically, and publishes as many loans as the script tells it to.
+ */
+@FunctionalInterface
+public interface LoanArrivals {
+
+    static LoanArrivals none() {
+        return (elapsed, step) -> 0;
+    }
+
+    /**
+     * @param loansPerSecond Average number of loans published every second.
+     * @return Loans arriving at a steady rate; fractions of a loan carry over to the next call.
+     */
+    static LoanArrivals steady(final double loansPerSecond) {
+        return (elapsed, step) -> {
+            var before = (long) (loansPerSecond * (elapsed.minus(step)
+                .toNanos() / 1e9));
+            var after = (long) (loansPerSecond * (elapsed.toNanos() / 1e9));
+            return (int) (after - before);
+        };
+    }
+
+    /**
+     * @param count How many loans to publish at once.
+     * @param at    How long after the start of the simulation to publish them.
+     * @return All the loans arriving at the same time, as they do when Zonky publishes a batch.
+     */
+    static LoanArrivals burst(final int count, final Duration at) {
+        return (elapsed, step) -> {
+            var previous = elapsed.minus(step);
+            return (previous.compareTo(at) < 0 && elapsed.compareTo(at) >= 0) ? count : 0;
+        };
+    }
+
+    /**
+     * @param other Another script.
+     * @return Loans arriving according to both scripts.
+     */
+    default LoanArrivals and(final LoanArrivals other) {
+        return (elapsed, step) -> getArrivals(elapsed, step) + other.getArrivals(elapsed, step);
+    }
+
+    /**
+     * @param elapsed Time since the start of the simulation.
+     * @param step    Time since the previous call.
+     * @return How many new loans to publish now.
+     */
+    int getArrivals(Duration elapsed, Duration step);
+}
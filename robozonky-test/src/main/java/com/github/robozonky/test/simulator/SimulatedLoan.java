@@ -0,0 +1,154 @@
+/*
+ * Copyright 2020 The RoboZonky Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.robozonky.test.simulator;
+
+import java.time.Duration;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+
+import com.github.robozonky.api.remote.enums.Rating;
+
+/**
+ * A loan on the simulated marketplace, and the user's investment into it, if any. Serializes itself into the JSON
+ * that Zonky would send.
+ */
+final class SimulatedLoan {
+
+    private final int id;
+    private final Rating rating;
+    private final int amount;
+    private final int termInMonths;
+    private final OffsetDateTime datePublished;
+    private final long publishedNanos;
+    private int remainingInvestment;
+    private int investmentsCount = 0;
+    private long myInvestmentId = -1;
+    private int myInvestmentAmount = 0;
+    private OffsetDateTime myInvestmentCreated;
+
+    SimulatedLoan(final int id, final Rating rating, final int amount, final int termInMonths) {
+        this.id = id;
+        this.rating = rating;
+        this.amount = amount;
+        this.remainingInvestment = amount;
+        this.termInMonths = termInMonths;
+        this.datePublished = OffsetDateTime.now(ZoneOffset.UTC);
+        this.publishedNanos = System.nanoTime();
+    }
+
+    private static String toString(final OffsetDateTime dateTime) {
+        return DateTimeFormatter.ISO_OFFSET_DATE_TIME.format(dateTime);
+    }
+
+    public int getId() {
+        return id;
+    }
+
+    public OffsetDateTime getDatePublished() {
+        return datePublished;
+    }
+
+    public synchronized int getRemainingInvestment() {
+        return remainingInvestment;
+    }
+
+    public synchronized long getMyInvestmentId() {
+        return myInvestmentId;
+    }
+
+    /**
+     * @param investmentId ID to give to the new investment.
+     * @param investment   Amount to invest.
+     * @return Null if successful, otherwise the Zonky error code.
+     */
+    public synchronized String invest(final long investmentId, final int investment) {
+        if (myInvestmentId >= 0) {
+            return "multipleInvestment";
+        } else if (investment > remainingInvestment) {
+            return "insufficientRemainingInvestment";
+        }
+        remainingInvestment -= investment;
+        investmentsCount++;
+        myInvestmentId = investmentId;
+        myInvestmentAmount = investment;
+        myInvestmentCreated = OffsetDateTime.now(ZoneOffset.UTC);
+        return null;
+    }
+
+    /**
+     * Make the loan fully invested by other investors, as are the loans behind participations.
+     */
+    public synchronized void cover() {
+        if (remainingInvestment > 0) {
+            remainingInvestment = 0;
+            investmentsCount++;
+        }
+    }
+
+    public Duration getTimeSincePublished() {
+        return Duration.ofNanos(System.nanoTime() - publishedNanos);
+    }
+
+    private int getAnnuity() {
+        return Math.max(1, amount / termInMonths);
+    }
+
+    public synchronized String toJson() {
+        var myInvestment = myInvestmentId < 0 ? "null"
+                : "{\"id\":" + myInvestmentId + ",\"loanId\":" + id + ",\"amount\":" + myInvestmentAmount +
+                        ",\"status\":\"ACTIVE\",\"timeCreated\":\"" + toString(myInvestmentCreated) + "\"}";
+        var interestRate = rating.getInterestRate()
+            .bigDecimalValue();
+        var revenueRate = rating.getMinimalRevenueRate()
+            .bigDecimalValue();
+        return "{\"id\":" + id + ",\"url\":\"https://app.zonky.cz/loan/" + id + "\",\"name\":\"Loan " + id +
+                "\",\"story\":\"Simulated loan.\",\"purpose\":\"REFINANCING\",\"termInMonths\":" + termInMonths +
+                ",\"interestRate\":" + interestRate + ",\"revenueRate\":" + revenueRate + ",\"annuity\":" +
+                getAnnuity() + ",\"premium\":0,\"rating\":\"" + rating.name() + "\",\"topped\":false," +
+                "\"amount\":" + amount + ",\"currency\":\"CZK\",\"countryOfOrigin\":\"CZ\"," +
+                "\"remainingInvestment\":" + remainingInvestment + ",\"covered\":" + (remainingInvestment == 0) +
+                ",\"reservedAmount\":0,\"zonkyPlusAmount\":0,\"datePublished\":\"" + toString(datePublished) +
+                "\",\"published\":true,\"deadline\":\"" + toString(datePublished.plusDays(2)) +
+                "\",\"investmentsCount\":" + investmentsCount + ",\"region\":\"15\"," +
+                "\"mainIncomeType\":\"EMPLOYMENT\",\"mainIncomeIndustry\":\"CONSTRUCTION\",\"activeLoansCount\":1," +
+                "\"insuranceActive\":false,\"additionallyInsured\":false,\"flags\":[],\"insuranceHistory\":[]," +
+                "\"annuityWithInsurance\":" + getAnnuity() + ",\"myInvestment\":" + myInvestment + "}";
+    }
+
+    /**
+     * @return The user's investment into this loan, as it would be found in the portfolio.
+     */
+    public synchronized String toInvestmentJson() {
+        var interestRate = rating.getInterestRate()
+            .bigDecimalValue();
+        var revenueRate = rating.getMinimalRevenueRate()
+            .bigDecimalValue();
+        return "{\"id\":" + myInvestmentId + ",\"loan\":{\"id\":" + id + ",\"activeLoanOrdinal\":1,\"title\":\"Loan " +
+                id + "\",\"story\":\"Simulated loan.\",\"annuity\":" + getAnnuity()
+                + ",\"detailLabels\":[\"VERIFIED_BORROWER\"]," +
+                "\"borrower\":{\"primaryIncomeType\":\"EMPLOYMENT\",\"region\":\"JIHOMORAVSKY\"}," +
+                "\"healthStats\":{\"paidInstalments\":0,\"longestDaysDue\":0,\"currentDaysDue\":0," +
+                "\"daysSinceLastInDue\":0,\"loanHealthInfo\":\"HEALTHY\",\"dueInstalments\":0}," +
+                "\"purpose\":\"REFINANCING\",\"countryOfOrigin\":\"CZ\",\"currency\":\"CZK\"," +
+                "\"payments\":{\"total\":" + termInMonths + ",\"unpaid\":" + termInMonths + "},\"revenueRate\":" +
+                revenueRate + ",\"interestRate\":" + interestRate + ",\"hasCollectionHistory\":false," +
+                "\"label\":\"PENDING\",\"nextPaymentDate\":null},\"smpSellInfo\":null,\"principal\":{\"total\":" +
+                myInvestmentAmount + ",\"unpaid\":" + myInvestmentAmount + "},\"interest\":{\"total\":0," +
+                "\"unpaid\":0},\"sellStatus\":\"NOT_SELLABLE\",\"timeCreated\":null}";
+    }
+}
@@ -0,0 +1,128 @@
+/*
+ * Copyright 2020 The RoboZonky Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.robozonky.test.simulator;
+
+import java.time.Duration;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+
+import com.github.robozonky.api.remote.enums.Rating;
+
+/**
+ * A participation offered on the simulated secondary marketplace. Serializes itself into the JSON that Zonky would
+ * send, both for the listing and for the detail.
+ */
+final class SimulatedParticipation {
+
+    private final long id;
+    private final long investmentId;
+    private final int loanId;
+    private final Rating rating;
+    private final int remainingPrincipal;
+    private final int originalInstalmentCount;
+    private final int remainingInstalmentCount;
+    private final OffsetDateTime datePublished;
+    private final long publishedNanos;
+    private boolean sold = false;
+
+    SimulatedParticipation(final long id, final long investmentId, final int loanId, final Rating rating,
+            final int remainingPrincipal, final int originalInstalmentCount, final int remainingInstalmentCount) {
+        this.id = id;
+        this.investmentId = investmentId;
+        this.loanId = loanId;
+        this.rating = rating;
+        this.remainingPrincipal = remainingPrincipal;
+        this.originalInstalmentCount = originalInstalmentCount;
+        this.remainingInstalmentCount = remainingInstalmentCount;
+        this.datePublished = OffsetDateTime.now(ZoneOffset.UTC);
+        this.publishedNanos = System.nanoTime();
+    }
+
+    private static String toString(final OffsetDateTime dateTime) {
+        return DateTimeFormatter.ISO_OFFSET_DATE_TIME.format(dateTime);
+    }
+
+    public long getId() {
+        return id;
+    }
+
+    public int getLoanId() {
+        return loanId;
+    }
+
+    public int getRemainingPrincipal() {
+        return remainingPrincipal;
+    }
+
+    public OffsetDateTime getDatePublished() {
+        return datePublished;
+    }
+
+    public synchronized boolean isSold() {
+        return sold;
+    }
+
+    /**
+     * @return False if somebody already bought the participation.
+     */
+    public synchronized boolean purchase() {
+        if (sold) {
+            return false;
+        }
+        sold = true;
+        return true;
+    }
+
+    public Duration getTimeSincePublished() {
+        return Duration.ofNanos(System.nanoTime() - publishedNanos);
+    }
+
+    public String toJson() {
+        var interestRate = rating.getInterestRate()
+            .bigDecimalValue();
+        return "{\"id\":" + id + ",\"investmentId\":" + investmentId + ",\"loanId\":" + loanId +
+                ",\"originalInstalmentCount\":" + originalInstalmentCount + ",\"remainingInstalmentCount\":" +
+                remainingInstalmentCount + ",\"incomeType\":\"EMPLOYMENT\",\"mainIncomeIndustry\":\"CONSTRUCTION\"," +
+                "\"interestRate\":" + interestRate + ",\"rating\":\"" + rating.name() + "\"," +
+                "\"loanHealthInfo\":\"HEALTHY\",\"loanName\":\"Loan " + loanId + "\",\"purpose\":\"REFINANCING\"," +
+                "\"willExceedLoanInvestmentLimit\":false,\"insuranceActive\":false,\"remainingPrincipal\":" +
+                remainingPrincipal + ",\"discount\":0,\"price\":" + remainingPrincipal + ",\"datePublished\":\"" +
+                toString(datePublished) + "\",\"deadline\":\"" + toString(datePublished.plusDays(2)) + "\"}";
+    }
+
+    /**
+     * @return What {@code /loans/{id}/smpDetail} returns for the loan of this participation.
+     */
+    public String toDetailJson() {
+        var interestRate = rating.getInterestRate()
+            .bigDecimalValue();
+        var revenueRate = rating.getMinimalRevenueRate()
+            .bigDecimalValue();
+        return "{\"id\":" + loanId + ",\"investmentId\":" + investmentId + ",\"incomeType\":\"EMPLOYMENT\"," +
+                "\"mainIncomeIndustry\":\"CONSTRUCTION\",\"interestRate\":" + interestRate + ",\"revenueRate\":" +
+                revenueRate + ",\"url\":\"https://app.zonky.cz/loan/" + loanId + "\",\"region\":\"15\"," +
+                "\"loanHealthStats\":{\"paidInstalments\":" + (originalInstalmentCount - remainingInstalmentCount) +
+                ",\"dueInstalments\":0,\"instalmentsCurrentlyInDue\":0,\"currentDaysInDue\":0," +
+                "\"longestDaysDue\":0,\"daysSinceLastInDue\":0,\"loanHealthInfo\":\"HEALTHY\"}," +
+                "\"nextPaymentDate\":\"" + toString(datePublished.plusMonths(1)) + "\",\"amount\":" + remainingPrincipal
+                + ",\"annuity\":" +
+                Math.max(1, remainingPrincipal / remainingInstalmentCount) + ",\"name\":\"Loan " + loanId +
+                "\",\"purpose\":\"REFINANCING\",\"activeLoansCount\":1,\"dueInstalmentsCount\":0," +
+                "\"insuranceActive\":false,\"story\":\"Simulated loan.\"}";
+    }
+}
@@ -0,0 +1,174 @@
+/*
+ * Copyright 2020 The RoboZonky Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.robozonky.test.simulator;
+
+import java.lang.management.ManagementFactory;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * What happened on the {@link ZonkySimulator} so far. All methods are thread-safe.
+ */
+public final class SimulatorStatistics {
+
+    private final Map<String, LongAdder> requests = new ConcurrentHashMap<>(0);
+    private final LongAdder throttled = new LongAdder();
+    private final LongAdder unauthorized = new LongAdder();
+    private final LongAdder loansPublished = new LongAdder();
+    private final LongAdder participationsPublished = new LongAdder();
+    private final List<Duration> timesToInvest = Collections.synchronizedList(new ArrayList<>(0));
+    private final List<Duration> timesToPurchase = Collections.synchronizedList(new ArrayList<>(0));
+    private final long cpuTimeAtStart = getProcessCpuTimeNanos();
+
+    private static long getProcessCpuTimeNanos() {
+        var bean = ManagementFactory.getOperatingSystemMXBean();
+        if (bean instanceof com.sun.management.OperatingSystemMXBean) {
+            return ((com.sun.management.OperatingSystemMXBean) bean).getProcessCpuTime();
+        }
+        return -1;
+    }
+
+    private static double getMeanMillis(final List<Duration> durations) {
+        return durations.stream()
+            .mapToLong(Duration::toMillis)
+            .average()
+            .orElse(0);
+    }
+
+    void request(final String endpoint) {
+        requests.computeIfAbsent(endpoint, k -> new LongAdder())
+            .increment();
+    }
+
+    void throttled() {
+        throttled.increment();
+    }
+
+    void unauthorized() {
+        unauthorized.increment();
+    }
+
+    void loanPublished() {
+        loansPublished.increment();
+    }
+
+    void participationPublished() {
+        participationsPublished.increment();
+    }
+
+    void invested(final Duration timeSincePublished) {
+        timesToInvest.add(timeSincePublished);
+    }
+
+    void purchased(final Duration timeSincePublished) {
+        timesToPurchase.add(timeSincePublished);
+    }
+
+    /**
+     * @return Requests received, by endpoint such as {@code GET /loans/marketplace}. Includes throttled requests.
+     */
+    public Map<String, Long> getRequests() {
+        var result = new TreeMap<String, Long>();
+        requests.forEach((k, v) -> result.put(k, v.sum()));
+        return Collections.unmodifiableMap(result);
+    }
+
+    public long getRequestCount() {
+        return requests.values()
+            .stream()
+            .mapToLong(LongAdder::sum)
+            .sum();
+    }
+
+    /**
+     * @return Requests rejected with HTTP 429.
+     */
+    public long getThrottledCount() {
+        return throttled.sum();
+    }
+
+    /**
+     * @return Requests rejected with HTTP 401, as their token was unknown or expired.
+     */
+    public long getUnauthorizedCount() {
+        return unauthorized.sum();
+    }
+
+    public long getLoansPublished() {
+        return loansPublished.sum();
+    }
+
+    public long getParticipationsPublished() {
+        return participationsPublished.sum();
+    }
+
+    /**
+     * @return For every investment, in the order they were made, the time since the loan was published.
+     */
+    public List<Duration> getTimesToInvest() {
+        synchronized (timesToInvest) {
+            return List.copyOf(timesToInvest);
+        }
+    }
+
+    /**
+     * @return For every purchase, in the order they were made, the time since the participation was published.
+     */
+    public List<Duration> getTimesToPurchase() {
+        synchronized (timesToPurchase) {
+            return List.copyOf(timesToPurchase);
+        }
+    }
+
+    /**
+     * @return CPU time spent by the entire JVM since the simulator started, or {@link Duration#ZERO} if the JVM does
+     *         not tell. Divide by the number of daemon ticks to get the cost of one tick.
+     */
+    public Duration getProcessCpuTime() {
+        var now = getProcessCpuTimeNanos();
+        if (now < 0 || cpuTimeAtStart < 0) {
+            return Duration.ZERO;
+        }
+        return Duration.ofNanos(now - cpuTimeAtStart);
+    }
+
+    @Override
+    public String toString() {
+        var times = getTimesToInvest();
+        var meanTimeToInvest = getMeanMillis(times);
+        var purchaseTimes = getTimesToPurchase();
+        var meanTimeToPurchase = getMeanMillis(purchaseTimes);
+        return "SimulatorStatistics{" +
+                "requests=" + getRequests() +
+                ", throttled=" + getThrottledCount() +
+                ", unauthorized=" + getUnauthorizedCount() +
+                ", loansPublished=" + getLoansPublished() +
+                ", investments=" + times.size() +
+                ", meanTimeToInvestMillis=" + meanTimeToInvest +
+                ", participationsPublished=" + getParticipationsPublished() +
+                ", purchases=" + purchaseTimes.size() +
+                ", meanTimeToPurchaseMillis=" + meanTimeToPurchase +
+                ", processCpuTime=" + getProcessCpuTime() +
+                '}';
+    }
+}
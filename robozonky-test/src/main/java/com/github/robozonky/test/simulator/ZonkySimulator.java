@@ -0,0 +1,595 @@
+/*
+ * Copyright 2020 The RoboZonky Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.github.robozonky.test.simulator;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentNavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import com.github.robozonky.api.remote.enums.Rating;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+/**
+ * In-process HTTP server which pretends to be Zonky API, for load and latency testing of the entire robot. It serves
+ * the endpoints used by RoboZonky's API clients, with Zonky's paging, authentication and error responses, and on top
+ * of that can:
+ *
+ * <ul>
+ * <li>delay responses according to a {@link LatencyDistribution},</li>
+ * <li>reject a portion of requests with HTTP 429,</li>
+ * <li>expire access tokens after a given time,</li>
+ * <li>publish new loans according to a {@link LoanArrivals} script,</li>
+ * <li>offer new participations on the secondary marketplace according to another such script.</li>
+ * </ul>
+ *
+ * Point RoboZonky to the simulator by setting the {@code robozonky.zonky_api_url} property to {@link #getUrl()}.
+ * Whatever happens is recorded in {@link #getStatistics()}. Purchased participations are taken off the secondary
+ * marketplace, but do not show in the portfolio. Reservations and selling are accepted, but always empty or without
+ * effect.
+ */
+public final class ZonkySimulator implements AutoCloseable {
+
+    private static final Logger LOGGER = LogManager.getLogger(ZonkySimulator.class);
+    private static final Duration ARRIVAL_STEP = Duration.ofMillis(100);
+    private static final Pattern NUMERIC_SEGMENT = Pattern.compile("/\\d+(?=/|$)");
+    private static final Pattern NUMBER = Pattern.compile("\\d+");
+    private static final Pattern LOAN_ID = Pattern.compile("\"loanId\"\\s*:\\s*(\\d+)");
+    private static final Pattern AMOUNT = Pattern.compile("\"amount\"\\s*:\\s*(\\d+)");
+    private static final Pattern FORM_FIELD = Pattern.compile("(?:^|&)([^=&]+)=([^&]*)");
+    private static final int DEFAULT_PAGE_SIZE = 20;
+
+    private final Random random;
+    private final HttpServer server;
+    private final ExecutorService handlers;
+    private final ScheduledExecutorService arrivalScheduler;
+    private final SimulatorStatistics statistics = new SimulatorStatistics();
+    private final OffsetDateTime started = OffsetDateTime.now(ZoneOffset.UTC);
+    private final long startedNanos = System.nanoTime();
+    private final ConcurrentNavigableMap<Integer, SimulatedLoan> loans = new ConcurrentSkipListMap<>(
+            Comparator.reverseOrder()); // Newest first, as on Zonky.
+    private final Map<Long, SimulatedLoan> investments = new ConcurrentHashMap<>(0);
+    private final ConcurrentNavigableMap<Long, SimulatedParticipation> participations = new ConcurrentSkipListMap<>(
+            Comparator.reverseOrder()); // Newest first, as on Zonky.
+    private final Map<String, Instant> accessTokens = new ConcurrentHashMap<>(0);
+    private final Set<String> refreshTokens = ConcurrentHashMap.newKeySet();
+    private final AtomicInteger nextLoanId = new AtomicInteger(1);
+    private final AtomicLong nextInvestmentId = new AtomicLong(1);
+    private final AtomicLong nextParticipationId = new AtomicLong(1);
+    private final AtomicLong lastArrivalNanos = new AtomicLong();
+    private volatile LatencyDistribution latency = LatencyDistribution.none();
+    private volatile double throttlingProbability = 0;
+    private volatile Duration tokenLifetime = Duration.ofMinutes(5);
+    private volatile LoanArrivals loanArrivals = LoanArrivals.none();
+    private volatile LoanArrivals participationArrivals = LoanArrivals.none();
+
+    private ZonkySimulator(final long seed) throws IOException {
+        this.random = new Random(seed);
+        this.server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+        this.handlers = Executors.newCachedThreadPool(r -> {
+            var thread = new Thread(r, "zonky-simulator");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.arrivalScheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            var thread = new Thread(r, "zonky-simulator-arrivals");
+            thread.setDaemon(true);
+            return thread;
+        });
+        server.setExecutor(handlers);
+        server.createContext("/", this::handle);
+        server.start();
+        lastArrivalNanos.set(startedNanos);
+        arrivalScheduler.scheduleAtFixedRate(this::publishArrivals, ARRIVAL_STEP.toNanos(), ARRIVAL_STEP.toNanos(),
+                TimeUnit.NANOSECONDS);
+        LOGGER.debug("Started at {}.", getUrl());
+    }
+
+    /**
+     * @return Simulator on a random local port, with random decisions that are the same on every run.
+     */
+    public static ZonkySimulator start() {
+        return start(0);
+    }
+
+    /**
+     * @param seed Seed for the random decisions, such as latencies and throttling.
+     * @return Simulator on a random local port.
+     */
+    public static ZonkySimulator start(final long seed) {
+        try {
+            return new ZonkySimulator(seed);
+        } catch (final IOException ex) {
+            throw new UncheckedIOException("Failed starting Zonky simulator.", ex);
+        }
+    }
+
+    private static String toString(final OffsetDateTime dateTime) {
+        return DateTimeFormatter.ISO_OFFSET_DATE_TIME.format(dateTime);
+    }
+
+    private static String getEndpoint(final HttpExchange exchange) {
+        var path = NUMERIC_SEGMENT.matcher(exchange.getRequestURI()
+            .getPath())
+            .replaceAll("/{id}");
+        return exchange.getRequestMethod() + " " + path;
+    }
+
+    private static long getPathId(final HttpExchange exchange) {
+        var matcher = NUMBER.matcher(exchange.getRequestURI()
+            .getPath());
+        return matcher.find() ? Long.parseLong(matcher.group()) : -1;
+    }
+
+    private static Map<String, String> parseForm(final String encoded) {
+        if (encoded == null || encoded.isEmpty()) {
+            return Collections.emptyMap();
+        }
+        var result = new HashMap<String, String>(0);
+        var matcher = FORM_FIELD.matcher(encoded);
+        while (matcher.find()) {
+            result.put(URLDecoder.decode(matcher.group(1), StandardCharsets.UTF_8),
+                    URLDecoder.decode(matcher.group(2), StandardCharsets.UTF_8));
+        }
+        return result;
+    }
+
+    private static String readBody(final HttpExchange exchange) throws IOException {
+        try (InputStream body = exchange.getRequestBody()) {
+            return new String(body.readAllBytes(), StandardCharsets.UTF_8);
+        }
+    }
+
+    private static void respond(final HttpExchange exchange, final int status, final String json) throws IOException {
+        if (json == null) {
+            exchange.sendResponseHeaders(status, -1);
+            exchange.close();
+            return;
+        }
+        var bytes = json.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders()
+            .set("Content-Type", "application/json;charset=UTF-8");
+        exchange.sendResponseHeaders(status, bytes.length);
+        try (var body = exchange.getResponseBody()) {
+            body.write(bytes);
+        }
+    }
+
+    private static void respondError(final HttpExchange exchange, final int status, final String error)
+            throws IOException {
+        respond(exchange, status, "{\"error\":\"" + error + "\"}");
+    }
+
+    private static int getHeader(final HttpExchange exchange, final String name, final int defaultValue) {
+        var value = exchange.getRequestHeaders()
+            .getFirst(name);
+        try {
+            return value == null ? defaultValue : Integer.parseInt(value);
+        } catch (final NumberFormatException ex) {
+            return defaultValue;
+        }
+    }
+
+    /**
+     * Zonky pages by X-Page and X-Size headers, and reports the total in X-Total.
+     */
+    private static void respondPage(final HttpExchange exchange, final List<String> items) throws IOException {
+        var pageNo = Math.max(0, getHeader(exchange, "X-Page", 0));
+        var pageSize = Math.max(1, getHeader(exchange, "X-Size", DEFAULT_PAGE_SIZE));
+        var page = items.stream()
+            .skip((long) pageNo * pageSize)
+            .limit(pageSize)
+            .collect(Collectors.joining(",", "[", "]"));
+        exchange.getResponseHeaders()
+            .set("X-Total", String.valueOf(items.size()));
+        respond(exchange, 200, page);
+    }
+
+    public String getUrl() {
+        var address = server.getAddress();
+        return "http://" + address.getHostString() + ":" + address.getPort();
+    }
+
+    public SimulatorStatistics getStatistics() {
+        return statistics;
+    }
+
+    public void setLatency(final LatencyDistribution latency) {
+        this.latency = latency;
+    }
+
+    /**
+     * @param throttlingProbability Between 0 and 1, the share of requests to reject with HTTP 429. OAuth requests are
+     *                              never rejected.
+     */
+    public void setThrottlingProbability(final double throttlingProbability) {
+        this.throttlingProbability = throttlingProbability;
+    }
+
+    /**
+     * @param tokenLifetime Applies to tokens issued from now on. Requests with expired tokens get HTTP 401.
+     */
+    public void setTokenLifetime(final Duration tokenLifetime) {
+        this.tokenLifetime = tokenLifetime;
+    }
+
+    public void setLoanArrivals(final LoanArrivals loanArrivals) {
+        this.loanArrivals = loanArrivals;
+    }
+
+    /**
+     * @param participationArrivals How many participations to offer on the secondary marketplace, in place of loans.
+     */
+    public void setParticipationArrivals(final LoanArrivals participationArrivals) {
+        this.participationArrivals = participationArrivals;
+    }
+
+    /**
+     * Publish a loan on the primary marketplace immediately.
+     *
+     * @param rating Rating of the loan.
+     * @param amount Amount of the loan, all of it available for investment.
+     * @return ID of the new loan.
+     */
+    public int publishLoan(final Rating rating, final int amount) {
+        var id = nextLoanId.getAndIncrement();
+        loans.put(id, new SimulatedLoan(id, rating, amount, 12 + random.nextInt(73)));
+        statistics.loanPublished();
+        return id;
+    }
+
+    /**
+     * Offer a participation on the secondary marketplace immediately. The loan behind it is fully invested by other
+     * investors, and therefore not on the primary marketplace.
+     *
+     * @param rating             Rating of the loan.
+     * @param remainingPrincipal Price of the participation.
+     * @return ID of the new participation.
+     */
+    public long publishParticipation(final Rating rating, final int remainingPrincipal) {
+        var loanId = nextLoanId.getAndIncrement();
+        var originalInstalmentCount = 12 + random.nextInt(73);
+        var loan = new SimulatedLoan(loanId, rating, remainingPrincipal * 10, originalInstalmentCount);
+        loan.cover();
+        loans.put(loanId, loan);
+        var id = nextParticipationId.getAndIncrement();
+        participations.put(id, new SimulatedParticipation(id, nextInvestmentId.getAndIncrement(), loanId, rating,
+                remainingPrincipal, originalInstalmentCount, 1 + random.nextInt(originalInstalmentCount)));
+        statistics.participationPublished();
+        return id;
+    }
+
+    private void publishArrivals() {
+        var now = System.nanoTime();
+        var previous = lastArrivalNanos.getAndSet(now);
+        var elapsed = Duration.ofNanos(now - startedNanos);
+        var step = Duration.ofNanos(now - previous);
+        var ratings = Rating.values();
+        var arrivals = loanArrivals.getArrivals(elapsed, step);
+        for (var i = 0; i < arrivals; i++) {
+            var rating = ratings[random.nextInt(ratings.length)];
+            publishLoan(rating, (1 + random.nextInt(50)) * 10_000);
+        }
+        var participationArrivals = this.participationArrivals.getArrivals(elapsed, step);
+        for (var i = 0; i < participationArrivals; i++) {
+            var rating = ratings[random.nextInt(ratings.length)];
+            publishParticipation(rating, (1 + random.nextInt(25)) * 200);
+        }
+    }
+
+    private void handle(final HttpExchange exchange) throws IOException {
+        try {
+            var endpoint = getEndpoint(exchange);
+            statistics.request(endpoint);
+            var delay = latency.next(random);
+            if (!delay.isZero() && !delay.isNegative()) {
+                Thread.sleep(delay.toMillis(), (int) (delay.toNanos() % 1_000_000));
+            }
+            if (endpoint.startsWith("POST /oauth")) {
+                issueToken(exchange);
+            } else if (random.nextDouble() < throttlingProbability) {
+                statistics.throttled();
+                respondError(exchange, 429, "TOO_MANY_REQUESTS");
+            } else if (!isAuthorized(exchange)) {
+                statistics.unauthorized();
+                respondError(exchange, 401, "invalid_token");
+            } else {
+                route(exchange, endpoint);
+            }
+        } catch (final InterruptedException ex) {
+            Thread.currentThread()
+                .interrupt();
+            respondError(exchange, 503, "interrupted");
+        } catch (final RuntimeException ex) {
+            LOGGER.warn("Failed handling {} {}.", exchange.getRequestMethod(), exchange.getRequestURI(), ex);
+            respondError(exchange, 500, "internal_error");
+        } finally {
+            exchange.close();
+        }
+    }
+
+    private boolean isAuthorized(final HttpExchange exchange) {
+        var header = exchange.getRequestHeaders()
+            .getFirst("Authorization");
+        if (header == null || !header.startsWith("Bearer ")) {
+            return false;
+        }
+        var expiresOn = accessTokens.get(header.substring("Bearer ".length()));
+        return expiresOn != null && Instant.now()
+            .isBefore(expiresOn);
+    }
+
+    private void issueToken(final HttpExchange exchange) throws IOException {
+        var form = parseForm(readBody(exchange));
+        var refreshToken = form.get("refresh_token");
+        if (refreshToken != null && !refreshTokens.remove(refreshToken)) {
+            statistics.unauthorized();
+            respondError(exchange, 401, "invalid_grant");
+            return;
+        }
+        var lifetime = tokenLifetime;
+        var newAccessToken = UUID.randomUUID()
+            .toString();
+        var newRefreshToken = UUID.randomUUID()
+            .toString();
+        accessTokens.put(newAccessToken, Instant.now()
+            .plus(lifetime));
+        refreshTokens.add(newRefreshToken);
+        respond(exchange, 200, "{\"access_token\":\"" + newAccessToken + "\",\"refresh_token\":\"" +
+                newRefreshToken + "\",\"token_type\":\"bearer\",\"expires_in\":" + lifetime.toSeconds() +
+                ",\"scope\":\"SCOPE_APP_BASIC_INFO SCOPE_INVESTMENT_READ SCOPE_INVESTMENT_WRITE\"}");
+    }
+
+    private void route(final HttpExchange exchange, final String endpoint) throws IOException {
+        switch (endpoint) {
+            case "GET /loans/marketplace":
+                respondPage(exchange, getMarketplace(parseForm(exchange.getRequestURI()
+                    .getRawQuery())));
+                return;
+            case "GET /loans/last-published":
+                respondLastPublished(exchange);
+                return;
+            case "GET /loans/{id}":
+                respondLoan(exchange, (int) getPathId(exchange));
+                return;
+            case "GET /loans/smp-last-published":
+                respondLastPublishedParticipation(exchange);
+                return;
+            case "GET /smp/investments":
+                respondPage(exchange, getParticipations(parseForm(exchange.getRequestURI()
+                    .getRawQuery())));
+                return;
+            case "GET /loans/{id}/smpDetail":
+                respondParticipationDetail(exchange, (int) getPathId(exchange));
+                return;
+            case "POST /smp/investments/{id}/shares":
+                purchase(exchange, getPathId(exchange));
+                return;
+            case "GET /me/investments":
+                respondPage(exchange, getInvestments(parseForm(exchange.getRequestURI()
+                    .getRawQuery())));
+                return;
+            case "GET /me/investments/{id}":
+                respondInvestment(exchange, getPathId(exchange));
+                return;
+            case "POST /marketplace/investment":
+                invest(exchange);
+                return;
+            case "GET /investors/me/restrictions":
+                respond(exchange, 200, "{\"cannotInvest\":false,\"cannotAccessSmp\":false," +
+                        "\"minimumInvestmentAmount\":200,\"maximumInvestmentAmount\":5000,\"investmentStep\":200}");
+                return;
+            case "GET /users/me/consents":
+                respond(exchange, 200, "{\"smpConsent\":{\"agreedOn\":\"" + toString(started.minusDays(1)) + "\"}}");
+                return;
+            case "GET /statistics/me/public-overview":
+                respond(exchange, 200, "{\"profitability\":null,\"riskPortfolio\":[],\"timestamp\":\"" +
+                        toString(OffsetDateTime.now(ZoneOffset.UTC)) + "\"}");
+                return;
+            case "GET /reservations":
+                respond(exchange, 200, "{\"reservations\":[]}");
+                return;
+            case "GET /reservations/settings":
+                respond(exchange, 200, "{\"reservationsEnabled\":false,\"reservationPreferences\":[]}");
+                return;
+            case "POST /me/traded-investments":
+            case "DELETE /traded-investments/{id}":
+            case "PATCH /reservations":
+            case "PATCH /reservations/settings":
+                readBody(exchange);
+                respond(exchange, 204, null);
+                return;
+            default:
+                respondError(exchange, 404, "not_found");
+        }
+    }
+
+    private List<String> getMarketplace(final Map<String, String> query) {
+        var minRemaining = Integer.parseInt(query.getOrDefault("nonReservedRemainingInvestment__gt", "-1"));
+        var publishedSince = query.containsKey("datePublished__gte")
+                ? OffsetDateTime.parse(query.get("datePublished__gte"))
+                : null;
+        return loans.values()
+            .stream()
+            .filter(l -> l.getRemainingInvestment() > minRemaining)
+            .filter(l -> publishedSince == null || !l.getDatePublished()
+                .isBefore(publishedSince))
+            .map(SimulatedLoan::toJson)
+            .collect(Collectors.toList());
+    }
+
+    private void respondLastPublished(final HttpExchange exchange) throws IOException {
+        if (loans.isEmpty()) {
+            respond(exchange, 200, "{\"id\":0,\"datePublished\":\"" + toString(started) + "\"}");
+            return;
+        }
+        var newest = loans.firstEntry()
+            .getValue();
+        respond(exchange, 200, "{\"id\":" + newest.getId() + ",\"datePublished\":\"" +
+                toString(newest.getDatePublished()) + "\"}");
+    }
+
+    private void respondLoan(final HttpExchange exchange, final int id) throws IOException {
+        var loan = loans.get(id);
+        if (loan == null) {
+            respondError(exchange, 404, "not_found");
+        } else {
+            respond(exchange, 200, loan.toJson());
+        }
+    }
+
+    /**
+     * Supports the {@code id__in} filter, so that investments can be retrieved in bulk.
+     */
+    private List<String> getInvestments(final Map<String, String> query) {
+        var ids = query.containsKey("id__in") ? NUMBER.matcher(query.get("id__in"))
+            .results()
+            .map(m -> Long.parseLong(m.group()))
+            .collect(Collectors.toSet()) : null;
+        return investments.entrySet()
+            .stream()
+            .filter(e -> ids == null || ids.contains(e.getKey()))
+            .sorted(Map.Entry.comparingByKey(Comparator.reverseOrder()))
+            .map(e -> e.getValue()
+                .toInvestmentJson())
+            .collect(Collectors.toList());
+    }
+
+    private void respondInvestment(final HttpExchange exchange, final long id) throws IOException {
+        var loan = investments.get(id);
+        if (loan == null) {
+            respondError(exchange, 404, "not_found");
+        } else {
+            respond(exchange, 200, loan.toInvestmentJson());
+        }
+    }
+
+    private void invest(final HttpExchange exchange) throws IOException {
+        var body = readBody(exchange);
+        var loanId = LOAN_ID.matcher(body);
+        var amount = AMOUNT.matcher(body);
+        if (!loanId.find() || !amount.find()) {
+            respondError(exchange, 400, "invalid_request");
+            return;
+        }
+        var loan = loans.get(Integer.parseInt(loanId.group(1)));
+        if (loan == null) {
+            respondError(exchange, 404, "not_found");
+            return;
+        }
+        var investmentId = nextInvestmentId.getAndIncrement();
+        var error = loan.invest(investmentId, Integer.parseInt(amount.group(1)));
+        if (error != null) {
+            respondError(exchange, 400, error);
+            return;
+        }
+        investments.put(investmentId, loan);
+        statistics.invested(loan.getTimeSincePublished());
+        respond(exchange, 204, null);
+    }
+
+    private List<String> getParticipations(final Map<String, String> query) {
+        var minPrincipal = Integer.parseInt(query.getOrDefault("remainingPrincipal__gte", "0"));
+        var maxPrincipal = Integer.parseInt(query.getOrDefault("remainingPrincipal__lte",
+                String.valueOf(Integer.MAX_VALUE)));
+        var publishedSince = query.containsKey("datePublished__gte")
+                ? OffsetDateTime.parse(query.get("datePublished__gte"))
+                : null;
+        return participations.values()
+            .stream()
+            .filter(p -> !p.isSold())
+            .filter(p -> p.getRemainingPrincipal() >= minPrincipal && p.getRemainingPrincipal() <= maxPrincipal)
+            .filter(p -> publishedSince == null || !p.getDatePublished()
+                .isBefore(publishedSince))
+            .map(SimulatedParticipation::toJson)
+            .collect(Collectors.toList());
+    }
+
+    private void respondLastPublishedParticipation(final HttpExchange exchange) throws IOException {
+        if (participations.isEmpty()) {
+            respond(exchange, 200, "{\"id\":0,\"datePublished\":\"" + toString(started) + "\"}");
+            return;
+        }
+        var newest = participations.firstEntry()
+            .getValue();
+        respond(exchange, 200, "{\"id\":" + newest.getId() + ",\"datePublished\":\"" +
+                toString(newest.getDatePublished()) + "\"}");
+    }
+
+    private void respondParticipationDetail(final HttpExchange exchange, final int loanId) throws IOException {
+        var participation = participations.values()
+            .stream()
+            .filter(p -> p.getLoanId() == loanId)
+            .findFirst();
+        if (participation.isEmpty()) {
+            respondError(exchange, 404, "not_found");
+        } else {
+            respond(exchange, 200, participation.get()
+                .toDetailJson());
+        }
+    }
+
+    private void purchase(final HttpExchange exchange, final long id) throws IOException {
+        readBody(exchange);
+        var participation = participations.get(id);
+        if (participation == null || !participation.purchase()) { // Zonky no longer lists sold participations.
+            respondError(exchange, 404, "not_found");
+            return;
+        }
+        statistics.purchased(participation.getTimeSincePublished());
+        respond(exchange, 204, null);
+    }
+
+    @Override
+    public void close() {
+        arrivalScheduler.shutdownNow();
+        server.stop(0);
+        handlers.shutdownNow();
+        LOGGER.debug("Stopped, {}.", statistics);
+    }
+}